@@ -0,0 +1,25 @@
+package com.moviebooking.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Response caching under {@code app.gateway.cache}: how long responses are cached, by route id.
+ * Routes without an entry are not cached.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.gateway.cache")
+public class GatewayCacheProperties {
+    private Map<String, Duration> routes = new HashMap<>();
+    // Bodies of all cached responses together
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+    // Larger responses are passed through uncached
+    private DataSize maxEntrySize = DataSize.ofKilobytes(512);
+}
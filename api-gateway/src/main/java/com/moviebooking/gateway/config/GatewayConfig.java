@@ -1,47 +1,66 @@
 package com.moviebooking.gateway.config;
 
-import com.moviebooking.gateway.security.JwtTokenValidator;
+import com.moviebooking.gateway.config.GatewayLatencyProperties.RoutePolicy;
+import com.moviebooking.gateway.filter.JwtAuthenticationFilter;
+import com.moviebooking.gateway.filter.LatencyAwareRoutingFilter;
+import com.moviebooking.gateway.filter.ResponseCacheFilter;
+import com.moviebooking.gateway.latency.LatencyWeightedLoadBalancerConfig;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.route.builder.GatewayFilterSpec;
 import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
 
 @Configuration
+@LoadBalancerClients(defaultConfiguration = LatencyWeightedLoadBalancerConfig.class)
 public class GatewayConfig {
+    // Reindex, synthetic load and debug endpoints of search-service; they are not routed, only reachable internally
+    static final String SEARCH_ADMIN_PATH = "/api/v1/search/*/admin/**";
 
-    private final JwtTokenValidator jwtTokenValidator;
+    private final GatewayFilter jwtAuthFilter;
+    private final RouteLimiting routeLimiting;
+    private final ResponseCacheFilter responseCacheFilter;
+    private final GatewayCacheProperties cacheProperties;
+    private final LatencyAwareRoutingFilter latencyAwareRoutingFilter;
+    private final GatewayLatencyProperties latencyProperties;
 
-    public GatewayConfig(JwtTokenValidator jwtTokenValidator) {
-        this.jwtTokenValidator = jwtTokenValidator;
+    public GatewayConfig(JwtAuthenticationFilter jwtAuthenticationFilter, RouteLimiting routeLimiting,
+                         ResponseCacheFilter responseCacheFilter, GatewayCacheProperties cacheProperties,
+                         LatencyAwareRoutingFilter latencyAwareRoutingFilter, GatewayLatencyProperties latencyProperties) {
+        this.jwtAuthFilter = jwtAuthenticationFilter.apply(new JwtAuthenticationFilter.Config());
+        this.routeLimiting = routeLimiting;
+        this.responseCacheFilter = responseCacheFilter;
+        this.cacheProperties = cacheProperties;
+        this.latencyAwareRoutingFilter = latencyAwareRoutingFilter;
+        this.latencyProperties = latencyProperties;
     }
 
-    private GatewayFilter jwtAuthFilter() {
-        return (exchange, chain) -> {
-            String path = exchange.getRequest().getURI().getPath();
-            System.out.println("JWT Filter applied to: " + path);
-
-            String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
-            System.out.println("Authorization header: " + authHeader);
-
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                System.out.println("Missing or invalid Authorization header - returning 401");
-                exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
-                return exchange.getResponse().setComplete();
-            }
-
-            String token = authHeader.substring(7);
-            if (!jwtTokenValidator.validateToken(token)) {
-                System.out.println("Invalid JWT token - returning 401");
-                exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
-                return exchange.getResponse().setComplete();
-            }
+    // Adds the response cache to a public read-only route, if app.gateway.cache.routes has a TTL for it
+    private GatewayFilterSpec cached(String routeId, GatewayFilterSpec filters) {
+        Duration ttl = cacheProperties.getRoutes().get(routeId);
+        if (ttl == null) {
+            return filters;
+        }
+        ResponseCacheFilter.Config config = new ResponseCacheFilter.Config();
+        config.setRouteId(routeId);
+        config.setTtl(ttl);
+        return filters.filter(responseCacheFilter.apply(config));
+    }
 
-            System.out.println("JWT token validated successfully");
-            return chain.filter(exchange);
-        };
+    // Adds adaptive timeouts, and hedging where enabled, if app.gateway.latency.routes has the route
+    private GatewayFilterSpec latencyAware(String routeId, GatewayFilterSpec filters) {
+        RoutePolicy policy = latencyProperties.getRoutes().get(routeId);
+        if (policy == null) {
+            return filters;
+        }
+        LatencyAwareRoutingFilter.Config config = new LatencyAwareRoutingFilter.Config();
+        config.setRouteId(routeId);
+        config.setPolicy(policy);
+        return filters.filter(latencyAwareRoutingFilter.apply(config));
     }
 
     @Bean
@@ -50,41 +69,59 @@ public class GatewayConfig {
                 // Theatre Service Routes - Updated to use v1 API (Protected)
                 .route("theatre-service-cities", r -> r
                         .path("/api/v1/cities/**")
-                        .filters(f -> f.filter(jwtAuthFilter()))
+                        .filters(f -> f.filter(jwtAuthFilter))
                         .uri("lb://theatre-service"))
                 .route("theatre-service-theatres", r -> r
                         .path("/api/v1/theatres/**")
-                        .filters(f -> f.filter(jwtAuthFilter()))
+                        .filters(f -> f.filter(jwtAuthFilter))
                         .uri("lb://theatre-service"))
                 .route("theatre-service-screens", r -> r
                         .path("/api/v1/screens/**")
-                        .filters(f -> f.filter(jwtAuthFilter()))
+                        .filters(f -> f.filter(jwtAuthFilter))
                         .uri("lb://theatre-service"))
                 .route("theatre-service-shows", r -> r
                         .path("/api/v1/shows/**")
-                        .filters(f -> f.filter(jwtAuthFilter()))
+                        .filters(f -> latencyAware("theatre-service-shows",
+                                routeLimiting.apply("theatre-service-shows", f.filter(jwtAuthFilter))))
                         .uri("lb://theatre-service"))
                 
-                // Search Service Routes (Public - no authentication required)
+                // Search Service Routes (Public - no authentication required, cached, hedged; admin paths excluded)
                 .route("search-service-cities", r -> r
-                        .path("/api/v1/search/cities/**")
+                        .path("/api/v1/search/cities/**").and().not(p -> p.path(SEARCH_ADMIN_PATH))
+                        .filters(f -> latencyAware("search-service-cities", cached("search-service-cities", f)))
                         .uri("lb://search-service"))
                 .route("search-service-theatres", r -> r
-                        .path("/api/v1/search/theatres/**")
+                        .path("/api/v1/search/theatres/**").and().not(p -> p.path(SEARCH_ADMIN_PATH))
+                        .filters(f -> latencyAware("search-service-theatres", cached("search-service-theatres", f)))
                         .uri("lb://search-service"))
                 .route("search-service-shows", r -> r
-                        .path("/api/v1/search/shows/**")
+                        .path("/api/v1/search/shows/**").and().not(p -> p.path(SEARCH_ADMIN_PATH))
+                        .filters(f -> latencyAware("search-service-shows", cached("search-service-shows", f)))
+                        .uri("lb://search-service"))
+                .route("search-service-suggest", r -> r
+                        .path("/api/v1/search/suggest/**").and().not(p -> p.path(SEARCH_ADMIN_PATH))
+                        .filters(f -> latencyAware("search-service-suggest", cached("search-service-suggest", f)))
                         .uri("lb://search-service"))
                 
-                // Movie Service Routes (Public - no authentication required)
+                // Movie Service Routes (Public - no authentication required, cached, hedged)
                 .route("movie-service", r -> r
                         .path("/api/movies/**")
+                        .filters(f -> latencyAware("movie-service", cached("movie-service", f)))
                         .uri("lb://movie-service"))
                 
-                // Booking Service Routes (Protected)
+                // Booking Service Routes (Protected, limited per user and per show)
+                // The queue route comes first, as booking-service would also match its paths
+                .route("booking-service-queue", r -> r
+                        .path("/api/v1/bookings/shows/*/queue/**")
+                        .filters(f -> routeLimiting.apply("booking-service-queue", f.filter(jwtAuthFilter)))
+                        .uri("lb://booking-service"))
                 .route("booking-service", r -> r
-                        .path("/api/bookings/**")
-                        .filters(f -> f.filter(jwtAuthFilter()))
+                        // /api/bookings is the legacy path, rewritten to the v1 API
+                        .path("/api/v1/bookings/**", "/api/bookings/**")
+                        // The body is cached so the show id of a new booking can be read for rate limiting
+                        .filters(f -> latencyAware("booking-service", routeLimiting.apply("booking-service",
+                                f.filter(jwtAuthFilter).cacheRequestBody(String.class)
+                                        .rewritePath("^/api/bookings(?<segment>/?.*)", "/api/v1/bookings${segment}"))))
                         .uri("lb://booking-service"))
                 
                 // User Service Routes - Public endpoints
@@ -95,31 +132,31 @@ public class GatewayConfig {
                 // User Service Routes - Protected endpoints
                 .route("user-service-protected", r -> r
                         .path("/api/users/**")
-                        .filters(f -> f.filter(jwtAuthFilter()))
+                        .filters(f -> f.filter(jwtAuthFilter))
                         .uri("lb://user-service"))
                 
                 // Payment Service Routes (Protected)
                 .route("payment-service", r -> r
                         .path("/api/payments/**")
-                        .filters(f -> f.filter(jwtAuthFilter()))
+                        .filters(f -> latencyAware("payment-service", f.filter(jwtAuthFilter)))
                         .uri("lb://payment-service"))
 
                 // Ticket Service Routes (Protected)
                 .route("ticket-service", r -> r
                         .path("/api/tickets/**")
-                        .filters(f -> f.filter(jwtAuthFilter()))
+                        .filters(f -> f.filter(jwtAuthFilter))
                         .uri("lb://ticket-service"))
 
                 // Legacy Show Service Routes (Theatre Service) - Deprecated, use /api/v1/shows instead (Protected)
                 .route("show-service", r -> r
                         .path("/api/shows/**")
-                        .filters(f -> f.filter(jwtAuthFilter()))
+                        .filters(f -> f.filter(jwtAuthFilter))
                         .uri("lb://theatre-service"))
                 
                 // Notification Service Routes (Protected)
                 .route("notification-service", r -> r
                         .path("/api/v1/notifications/**")
-                        .filters(f -> f.filter(jwtAuthFilter()))
+                        .filters(f -> f.filter(jwtAuthFilter))
                         .uri("lb://notification-service"))
                 
                 // Swagger UI Routes for all services
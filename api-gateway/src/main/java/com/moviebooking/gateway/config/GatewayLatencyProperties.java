@@ -0,0 +1,41 @@
+package com.moviebooking.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Latency-aware routing under {@code app.gateway.latency}. Routes listed under {@code routes}
+ * get timeouts derived from their own recent latency, and GET routes with {@code hedge} get a
+ * second request to another instance when the first is slower than the route's p95.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.gateway.latency")
+public class GatewayLatencyProperties {
+    private Map<String, RoutePolicy> routes = new HashMap<>();
+    // Latencies kept per route for the percentiles
+    private int window = 1000;
+    // Below this many samples the route uses max-timeout and is not hedged
+    private int minSamples = 100;
+    // How fast an instance's latency estimate forgets a slow response
+    private Duration instanceDecay = Duration.ofSeconds(10);
+
+    @Data
+    public static class RoutePolicy {
+        private boolean hedge;
+        // Only GET and HEAD requests get the timeout; for routes whose writes are not idempotent, since a
+        // write the gateway gave up on may still complete and a client retry would repeat it
+        private boolean readsOnly;
+        // The timeout is timeout-multiplier times the p99, within these bounds
+        private double timeoutMultiplier = 3;
+        private Duration minTimeout = Duration.ofMillis(500);
+        private Duration maxTimeout = Duration.ofSeconds(10);
+        // Hedging sooner than this costs more upstream calls than it saves latency
+        private Duration minHedgeDelay = Duration.ofMillis(20);
+    }
+}
@@ -0,0 +1,36 @@
+package com.moviebooking.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Rate limits and admission limits by route id, under {@code app.gateway.limits}. Routes without
+ * an entry are not limited.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.gateway")
+public class GatewayLimitProperties {
+    private Map<String, RouteLimits> limits = new HashMap<>();
+
+    @Data
+    public static class RouteLimits {
+        // Token buckets in Redis, one per user and one per show
+        private TokenBucket user;
+        private TokenBucket show;
+        // Requests in flight to the downstream service; 0 disables admission control
+        private int maxConcurrent;
+        private Duration retryAfter = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class TokenBucket {
+        private int replenishRate;
+        private int burstCapacity;
+    }
+}
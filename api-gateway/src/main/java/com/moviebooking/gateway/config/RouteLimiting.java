@@ -0,0 +1,78 @@
+package com.moviebooking.gateway.config;
+
+import com.moviebooking.gateway.config.GatewayLimitProperties.RouteLimits;
+import com.moviebooking.gateway.config.GatewayLimitProperties.TokenBucket;
+import com.moviebooking.gateway.filter.AdmissionControlFilter;
+import com.moviebooking.gateway.ratelimit.MeteredRedisRateLimiter;
+import com.moviebooking.gateway.ratelimit.RateLimitKeys;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.cloud.gateway.route.builder.GatewayFilterSpec;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Adds the configured per-user and per-show rate limits and the admission limit to a route. The
+ * rate limiters run after authentication, so the user is known, and admission control runs last,
+ * so only requests that are about to go downstream hold a slot.
+ */
+@Component
+public class RouteLimiting {
+    private final GatewayLimitProperties properties;
+    private final AdmissionControlFilter admissionControlFilter;
+    // Separate limiters, since a limiter holds one set of rates per route
+    private final MeteredRedisRateLimiter userRateLimiter;
+    private final MeteredRedisRateLimiter showRateLimiter;
+
+    public RouteLimiting(GatewayLimitProperties properties,
+                         AdmissionControlFilter admissionControlFilter,
+                         ReactiveStringRedisTemplate redisTemplate,
+                         @Qualifier(RedisRateLimiter.REDIS_SCRIPT_NAME) RedisScript<List<Long>> script,
+                         ConfigurationService configurationService,
+                         MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.admissionControlFilter = admissionControlFilter;
+        this.userRateLimiter = new MeteredRedisRateLimiter("user", redisTemplate, script, configurationService, meterRegistry);
+        this.showRateLimiter = new MeteredRedisRateLimiter("show", redisTemplate, script, configurationService, meterRegistry);
+    }
+
+    public GatewayFilterSpec apply(String routeId, GatewayFilterSpec filters) {
+        RouteLimits limits = properties.getLimits().get(routeId);
+        if (limits == null) {
+            return filters;
+        }
+        if (limits.getUser() != null) {
+            rateLimit(filters, routeId, userRateLimiter, limits.getUser(), RateLimitKeys.USER, true);
+        }
+        if (limits.getShow() != null) {
+            // Requests that are not for one show, such as listing bookings, are only limited per user
+            rateLimit(filters, routeId, showRateLimiter, limits.getShow(), RateLimitKeys.SHOW, false);
+        }
+        if (limits.getMaxConcurrent() > 0) {
+            AdmissionControlFilter.Config config = new AdmissionControlFilter.Config();
+            config.setRouteId(routeId);
+            config.setMaxConcurrent(limits.getMaxConcurrent());
+            config.setRetryAfter(limits.getRetryAfter());
+            filters.filter(admissionControlFilter.apply(config));
+        }
+        return filters;
+    }
+
+    private static void rateLimit(GatewayFilterSpec filters, String routeId, RedisRateLimiter rateLimiter,
+                                  TokenBucket bucket, KeyResolver keyResolver, boolean denyEmptyKey) {
+        rateLimiter.getConfig().put(routeId, new RedisRateLimiter.Config()
+                .setReplenishRate(bucket.getReplenishRate())
+                .setBurstCapacity(bucket.getBurstCapacity())
+                .setRequestedTokens(1));
+        filters.requestRateLimiter(config -> config
+                .setRateLimiter(rateLimiter)
+                .setKeyResolver(keyResolver)
+                .setDenyEmptyKey(denyEmptyKey));
+    }
+}
@@ -0,0 +1,60 @@
+package com.moviebooking.gateway.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps the requests a route has in flight to its downstream service. Requests over the cap are
+ * answered at once with 429 and {@code Retry-After} instead of queueing in front of the service's
+ * connection pool, so the requests that are admitted keep their normal latency under overload.
+ */
+@Component
+public class AdmissionControlFilter extends AbstractGatewayFilterFactory<AdmissionControlFilter.Config> {
+    private final MeterRegistry meterRegistry;
+
+    public AdmissionControlFilter(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        AtomicInteger inFlight = new AtomicInteger();
+        Gauge.builder("gateway.admission.in_flight", inFlight, AtomicInteger::get)
+                .tag("route", config.getRouteId())
+                .register(meterRegistry);
+        Counter admitted = meterRegistry.counter("gateway.admission.requests", "route", config.getRouteId(), "result", "admitted");
+        Counter shed = meterRegistry.counter("gateway.admission.requests", "route", config.getRouteId(), "result", "shed");
+        String retryAfter = String.valueOf(Math.max(1, config.getRetryAfter().toSeconds()));
+
+        return (exchange, chain) -> {
+            if (inFlight.incrementAndGet() > config.getMaxConcurrent()) {
+                inFlight.decrementAndGet();
+                shed.increment();
+                exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfter);
+                return exchange.getResponse().setComplete();
+            }
+            admitted.increment();
+            // Released when the response is written, the request fails or the client goes away
+            return chain.filter(exchange).doFinally(signal -> inFlight.decrementAndGet());
+        };
+    }
+
+    @Data
+    public static class Config {
+        private String routeId;
+        private int maxConcurrent;
+        private Duration retryAfter = Duration.ofSeconds(1);
+    }
+}
@@ -1,42 +1,83 @@
 package com.moviebooking.gateway.filter;
 
 import com.moviebooking.gateway.security.JwtTokenValidator;
+import com.moviebooking.gateway.security.JwtTokenValidator.VerifiedToken;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
 
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rejects requests without a valid bearer token, and forwards the token's subject and roles to the
+ * downstream service as {@value #USER_HEADER} and {@value #ROLES_HEADER}, so services do not parse
+ * the token again. Any values the client sent in those headers are replaced.
+ */
 @Component
+@Slf4j
 public class JwtAuthenticationFilter extends AbstractGatewayFilterFactory<JwtAuthenticationFilter.Config> {
+    public static final String USER_HEADER = "X-User-Name";
+    public static final String ROLES_HEADER = "X-User-Roles";
+    private static final String BEARER_PREFIX = "Bearer ";
+    // Rejections can come in floods, so only one in this many is logged
+    private static final int REJECTION_LOG_SAMPLE = 100;
 
     private final JwtTokenValidator jwtTokenValidator;
+    private final Counter accepted;
+    private final Counter missingToken;
+    private final Counter invalidToken;
+    private final AtomicLong rejections = new AtomicLong();
 
-    public JwtAuthenticationFilter(JwtTokenValidator jwtTokenValidator) {
+    public JwtAuthenticationFilter(JwtTokenValidator jwtTokenValidator, MeterRegistry meterRegistry) {
         super(Config.class);
         this.jwtTokenValidator = jwtTokenValidator;
+        this.accepted = meterRegistry.counter("gateway.auth.requests", "result", "accepted");
+        this.missingToken = meterRegistry.counter("gateway.auth.requests", "result", "missing_token");
+        this.invalidToken = meterRegistry.counter("gateway.auth.requests", "result", "invalid_token");
     }
 
     @Override
     public GatewayFilter apply(Config config) {
         return (exchange, chain) -> {
             String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
-
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
-                return exchange.getResponse().setComplete();
+            if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
+                missingToken.increment();
+                return reject(exchange, "missing_token");
             }
 
-            String token = authHeader.substring(7);
-            if (!jwtTokenValidator.validateToken(token)) {
-                exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
-                return exchange.getResponse().setComplete();
+            VerifiedToken token = jwtTokenValidator.verify(authHeader.substring(BEARER_PREFIX.length()));
+            if (token == null) {
+                invalidToken.increment();
+                return reject(exchange, "invalid_token");
             }
 
-            return chain.filter(exchange);
+            accepted.increment();
+            ServerWebExchange authenticated = exchange.mutate()
+                    .request(request -> request.headers(headers -> {
+                        headers.set(USER_HEADER, token.subject());
+                        headers.set(ROLES_HEADER, token.roles());
+                    }))
+                    .build();
+            return chain.filter(authenticated);
         };
     }
 
+    private Mono<Void> reject(ServerWebExchange exchange, String reason) {
+        if (rejections.getAndIncrement() % REJECTION_LOG_SAMPLE == 0) {
+            log.info("auth_rejected reason={} method={} path={} sample_rate=1/{}", reason,
+                    exchange.getRequest().getMethod(), exchange.getRequest().getPath().value(), REJECTION_LOG_SAMPLE);
+        }
+        exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+        return exchange.getResponse().setComplete();
+    }
+
     public static class Config {
         // Configuration properties if needed
     }
@@ -0,0 +1,347 @@
+package com.moviebooking.gateway.filter;
+
+import com.moviebooking.gateway.config.GatewayLatencyProperties.RoutePolicy;
+import com.moviebooking.gateway.latency.LatencyTracker;
+import com.moviebooking.gateway.latency.LatencyWeightedLoadBalancer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebExchangeDecorator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.Connection;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ORIGINAL_REQUEST_URL_ATTR;
+
+/**
+ * Bounds the wait for a route's service by the route's own recent latency: the timeout is
+ * {@code timeout-multiplier} times its p99, within {@code min-timeout} and {@code max-timeout}, and
+ * {@code max-timeout} until the route has {@code min-samples} requests. A timed out request gets 504.
+ * On routes with {@code reads-only}, other methods than GET and HEAD are passed through untouched.
+ * <p>
+ * On routes with {@code hedge}, a GET that has no response headers after the route's p95 is sent
+ * again, to another instance, and the first good response is used; the other request is cancelled.
+ * A GET that fails or gets a 5xx before that is retried once on another instance instead. Each
+ * attempt goes through the load balancer and the rest of the chain on its own copy of the exchange,
+ * and only the winner's response reaches the client, so the body is streamed as usual. Percentiles
+ * are refreshed once a second, which bounds how long a sudden slowdown of a whole route doubles its load.
+ */
+@Component
+public class LatencyAwareRoutingFilter extends AbstractGatewayFilterFactory<LatencyAwareRoutingFilter.Config> {
+    // After the lb:// URI of the route is resolved, before an instance is chosen, so each attempt chooses its own
+    private static final int ORDER = ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER - 1;
+
+    private final LatencyTracker latencyTracker;
+    private final MeterRegistry meterRegistry;
+
+    public LatencyAwareRoutingFilter(LatencyTracker latencyTracker, MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.latencyTracker = latencyTracker;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String routeId = config.getRouteId();
+        RoutePolicy policy = config.getPolicy();
+        Gauge.builder("gateway.upstream.timeout", () -> timeout(routeId, policy).toMillis() / 1000.0)
+                .tag("route", routeId)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        if (policy.isHedge()) {
+            Gauge.builder("gateway.upstream.hedge_delay", () -> {
+                        Duration delay = hedgeDelay(routeId, policy);
+                        return delay == null ? Double.NaN : delay.toMillis() / 1000.0;
+                    })
+                    .tag("route", routeId)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+        Counter timeouts = meterRegistry.counter("gateway.upstream.timeouts", "route", routeId);
+
+        GatewayFilter filter = (exchange, chain) -> {
+            HttpMethod method = exchange.getRequest().getMethod();
+            if (policy.isReadsOnly() && method != HttpMethod.GET && method != HttpMethod.HEAD) {
+                return chain.filter(exchange);
+            }
+            Duration timeout = timeout(routeId, policy);
+            if (!policy.isHedge() || method != HttpMethod.GET) {
+                return chain.filter(exchange)
+                        .timeout(timeout)
+                        .onErrorMap(TimeoutException.class, e -> timedOut(timeouts, timeout));
+            }
+            return hedged(exchange, chain, config, timeout, timeouts);
+        };
+        return new OrderedGatewayFilter(filter, ORDER);
+    }
+
+    private Mono<Void> hedged(ServerWebExchange exchange, GatewayFilterChain chain, Config config,
+                              Duration timeout, Counter timeouts) {
+        List<Attempt> attempts = new CopyOnWriteArrayList<>();
+        AtomicReference<Attempt> used = new AtomicReference<>();
+
+        // Step 1: Send the request
+        Attempt primary = new Attempt("primary", exchange, null);
+        attempts.add(primary);
+        Sinks.Empty<Void> primaryFailed = Sinks.empty();
+        Mono<Attempt> first = run(primary, chain, timeout, timeouts)
+                .doOnNext(attempt -> {
+                    if (!attempt.succeeded()) {
+                        primaryFailed.tryEmitEmpty();
+                    }
+                });
+
+        // Step 2: Send it again to another instance at the hedge delay, or as soon as the first attempt fails
+        Duration hedgeDelay = hedgeDelay(config.getRouteId(), config.getPolicy());
+        Mono<Attempt> second = Mono.firstWithSignal(
+                        hedgeDelay == null ? Mono.<String>never() : Mono.delay(hedgeDelay).thenReturn("hedge"),
+                        primaryFailed.asMono().thenReturn("retry"))
+                .flatMap(kind -> {
+                    ServiceInstance instance = primary.instance();
+                    Attempt attempt = new Attempt(kind, exchange,
+                            instance == null ? null : LatencyWeightedLoadBalancer.instanceId(instance));
+                    attempts.add(attempt);
+                    return run(attempt, chain, timeout, timeouts);
+                });
+
+        // Step 3: Use the first good response, or the last one when both failed
+        return Flux.merge(first, second)
+                .takeUntil(Attempt::succeeded)
+                .reduce((previous, next) -> {
+                    previous.discard();
+                    return next;
+                })
+                .doOnDiscard(Attempt.class, Attempt::discard)
+                .flatMap(attempt -> {
+                    used.set(attempt);
+                    return attempt.copyTo(exchange);
+                })
+                .doFinally(signal -> attempts.forEach(attempt -> meterRegistry.counter("gateway.upstream.requests",
+                        "route", config.getRouteId(),
+                        "attempt", attempt.kind,
+                        "result", attempt == used.get() ? "used" : "discarded").increment()));
+    }
+
+    private static Mono<Attempt> run(Attempt attempt, GatewayFilterChain chain, Duration timeout, Counter timeouts) {
+        return chain.filter(attempt.exchange)
+                // Also when the timeout fires or the other attempt wins
+                .doOnCancel(attempt::discard)
+                .timeout(timeout)
+                .onErrorMap(TimeoutException.class, e -> timedOut(timeouts, timeout))
+                .then(Mono.fromSupplier(() -> attempt))
+                .onErrorResume(e -> {
+                    attempt.error = e;
+                    return Mono.just(attempt);
+                });
+    }
+
+    private static ResponseStatusException timedOut(Counter timeouts, Duration timeout) {
+        timeouts.increment();
+        return new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT,
+                "Upstream service did not respond within " + timeout.toMillis() + "ms");
+    }
+
+    Duration timeout(String routeId, RoutePolicy policy) {
+        Duration p99 = latencyTracker.percentile(routeId, 0.99);
+        if (p99 == null) {
+            return policy.getMaxTimeout();
+        }
+        long nanos = (long) (p99.toNanos() * policy.getTimeoutMultiplier());
+        return Duration.ofNanos(Math.max(policy.getMinTimeout().toNanos(), Math.min(policy.getMaxTimeout().toNanos(), nanos)));
+    }
+
+    // Null while the route has too few requests to know its p95
+    Duration hedgeDelay(String routeId, RoutePolicy policy) {
+        Duration p95 = latencyTracker.percentile(routeId, 0.95);
+        if (p95 == null) {
+            return null;
+        }
+        return p95.compareTo(policy.getMinHedgeDelay()) < 0 ? policy.getMinHedgeDelay() : p95;
+    }
+
+    /**
+     * One request to the service, with its own copy of the exchange attributes and response status
+     * and headers, so attempts do not see each other's chosen instance or response.
+     */
+    private static class Attempt {
+        private final String kind;
+        private final AttemptExchange exchange;
+        private final AtomicBoolean discarded = new AtomicBoolean();
+        private volatile Throwable error;
+
+        Attempt(String kind, ServerWebExchange exchange, String excludedInstance) {
+            this.kind = kind;
+            this.exchange = new AttemptExchange(exchange, excludedInstance);
+        }
+
+        boolean succeeded() {
+            HttpStatusCode status = exchange.getResponse().getStatusCode();
+            return error == null && (status == null || !status.is5xxServerError());
+        }
+
+        ServiceInstance instance() {
+            Response<ServiceInstance> chosen = exchange.getAttribute(GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+            return chosen != null && chosen.hasServer() ? chosen.getServer() : null;
+        }
+
+        Mono<Void> copyTo(ServerWebExchange target) {
+            if (error != null) {
+                discard();
+                return Mono.error(error);
+            }
+            // The response connection is among the attributes, so the body is written from it as usual
+            target.getAttributes().putAll(exchange.getAttributes());
+            ServerHttpResponse response = exchange.getResponse();
+            if (response.getStatusCode() != null) {
+                target.getResponse().setStatusCode(response.getStatusCode());
+            }
+            target.getResponse().getHeaders().putAll(response.getHeaders());
+            return Mono.empty();
+        }
+
+        // Closes the connection of a response that will not be used
+        void discard() {
+            if (discarded.compareAndSet(false, true)) {
+                Connection connection = exchange.getAttribute(CLIENT_RESPONSE_CONN_ATTR);
+                if (connection != null) {
+                    connection.dispose();
+                }
+            }
+        }
+    }
+
+    private static class AttemptExchange extends ServerWebExchangeDecorator {
+        private final Map<String, Object> attributes;
+        private final ServerHttpRequest request;
+        private final ServerHttpResponse response;
+
+        AttemptExchange(ServerWebExchange delegate, String excludedInstance) {
+            super(delegate);
+            this.attributes = new ConcurrentHashMap<>(delegate.getAttributes());
+            // Added to by the load balancer filter
+            Set<URI> originalUrls = delegate.getAttribute(GATEWAY_ORIGINAL_REQUEST_URL_ATTR);
+            if (originalUrls != null) {
+                attributes.put(GATEWAY_ORIGINAL_REQUEST_URL_ATTR, new LinkedHashSet<>(originalUrls));
+            }
+            this.request = new AttemptRequest(delegate.getRequest(), excludedInstance);
+            this.response = new AttemptResponse(delegate.getResponse());
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public ServerHttpRequest getRequest() {
+            return request;
+        }
+
+        @Override
+        public ServerHttpResponse getResponse() {
+            return response;
+        }
+    }
+
+    private static class AttemptRequest extends ServerHttpRequestDecorator {
+        private final HttpHeaders headers = new HttpHeaders();
+
+        AttemptRequest(ServerHttpRequest delegate, String excludedInstance) {
+            super(delegate);
+            headers.putAll(delegate.getHeaders());
+            if (excludedInstance != null) {
+                headers.set(LatencyWeightedLoadBalancer.EXCLUDED_INSTANCE_HEADER, excludedInstance);
+            }
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        // Only GETs are hedged, and the client's request body can be read only once
+        @Override
+        public Flux<DataBuffer> getBody() {
+            return Flux.empty();
+        }
+    }
+
+    private static class AttemptResponse extends ServerHttpResponseDecorator {
+        private final HttpHeaders headers = new HttpHeaders();
+        private volatile HttpStatusCode status;
+
+        AttemptResponse(ServerHttpResponse delegate) {
+            super(delegate);
+            headers.putAll(delegate.getHeaders());
+        }
+
+        @Override
+        public boolean setStatusCode(HttpStatusCode status) {
+            this.status = status;
+            return true;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return status;
+        }
+
+        @Override
+        @Deprecated
+        public boolean setRawStatusCode(Integer value) {
+            return setStatusCode(value == null ? null : HttpStatusCode.valueOf(value));
+        }
+
+        @Override
+        @Deprecated
+        public Integer getRawStatusCode() {
+            return status == null ? null : status.value();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+
+    @Data
+    public static class Config {
+        private String routeId;
+        private RoutePolicy policy = new RoutePolicy();
+    }
+}
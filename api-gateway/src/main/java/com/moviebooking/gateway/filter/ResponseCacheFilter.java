@@ -0,0 +1,236 @@
+package com.moviebooking.gateway.filter;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.moviebooking.gateway.config.GatewayCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Data;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Caches successful GET responses of public read-only routes in memory, keyed by path and query
+ * with the parameters in a fixed order. Cached responses carry an {@code ETag}, so clients can
+ * revalidate with {@code If-None-Match} and get a 304 without a body.
+ * <p>
+ * Identical requests that arrive while the first is still upstream wait for its response instead
+ * of going upstream themselves, so a miss costs one upstream call however many clients asked.
+ * Responses that are not 200, are larger than {@code max-entry-size}, set cookies or say
+ * {@code no-store} or {@code private} are not cached; requests waiting on one of them go upstream.
+ */
+@Component
+public class ResponseCacheFilter extends AbstractGatewayFilterFactory<ResponseCacheFilter.Config> {
+    // Before NettyWriteResponseFilter, so its write of the upstream body goes through the capturing response
+    private static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    private static final List<String> UNCACHED_HEADERS = List.of(HttpHeaders.TRANSFER_ENCODING,
+            HttpHeaders.CONNECTION, HttpHeaders.CONTENT_LENGTH, HttpHeaders.DATE);
+
+    private final AsyncCache<String, CachedResponse> responses;
+    private final long maxEntryBytes;
+    private final MeterRegistry meterRegistry;
+
+    public ResponseCacheFilter(GatewayCacheProperties properties, MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxSize().toBytes())
+                .<String, CachedResponse>weigher((key, response) -> key.length() + response.body().length)
+                .expireAfter(new UntilResponseExpiry())
+                .recordStats()
+                .buildAsync();
+        this.maxEntryBytes = properties.getMaxEntrySize().toBytes();
+        this.meterRegistry = meterRegistry;
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "gateway-responses");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        GatewayFilter filter = (exchange, chain) -> {
+            if (exchange.getRequest().getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+
+            String key = key(exchange.getRequest());
+            CompletableFuture<CachedResponse> upstream = new CompletableFuture<>();
+            CompletableFuture<CachedResponse> cached = responses.get(key, (k, executor) -> upstream);
+            if (cached != upstream) {
+                count(config, cached.isDone() ? "hit" : "coalesced");
+                return Mono.fromFuture(cached)
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty())
+                        .flatMap(response -> response.isPresent()
+                                ? write(exchange, response.get())
+                                : chain.filter(exchange));
+            }
+
+            count(config, "miss");
+            long expiresAtNanos = System.nanoTime() + config.getTtl().toNanos();
+            ServerWebExchange capturing = exchange.mutate()
+                    .response(new CapturingResponse(exchange, upstream, expiresAtNanos))
+                    .build();
+            // Completing with null removes the entry, e.g. when the upstream call failed or was cancelled
+            return chain.filter(capturing).doFinally(signal -> upstream.complete(null));
+        };
+        return new OrderedGatewayFilter(filter, ORDER);
+    }
+
+    private void count(Config config, String result) {
+        meterRegistry.counter("gateway.cache.requests", "route", config.getRouteId(), "result", result).increment();
+    }
+
+    static String key(ServerHttpRequest request) {
+        MultiValueMap<String, String> params = request.getQueryParams();
+        if (params.isEmpty()) {
+            return request.getPath().value();
+        }
+        StringBuilder key = new StringBuilder(request.getPath().value());
+        char separator = '?';
+        for (var param : new TreeMap<>(params).entrySet()) {
+            for (String value : param.getValue()) {
+                key.append(separator).append(param.getKey()).append('=').append(value == null ? "" : value);
+                separator = '&';
+            }
+        }
+        return key.toString();
+    }
+
+    private static Mono<Void> write(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().putAll(cached.headers());
+        if (notModified(exchange.getRequest(), cached.etag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            response.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private static boolean notModified(ServerHttpRequest request, String etag) {
+        List<String> ifNoneMatch = request.getHeaders().getIfNoneMatch();
+        return ifNoneMatch.contains(etag) || ifNoneMatch.contains("*");
+    }
+
+    /**
+     * Buffers the upstream body of the first request for a key, completes the waiting requests with
+     * it and then writes it to its own client like a cache hit.
+     */
+    private class CapturingResponse extends ServerHttpResponseDecorator {
+        private final ServerWebExchange exchange;
+        private final CompletableFuture<CachedResponse> upstream;
+        private final long expiresAtNanos;
+
+        CapturingResponse(ServerWebExchange exchange, CompletableFuture<CachedResponse> upstream, long expiresAtNanos) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+            this.upstream = upstream;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!cacheable(getDelegate())) {
+                upstream.complete(null);
+                return super.writeWith(body);
+            }
+            return DataBufferUtils.join(body)
+                    .map(joined -> {
+                        byte[] bytes = new byte[joined.readableByteCount()];
+                        joined.read(bytes);
+                        DataBufferUtils.release(joined);
+                        return bytes;
+                    })
+                    .defaultIfEmpty(new byte[0])
+                    .flatMap(bytes -> {
+                        if (bytes.length > maxEntryBytes) {
+                            // Only seen once the body is read, when upstream sent no Content-Length
+                            upstream.complete(null);
+                            return getDelegate().writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                        }
+                        CachedResponse cached = CachedResponse.of(getDelegate().getHeaders(), bytes, expiresAtNanos);
+                        upstream.complete(cached);
+                        return write(exchange, cached);
+                    });
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            // Streamed responses are never cached
+            upstream.complete(null);
+            return super.writeAndFlushWith(body);
+        }
+
+        private boolean cacheable(ServerHttpResponse response) {
+            HttpHeaders headers = response.getHeaders();
+            String cacheControl = headers.getCacheControl();
+            return HttpStatus.OK.equals(response.getStatusCode())
+                    && headers.getContentLength() <= maxEntryBytes
+                    && !headers.containsKey(HttpHeaders.SET_COOKIE)
+                    && (cacheControl == null || !(cacheControl.contains("no-store") || cacheControl.contains("private")));
+        }
+    }
+
+    record CachedResponse(HttpHeaders headers, byte[] body, String etag, long expiresAtNanos) {
+        static CachedResponse of(HttpHeaders upstreamHeaders, byte[] body, long expiresAtNanos) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.putAll(upstreamHeaders);
+            UNCACHED_HEADERS.forEach(headers::remove);
+            if (headers.getETag() == null) {
+                headers.setETag("\"" + DigestUtils.md5DigestAsHex(body) + "\"");
+            }
+            if (headers.getCacheControl() == null) {
+                // Clients may keep the body but must revalidate it, which the ETag makes cheap
+                headers.setCacheControl(CacheControl.noCache());
+            }
+            return new CachedResponse(HttpHeaders.readOnlyHttpHeaders(headers), body, headers.getETag(), expiresAtNanos);
+        }
+    }
+
+    private static class UntilResponseExpiry implements Expiry<String, CachedResponse> {
+        @Override
+        public long expireAfterCreate(String key, CachedResponse value, long currentTime) {
+            return Math.max(0, value.expiresAtNanos() - System.nanoTime());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedResponse value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedResponse value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    @Data
+    public static class Config {
+        private String routeId;
+        private Duration ttl = Duration.ofSeconds(10);
+    }
+}
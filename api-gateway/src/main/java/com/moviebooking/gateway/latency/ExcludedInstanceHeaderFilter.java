@@ -0,0 +1,25 @@
+package com.moviebooking.gateway.latency;
+
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * Keeps {@link LatencyWeightedLoadBalancer#EXCLUDED_INSTANCE_HEADER}, which is only meant for the
+ * load balancer, out of requests to services.
+ */
+@Component
+public class ExcludedInstanceHeaderFilter implements HttpHeadersFilter {
+
+    @Override
+    public HttpHeaders filter(HttpHeaders input, ServerWebExchange exchange) {
+        if (!input.containsKey(LatencyWeightedLoadBalancer.EXCLUDED_INSTANCE_HEADER)) {
+            return input;
+        }
+        HttpHeaders filtered = new HttpHeaders();
+        filtered.putAll(input);
+        filtered.remove(LatencyWeightedLoadBalancer.EXCLUDED_INSTANCE_HEADER);
+        return filtered;
+    }
+}
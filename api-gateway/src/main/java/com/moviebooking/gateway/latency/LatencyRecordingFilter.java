@@ -0,0 +1,64 @@
+package com.moviebooking.gateway.latency;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Feeds the {@link LatencyTracker} with the time from choosing an instance to its response headers.
+ * Requests cancelled first, such as the slower of a hedged pair, are recorded with the time they
+ * took until then, which is less than they would have taken. Errors and 5xx responses only count
+ * against the instance, at no less than a second, so an instance that fails fast does not look fast.
+ */
+@Component
+public class LatencyRecordingFilter implements GlobalFilter, Ordered {
+    private static final long FAILURE_PENALTY_NANOS = Duration.ofSeconds(1).toNanos();
+
+    private final LatencyTracker latencyTracker;
+
+    public LatencyRecordingFilter(LatencyTracker latencyTracker) {
+        this.latencyTracker = latencyTracker;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Response<ServiceInstance> chosen = exchange.getAttribute(GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (chosen == null || !chosen.hasServer() || route == null) {
+            return chain.filter(exchange);
+        }
+
+        ServiceInstance instance = chosen.getServer();
+        latencyTracker.instanceStarted(instance);
+        long start = System.nanoTime();
+        return chain.filter(exchange).doFinally(signal -> {
+            long nanos = System.nanoTime() - start;
+            HttpStatusCode status = exchange.getResponse().getStatusCode();
+            boolean failed = signal == SignalType.ON_ERROR || (signal == SignalType.ON_COMPLETE && status != null && status.is5xxServerError());
+            latencyTracker.instanceFinished(instance, failed ? Math.max(nanos, FAILURE_PENALTY_NANOS) : nanos);
+            if (!failed) {
+                latencyTracker.recordRoute(route.getId(), nanos);
+            }
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        // Right after the instance is chosen, so only the call to it is timed
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+    }
+}
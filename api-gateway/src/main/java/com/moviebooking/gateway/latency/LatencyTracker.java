@@ -0,0 +1,136 @@
+package com.moviebooking.gateway.latency;
+
+import com.moviebooking.gateway.config.GatewayLatencyProperties;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Recent upstream latency, by route and by service instance. For routes it keeps the last
+ * {@code window} latencies and derives percentiles from them, recomputed at most once a second.
+ * For instances it keeps a peak EWMA: a slower response raises the estimate at once, faster ones
+ * lower it gradually, and it decays while the instance gets no traffic so a slow instance is tried
+ * again later. Latencies are to the response headers, not the end of the body.
+ */
+@Component
+public class LatencyTracker {
+    private static final long SNAPSHOT_INTERVAL_NANOS = Duration.ofSeconds(1).toNanos();
+    // Cost of an instance before its first response, so new instances are tried early
+    private static final double UNKNOWN_LATENCY_NANOS = Duration.ofMillis(1).toNanos();
+
+    private final ConcurrentMap<String, RouteLatency> routes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, InstanceLatency> instances = new ConcurrentHashMap<>();
+    private final int window;
+    private final int minSamples;
+    private final double instanceDecayNanos;
+
+    public LatencyTracker(GatewayLatencyProperties properties) {
+        this.window = properties.getWindow();
+        this.minSamples = properties.getMinSamples();
+        this.instanceDecayNanos = properties.getInstanceDecay().toNanos();
+    }
+
+    public void recordRoute(String routeId, long nanos) {
+        routes.computeIfAbsent(routeId, id -> new RouteLatency(window)).record(nanos);
+    }
+
+    /**
+     * @return the latency below which {@code quantile} of the route's recent requests completed, or
+     *         null while the route has fewer than {@code min-samples} requests
+     */
+    public Duration percentile(String routeId, double quantile) {
+        RouteLatency route = routes.get(routeId);
+        if (route == null) {
+            return null;
+        }
+        long[] sorted = route.sorted();
+        if (sorted.length < minSamples) {
+            return null;
+        }
+        return Duration.ofNanos(sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)]);
+    }
+
+    public void instanceStarted(ServiceInstance instance) {
+        instance(instance).inFlight.incrementAndGet();
+    }
+
+    public void instanceFinished(ServiceInstance instance, long nanos) {
+        InstanceLatency latency = instance(instance);
+        latency.inFlight.decrementAndGet();
+        latency.record(nanos, System.nanoTime(), instanceDecayNanos);
+    }
+
+    /**
+     * The expected wait at the instance: its latency estimate times the requests it would have in flight.
+     */
+    public double cost(ServiceInstance instance) {
+        InstanceLatency latency = instances.get(LatencyWeightedLoadBalancer.instanceId(instance));
+        if (latency == null) {
+            return UNKNOWN_LATENCY_NANOS;
+        }
+        return Math.max(UNKNOWN_LATENCY_NANOS, latency.estimate(System.nanoTime(), instanceDecayNanos))
+                * (latency.inFlight.get() + 1);
+    }
+
+    private InstanceLatency instance(ServiceInstance instance) {
+        return instances.computeIfAbsent(LatencyWeightedLoadBalancer.instanceId(instance), id -> new InstanceLatency());
+    }
+
+    private static class RouteLatency {
+        private final AtomicLongArray samples;
+        private final AtomicLong count = new AtomicLong();
+        private volatile long[] snapshot = new long[0];
+        private volatile long snapshotAt = System.nanoTime() - SNAPSHOT_INTERVAL_NANOS;
+
+        RouteLatency(int window) {
+            this.samples = new AtomicLongArray(window);
+        }
+
+        void record(long nanos) {
+            samples.set((int) (count.getAndIncrement() % samples.length()), nanos);
+        }
+
+        long[] sorted() {
+            long now = System.nanoTime();
+            if (now - snapshotAt >= SNAPSHOT_INTERVAL_NANOS) {
+                // Racing threads may both sort; the result is the same
+                int size = (int) Math.min(count.get(), samples.length());
+                long[] copy = new long[size];
+                for (int i = 0; i < size; i++) {
+                    copy[i] = samples.get(i);
+                }
+                Arrays.sort(copy);
+                snapshot = copy;
+                snapshotAt = now;
+            }
+            return snapshot;
+        }
+    }
+
+    private static class InstanceLatency {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private double ewmaNanos;
+        private long updatedAt = System.nanoTime();
+
+        synchronized void record(long nanos, long now, double decayNanos) {
+            double current = estimate(now, decayNanos);
+            ewmaNanos = nanos > current ? nanos : current + (nanos - current) * (1 - weight(now, decayNanos));
+            updatedAt = now;
+        }
+
+        synchronized double estimate(long now, double decayNanos) {
+            return ewmaNanos * weight(now, decayNanos);
+        }
+
+        private double weight(long now, double decayNanos) {
+            return Math.exp(-(now - updatedAt) / decayNanos);
+        }
+    }
+}
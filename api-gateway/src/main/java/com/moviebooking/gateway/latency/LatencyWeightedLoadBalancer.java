@@ -0,0 +1,84 @@
+package com.moviebooking.gateway.latency;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.SelectedInstanceCallback;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks two instances at random and sends the request to the one with the lower
+ * {@link LatencyTracker#cost cost}, instead of round robin. Slow or busy instances get less traffic
+ * as soon as it shows in their latency, while comparing only two keeps a burst of requests from all
+ * going to the instance that happened to be fastest a moment ago.
+ * <p>
+ * A request with the {@value #EXCLUDED_INSTANCE_HEADER} header, such as a hedged request, is not
+ * sent to that instance unless it is the only one.
+ */
+public class LatencyWeightedLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+    public static final String EXCLUDED_INSTANCE_HEADER = "X-Gateway-Excluded-Instance";
+
+    private final ObjectProvider<ServiceInstanceListSupplier> suppliers;
+    private final LatencyTracker latencyTracker;
+
+    public LatencyWeightedLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> suppliers, LatencyTracker latencyTracker) {
+        this.suppliers = suppliers;
+        this.latencyTracker = latencyTracker;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = suppliers.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        String excluded = excludedInstance(request);
+        return supplier.get(request).next().map(instances -> {
+            Response<ServiceInstance> response = choose(instances, excluded);
+            if (supplier instanceof SelectedInstanceCallback callback && response.hasServer()) {
+                callback.selectedServiceInstance(response.getServer());
+            }
+            return response;
+        });
+    }
+
+    Response<ServiceInstance> choose(List<ServiceInstance> instances, String excluded) {
+        if (excluded != null && instances.size() > 1) {
+            List<ServiceInstance> others = instances.stream()
+                    .filter(instance -> !excluded.equals(instanceId(instance)))
+                    .toList();
+            instances = others.isEmpty() ? instances : others;
+        }
+        if (instances.isEmpty()) {
+            return new EmptyResponse();
+        }
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(instances.size());
+        // Any instance but the first, with equal chance
+        int second = (first + 1 + random.nextInt(instances.size() - 1)) % instances.size();
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        return new DefaultResponse(latencyTracker.cost(a) <= latencyTracker.cost(b) ? a : b);
+    }
+
+    public static String instanceId(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+
+    private static String excludedInstance(Request request) {
+        if (request.getContext() instanceof RequestDataContext context && context.getClientRequest() != null) {
+            return context.getClientRequest().getHeaders().getFirst(EXCLUDED_INSTANCE_HEADER);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,26 @@
+package com.moviebooking.gateway.latency;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Load balancer configuration for every service, registered through
+ * {@code @LoadBalancerClients(defaultConfiguration = ...)}. Deliberately not a
+ * {@code @Configuration}: it is loaded into each service's load balancer context, not the
+ * application context.
+ */
+public class LatencyWeightedLoadBalancerConfig {
+
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> latencyWeightedLoadBalancer(Environment environment,
+                                                                            LoadBalancerClientFactory clientFactory,
+                                                                            LatencyTracker latencyTracker) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new LatencyWeightedLoadBalancer(
+                clientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class), latencyTracker);
+    }
+}
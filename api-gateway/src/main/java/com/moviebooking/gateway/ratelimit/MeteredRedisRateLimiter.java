@@ -0,0 +1,49 @@
+package com.moviebooking.gateway.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpHeaders;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The gateway's Redis token bucket, counting its decisions by route as
+ * {@code gateway.rate_limit.requests} and telling limited clients when the bucket has refilled
+ * enough for another request. When Redis is unreachable requests are allowed, as in
+ * {@link RedisRateLimiter}.
+ */
+public class MeteredRedisRateLimiter extends RedisRateLimiter {
+    private final String name;
+    private final MeterRegistry meterRegistry;
+
+    public MeteredRedisRateLimiter(String name, ReactiveStringRedisTemplate redisTemplate, RedisScript<List<Long>> script,
+                                   ConfigurationService configurationService, MeterRegistry meterRegistry) {
+        super(redisTemplate, script, configurationService);
+        this.name = name;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        return super.isAllowed(routeId, id).map(response -> {
+            meterRegistry.counter("gateway.rate_limit.requests", "route", routeId, "limiter", name,
+                    "result", response.isAllowed() ? "allowed" : "limited").increment();
+            if (response.isAllowed()) {
+                return response;
+            }
+            Map<String, String> headers = new HashMap<>(response.getHeaders());
+            headers.put(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds(getConfig().get(routeId))));
+            return new Response(false, headers);
+        });
+    }
+
+    private static long retryAfterSeconds(Config config) {
+        return Math.max(1, (config.getRequestedTokens() + config.getReplenishRate() - 1) / config.getReplenishRate());
+    }
+}
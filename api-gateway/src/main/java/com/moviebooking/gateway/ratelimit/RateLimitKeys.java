@@ -0,0 +1,80 @@
+package com.moviebooking.gateway.ratelimit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moviebooking.gateway.filter.JwtAuthenticationFilter;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Token bucket keys. Keys are prefixed with the route id, since each route has its own rates and
+ * Redis keys are shared by all routes.
+ */
+public final class RateLimitKeys {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String SHOW_ID = "showId";
+
+    /**
+     * The authenticated user, as forwarded by {@link JwtAuthenticationFilter}, which must run first.
+     */
+    public static final KeyResolver USER = exchange -> Mono.justOrEmpty(
+                    exchange.getRequest().getHeaders().getFirst(JwtAuthenticationFilter.USER_HEADER))
+            .map(user -> routeId(exchange) + ":user:" + user);
+
+    /**
+     * The show a request is for: the id after {@code /shows/} in the path, the {@code showId} query
+     * parameter, or the {@code showId} of a JSON body cached by the CacheRequestBody filter. Empty
+     * when the request is not for one show.
+     */
+    public static final KeyResolver SHOW = exchange -> Mono.justOrEmpty(showId(exchange))
+            .map(showId -> routeId(exchange) + ":show:" + showId);
+
+    private RateLimitKeys() {
+    }
+
+    static String showId(ServerWebExchange exchange) {
+        List<PathContainer.Element> elements = exchange.getRequest().getPath().pathWithinApplication().elements();
+        for (int i = 0; i < elements.size() - 2; i++) {
+            if ("shows".equals(elements.get(i).value()) && isId(elements.get(i + 2).value())) {
+                return elements.get(i + 2).value();
+            }
+        }
+        String query = exchange.getRequest().getQueryParams().getFirst(SHOW_ID);
+        if (isId(query)) {
+            return query;
+        }
+        if (exchange.getAttribute(ServerWebExchangeUtils.CACHED_REQUEST_BODY_ATTR) instanceof String body) {
+            try {
+                JsonNode showId = OBJECT_MAPPER.readTree(body).path(SHOW_ID);
+                return showId.canConvertToLong() ? showId.asText() : null;
+            } catch (JsonProcessingException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isId(String value) {
+        if (value == null || value.isEmpty() || value.length() > 19) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : "";
+    }
+}
@@ -1,43 +1,134 @@
 package com.moviebooking.gateway.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
 import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
+/**
+ * Verifies bearer tokens. The signature check is done once per token: verified tokens are cached
+ * under a SHA-256 digest of the token, so the cache never holds usable credentials, until their
+ * {@code exp} or until evicted by size. Rejected tokens are not cached.
+ */
 @Component
 public class JwtTokenValidator {
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
 
-    private final SecretKey key;
+    // Parsers are immutable and thread-safe, so one is shared by all requests
+    private final JwtParser parser;
+    private final Cache<TokenDigest, VerifiedToken> verifiedTokens;
 
-    public JwtTokenValidator(@Value("${jwt.secret}") String secret) {
-        this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    public JwtTokenValidator(@Value("${jwt.secret}") String secret,
+                             @Value("${jwt.cache.max-size:100000}") long cacheSize,
+                             MeterRegistry meterRegistry) {
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new UntilTokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt-verification");
     }
 
-    public boolean validateToken(String token) {
-        try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+    /**
+     * @return the subject and roles of the token, or null if it is malformed, wrongly signed or expired
+     */
+    public VerifiedToken verify(String token) {
+        TokenDigest digest = TokenDigest.of(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return cached.expiresAtMillis() > System.currentTimeMillis() ? cached : null;
+        }
 
-            return !claims.getExpiration().before(new Date());
-        } catch (Exception e) {
-            return false;
+        Claims claims;
+        try {
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            return null;
         }
+        VerifiedToken verified = new VerifiedToken(claims.getSubject(), roles(claims), expiration.getTime());
+        verifiedTokens.put(digest, verified);
+        return verified;
+    }
+
+    public boolean validateToken(String token) {
+        return verify(token) != null;
     }
 
     public Claims getClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    // user-service writes the Spring Security authorities, which serialize as {"authority": "ROLE_USER"}
+    private static String roles(Claims claims) {
+        if (!(claims.get("roles") instanceof Collection<?> roles)) {
+            return "";
+        }
+        return roles.stream()
+                .map(role -> role instanceof Map<?, ?> authority ? authority.get("authority") : role)
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+    }
+
+    /**
+     * The claims the gateway forwards downstream. {@code roles} is comma separated.
+     */
+    public record VerifiedToken(String subject, String roles, long expiresAtMillis) {
+    }
+
+    // The first 128 bits of the SHA-256 of a token
+    private record TokenDigest(long high, long low) {
+        static TokenDigest of(String token) {
+            ByteBuffer hash = ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
+            return new TokenDigest(hash.getLong(), hash.getLong());
+        }
+    }
+
+    private static class UntilTokenExpiry implements Expiry<TokenDigest, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(TokenDigest key, VerifiedToken value, long currentTime) {
+            long remainingMillis = value.expiresAtMillis() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(TokenDigest key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(TokenDigest key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
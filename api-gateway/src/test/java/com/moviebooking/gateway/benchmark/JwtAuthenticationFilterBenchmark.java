@@ -0,0 +1,115 @@
+package com.moviebooking.gateway.benchmark;
+
+import com.moviebooking.gateway.filter.JwtAuthenticationFilter;
+import com.moviebooking.gateway.security.JwtTokenValidator;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.adapter.DefaultServerWebExchange;
+import org.springframework.web.server.i18n.AcceptHeaderLocaleContextResolver;
+import org.springframework.web.server.session.DefaultWebSessionManager;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the gateway authentication filter per request: a token seen before (served from the
+ * verification cache), a token seen for the first time (full HS512 verification), and a request
+ * without a token. Run with
+ * {@code mvn -pl api-gateway test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.moviebooking.gateway.benchmark.JwtAuthenticationFilterBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+    private static final String SECRET = "benchmark-jwt-secret-key-for-hs512-algorithm-minimum-64-characters-required";
+    private static final GatewayFilterChain CHAIN = exchange -> Mono.empty();
+    private static final DefaultWebSessionManager SESSIONS = new DefaultWebSessionManager();
+    private static final ServerCodecConfigurer CODECS = ServerCodecConfigurer.create();
+    private static final AcceptHeaderLocaleContextResolver LOCALE_RESOLVER = new AcceptHeaderLocaleContextResolver();
+
+    private GatewayFilter cachedFilter;
+    private GatewayFilter uncachedFilter;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        cachedFilter = filter(100_000);
+        // A cache of size zero verifies the signature on every request, like the filter did before
+        uncachedFilter = filter(0);
+        authorization = "Bearer " + Jwts.builder()
+                .setClaims(Map.of("roles", List.of(Map.of("authority", "ROLE_USER"))))
+                .setSubject("jane@example.com")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS512)
+                .compact();
+    }
+
+    private static GatewayFilter filter(long cacheSize) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JwtTokenValidator validator = new JwtTokenValidator(SECRET, cacheSize, meterRegistry);
+        return new JwtAuthenticationFilter(validator, meterRegistry).apply(new JwtAuthenticationFilter.Config());
+    }
+
+    // Built directly, since MockServerWebExchange creates all the codecs for every exchange
+    private ServerWebExchange exchange(String authorization) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/api/bookings/1");
+        if (authorization != null) {
+            request.header(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        return new DefaultServerWebExchange(request.build(), new MockServerHttpResponse(), SESSIONS, CODECS,
+                LOCALE_RESOLVER);
+    }
+
+    @Benchmark
+    public Void cachedToken() {
+        return cachedFilter.filter(exchange(authorization), CHAIN).block();
+    }
+
+    @Benchmark
+    public Void uncachedToken() {
+        return uncachedFilter.filter(exchange(authorization), CHAIN).block();
+    }
+
+    @Benchmark
+    public Void missingToken() {
+        return cachedFilter.filter(exchange(null), CHAIN).block();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthenticationFilterBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
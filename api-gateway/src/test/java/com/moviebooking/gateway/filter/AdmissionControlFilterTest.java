@@ -0,0 +1,75 @@
+package com.moviebooking.gateway.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControlFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private GatewayFilter filter;
+    private Sinks.Empty<Void> downstream;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        AdmissionControlFilter.Config config = new AdmissionControlFilter.Config();
+        config.setRouteId("booking-service");
+        config.setMaxConcurrent(1);
+        config.setRetryAfter(Duration.ofSeconds(2));
+        filter = new AdmissionControlFilter(meterRegistry).apply(config);
+        downstream = Sinks.empty();
+    }
+
+    private MockServerWebExchange send() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/api/bookings"));
+        filter.filter(exchange, forwarded -> downstream.asMono()).subscribe();
+        return exchange;
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("gateway.admission.requests").tag("result", result).counter().count();
+    }
+
+    @Test
+    void filter_ShouldShedWithRetryAfter_WhenRouteIsAtCapacity() {
+        // Given
+        send();
+
+        // When
+        MockServerWebExchange shed = send();
+
+        // Then
+        assertThat(shed.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(shed.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+        assertThat(requests("admitted")).isEqualTo(1);
+        assertThat(requests("shed")).isEqualTo(1);
+        assertThat(meterRegistry.get("gateway.admission.in_flight").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void filter_ShouldAdmitAgain_WhenInFlightRequestCompletes() {
+        // Given
+        send();
+        downstream.tryEmitEmpty();
+        downstream = Sinks.empty();
+
+        // When
+        MockServerWebExchange admitted = send();
+
+        // Then
+        assertThat(admitted.getResponse().getStatusCode()).isNull();
+        assertThat(requests("admitted")).isEqualTo(2);
+        assertThat(requests("shed")).isZero();
+    }
+}
@@ -0,0 +1,107 @@
+package com.moviebooking.gateway.filter;
+
+import com.moviebooking.gateway.security.JwtTokenValidator;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtAuthenticationFilterTest {
+
+    private static final String SECRET = "test-jwt-secret-key-for-hs512-algorithm-minimum-64-characters-required-for-security";
+
+    private SimpleMeterRegistry meterRegistry;
+    private GatewayFilter filter;
+    private AtomicReference<ServerWebExchange> forwarded;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        JwtTokenValidator validator = new JwtTokenValidator(SECRET, 100, meterRegistry);
+        filter = new JwtAuthenticationFilter(validator, meterRegistry).apply(new JwtAuthenticationFilter.Config());
+        forwarded = new AtomicReference<>();
+    }
+
+    private static String token(String secret, long expiresInMillis) {
+        return Jwts.builder()
+                .setClaims(Map.of("roles", List.of(Map.of("authority", "ROLE_USER"), Map.of("authority", "ROLE_ADMIN"))))
+                .setSubject("jane@example.com")
+                .setExpiration(new Date(System.currentTimeMillis() + expiresInMillis))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS512)
+                .compact();
+    }
+
+    private MockServerWebExchange send(String authorization) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/api/bookings/1")
+                .header(JwtAuthenticationFilter.USER_HEADER, "spoofed@example.com");
+        if (authorization != null) {
+            request.header(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        filter.filter(exchange, authenticated -> {
+            forwarded.set(authenticated);
+            return Mono.empty();
+        }).block();
+        return exchange;
+    }
+
+    @Test
+    void filter_ShouldForwardSubjectAndRoles_WhenTokenIsValid() {
+        // When
+        send("Bearer " + token(SECRET, 60_000));
+
+        // Then
+        HttpHeaders headers = forwarded.get().getRequest().getHeaders();
+        assertThat(headers.get(JwtAuthenticationFilter.USER_HEADER)).containsExactly("jane@example.com");
+        assertThat(headers.getFirst(JwtAuthenticationFilter.ROLES_HEADER)).isEqualTo("ROLE_USER,ROLE_ADMIN");
+        assertThat(meterRegistry.get("gateway.auth.requests").tag("result", "accepted").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void filter_ShouldVerifySignatureOncePerToken() {
+        // Given
+        String token = "Bearer " + token(SECRET, 60_000);
+
+        // When
+        send(token);
+        send(token);
+        send(token);
+
+        // Then
+        assertThat(forwarded.get()).isNotNull();
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "jwt-verification").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "jwt-verification").tag("result", "hit").functionCounter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void filter_ShouldRejectMissingExpiredAndForeignTokens() {
+        // When
+        MockServerWebExchange missing = send(null);
+        MockServerWebExchange expired = send("Bearer " + token(SECRET, -1_000));
+        MockServerWebExchange foreign = send("Bearer " + token(SECRET.replace('t', 'x'), 60_000));
+        MockServerWebExchange malformed = send("Bearer not-a-jwt");
+
+        // Then
+        assertThat(forwarded.get()).isNull();
+        assertThat(List.of(missing, expired, foreign, malformed))
+                .allSatisfy(exchange -> assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED));
+        assertThat(meterRegistry.get("gateway.auth.requests").tag("result", "invalid_token").counter().count()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,151 @@
+package com.moviebooking.gateway.filter;
+
+import com.moviebooking.gateway.config.GatewayLatencyProperties;
+import com.moviebooking.gateway.latency.LatencyTracker;
+import com.moviebooking.gateway.latency.LatencyWeightedLoadBalancer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+
+class LatencyAwareRoutingFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private GatewayFilter filter;
+    private List<ServerWebExchange> attempts;
+
+    @BeforeEach
+    void setUp() {
+        GatewayLatencyProperties properties = new GatewayLatencyProperties();
+        properties.setMinSamples(10);
+        LatencyTracker latencyTracker = new LatencyTracker(properties);
+        for (int i = 0; i < 100; i++) {
+            latencyTracker.recordRoute("movie-service", Duration.ofMillis(10).toNanos());
+        }
+        meterRegistry = new SimpleMeterRegistry();
+        GatewayLatencyProperties.RoutePolicy policy = new GatewayLatencyProperties.RoutePolicy();
+        policy.setHedge(true);
+        policy.setMinTimeout(Duration.ofMillis(200));
+        LatencyAwareRoutingFilter.Config config = new LatencyAwareRoutingFilter.Config();
+        config.setRouteId("movie-service");
+        config.setPolicy(policy);
+        filter = new LatencyAwareRoutingFilter(latencyTracker, meterRegistry).apply(config);
+        attempts = new ArrayList<>();
+    }
+
+    // Chooses an instance as the load balancer filter does, then answers as the given attempt
+    private GatewayFilterChain upstream(List<Mono<Void>> answers) {
+        return exchange -> {
+            attempts.add(exchange);
+            int attempt = attempts.size();
+            exchange.getAttributes().put(GATEWAY_LOADBALANCER_RESPONSE_ATTR, new DefaultResponse(
+                    new DefaultServiceInstance("movie-" + attempt, "movie-service", "10.0.0." + attempt, 8080, false)));
+            return answers.get(attempt - 1);
+        };
+    }
+
+    private static Mono<Void> respond(ServerWebExchange exchange, HttpStatus status) {
+        return Mono.fromRunnable(() -> exchange.getResponse().setStatusCode(status));
+    }
+
+    private double requests(String attempt, String result) {
+        return meterRegistry.get("gateway.upstream.requests").tag("attempt", attempt).tag("result", result).counter().count();
+    }
+
+    @Test
+    void filter_ShouldUseHedgedResponse_WhenPrimaryIsSlowerThanP95() {
+        // Given
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/movies/1"));
+        GatewayFilterChain chain = upstream(List.of(
+                Mono.never(),
+                Mono.defer(() -> respond(attempts.get(1), HttpStatus.OK))));
+
+        // When
+        filter.filter(exchange, chain).block(Duration.ofSeconds(5));
+
+        // Then
+        assertThat(attempts).hasSize(2);
+        assertThat(attempts.get(1).getRequest().getHeaders().getFirst(LatencyWeightedLoadBalancer.EXCLUDED_INSTANCE_HEADER))
+                .isEqualTo("10.0.0.1:8080");
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(exchange.<DefaultResponse>getAttribute(GATEWAY_LOADBALANCER_RESPONSE_ATTR).getServer().getHost())
+                .isEqualTo("10.0.0.2");
+        assertThat(requests("hedge", "used")).isEqualTo(1);
+        assertThat(requests("primary", "discarded")).isEqualTo(1);
+    }
+
+    @Test
+    void filter_ShouldRetryOnAnotherInstance_WhenPrimaryFails() {
+        // Given
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/movies/1"));
+        GatewayFilterChain chain = upstream(List.of(
+                Mono.defer(() -> respond(attempts.get(0), HttpStatus.SERVICE_UNAVAILABLE)),
+                Mono.defer(() -> respond(attempts.get(1), HttpStatus.OK))));
+
+        // When
+        filter.filter(exchange, chain).block(Duration.ofSeconds(5));
+
+        // Then
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(requests("retry", "used")).isEqualTo(1);
+        assertThat(requests("primary", "discarded")).isEqualTo(1);
+    }
+
+    @Test
+    void filter_ShouldTimeOutWithoutHedging_WhenRequestIsNotGet() {
+        // Given
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/api/movies"));
+        GatewayFilterChain chain = upstream(List.of(Mono.never()));
+
+        // When / Then
+        assertThatThrownBy(() -> filter.filter(exchange, chain).block(Duration.ofSeconds(5)))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT));
+        assertThat(attempts).hasSize(1);
+        assertThat(meterRegistry.get("gateway.upstream.timeouts").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void filter_ShouldNotTimeOutWrites_WhenRouteIsReadsOnly() {
+        // Given
+        GatewayLatencyProperties.RoutePolicy policy = new GatewayLatencyProperties.RoutePolicy();
+        policy.setReadsOnly(true);
+        policy.setMinTimeout(Duration.ofMillis(1));
+        policy.setMaxTimeout(Duration.ofMillis(1));
+        LatencyAwareRoutingFilter.Config config = new LatencyAwareRoutingFilter.Config();
+        config.setRouteId("payment-service");
+        config.setPolicy(policy);
+        GatewayFilter readsOnly = new LatencyAwareRoutingFilter(new LatencyTracker(new GatewayLatencyProperties()), meterRegistry)
+                .apply(config);
+        MockServerWebExchange post = MockServerWebExchange.from(MockServerHttpRequest.post("/api/payments"));
+        MockServerWebExchange get = MockServerWebExchange.from(MockServerHttpRequest.get("/api/payments/1"));
+        GatewayFilterChain slow = exchange -> Mono.delay(Duration.ofMillis(100))
+                .then(respond(exchange, HttpStatus.OK));
+
+        // When
+        readsOnly.filter(post, slow).block(Duration.ofSeconds(5));
+
+        // Then - the write completes; a read on the same route still times out
+        assertThat(post.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThatThrownBy(() -> readsOnly.filter(get, slow).block(Duration.ofSeconds(5)))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT));
+    }
+}
@@ -0,0 +1,135 @@
+package com.moviebooking.gateway.filter;
+
+import com.moviebooking.gateway.config.GatewayCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheFilterTest {
+
+    private static final String BODY = "{\"shows\":[],\"totalHits\":0}";
+
+    private SimpleMeterRegistry meterRegistry;
+    private GatewayFilter filter;
+    private AtomicInteger upstreamCalls;
+    private HttpStatus upstreamStatus;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ResponseCacheFilter.Config config = new ResponseCacheFilter.Config();
+        config.setRouteId("search-service-shows");
+        config.setTtl(Duration.ofMinutes(1));
+        filter = new ResponseCacheFilter(new GatewayCacheProperties(), meterRegistry).apply(config);
+        upstreamCalls = new AtomicInteger();
+        upstreamStatus = HttpStatus.OK;
+    }
+
+    // Writes the upstream response through the exchange's response, as NettyWriteResponseFilter does
+    private Mono<Void> upstream(ServerWebExchange exchange) {
+        upstreamCalls.incrementAndGet();
+        exchange.getResponse().setStatusCode(upstreamStatus);
+        exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return exchange.getResponse().writeWith(Mono.just(
+                exchange.getResponse().bufferFactory().wrap(BODY.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private MockServerWebExchange send(MockServerHttpRequest request, GatewayFilterChain chain) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        filter.filter(exchange, chain).block();
+        return exchange;
+    }
+
+    private MockServerWebExchange send(String uri) {
+        return send(MockServerHttpRequest.get(uri).build(), this::upstream);
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("gateway.cache.requests").tag("result", result).counter().count();
+    }
+
+    @Test
+    void filter_ShouldServeRepeatedRequestFromCache_WhateverTheParameterOrder() {
+        // Given
+        MockServerWebExchange first = send("/api/v1/search/shows?cityId=1&date=2024-01-15");
+
+        // When
+        MockServerWebExchange second = send("/api/v1/search/shows?date=2024-01-15&cityId=1");
+
+        // Then
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(second.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(second.getResponse().getBodyAsString().block()).isEqualTo(BODY);
+        assertThat(second.getResponse().getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(second.getResponse().getHeaders().getETag())
+                .isNotNull()
+                .isEqualTo(first.getResponse().getHeaders().getETag());
+        assertThat(requests("miss")).isEqualTo(1);
+        assertThat(requests("hit")).isEqualTo(1);
+    }
+
+    @Test
+    void filter_ShouldAnswerNotModified_WhenETagMatches() {
+        // Given
+        String etag = send("/api/movies/1").getResponse().getHeaders().getETag();
+
+        // When
+        MockServerWebExchange revalidated = send(MockServerHttpRequest.get("/api/movies/1")
+                .header(HttpHeaders.IF_NONE_MATCH, etag).build(), this::upstream);
+
+        // Then
+        assertThat(revalidated.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(revalidated.getResponse().getBodyAsString().block()).isEmpty();
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    @Test
+    void filter_ShouldCallUpstreamOnce_ForConcurrentIdenticalRequests() {
+        // Given - the first request is still waiting for upstream
+        Sinks.Empty<Void> slowUpstream = Sinks.empty();
+        MockServerWebExchange first = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/search/suggest?q=ave"));
+        filter.filter(first, exchange -> slowUpstream.asMono().then(upstream(exchange))).subscribe();
+        MockServerWebExchange waiting = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/search/suggest?q=ave"));
+        Mono<Void> waitingResponse = filter.filter(waiting, this::upstream).cache();
+        waitingResponse.subscribe();
+
+        // When
+        slowUpstream.tryEmitEmpty();
+        waitingResponse.block(Duration.ofSeconds(5));
+
+        // Then
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(waiting.getResponse().getBodyAsString().block()).isEqualTo(BODY);
+        assertThat(requests("coalesced")).isEqualTo(1);
+    }
+
+    @Test
+    void filter_ShouldNotCacheErrorResponses() {
+        // Given
+        upstreamStatus = HttpStatus.SERVICE_UNAVAILABLE;
+        send("/api/v1/search/shows?cityId=1");
+
+        // When
+        MockServerWebExchange retried = send("/api/v1/search/shows?cityId=1");
+
+        // Then
+        assertThat(upstreamCalls).hasValue(2);
+        assertThat(retried.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+}
@@ -0,0 +1,65 @@
+package com.moviebooking.gateway.latency;
+
+import com.moviebooking.gateway.config.GatewayLatencyProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.withinPercentage;
+
+class LatencyTrackerTest {
+
+    private LatencyTracker latencyTracker;
+
+    @BeforeEach
+    void setUp() {
+        GatewayLatencyProperties properties = new GatewayLatencyProperties();
+        properties.setWindow(100);
+        properties.setMinSamples(10);
+        latencyTracker = new LatencyTracker(properties);
+    }
+
+    @Test
+    void percentile_ShouldUseLatestWindow_OnceRouteHasMinSamples() {
+        // Given
+        for (int i = 1; i <= 9; i++) {
+            latencyTracker.recordRoute("search-service-shows", Duration.ofMillis(i).toNanos());
+        }
+        // Only the last hundred are in the window
+        for (int i = 1; i <= 200; i++) {
+            latencyTracker.recordRoute("movie-service", Duration.ofMillis(i).toNanos());
+        }
+
+        // When
+        Duration p95 = latencyTracker.percentile("movie-service", 0.95);
+
+        // Then
+        assertThat(p95).isEqualTo(Duration.ofMillis(195));
+        assertThat(latencyTracker.percentile("search-service-shows", 0.95)).isNull();
+        assertThat(latencyTracker.percentile("search-service-cities", 0.95)).isNull();
+    }
+
+    @Test
+    void cost_ShouldRiseAtOnceOnSlowResponse_AndWithRequestsInFlight() {
+        // Given
+        ServiceInstance instance = new DefaultServiceInstance("movie-1", "movie-service", "10.0.0.1", 8080, false);
+        latencyTracker.instanceStarted(instance);
+        latencyTracker.instanceFinished(instance, Duration.ofMillis(10).toNanos());
+        double fast = latencyTracker.cost(instance);
+
+        // When
+        latencyTracker.instanceStarted(instance);
+        latencyTracker.instanceFinished(instance, Duration.ofMillis(500).toNanos());
+        double slow = latencyTracker.cost(instance);
+        latencyTracker.instanceStarted(instance);
+        double slowAndBusy = latencyTracker.cost(instance);
+
+        // Then
+        assertThat(slow).isGreaterThan(fast * 40);
+        assertThat(slowAndBusy).isCloseTo(slow * 2, withinPercentage(1));
+    }
+}
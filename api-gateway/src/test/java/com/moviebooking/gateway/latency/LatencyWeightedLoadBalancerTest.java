@@ -0,0 +1,49 @@
+package com.moviebooking.gateway.latency;
+
+import com.moviebooking.gateway.config.GatewayLatencyProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyWeightedLoadBalancerTest {
+
+    private final ServiceInstance slow = new DefaultServiceInstance("search-1", "search-service", "10.0.0.1", 8080, false);
+    private final ServiceInstance fast = new DefaultServiceInstance("search-2", "search-service", "10.0.0.2", 8080, false);
+
+    private LatencyWeightedLoadBalancer loadBalancer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        LatencyTracker latencyTracker = new LatencyTracker(new GatewayLatencyProperties());
+        latencyTracker.instanceStarted(slow);
+        latencyTracker.instanceFinished(slow, Duration.ofMillis(400).toNanos());
+        latencyTracker.instanceStarted(fast);
+        latencyTracker.instanceFinished(fast, Duration.ofMillis(20).toNanos());
+        loadBalancer = new LatencyWeightedLoadBalancer(Mockito.mock(ObjectProvider.class), latencyTracker);
+    }
+
+    @Test
+    void choose_ShouldPreferInstanceWithLowerLatency() {
+        // When / Then
+        for (int i = 0; i < 20; i++) {
+            assertThat(loadBalancer.choose(List.of(slow, fast), null).getServer()).isEqualTo(fast);
+        }
+    }
+
+    @Test
+    void choose_ShouldSkipExcludedInstance_UnlessItIsTheOnlyOne() {
+        // When / Then
+        assertThat(loadBalancer.choose(List.of(slow, fast), "10.0.0.2:8080").getServer()).isEqualTo(slow);
+        assertThat(loadBalancer.choose(List.of(fast), "10.0.0.2:8080").getServer()).isEqualTo(fast);
+        assertThat(loadBalancer.choose(List.of(), null).hasServer()).isFalse();
+    }
+}
@@ -0,0 +1,51 @@
+package com.moviebooking.gateway.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpHeaders;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MeteredRedisRateLimiterTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void isAllowed_ShouldCountAndAddRetryAfter_WhenBucketIsEmpty() {
+        // Given
+        ReactiveStringRedisTemplate redisTemplate = mock(ReactiveStringRedisTemplate.class);
+        // The token bucket script answers [allowed, tokens left]
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList()))
+                .thenReturn(Flux.just(List.of(1L, 0L)), Flux.just(List.of(0L, 0L)));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MeteredRedisRateLimiter rateLimiter = new MeteredRedisRateLimiter("show", redisTemplate, mock(RedisScript.class),
+                mock(ConfigurationService.class), meterRegistry);
+        rateLimiter.getConfig().put("booking-service",
+                new RedisRateLimiter.Config().setReplenishRate(1).setBurstCapacity(1).setRequestedTokens(1));
+
+        // When
+        RateLimiter.Response allowed = rateLimiter.isAllowed("booking-service", "booking-service:show:101").block();
+        RateLimiter.Response limited = rateLimiter.isAllowed("booking-service", "booking-service:show:101").block();
+
+        // Then
+        assertThat(allowed.isAllowed()).isTrue();
+        assertThat(allowed.getHeaders()).doesNotContainKey(HttpHeaders.RETRY_AFTER);
+        assertThat(limited.isAllowed()).isFalse();
+        assertThat(limited.getHeaders()).containsEntry(HttpHeaders.RETRY_AFTER, "1");
+        assertThat(meterRegistry.get("gateway.rate_limit.requests").tags("limiter", "show", "result", "limited")
+                .counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("gateway.rate_limit.requests").tags("limiter", "show", "result", "allowed")
+                .counter().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,49 @@
+package com.moviebooking.gateway.ratelimit;
+
+import com.moviebooking.gateway.filter.JwtAuthenticationFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitKeysTest {
+
+    private static MockServerWebExchange exchange(MockServerHttpRequest request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR,
+                Route.async().id("booking-service").uri("lb://booking-service").predicate(e -> true).build());
+        return exchange;
+    }
+
+    @Test
+    void show_ShouldReadShowId_FromPathQueryOrCachedBody() {
+        // Given
+        MockServerWebExchange path = exchange(MockServerHttpRequest.get("/api/v1/shows/101/seats").build());
+        MockServerWebExchange query = exchange(MockServerHttpRequest.get("/api/v1/bookings/availability?showId=102").build());
+        MockServerWebExchange body = exchange(MockServerHttpRequest.post("/api/v1/bookings").build());
+        body.getAttributes().put(ServerWebExchangeUtils.CACHED_REQUEST_BODY_ATTR,
+                "{\"userId\":1,\"showId\":103,\"seatNumbers\":[\"A1\"]}");
+
+        // When / Then
+        assertThat(RateLimitKeys.SHOW.resolve(path).block()).isEqualTo("booking-service:show:101");
+        assertThat(RateLimitKeys.SHOW.resolve(query).block()).isEqualTo("booking-service:show:102");
+        assertThat(RateLimitKeys.SHOW.resolve(body).block()).isEqualTo("booking-service:show:103");
+    }
+
+    @Test
+    void resolve_ShouldBeEmpty_WhenRequestIsNotForOneShowOrUser() {
+        // Given
+        MockServerWebExchange schedule = exchange(MockServerHttpRequest.post("/api/v1/shows/schedule").build());
+        MockServerWebExchange user = exchange(MockServerHttpRequest.get("/api/v1/bookings/BK1")
+                .header(JwtAuthenticationFilter.USER_HEADER, "jane@example.com").build());
+
+        // When / Then
+        assertThat(RateLimitKeys.SHOW.resolve(schedule).block()).isNull();
+        assertThat(RateLimitKeys.SHOW.resolve(user).block()).isNull();
+        assertThat(RateLimitKeys.USER.resolve(user).block()).isEqualTo("booking-service:user:jane@example.com");
+        assertThat(RateLimitKeys.USER.resolve(schedule).block()).isNull();
+    }
+}
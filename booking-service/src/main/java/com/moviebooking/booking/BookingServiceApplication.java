@@ -7,20 +7,20 @@ import io.swagger.v3.oas.annotations.security.SecurityScheme;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
-import org.springframework.cloud.openfeign.EnableFeignClients;
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 @SpringBootApplication
 @EnableDiscoveryClient
-@EnableFeignClients
 @EnableKafka
 @EnableTransactionManagement
+@EnableScheduling
 @OpenAPIDefinition(
     info = @Info(
         title = "Booking Service API",
         version = "1.0",
-        description = "API for managing movie ticket bookings with distributed locking and event-driven architecture. Requires JWT token from User Service."
+        description = "API for managing movie ticket bookings with an event-driven booking saga. Requires JWT token from User Service."
     )
 )
 @SecurityScheme(
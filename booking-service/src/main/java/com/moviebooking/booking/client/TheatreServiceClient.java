@@ -1,15 +0,0 @@
-package com.moviebooking.booking.client;
-
-import com.moviebooking.booking.dto.SeatAvailabilityRequest;
-import com.moviebooking.booking.dto.SeatAvailabilityResponse;
-import org.springframework.cloud.openfeign.FeignClient;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
-
-@FeignClient(name = "theatre-service", path = "/api/v1")
-public interface TheatreServiceClient {
-
-    @PostMapping("/seats/availability")
-    ResponseEntity<SeatAvailabilityResponse> checkSeatAvailability(@RequestBody SeatAvailabilityRequest request);
-}
\ No newline at end of file
@@ -15,10 +15,11 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+
 @RestController
 @RequestMapping("/api/v1/bookings")
 @RequiredArgsConstructor
@@ -35,25 +36,23 @@ public class BookingController {
     @PostMapping
     @Operation(
         summary = "Create new movie ticket booking",
-        description = "Creates a new booking for movie tickets with selected seats. Validates seat availability, calculates total price, and reserves seats for the specified show. Returns booking confirmation with payment details."
+        description = "Accepts a booking for the selected seats and processes it asynchronously: the seats are held, the payment is taken and the booking is confirmed. Returns the PENDING booking; poll the Location URL for the final status."
     )
     @ApiResponses(value = {
         @ApiResponse(
-            responseCode = "201",
-            description = "Booking created successfully",
+            responseCode = "202",
+            description = "Booking accepted for processing",
             content = @Content(
                 mediaType = "application/json",
                 schema = @Schema(implementation = BookingResponse.class),
                 examples = @ExampleObject(
                     name = "Successful Booking",
-                    value = "{\"bookingId\":\"BK123456789\",\"userId\":1,\"showId\":101,\"seatNumbers\":[\"A1\",\"A2\"],\"totalAmount\":500.00,\"status\":\"CONFIRMED\",\"bookingTime\":\"2024-01-15T14:30:00Z\",\"expiryTime\":\"2024-01-15T14:45:00Z\"}"
+                    value = "{\"bookingId\":\"BK123456789\",\"userId\":1,\"showId\":101,\"seatNumbers\":[\"A1\",\"A2\"],\"status\":\"PENDING\",\"message\":\"Booking accepted, seats are being reserved\"}"
                 )
             )
         ),
         @ApiResponse(responseCode = "400", description = "Bad Request - Invalid booking data or seat validation errors"),
-        @ApiResponse(responseCode = "401", description = "Unauthorized - Authentication required"),
-        @ApiResponse(responseCode = "409", description = "Conflict - Selected seats are no longer available"),
-        @ApiResponse(responseCode = "422", description = "Unprocessable Entity - Show not available for booking")
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Authentication required")
     })
     public ResponseEntity<BookingResponse> bookTickets(
             @io.swagger.v3.oas.annotations.parameters.RequestBody(
@@ -68,18 +67,21 @@ public class BookingController {
                     )
                 )
             )
-            @Valid @RequestBody BookingRequest request) {
+            @Valid @RequestBody BookingRequest request,
+            @Parameter(hidden = true) @RequestHeader(value = WaitingRoomController.USER_HEADER, required = false) String userName) {
         log.info("Received booking request for user: {}, show: {}, seats: {}",
                 request.getUserId(), request.getShowId(), request.getSeatNumbers());
 
-        BookingResponse response = bookingService.bookTickets(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        BookingResponse response = bookingService.bookTickets(request, userName);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/bookings/" + response.getBookingId()))
+                .body(response);
     }
 
     @GetMapping("/{bookingId}")
     @Operation(
         summary = "Retrieve booking details",
-        description = "Fetches complete booking information including show details, seat information, payment status, and ticket generation status. Users can only access their own bookings unless they have admin privileges."
+        description = "Fetches complete booking information including show details, seat information and the current booking status (PENDING, SEATS_HELD, CONFIRMED, SEATS_UNAVAILABLE, PAYMENT_FAILED or EXPIRED). Users can only access their own bookings unless they have admin privileges."
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -0,0 +1,98 @@
+package com.moviebooking.booking.controller;
+
+import com.moviebooking.booking.dto.WaitingRoomStatus;
+import com.moviebooking.booking.service.WaitingRoomService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+@RestController
+@RequestMapping("/api/v1/bookings/shows/{showId}/queue")
+@RequiredArgsConstructor
+@Tag(
+    name = "Waiting Room",
+    description = "Virtual queue for high-demand shows. While a show's waiting room is open, users join the queue, poll their position and book with the queue token once admitted."
+)
+@SecurityRequirement(name = "Bearer Authentication")
+public class WaitingRoomController {
+    // Set by the gateway from the verified token; client values are overwritten
+    static final String USER_HEADER = "X-User-Name";
+    static final String ROLES_HEADER = "X-User-Roles";
+    private static final String ADMIN_ROLE = "ROLE_ADMIN";
+
+    private final WaitingRoomService waitingRoomService;
+
+    @PostMapping
+    @Operation(
+        summary = "Join the waiting room of a show",
+        description = "Returns a queue token with the user's position and estimated wait. Joining again returns the same token and place. NOT_REQUIRED means the show can be booked directly."
+    )
+    public ResponseEntity<WaitingRoomStatus> join(
+            @Parameter(description = "Show ID", example = "101") @PathVariable Long showId,
+            @Parameter(hidden = true) @RequestHeader(USER_HEADER) String userName) {
+        return ResponseEntity.ok(waitingRoomService.join(showId, userName));
+    }
+
+    @GetMapping("/{queueToken}")
+    @Operation(
+        summary = "Get position in the waiting room",
+        description = "Poll after pollAfterSeconds while WAITING. Once ADMITTED, pass the token as queueToken when booking, before admittedUntil."
+    )
+    public ResponseEntity<WaitingRoomStatus> getStatus(
+            @Parameter(description = "Show ID", example = "101") @PathVariable Long showId,
+            @Parameter(description = "Queue token returned when joining") @PathVariable String queueToken) {
+        return ResponseEntity.ok(waitingRoomService.getStatus(showId, queueToken));
+    }
+
+    @PutMapping
+    @Operation(
+        summary = "Open the waiting room of a show",
+        description = "From now on, bookings for the show need an admitted queue token. The room closes by itself after the given duration. Admins only."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Waiting room opened"),
+        @ApiResponse(responseCode = "403", description = "Forbidden - Admin role required")
+    })
+    public ResponseEntity<Void> open(
+            @Parameter(description = "Show ID", example = "101") @PathVariable Long showId,
+            @Parameter(description = "Minutes to keep the room open", example = "120")
+            @RequestParam(defaultValue = "120") long durationMinutes,
+            @Parameter(hidden = true) @RequestHeader(value = ROLES_HEADER, required = false) String roles) {
+        if (!isAdmin(roles)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        waitingRoomService.open(showId, Duration.ofMinutes(durationMinutes));
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping
+    @Operation(summary = "Close the waiting room of a show", description = "The show can be booked directly again. Admins only.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Waiting room closed"),
+        @ApiResponse(responseCode = "403", description = "Forbidden - Admin role required")
+    })
+    public ResponseEntity<Void> close(
+            @Parameter(description = "Show ID", example = "101") @PathVariable Long showId,
+            @Parameter(hidden = true) @RequestHeader(value = ROLES_HEADER, required = false) String roles) {
+        if (!isAdmin(roles)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        waitingRoomService.close(showId);
+        return ResponseEntity.noContent().build();
+    }
+
+    // The gateway forwards the token's authorities comma separated
+    private static boolean isAdmin(String roles) {
+        return roles != null && Arrays.stream(roles.split(",")).map(String::trim).anyMatch(ADMIN_ROLE::equals);
+    }
+}
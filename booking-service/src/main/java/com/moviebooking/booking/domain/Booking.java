@@ -31,10 +31,9 @@ public class Booking {
     @Column(nullable = false)
     private Long showId;
     
-    @Column(nullable = false)
+    // Show details and amount are filled in once theatre-service has held the seats
     private Long theatreId;
     
-    @Column(nullable = false)
     private Long movieId;
     
     @ElementCollection
@@ -42,7 +41,7 @@ public class Booking {
     @Column(name = "seat_number")
     private List<String> seatNumbers;
     
-    @Column(nullable = false, precision = 10, scale = 2)
+    @Column(precision = 10, scale = 2)
     private BigDecimal totalAmount;
     
     @Enumerated(EnumType.STRING)
@@ -51,9 +50,12 @@ public class Booking {
     
     private String paymentId;
     
-    @Column(nullable = false)
     private LocalDateTime showDateTime;
     
+    private LocalDateTime holdExpiresAt;
+    
+    private String failureReason;
+    
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
@@ -2,6 +2,8 @@ package com.moviebooking.booking.domain;
 
 public enum BookingStatus {
     PENDING,
+    SEATS_HELD,
+    SEATS_UNAVAILABLE,
     CONFIRMED,
     CANCELLED,
     PAYMENT_FAILED,
@@ -17,4 +17,7 @@ public class BookingRequest {
     
     @NotEmpty(message = "At least one seat must be selected")
     private List<String> seatNumbers;
+
+    // Required for shows with an open waiting room, see WaitingRoomService
+    private String queueToken;
 }
\ No newline at end of file
@@ -1,17 +0,0 @@
-package com.moviebooking.booking.dto;
-
-import lombok.AllArgsConstructor;
-import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-
-import java.util.List;
-
-@Data
-@Builder
-@NoArgsConstructor
-@AllArgsConstructor
-public class SeatAvailabilityRequest {
-    private Long showId;
-    private List<String> seatNumbers;
-}
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.moviebooking.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitingRoomStatus {
+
+    public enum State {
+        // The show has no open waiting room; book directly
+        NOT_REQUIRED,
+        WAITING,
+        // The queue token can be used to book until admittedUntil
+        ADMITTED,
+        // The token is unknown or its admission has run out; join again
+        EXPIRED
+    }
+
+    private Long showId;
+    private String queueToken;
+    private State state;
+    private Long position;
+    private Long estimatedWaitSeconds;
+    private Instant admittedUntil;
+    private Long pollAfterSeconds;
+}
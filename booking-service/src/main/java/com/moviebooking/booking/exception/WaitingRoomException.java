@@ -0,0 +1,16 @@
+package com.moviebooking.booking.exception;
+
+import lombok.Getter;
+
+/**
+ * A booking for a show with an open waiting room, made without a queue token that has been admitted.
+ */
+@Getter
+public class WaitingRoomException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public WaitingRoomException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
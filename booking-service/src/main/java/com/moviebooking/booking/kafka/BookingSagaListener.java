@@ -0,0 +1,54 @@
+package com.moviebooking.booking.kafka;
+
+import com.moviebooking.booking.service.BookingService;
+import com.moviebooking.common.events.booking.PaymentResultEvent;
+import com.moviebooking.common.events.booking.SeatConfirmationFailedEvent;
+import com.moviebooking.common.events.booking.SeatHoldResultEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookingSagaListener {
+
+    private final BookingService bookingService;
+
+    @KafkaListener(topics = "${kafka.topics.seat-hold-results:seat-hold-results}", groupId = "${spring.kafka.consumer.group-id}",
+            properties = "spring.json.value.default.type=com.moviebooking.common.events.booking.SeatHoldResultEvent")
+    public void handleSeatHoldResult(SeatHoldResultEvent event) {
+        if (event == null) {
+            log.warn("Received null seat hold result, ignoring");
+            return;
+        }
+
+        log.info("Received seat hold result for booking: {}, held: {}", event.getBookingId(), event.isHeld());
+        bookingService.handleSeatHoldResult(event);
+    }
+
+    @KafkaListener(topics = "${kafka.topics.payment-results:payment-results}", groupId = "${spring.kafka.consumer.group-id}",
+            properties = "spring.json.value.default.type=com.moviebooking.common.events.booking.PaymentResultEvent")
+    public void handlePaymentResult(PaymentResultEvent event) {
+        if (event == null) {
+            log.warn("Received null payment result, ignoring");
+            return;
+        }
+
+        log.info("Received payment result for booking: {} with status: {}", event.getBookingId(), event.getStatus());
+        bookingService.handlePaymentResult(event);
+    }
+
+    @KafkaListener(topics = "${kafka.topics.seat-confirmation-failed:seat-confirmation-failed}", groupId = "${spring.kafka.consumer.group-id}",
+            properties = "spring.json.value.default.type=com.moviebooking.common.events.booking.SeatConfirmationFailedEvent")
+    public void handleSeatConfirmationFailed(SeatConfirmationFailedEvent event) {
+        if (event == null) {
+            log.warn("Received null seat confirmation failure, ignoring");
+            return;
+        }
+
+        log.info("Received seat confirmation failure for booking: {}: {}", event.getBookingId(), event.getReason());
+        bookingService.handleSeatConfirmationFailed(event);
+    }
+}
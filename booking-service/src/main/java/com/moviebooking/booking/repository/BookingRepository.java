@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,5 +23,7 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     @Query("SELECT b FROM Booking b WHERE b.showId = :showId AND b.status IN :statuses")
     List<Booking> findByShowIdAndStatusIn(@Param("showId") Long showId, @Param("statuses") List<BookingStatus> statuses);
     
+    List<Booking> findTop500ByStatusInAndUpdatedAtBeforeOrderByUpdatedAtAsc(List<BookingStatus> statuses, LocalDateTime cutoff);
+    
     boolean existsByShowIdAndSeatNumbersContainingAndStatusIn(Long showId, String seatNumber, List<BookingStatus> statuses);
 }
\ No newline at end of file
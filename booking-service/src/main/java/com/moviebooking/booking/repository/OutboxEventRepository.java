@@ -0,0 +1,52 @@
+package com.moviebooking.booking.repository;
+
+import com.moviebooking.booking.domain.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Claims the oldest pending events. Rows locked by another relay are skipped, so several
+     * booking-service instances can relay concurrently without publishing an event twice.
+     */
+    @Query(value = "SELECT * FROM outbox_events WHERE status = 'PENDING' ORDER BY id LIMIT :batchSize FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<OutboxEvent> claimPendingEvents(@Param("batchSize") int batchSize);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = 'PROCESSED', e.processedAt = :processedAt WHERE e.id IN :ids")
+    int markProcessed(@Param("ids") List<Long> ids, @Param("processedAt") LocalDateTime processedAt);
+
+    /**
+     * Puts the events back in the queue, or marks them FAILED once they have used up {@code maxRetries}.
+     * A FAILED event is requeued after a backoff that doubles with every further failure, up to
+     * {@code maxBackoffSeconds}.
+     */
+    @Modifying
+    @Query(value = "UPDATE outbox_events SET retry_count = retry_count + 1, " +
+                   "status = CASE WHEN retry_count + 1 >= :maxRetries THEN 'FAILED' ELSE 'PENDING' END, " +
+                   "next_attempt_at = CASE WHEN retry_count + 1 >= :maxRetries THEN CAST(:now AS timestamp) + make_interval(" +
+                   "secs => LEAST(:maxBackoffSeconds, :backoffSeconds * POWER(2, LEAST(retry_count + 1 - :maxRetries, 20)))) END " +
+                   "WHERE id IN (:ids)",
+           nativeQuery = true)
+    int recordFailedAttempt(@Param("ids") List<Long> ids, @Param("maxRetries") int maxRetries, @Param("now") LocalDateTime now,
+                            @Param("backoffSeconds") long backoffSeconds, @Param("maxBackoffSeconds") long maxBackoffSeconds);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = 'PENDING' WHERE e.status = 'FAILED' AND e.nextAttemptAt <= :now")
+    int requeueFailedEvents(@Param("now") LocalDateTime now);
+
+    long countByStatus(OutboxEvent.EventStatus status);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.status = 'PROCESSED' AND e.processedAt < :cutoffTime")
+    int deleteProcessedBefore(@Param("cutoffTime") LocalDateTime cutoffTime);
+}
@@ -0,0 +1,33 @@
+package com.moviebooking.booking.scheduler;
+
+import com.moviebooking.booking.service.BookingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookingExpiryScheduler {
+
+    private final BookingService bookingService;
+
+    @Value("${booking.saga.timeout-seconds:900}")
+    private long timeoutSeconds;
+
+    @Scheduled(fixedDelayString = "${booking.saga.expiry-interval-ms:60000}")
+    public void expireStaleBookings() {
+        try {
+            int expired = bookingService.expireStaleBookings(LocalDateTime.now().minusSeconds(timeoutSeconds));
+            if (expired > 0) {
+                log.info("Expired {} bookings whose saga did not complete in time", expired);
+            }
+        } catch (Exception e) {
+            log.error("Error expiring stale bookings", e);
+        }
+    }
+}
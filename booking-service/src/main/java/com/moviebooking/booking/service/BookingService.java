@@ -1,196 +1,264 @@
 package com.moviebooking.booking.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.moviebooking.booking.client.PaymentServiceClient;
-import com.moviebooking.booking.client.TheatreServiceClient;
 import com.moviebooking.booking.domain.Booking;
 import com.moviebooking.booking.domain.BookingStatus;
 import com.moviebooking.booking.dto.*;
 import com.moviebooking.common.events.booking.BookingConfirmedEvent;
+import com.moviebooking.common.events.booking.BookingFailedEvent;
+import com.moviebooking.common.events.booking.PaymentRefundRequestedEvent;
+import com.moviebooking.common.events.booking.PaymentRequestedEvent;
+import com.moviebooking.common.events.booking.PaymentResultEvent;
+import com.moviebooking.common.events.booking.SeatConfirmationFailedEvent;
+import com.moviebooking.common.events.booking.SeatHoldRequestedEvent;
+import com.moviebooking.common.events.booking.SeatHoldResultEvent;
 import com.moviebooking.booking.exception.BookingException;
 import com.moviebooking.booking.repository.BookingRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.redisson.api.RLock;
-import org.redisson.api.RedissonClient;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
 
+/**
+ * Orchestrates the booking saga. Every step is a short local transaction on the {@code bookings} row,
+ * which holds the saga state, and hands over to the next participant through Kafka:
+ * <pre>
+ * PENDING --seat-hold-requested--> theatre-service --seat-hold-results--> SEATS_HELD | SEATS_UNAVAILABLE
+ * SEATS_HELD --payment-requested--> payment-service --payment-results--> CONFIRMED | PAYMENT_FAILED | EXPIRED
+ * CONFIRMED --booking-confirmed--> theatre-service --seat-confirmation-failed--> EXPIRED
+ * </pre>
+ * Replies for a booking that has already left the expected state are ignored, so redelivered events are harmless.
+ * A booking that ends without seats after payment was requested also requests a refund keyed on its booking id.
+ * Outgoing events are written to the outbox in the same transaction as the state change.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class BookingService {
 
     private final BookingRepository bookingRepository;
-    private final TheatreServiceClient theatreServiceClient;
-    private final PaymentServiceClient paymentServiceClient;
-    private final RedissonClient redissonClient;
-    private final KafkaTemplate<String, Object> kafkaTemplate;
-    private final ObjectMapper objectMapper;
+    private final OutboxEventService outboxEventService;
+    private final WaitingRoomService waitingRoomService;
 
-    private static final int LOCK_WAIT_TIME = 10; // seconds
-    private static final int LOCK_LEASE_TIME = 300; // 5 minutes
+    @Value("${kafka.topics.seat-hold-requested:seat-hold-requested}")
+    private String seatHoldRequestedTopic;
 
+    @Value("${kafka.topics.payment-requested:payment-requested}")
+    private String paymentRequestedTopic;
+
+    @Value("${kafka.topics.booking-confirmed:booking-confirmed}")
+    private String bookingConfirmedTopic;
+
+    @Value("${kafka.topics.booking-failed:booking-failed}")
+    private String bookingFailedTopic;
+
+    @Value("${kafka.topics.payment-refund-requested:payment-refund-requested}")
+    private String paymentRefundRequestedTopic;
+
+    /**
+     * Starts the saga: persists a PENDING booking and asks theatre-service to hold the seats.
+     * The caller polls {@link #getBookingByBookingId} for the outcome.
+     *
+     * @param userName the authenticated user, as forwarded by the gateway; identifies the waiting room admission
+     */
     @Transactional
-    public BookingResponse bookTickets(BookingRequest request) {
+    public BookingResponse bookTickets(BookingRequest request, String userName) {
+        // Shows on sale through a waiting room only take one booking per admitted user
+        waitingRoomService.consumeAdmission(request.getShowId(), userName, request.getQueueToken());
+
         String bookingId = generateBookingId();
-        String lockKey = generateLockKey(request.getShowId(), request.getSeatNumbers());
-        
-        RLock lock = redissonClient.getLock(lockKey);
-        
-        try {
-            // Try to acquire lock with 10 seconds wait time and 5 minutes lease time
-            boolean lockAcquired = lock.tryLock(LOCK_WAIT_TIME, LOCK_LEASE_TIME, TimeUnit.SECONDS);
-            
-            if (!lockAcquired) {
-                log.warn("Failed to acquire lock for booking: {}", lockKey);
-                throw new BookingException("Unable to process booking at this moment. Please try again.");
-            }
 
-            log.info("Lock acquired for booking: {} with key: {}", bookingId, lockKey);
-
-            try {
-                // Step 1: Check seat availability
-                SeatAvailabilityResponse availability = checkSeatAvailability(request);
-                
-                if (!availability.isAvailable()) {
-                    throw new BookingException("Requested seats are not available: " + availability.getUnavailableSeats());
-                }
-
-                // Step 2: Create pending booking
-                Booking booking = createPendingBooking(request, bookingId, availability);
-                booking = bookingRepository.save(booking);
-
-                // Step 3: Process payment
-                PaymentResponse paymentResponse = processPayment(booking);
-                
-                if (!"SUCCESS".equals(paymentResponse.getStatus())) {
-                    // Update booking status to payment failed
-                    booking.setStatus(BookingStatus.PAYMENT_FAILED);
-                    bookingRepository.save(booking);
-                    
-                    throw new BookingException("Payment failed: " + paymentResponse.getMessage());
-                }
-
-                // Step 4: Confirm booking and publish event
-                booking.setStatus(BookingStatus.CONFIRMED);
-                booking.setPaymentId(paymentResponse.getPaymentId());
-                booking = bookingRepository.save(booking);
-
-                // Step 5: Publish booking confirmed event
-                publishBookingConfirmedEvent(booking);
-
-                log.info("Booking successfully created: {}", booking.getBookingId());
-                
-                return mapToBookingResponse(booking, "Booking confirmed successfully");
-
-            } finally {
-                // Always release the lock
-                if (lock.isHeldByCurrentThread()) {
-                    lock.unlock();
-                    log.info("Lock released for booking: {}", lockKey);
-                }
-            }
+        // Step 1: Persist the pending booking
+        Booking booking = bookingRepository.save(Booking.builder()
+                .bookingId(bookingId)
+                .userId(request.getUserId())
+                .showId(request.getShowId())
+                .seatNumbers(request.getSeatNumbers())
+                .status(BookingStatus.PENDING)
+                .build());
 
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new BookingException("Booking process interrupted");
-        } catch (Exception e) {
-            log.error("Error during booking process for request: {}", request, e);
-            if (e instanceof BookingException) {
-                throw e;
-            }
-            throw new BookingException("An error occurred while processing your booking: " + e.getMessage());
+        // Step 2: Request the seat hold; the outbox relays it once the booking row is committed
+        outboxEventService.saveEvent(seatHoldRequestedTopic, bookingId, SeatHoldRequestedEvent.builder()
+                .bookingId(bookingId)
+                .userId(request.getUserId())
+                .showId(request.getShowId())
+                .seatNumbers(request.getSeatNumbers())
+                .build());
+
+        log.info("Booking accepted: {} for show: {} with seats: {}", bookingId, request.getShowId(), request.getSeatNumbers());
+        return mapToBookingResponse(booking, "Booking accepted, seats are being reserved");
+    }
+
+    @Transactional
+    public void handleSeatHoldResult(SeatHoldResultEvent event) {
+        Booking booking = findBookingInStatus(event.getBookingId(), BookingStatus.PENDING);
+        if (booking == null) {
+            return;
+        }
+
+        if (!event.isHeld()) {
+            booking.setStatus(BookingStatus.SEATS_UNAVAILABLE);
+            booking.setFailureReason("Requested seats are not available: " + event.getUnavailableSeats());
+            bookingRepository.save(booking);
+            log.info("Seats not available for booking: {}", booking.getBookingId());
+            return;
         }
+
+        // Step 3: Seats are held, price the booking and request payment
+        booking.setTheatreId(event.getTheatreId());
+        booking.setMovieId(event.getMovieId());
+        booking.setShowDateTime(event.getShowDateTime());
+        booking.setTotalAmount(event.getTotalPrice());
+        booking.setHoldExpiresAt(event.getLockedUntil());
+        booking.setStatus(BookingStatus.SEATS_HELD);
+        bookingRepository.save(booking);
+
+        outboxEventService.saveEvent(paymentRequestedTopic, booking.getBookingId(), PaymentRequestedEvent.builder()
+                .bookingId(booking.getBookingId())
+                .userId(booking.getUserId())
+                .amount(booking.getTotalAmount())
+                .description("Movie ticket booking for " + booking.getSeatNumbers().size() + " seats")
+                .build());
+
+        log.info("Seats held for booking: {} until {}, payment requested", booking.getBookingId(), event.getLockedUntil());
     }
 
-    private SeatAvailabilityResponse checkSeatAvailability(BookingRequest request) {
-        try {
-            SeatAvailabilityRequest availabilityRequest = SeatAvailabilityRequest.builder()
-                    .showId(request.getShowId())
-                    .seatNumbers(request.getSeatNumbers())
-                    .build();
-
-            var response = theatreServiceClient.checkSeatAvailability(availabilityRequest);
-            return response.getBody();
-        } catch (Exception e) {
-            log.error("Error checking seat availability for show: {}", request.getShowId(), e);
-            throw new BookingException("Unable to verify seat availability. Please try again.");
+    @Transactional
+    public void handlePaymentResult(PaymentResultEvent event) {
+        Booking booking = findBookingInStatus(event.getBookingId(), BookingStatus.SEATS_HELD);
+        if (booking == null) {
+            return;
         }
+
+        if (!"SUCCESS".equals(event.getStatus())) {
+            failBooking(booking, BookingStatus.PAYMENT_FAILED, "Payment failed: " + event.getMessage());
+            return;
+        }
+
+        booking.setPaymentId(event.getPaymentId());
+        if (booking.getHoldExpiresAt() != null && LocalDateTime.now().isAfter(booking.getHoldExpiresAt())) {
+            // The seats may already belong to someone else; the payment has to be refunded
+            failBooking(booking, BookingStatus.EXPIRED, "Seat hold expired before payment completed");
+            requestRefund(booking);
+            return;
+        }
+
+        // Step 4: Confirm booking; theatre-service books the held seats from this event
+        booking.setStatus(BookingStatus.CONFIRMED);
+        booking = bookingRepository.save(booking);
+        publishBookingConfirmedEvent(booking);
+
+        log.info("Booking successfully confirmed: {}", booking.getBookingId());
     }
 
-    private PaymentResponse processPayment(Booking booking) {
-        try {
-            PaymentRequest paymentRequest = PaymentRequest.builder()
-                    .bookingId(booking.getBookingId())
-                    .userId(booking.getUserId())
-                    .amount(booking.getTotalAmount())
-                    .description("Movie ticket booking for " + booking.getSeatNumbers().size() + " seats")
-                    .build();
-
-            var response = paymentServiceClient.processPayment(paymentRequest);
-            return response.getBody();
-        } catch (Exception e) {
-            log.error("Error processing payment for booking: {}", booking.getBookingId(), e);
-            throw new BookingException("Payment processing failed. Please try again.");
+    /**
+     * Compensates a confirmed booking whose hold expired before theatre-service could book the seats.
+     */
+    @Transactional
+    public void handleSeatConfirmationFailed(SeatConfirmationFailedEvent event) {
+        Booking booking = findBookingInStatus(event.getBookingId(), BookingStatus.CONFIRMED);
+        if (booking == null) {
+            return;
         }
+
+        failBooking(booking, BookingStatus.EXPIRED, "Seats could not be booked: " + event.getReason());
+        requestRefund(booking);
     }
 
-    private void publishBookingConfirmedEvent(Booking booking) {
-        try {
-            BookingConfirmedEvent event = BookingConfirmedEvent.builder()
-                    .bookingId(booking.getBookingId())
-                    .userId(booking.getUserId())
-                    .showId(booking.getShowId())
-                    .theatreId(booking.getTheatreId())
-                    .movieId(booking.getMovieId())
-                    .seatNumbers(booking.getSeatNumbers())
-                    .totalAmount(booking.getTotalAmount())
-                    .paymentId(booking.getPaymentId())
-                    .showDateTime(booking.getShowDateTime())
-                    .confirmedAt(LocalDateTime.now())
-                    .build();
-
-            // Use Kafka transactions for exactly-once semantics
-            kafkaTemplate.executeInTransaction(operations -> {
-                operations.send("booking-confirmed", booking.getBookingId(), event);
-                log.info("Published booking confirmed event for booking: {}", booking.getBookingId());
-                return true;
-            });
-
-        } catch (Exception e) {
-            log.error("Error publishing booking confirmed event for booking: {}", booking.getBookingId(), e);
-            // Don't throw exception here as booking is already confirmed
+    /**
+     * Expires bookings whose saga stalled, e.g. because a participant never answered.
+     * Bookings that were waiting for payment also get a refund request.
+     *
+     * @return number of bookings expired
+     */
+    @Transactional
+    public int expireStaleBookings(LocalDateTime cutoff) {
+        List<Booking> staleBookings = bookingRepository.findTop500ByStatusInAndUpdatedAtBeforeOrderByUpdatedAtAsc(
+                List.of(BookingStatus.PENDING, BookingStatus.SEATS_HELD), cutoff);
+
+        for (Booking booking : staleBookings) {
+            boolean paymentRequested = booking.getStatus() == BookingStatus.SEATS_HELD;
+            failBooking(booking, BookingStatus.EXPIRED, "Booking was not completed in time");
+            if (paymentRequested) {
+                // The payment may still be in flight; payment-service refuses it or refunds it
+                requestRefund(booking);
+            }
         }
+        return staleBookings.size();
     }
 
-    private Booking createPendingBooking(BookingRequest request, String bookingId, SeatAvailabilityResponse availability) {
-        return Booking.builder()
-                .bookingId(bookingId)
-                .userId(request.getUserId())
-                .showId(request.getShowId())
-                .theatreId(availability.getTheatreId())
-                .movieId(availability.getMovieId())
-                .seatNumbers(request.getSeatNumbers())
-                .totalAmount(availability.getTotalPrice())
-                .status(BookingStatus.PENDING)
-                .showDateTime(availability.getShowDateTime())
+    private void failBooking(Booking booking, BookingStatus status, String reason) {
+        booking.setStatus(status);
+        booking.setFailureReason(reason);
+        bookingRepository.save(booking);
+
+        // Lets theatre-service release the hold now instead of waiting for it to expire
+        outboxEventService.saveEvent(bookingFailedTopic, booking.getBookingId(), BookingFailedEvent.builder()
+                .bookingId(booking.getBookingId())
+                .userId(booking.getUserId())
+                .showId(booking.getShowId())
+                .seatNumbers(booking.getSeatNumbers())
+                .status(status.name())
+                .reason(reason)
+                .failedAt(LocalDateTime.now())
+                .build());
+
+        log.info("Booking {} ended as {}: {}", booking.getBookingId(), status, reason);
+    }
+
+    /**
+     * Refunds the booking's payment, or makes payment-service refuse it if the charge has not happened yet.
+     */
+    private void requestRefund(Booking booking) {
+        outboxEventService.saveEvent(paymentRefundRequestedTopic, booking.getBookingId(), PaymentRefundRequestedEvent.builder()
+                .bookingId(booking.getBookingId())
+                .paymentId(booking.getPaymentId())
+                .reason(booking.getFailureReason())
+                .requestedAt(LocalDateTime.now())
+                .build());
+
+        log.info("Refund requested for booking: {}", booking.getBookingId());
+    }
+
+    private Booking findBookingInStatus(String bookingId, BookingStatus expectedStatus) {
+        Booking booking = bookingRepository.findByBookingId(bookingId).orElse(null);
+        if (booking == null) {
+            log.warn("Received saga reply for unknown booking: {}", bookingId);
+            return null;
+        }
+        if (booking.getStatus() != expectedStatus) {
+            log.info("Ignoring saga reply for booking: {} in status {}, expected {}",
+                    bookingId, booking.getStatus(), expectedStatus);
+            return null;
+        }
+        return booking;
+    }
+
+    private void publishBookingConfirmedEvent(Booking booking) {
+        BookingConfirmedEvent event = BookingConfirmedEvent.builder()
+                .bookingId(booking.getBookingId())
+                .userId(booking.getUserId())
+                .showId(booking.getShowId())
+                .theatreId(booking.getTheatreId())
+                .movieId(booking.getMovieId())
+                .seatNumbers(booking.getSeatNumbers())
+                .totalAmount(booking.getTotalAmount())
+                .paymentId(booking.getPaymentId())
+                .showDateTime(booking.getShowDateTime())
+                .confirmedAt(LocalDateTime.now())
                 .build();
+
+        outboxEventService.saveEvent(bookingConfirmedTopic, booking.getBookingId(), event);
     }
 
     private String generateBookingId() {
         return "BK-" + System.currentTimeMillis() + "-" + UUID.randomUUID().toString().substring(0, 8);
     }
 
-    private String generateLockKey(Long showId, java.util.List<String> seatNumbers) {
-        return "booking:lock:show:" + showId + ":seats:" + String.join(",", seatNumbers);
-    }
-
     private BookingResponse mapToBookingResponse(Booking booking, String message) {
         return BookingResponse.builder()
                 .bookingId(booking.getBookingId())
@@ -211,7 +279,7 @@ public class BookingService {
     public BookingResponse getBookingByBookingId(String bookingId) {
         Booking booking = bookingRepository.findByBookingId(bookingId)
                 .orElseThrow(() -> new BookingException("Booking not found with ID: " + bookingId));
-        
-        return mapToBookingResponse(booking, null);
+
+        return mapToBookingResponse(booking, booking.getFailureReason());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,204 @@
+package com.moviebooking.booking.service;
+
+import com.moviebooking.booking.domain.OutboxEvent;
+import com.moviebooking.booking.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.errors.InvalidProducerEpochException;
+import org.apache.kafka.common.errors.ProducerFencedException;
+import org.apache.kafka.common.errors.RetriableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Relays the booking outbox to Kafka off the request path. Each batch is claimed with
+ * {@code FOR UPDATE SKIP LOCKED}, sent in one Kafka transaction and marked processed with one
+ * bulk update before the row locks are released. Delivery is at-least-once: if the database
+ * commit fails after the Kafka commit, the batch is sent again.
+ * <p>
+ * If the batch transaction fails for a reason tied to its records rather than the broker, the events
+ * are sent one by one, so a bad event only uses up its own retries and does not hold back the saga
+ * steps of other bookings. Later events with the same key wait for the next run to keep their order.
+ * Broker-wide failures count against no event.
+ * <p>
+ * Events that failed {@code max-retries} times are FAILED so they stop holding up the queue, and are
+ * requeued later with a capped exponential backoff. The number of FAILED events is the
+ * {@code outbox.events.failed.pending} gauge.
+ */
+@Service
+@Slf4j
+public class OutboxEventPublisher {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxEventService outboxEventService;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicLong failedEvents = new AtomicLong();
+
+    @Value("${booking.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${booking.outbox.max-retries:5}")
+    private int maxRetries;
+
+    @Value("${booking.outbox.failed-backoff-seconds:60}")
+    private long failedBackoffSeconds;
+
+    @Value("${booking.outbox.max-failed-backoff-seconds:3600}")
+    private long maxFailedBackoffSeconds;
+
+    public OutboxEventPublisher(OutboxEventRepository outboxEventRepository,
+                                OutboxEventService outboxEventService,
+                                KafkaTemplate<String, String> kafkaTemplate,
+                                TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxEventService = outboxEventService;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = transactionTemplate;
+
+        Gauge.builder("outbox.events.failed.pending", failedEvents, AtomicLong::get)
+                .description("Outbox events that used up their retries and wait to be requeued")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${booking.outbox.poll-interval-ms:200}")
+    public void publishPendingEvents() {
+        int published;
+        do {
+            published = publishBatch();
+        } while (published >= batchSize);
+    }
+
+    /**
+     * @return number of events published, 0 if there was nothing to publish or the broker failed
+     */
+    int publishBatch() {
+        try {
+            Delivery delivery = transactionTemplate.execute(status -> {
+                List<OutboxEvent> events = outboxEventRepository.claimPendingEvents(batchSize);
+                if (events.isEmpty()) {
+                    return Delivery.NONE;
+                }
+
+                Delivery result = deliver(events);
+                if (!result.sent().isEmpty()) {
+                    outboxEventRepository.markProcessed(result.sent(), LocalDateTime.now());
+                }
+                if (!result.failed().isEmpty()) {
+                    outboxEventRepository.recordFailedAttempt(result.failed(), maxRetries, LocalDateTime.now(),
+                            failedBackoffSeconds, maxFailedBackoffSeconds);
+                }
+                return result;
+            });
+
+            int published = delivery == null ? 0 : delivery.sent().size();
+            if (published > 0) {
+                log.debug("Published {} outbox events", published);
+            }
+            return published;
+
+        } catch (Exception e) {
+            log.error("Failed to publish outbox batch", e);
+            return 0;
+        }
+    }
+
+    /**
+     * Sends the claimed events, in one Kafka transaction if possible and otherwise one by one.
+     */
+    private Delivery deliver(List<OutboxEvent> events) {
+        try {
+            // Sends are pipelined; the Kafka commit fails if any of them failed
+            kafkaTemplate.executeInTransaction(operations -> {
+                for (OutboxEvent event : events) {
+                    operations.send(event.getTopic(), event.getMessageKey(), event.getPayload());
+                }
+                return true;
+            });
+            return new Delivery(events.stream().map(OutboxEvent::getId).toList(), List.of());
+        } catch (RuntimeException e) {
+            if (isBrokerFailure(e)) {
+                log.error("Failed to publish batch of {} outbox events", events.size(), e);
+                return Delivery.NONE;
+            }
+            log.warn("Batch of {} outbox events failed, sending them one by one: {}", events.size(), e.getMessage());
+        }
+
+        List<Long> sent = new ArrayList<>();
+        List<Long> failed = new ArrayList<>();
+        Set<String> blockedKeys = new HashSet<>();
+        for (OutboxEvent event : events) {
+            if (blockedKeys.contains(event.getMessageKey())) {
+                continue;
+            }
+            try {
+                kafkaTemplate.executeInTransaction(operations -> {
+                    operations.send(event.getTopic(), event.getMessageKey(), event.getPayload());
+                    return true;
+                });
+                sent.add(event.getId());
+            } catch (RuntimeException e) {
+                if (isBrokerFailure(e)) {
+                    log.error("Failed to publish outbox events, {} of {} sent", sent.size(), events.size(), e);
+                    return new Delivery(sent, failed);
+                }
+                log.error("Failed to publish outbox event {} to {}", event.getId(), event.getTopic(), e);
+                failed.add(event.getId());
+                blockedKeys.add(event.getMessageKey());
+            }
+        }
+        return new Delivery(sent, failed);
+    }
+
+    // Errors that would fail any event, so no event is to blame for them
+    private static boolean isBrokerFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RetriableException || cause instanceof ProducerFencedException
+                    || cause instanceof InvalidProducerEpochException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Puts FAILED events whose backoff has passed back in the queue, and refreshes the FAILED count.
+     */
+    @Scheduled(fixedDelayString = "${booking.outbox.failed-retry-interval-ms:60000}")
+    public void retryFailedEvents() {
+        try {
+            Integer requeued = transactionTemplate.execute(status ->
+                    outboxEventRepository.requeueFailedEvents(LocalDateTime.now()));
+            if (requeued != null && requeued > 0) {
+                log.warn("Requeued {} failed outbox events", requeued);
+            }
+            failedEvents.set(outboxEventRepository.countByStatus(OutboxEvent.EventStatus.FAILED));
+        } catch (Exception e) {
+            log.error("Failed to requeue failed outbox events", e);
+        }
+    }
+
+    @Scheduled(cron = "0 0 2 * * ?") // Run daily at 2 AM
+    public void cleanupOldEvents() {
+        outboxEventService.cleanupProcessedEvents(LocalDateTime.now().minusDays(7));
+    }
+
+    /**
+     * Ids of the events sent and of the events that failed on their own.
+     */
+    private record Delivery(List<Long> sent, List<Long> failed) {
+        static final Delivery NONE = new Delivery(List.of(), List.of());
+    }
+}
@@ -0,0 +1,51 @@
+package com.moviebooking.booking.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moviebooking.booking.domain.OutboxEvent;
+import com.moviebooking.booking.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxEventService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Stores the event in the outbox as part of the caller's transaction, so it is published
+     * if and only if the booking change that produced it commits.
+     */
+    @Transactional
+    public void saveEvent(String topic, String key, Object event) {
+        try {
+            OutboxEvent outboxEvent = OutboxEvent.builder()
+                    .topic(topic)
+                    .messageKey(key)
+                    .eventType(event.getClass().getSimpleName())
+                    .payload(objectMapper.writeValueAsString(event))
+                    .status(OutboxEvent.EventStatus.PENDING)
+                    .build();
+
+            outboxEventRepository.save(outboxEvent);
+            log.debug("Outbox event created: {} for booking: {} on topic: {}", outboxEvent.getEventType(), key, topic);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize {} for booking: {}", event.getClass().getSimpleName(), key, e);
+            throw new IllegalStateException("Failed to create outbox event", e);
+        }
+    }
+
+    @Transactional
+    public int cleanupProcessedEvents(LocalDateTime cutoffTime) {
+        int deleted = outboxEventRepository.deleteProcessedBefore(cutoffTime);
+        log.info("Cleaned up {} processed outbox events older than {}", deleted, cutoffTime);
+        return deleted;
+    }
+}
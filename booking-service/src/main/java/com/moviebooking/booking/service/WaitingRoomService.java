@@ -0,0 +1,266 @@
+package com.moviebooking.booking.service;
+
+import com.moviebooking.booking.dto.WaitingRoomStatus;
+import com.moviebooking.booking.exception.WaitingRoomException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Virtual waiting rooms for high-demand on-sales. While a show's room is open, users join a FIFO
+ * queue in Redis and poll their position; every tick up to {@code admit-rate} users per second are
+ * admitted, as long as fewer than {@code max-active} admissions are live. Only admitted users can
+ * book the show, so the load a hot show puts on the booking flow is bounded by the admission rate.
+ * An admission is good for one booking: it is consumed when the booking is accepted, which frees
+ * its slot for the next user in line, and given back if the booking's transaction rolls back. Users are identified by the user name the gateway forwards.
+ * <p>
+ * Per show, the keys are {@code waiting-room:{showId}:*}:
+ * <ul>
+ *   <li>{@code open}: present while the room is open</li>
+ *   <li>{@code queue}: sorted set of queue tokens by arrival</li>
+ *   <li>{@code users}: hash of user name to the user's current token, so joining again keeps the place</li>
+ *   <li>{@code admitted}: sorted set of admitted tokens by admission expiry</li>
+ * </ul>
+ * Every change is one Lua script, so instances never admit the same user twice or overshoot the rate.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WaitingRoomService {
+
+    private static final String OPEN_SHOWS = "waiting-room:open-shows";
+
+    // KEYS: open, queue, seq, users, admitted; ARGV: user name, new token, now millis, admission ttl seconds
+    private static final RedisScript<String> JOIN = RedisScript.of("""
+            local ttl = redis.call('TTL', KEYS[1])
+            if ttl < 0 then return false end
+            local token = redis.call('HGET', KEYS[4], ARGV[1])
+            if token then
+              if redis.call('ZSCORE', KEYS[2], token) then return token end
+              local expires = redis.call('ZSCORE', KEYS[5], token)
+              if expires and tonumber(expires) > tonumber(ARGV[3]) then return token end
+            end
+            redis.call('HSET', KEYS[4], ARGV[1], ARGV[2])
+            redis.call('ZADD', KEYS[2], redis.call('INCR', KEYS[3]), ARGV[2])
+            ttl = ttl + tonumber(ARGV[4])
+            for i = 2, 4 do redis.call('EXPIRE', KEYS[i], ttl) end
+            return ARGV[2]
+            """, String.class);
+
+    // KEYS: tick, queue, admitted; ARGV: batch, max active, now millis, admitted until millis, tick millis, ttl seconds
+    private static final RedisScript<Long> ADMIT = RedisScript.of("""
+            if not redis.call('SET', KEYS[1], '1', 'NX', 'PX', ARGV[5]) then return -1 end
+            redis.call('ZREMRANGEBYSCORE', KEYS[3], '-inf', ARGV[3])
+            local count = math.min(tonumber(ARGV[1]), tonumber(ARGV[2]) - redis.call('ZCARD', KEYS[3]))
+            if count <= 0 then return 0 end
+            local popped = redis.call('ZPOPMIN', KEYS[2], count)
+            for i = 1, #popped, 2 do redis.call('ZADD', KEYS[3], ARGV[4], popped[i]) end
+            redis.call('EXPIRE', KEYS[3], ARGV[6])
+            return #popped / 2
+            """, Long.class);
+
+    // KEYS: users, admitted; ARGV: user name, token, now millis. Returns the admission expiry, 0 if not admitted
+    private static final RedisScript<Long> CONSUME = RedisScript.of("""
+            if redis.call('HGET', KEYS[1], ARGV[1]) ~= ARGV[2] then return 0 end
+            local expires = redis.call('ZSCORE', KEYS[2], ARGV[2])
+            if not expires or tonumber(expires) <= tonumber(ARGV[3]) then return 0 end
+            redis.call('ZREM', KEYS[2], ARGV[2])
+            redis.call('HDEL', KEYS[1], ARGV[1])
+            return tonumber(expires)
+            """, Long.class);
+
+    // KEYS: open, users, admitted; ARGV: user name, token, admitted until millis, now millis, admission ttl seconds
+    private static final RedisScript<Long> RESTORE = RedisScript.of("""
+            local ttl = redis.call('TTL', KEYS[1])
+            if ttl < 0 or tonumber(ARGV[3]) <= tonumber(ARGV[4]) then return 0 end
+            if redis.call('HSETNX', KEYS[2], ARGV[1], ARGV[2]) == 0 then return 0 end
+            redis.call('ZADD', KEYS[3], ARGV[3], ARGV[2])
+            redis.call('EXPIRE', KEYS[2], ttl + tonumber(ARGV[5]))
+            if redis.call('TTL', KEYS[3]) < tonumber(ARGV[5]) then redis.call('EXPIRE', KEYS[3], ARGV[5]) end
+            return 1
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${booking.waiting-room.admit-rate:20}")
+    private int admitRate;
+
+    @Value("${booking.waiting-room.admit-interval-ms:1000}")
+    private long admitIntervalMs;
+
+    @Value("${booking.waiting-room.max-active:200}")
+    private int maxActive;
+
+    @Value("${booking.waiting-room.admission-ttl-seconds:600}")
+    private long admissionTtlSeconds;
+
+    // Refreshed every tick, so bookings for shows without a room do not go to Redis
+    private volatile Set<Long> openShows = Set.of();
+
+    public void open(Long showId, Duration duration) {
+        redisTemplate.opsForValue().set(key(showId, "open"), Instant.now().toString(), duration);
+        redisTemplate.opsForSet().add(OPEN_SHOWS, showId.toString());
+        // Other instances pick the room up on their next tick
+        Set<Long> open = new HashSet<>(openShows);
+        open.add(showId);
+        openShows = open;
+        log.info("Opened waiting room for show: {} for {}", showId, duration);
+    }
+
+    /**
+     * Closes the room: bookings for the show no longer need a queue token. Waiting users see
+     * NOT_REQUIRED on their next poll.
+     */
+    public void close(Long showId) {
+        redisTemplate.delete(List.of(key(showId, "open"), key(showId, "queue"), key(showId, "seq"),
+                key(showId, "users"), key(showId, "admitted")));
+        redisTemplate.opsForSet().remove(OPEN_SHOWS, showId.toString());
+        log.info("Closed waiting room for show: {}", showId);
+    }
+
+    /**
+     * Puts the user in the show's queue, or returns their current place if they are already
+     * waiting or admitted.
+     */
+    public WaitingRoomStatus join(Long showId, String userName) {
+        String token = redisTemplate.execute(JOIN,
+                List.of(key(showId, "open"), key(showId, "queue"), key(showId, "seq"), key(showId, "users"), key(showId, "admitted")),
+                userName, UUID.randomUUID().toString(), String.valueOf(System.currentTimeMillis()),
+                String.valueOf(admissionTtlSeconds));
+        if (token == null) {
+            return WaitingRoomStatus.builder().showId(showId).state(WaitingRoomStatus.State.NOT_REQUIRED).build();
+        }
+        return getStatus(showId, token);
+    }
+
+    public WaitingRoomStatus getStatus(Long showId, String token) {
+        var status = WaitingRoomStatus.builder().showId(showId).queueToken(token);
+        if (!Boolean.TRUE.equals(redisTemplate.hasKey(key(showId, "open")))) {
+            return status.state(WaitingRoomStatus.State.NOT_REQUIRED).build();
+        }
+
+        Long rank = redisTemplate.opsForZSet().rank(key(showId, "queue"), token);
+        if (rank != null) {
+            long position = rank + 1;
+            long waitSeconds = (position + admitRate - 1) / admitRate;
+            return status.state(WaitingRoomStatus.State.WAITING)
+                    .position(position)
+                    .estimatedWaitSeconds(waitSeconds)
+                    .pollAfterSeconds(pollAfterSeconds(waitSeconds))
+                    .build();
+        }
+
+        Double admittedUntil = redisTemplate.opsForZSet().score(key(showId, "admitted"), token);
+        if (admittedUntil != null && admittedUntil > System.currentTimeMillis()) {
+            return status.state(WaitingRoomStatus.State.ADMITTED)
+                    .admittedUntil(Instant.ofEpochMilli(admittedUntil.longValue()))
+                    .build();
+        }
+        return status.state(WaitingRoomStatus.State.EXPIRED).build();
+    }
+
+    /**
+     * Rejects the booking unless the show has no open room or the token was admitted for this user.
+     * An admitted token is used up, so booking again means queueing again. When called inside a
+     * transaction, the admission is given back if that transaction rolls back, so a booking that was
+     * never stored does not cost the user their place.
+     */
+    public void consumeAdmission(Long showId, String userName, String token) {
+        if (!openShows.contains(showId)) {
+            return;
+        }
+        Long admittedUntil = token == null || userName == null ? null : redisTemplate.execute(CONSUME,
+                List.of(key(showId, "users"), key(showId, "admitted")),
+                userName, token, String.valueOf(System.currentTimeMillis()));
+        if (admittedUntil == null || admittedUntil == 0) {
+            throw new WaitingRoomException("Show " + showId + " is on sale through a waiting room. Join the queue at "
+                    + "/api/v1/bookings/shows/" + showId + "/queue and book once admitted", pollAfterSeconds(1));
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        restoreAdmission(showId, userName, token, admittedUntil);
+                    }
+                }
+            });
+        }
+    }
+
+    // Puts a consumed admission back unless it expired, the room closed or the user joined again meanwhile
+    private void restoreAdmission(Long showId, String userName, String token, long admittedUntil) {
+        try {
+            Long restored = redisTemplate.execute(RESTORE,
+                    List.of(key(showId, "open"), key(showId, "users"), key(showId, "admitted")),
+                    userName, token, String.valueOf(admittedUntil), String.valueOf(System.currentTimeMillis()),
+                    String.valueOf(admissionTtlSeconds));
+            log.info("Booking by {} for show: {} rolled back, admission {}", userName, showId,
+                    restored != null && restored == 1 ? "given back" : "not given back");
+        } catch (Exception e) {
+            log.error("Failed to give back the admission of {} for show: {}", userName, showId, e);
+        }
+    }
+
+    /**
+     * Admits the next users of every open room. Each show is admitted by one instance per tick.
+     */
+    @Scheduled(fixedDelayString = "${booking.waiting-room.admit-interval-ms:1000}")
+    public void admitWaitingUsers() {
+        try {
+            Set<Long> open = new HashSet<>();
+            Set<String> members = redisTemplate.opsForSet().members(OPEN_SHOWS);
+            for (String member : members == null ? Set.<String>of() : members) {
+                Long showId = Long.valueOf(member);
+                if (!Boolean.TRUE.equals(redisTemplate.hasKey(key(showId, "open")))) {
+                    redisTemplate.opsForSet().remove(OPEN_SHOWS, member);
+                    continue;
+                }
+                open.add(showId);
+                admit(showId);
+            }
+            openShows = open;
+        } catch (Exception e) {
+            log.error("Error admitting users from waiting rooms", e);
+        }
+    }
+
+    private void admit(Long showId) {
+        long now = System.currentTimeMillis();
+        long batch = Math.max(1, admitRate * admitIntervalMs / 1000);
+        // A little shorter than the interval, so the next tick of a slightly late instance is not skipped
+        long tickMillis = Math.max(1, admitIntervalMs * 9 / 10);
+        Long admitted = redisTemplate.execute(ADMIT,
+                List.of(key(showId, "tick"), key(showId, "queue"), key(showId, "admitted")),
+                String.valueOf(batch), String.valueOf(maxActive), String.valueOf(now),
+                String.valueOf(now + admissionTtlSeconds * 1000), String.valueOf(tickMillis),
+                String.valueOf(admissionTtlSeconds));
+        if (admitted != null && admitted > 0) {
+            log.debug("Admitted {} users for show: {}", admitted, showId);
+        }
+    }
+
+    // Clients poll at about half their expected wait, between 1 and 30 seconds
+    private static long pollAfterSeconds(long waitSeconds) {
+        return Math.max(1, Math.min(30, waitSeconds / 2));
+    }
+
+    // The show id is a hash tag, so all keys of a room are in the same cluster slot
+    private static String key(Long showId, String name) {
+        return "waiting-room:{" + showId + "}:" + name;
+    }
+}
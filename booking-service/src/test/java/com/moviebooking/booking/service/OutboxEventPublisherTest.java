@@ -0,0 +1,193 @@
+package com.moviebooking.booking.service;
+
+import com.moviebooking.booking.domain.OutboxEvent;
+import com.moviebooking.booking.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxEventPublisherTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private OutboxEventService outboxEventService;
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Mock
+    private KafkaOperations<String, String> kafkaOperations;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private OutboxEventPublisher publisher;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        publisher = new OutboxEventPublisher(outboxEventRepository, outboxEventService, kafkaTemplate, transactionTemplate,
+                meterRegistry);
+        ReflectionTestUtils.setField(publisher, "batchSize", 2);
+        ReflectionTestUtils.setField(publisher, "maxRetries", 5);
+        ReflectionTestUtils.setField(publisher, "failedBackoffSeconds", 60L);
+        ReflectionTestUtils.setField(publisher, "maxFailedBackoffSeconds", 3600L);
+
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<Object>>getArgument(0).doInTransaction(null));
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        lenient().when(kafkaTemplate.executeInTransaction(any())).thenAnswer(invocation ->
+                invocation.<KafkaOperations.OperationsCallback<String, String, Object>>getArgument(0)
+                        .doInOperations(kafkaOperations));
+    }
+
+    private OutboxEvent event(long id, String topic) {
+        return OutboxEvent.builder()
+                .id(id)
+                .topic(topic)
+                .messageKey("BK-" + id)
+                .eventType("SeatHoldRequestedEvent")
+                .payload("{\"bookingId\":\"BK-" + id + "\"}")
+                .status(OutboxEvent.EventStatus.PENDING)
+                .build();
+    }
+
+    @Test
+    void publishBatch_ShouldSendClaimedEventsInOneTransactionAndMarkThemProcessed() {
+        // Given
+        when(outboxEventRepository.claimPendingEvents(2))
+                .thenReturn(List.of(event(1L, "seat-hold-requested"), event(2L, "payment-requested")));
+
+        // When
+        int published = publisher.publishBatch();
+
+        // Then
+        assertThat(published).isEqualTo(2);
+        verify(kafkaTemplate, times(1)).executeInTransaction(any());
+        verify(kafkaOperations).send("seat-hold-requested", "BK-1", "{\"bookingId\":\"BK-1\"}");
+        verify(kafkaOperations).send("payment-requested", "BK-2", "{\"bookingId\":\"BK-2\"}");
+        verify(outboxEventRepository).markProcessed(eq(List.of(1L, 2L)), any());
+    }
+
+    @Test
+    void publishBatch_ShouldDoNothing_WhenOutboxIsEmpty() {
+        // Given
+        when(outboxEventRepository.claimPendingEvents(2)).thenReturn(List.of());
+
+        // When
+        int published = publisher.publishBatch();
+
+        // Then
+        assertThat(published).isZero();
+        verify(kafkaTemplate, never()).executeInTransaction(any());
+        verify(outboxEventRepository, never()).markProcessed(anyList(), any());
+    }
+
+    @Test
+    void publishBatch_ShouldNotCountRetries_WhenBrokerIsUnavailable() {
+        // Given
+        when(outboxEventRepository.claimPendingEvents(2)).thenReturn(List.of(event(1L, "booking-confirmed")));
+        doThrow(new KafkaException("Send failed", new TimeoutException("Broker unavailable")))
+                .when(kafkaTemplate).executeInTransaction(any());
+
+        // When
+        int published = publisher.publishBatch();
+
+        // Then
+        assertThat(published).isZero();
+        verify(kafkaTemplate, times(1)).executeInTransaction(any());
+        verify(outboxEventRepository, never()).markProcessed(anyList(), any());
+        verify(outboxEventRepository, never()).recordFailedAttempt(anyList(), anyInt(), any(), anyLong(), anyLong());
+    }
+
+    @Test
+    void publishBatch_ShouldRecordFailedAttemptOnlyForFailingEvent_WhenBatchTransactionFails() {
+        // Given
+        when(outboxEventRepository.claimPendingEvents(2))
+                .thenReturn(List.of(event(1L, "booking-confirmed"), event(2L, "seat-hold-requested")));
+        when(kafkaOperations.send(eq("booking-confirmed"), eq("BK-1"), anyString()))
+                .thenThrow(new RecordTooLargeException("Record too large"));
+
+        // When
+        int published = publisher.publishBatch();
+
+        // Then
+        assertThat(published).isEqualTo(1);
+        verify(outboxEventRepository).markProcessed(eq(List.of(2L)), any());
+        verify(outboxEventRepository).recordFailedAttempt(eq(List.of(1L)), eq(5), any(), eq(60L), eq(3600L));
+    }
+
+    @Test
+    void publishBatch_ShouldHoldBackLaterEventsWithSameKey_WhenAnEventFails() {
+        // Given
+        OutboxEvent confirmed = event(1L, "booking-confirmed");
+        OutboxEvent refund = event(2L, "refund-requested");
+        refund.setMessageKey("BK-1");
+        when(outboxEventRepository.claimPendingEvents(2)).thenReturn(List.of(confirmed, refund));
+        when(kafkaOperations.send(eq("booking-confirmed"), eq("BK-1"), anyString()))
+                .thenThrow(new RecordTooLargeException("Record too large"));
+
+        // When
+        int published = publisher.publishBatch();
+
+        // Then
+        assertThat(published).isZero();
+        verify(kafkaOperations, never()).send(eq("refund-requested"), anyString(), anyString());
+        verify(outboxEventRepository, never()).markProcessed(anyList(), any());
+        verify(outboxEventRepository).recordFailedAttempt(eq(List.of(1L)), eq(5), any(), eq(60L), eq(3600L));
+    }
+
+    @Test
+    void publishPendingEvents_ShouldDrainFullBatches() {
+        // Given
+        when(outboxEventRepository.claimPendingEvents(2))
+                .thenReturn(List.of(event(1L, "booking-confirmed"), event(2L, "booking-confirmed")))
+                .thenReturn(List.of(event(3L, "booking-confirmed")));
+
+        // When
+        publisher.publishPendingEvents();
+
+        // Then
+        verify(outboxEventRepository, times(2)).claimPendingEvents(2);
+        verify(outboxEventRepository).markProcessed(eq(List.of(3L)), any());
+    }
+
+    @Test
+    void retryFailedEvents_ShouldRequeueFailedEventsAndReportRemainingCount() {
+        // Given
+        when(outboxEventRepository.requeueFailedEvents(any())).thenReturn(3);
+        when(outboxEventRepository.countByStatus(OutboxEvent.EventStatus.FAILED)).thenReturn(2L);
+
+        // When
+        publisher.retryFailedEvents();
+
+        // Then
+        verify(outboxEventRepository).requeueFailedEvents(any());
+        assertThat(meterRegistry.get("outbox.events.failed.pending").gauge().value()).isEqualTo(2);
+    }
+}
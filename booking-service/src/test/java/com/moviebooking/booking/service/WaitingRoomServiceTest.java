@@ -0,0 +1,186 @@
+package com.moviebooking.booking.service;
+
+import com.moviebooking.booking.dto.WaitingRoomStatus;
+import com.moviebooking.booking.exception.WaitingRoomException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WaitingRoomServiceTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private SetOperations<String, String> setOperations;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    @InjectMocks
+    private WaitingRoomService waitingRoomService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(waitingRoomService, "admitRate", 20);
+        ReflectionTestUtils.setField(waitingRoomService, "admitIntervalMs", 1000L);
+        ReflectionTestUtils.setField(waitingRoomService, "maxActive", 200);
+        ReflectionTestUtils.setField(waitingRoomService, "admissionTtlSeconds", 600L);
+    }
+
+    private void openRoomFor(Long showId) {
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(setOperations.members("waiting-room:open-shows")).thenReturn(Set.of(showId.toString()));
+        when(redisTemplate.hasKey("waiting-room:{" + showId + "}:open")).thenReturn(true);
+        waitingRoomService.admitWaitingUsers();
+    }
+
+    @Test
+    void join_ShouldReturnPositionAndEstimatedWait_WhenRoomIsOpen() {
+        // Given
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn("token-1");
+        when(redisTemplate.hasKey("waiting-room:{101}:open")).thenReturn(true);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.rank("waiting-room:{101}:queue", "token-1")).thenReturn(99L);
+
+        // When
+        WaitingRoomStatus status = waitingRoomService.join(101L, "user1");
+
+        // Then
+        assertThat(status.getState()).isEqualTo(WaitingRoomStatus.State.WAITING);
+        assertThat(status.getQueueToken()).isEqualTo("token-1");
+        assertThat(status.getPosition()).isEqualTo(100);
+        // 100th in line at 20 admissions per second
+        assertThat(status.getEstimatedWaitSeconds()).isEqualTo(5);
+        assertThat(status.getPollAfterSeconds()).isEqualTo(2);
+    }
+
+    @Test
+    void join_ShouldNotQueue_WhenRoomIsNotOpen() {
+        // Given - the join script returns nil when the room is not open
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(null);
+
+        // When
+        WaitingRoomStatus status = waitingRoomService.join(101L, "user1");
+
+        // Then
+        assertThat(status.getState()).isEqualTo(WaitingRoomStatus.State.NOT_REQUIRED);
+        assertThat(status.getQueueToken()).isNull();
+    }
+
+    @Test
+    void consumeAdmission_ShouldSkipRedis_WhenShowHasNoOpenRoom() {
+        // When
+        waitingRoomService.consumeAdmission(101L, "user1", null);
+
+        // Then
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void consumeAdmission_ShouldReject_WhenTokenWasNotAdmitted() {
+        // Given
+        openRoomFor(101L);
+        when(redisTemplate.execute(any(RedisScript.class), eq(java.util.List.of("waiting-room:{101}:users", "waiting-room:{101}:admitted")),
+                eq("user1"), eq("token-1"), anyString())).thenReturn(0L);
+
+        // When / Then
+        assertThatThrownBy(() -> waitingRoomService.consumeAdmission(101L, "user1", "token-1"))
+                .isInstanceOf(WaitingRoomException.class)
+                .hasMessageContaining("/api/v1/bookings/shows/101/queue");
+        assertThatThrownBy(() -> waitingRoomService.consumeAdmission(101L, "user1", null))
+                .isInstanceOf(WaitingRoomException.class);
+    }
+
+    @Test
+    void consumeAdmission_ShouldAcceptAdmittedToken_AndUseItUp() {
+        // Given - the consume script removes the admission and returns 1 once, then 0
+        openRoomFor(101L);
+        when(redisTemplate.execute(any(RedisScript.class), eq(java.util.List.of("waiting-room:{101}:users", "waiting-room:{101}:admitted")),
+                eq("user1"), eq("token-1"), anyString())).thenReturn(1L, 0L);
+
+        // When
+        waitingRoomService.consumeAdmission(101L, "user1", "token-1");
+
+        // Then - a second booking with the same token has to queue again
+        assertThatThrownBy(() -> waitingRoomService.consumeAdmission(101L, "user1", "token-1"))
+                .isInstanceOf(WaitingRoomException.class);
+    }
+
+    @Test
+    void consumeAdmission_ShouldReject_WhenUserIsUnknown() {
+        // Given
+        openRoomFor(101L);
+
+        // When / Then - only the gateway-forwarded user name identifies the admission
+        assertThatThrownBy(() -> waitingRoomService.consumeAdmission(101L, null, "token-1"))
+                .isInstanceOf(WaitingRoomException.class);
+        verify(redisTemplate, never()).execute(any(RedisScript.class),
+                eq(java.util.List.of("waiting-room:{101}:users", "waiting-room:{101}:admitted")), any(Object[].class));
+    }
+
+    @Test
+    void consumeAdmission_ShouldGiveAdmissionBack_WhenBookingTransactionRollsBack() {
+        // Given
+        openRoomFor(101L);
+        long admittedUntil = System.currentTimeMillis() + 60_000;
+        when(redisTemplate.execute(any(RedisScript.class), eq(java.util.List.of("waiting-room:{101}:users", "waiting-room:{101}:admitted")),
+                eq("user1"), eq("token-1"), anyString())).thenReturn(admittedUntil);
+        java.util.List<String> restoreKeys = java.util.List.of("waiting-room:{101}:open", "waiting-room:{101}:users",
+                "waiting-room:{101}:admitted");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            waitingRoomService.consumeAdmission(101L, "user1", "token-1");
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Then
+        verify(redisTemplate).execute(any(RedisScript.class), eq(restoreKeys),
+                eq("user1"), eq("token-1"), eq(String.valueOf(admittedUntil)), anyString(), eq("600"));
+    }
+
+    @Test
+    void consumeAdmission_ShouldKeepAdmissionUsedUp_WhenBookingTransactionCommits() {
+        // Given
+        openRoomFor(101L);
+        when(redisTemplate.execute(any(RedisScript.class), eq(java.util.List.of("waiting-room:{101}:users", "waiting-room:{101}:admitted")),
+                eq("user1"), eq("token-1"), anyString())).thenReturn(System.currentTimeMillis() + 60_000);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            waitingRoomService.consumeAdmission(101L, "user1", "token-1");
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Then
+        verify(redisTemplate, never()).execute(any(RedisScript.class), eq(java.util.List.of("waiting-room:{101}:open",
+                "waiting-room:{101}:users", "waiting-room:{101}:admitted")), any(), any(), any(), any(), any());
+    }
+}
@@ -0,0 +1,24 @@
+package com.moviebooking.common.events.booking;
+
+import com.moviebooking.common.events.DomainEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class PaymentRefundRequestedEvent extends DomainEvent {
+    private String bookingId;
+    private String paymentId;
+    private String reason;
+    private LocalDateTime requestedAt;
+    @Builder.Default
+    private String eventType = "PAYMENT_REFUND_REQUESTED";
+}
@@ -1,8 +1,10 @@
-package com.moviebooking.booking.dto;
+package com.moviebooking.common.events.booking;
 
+import com.moviebooking.common.events.DomainEvent;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
@@ -11,9 +13,12 @@ import java.math.BigDecimal;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class PaymentRequest {
+@EqualsAndHashCode(callSuper = true)
+public class PaymentRequestedEvent extends DomainEvent {
     private String bookingId;
     private Long userId;
     private BigDecimal amount;
     private String description;
-}
\ No newline at end of file
+    @Builder.Default
+    private String eventType = "PAYMENT_REQUESTED";
+}
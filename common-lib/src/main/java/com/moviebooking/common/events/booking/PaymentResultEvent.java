@@ -1,8 +1,10 @@
-package com.moviebooking.booking.dto;
+package com.moviebooking.common.events.booking;
 
+import com.moviebooking.common.events.DomainEvent;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
@@ -12,11 +14,14 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class PaymentResponse {
-    private String paymentId;
+@EqualsAndHashCode(callSuper = true)
+public class PaymentResultEvent extends DomainEvent {
     private String bookingId;
+    private String paymentId;
     private BigDecimal amount;
-    private String status; // SUCCESS, FAILED, PENDING
+    private String status; // SUCCESS, FAILED
     private String message;
     private LocalDateTime processedAt;
-}
\ No newline at end of file
+    @Builder.Default
+    private String eventType = "PAYMENT_RESULT";
+}
@@ -0,0 +1,26 @@
+package com.moviebooking.common.events.booking;
+
+import com.moviebooking.common.events.DomainEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class SeatConfirmationFailedEvent extends DomainEvent {
+    private String bookingId;
+    private Long showId;
+    private List<String> seatNumbers;
+    private String reason;
+    private LocalDateTime failedAt;
+    @Builder.Default
+    private String eventType = "SEAT_CONFIRMATION_FAILED";
+}
@@ -0,0 +1,24 @@
+package com.moviebooking.common.events.booking;
+
+import com.moviebooking.common.events.DomainEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class SeatHoldRequestedEvent extends DomainEvent {
+    private String bookingId;
+    private Long userId;
+    private Long showId;
+    private List<String> seatNumbers;
+    @Builder.Default
+    private String eventType = "SEAT_HOLD_REQUESTED";
+}
@@ -0,0 +1,33 @@
+package com.moviebooking.common.events.booking;
+
+import com.moviebooking.common.events.DomainEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class SeatHoldResultEvent extends DomainEvent {
+    private String bookingId;
+    private Long showId;
+    private boolean held;
+    private List<String> seatNumbers;
+    private List<String> unavailableSeats;
+    private LocalDateTime lockedUntil;
+    private BigDecimal totalPrice;
+    private Long theatreId;
+    private Long movieId;
+    private LocalDateTime showDateTime;
+    private String message;
+    @Builder.Default
+    private String eventType = "SEAT_HOLD_RESULT";
+}
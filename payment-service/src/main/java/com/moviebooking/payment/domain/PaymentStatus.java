@@ -0,0 +1,11 @@
+package com.moviebooking.payment.domain;
+
+public enum PaymentStatus {
+    // Only seen inside the transaction that charges
+    PROCESSING,
+    SUCCESS,
+    FAILED,
+    REFUNDED,
+    // Refund requested before the charge arrived; the charge is refused
+    CANCELLED
+}
@@ -16,7 +16,7 @@ public class PaymentResponse {
     private String paymentId;
     private String bookingId;
     private BigDecimal amount;
-    private String status; // SUCCESS, FAILED, PENDING
+    private String status; // SUCCESS, FAILED, REFUNDED, CANCELLED
     private String message;
     private LocalDateTime processedAt;
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.moviebooking.payment.kafka;
+
+import com.moviebooking.common.events.booking.PaymentRefundRequestedEvent;
+import com.moviebooking.common.events.booking.PaymentRequestedEvent;
+import com.moviebooking.common.events.booking.PaymentResultEvent;
+import com.moviebooking.payment.dto.PaymentRequest;
+import com.moviebooking.payment.dto.PaymentResponse;
+import com.moviebooking.payment.service.PaymentService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Payment step of the booking saga: charges the amount of a held booking and answers on the payment result topic,
+ * and refunds bookings that could not be completed. Both are idempotent per booking id, so redelivery is safe.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentEventListener {
+
+    private final PaymentService paymentService;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Value("${kafka.topics.payment-results:payment-results}")
+    private String paymentResultsTopic;
+
+    @KafkaListener(topics = "${kafka.topics.payment-requested:payment-requested}", groupId = "${spring.kafka.consumer.group-id}")
+    public void handlePaymentRequested(PaymentRequestedEvent event) {
+        if (event == null) {
+            log.warn("Received null payment request, ignoring");
+            return;
+        }
+
+        log.info("Received payment request for booking: {} with amount: {}", event.getBookingId(), event.getAmount());
+
+        PaymentResponse response = paymentService.processPayment(PaymentRequest.builder()
+                .bookingId(event.getBookingId())
+                .userId(event.getUserId())
+                .amount(event.getAmount())
+                .description(event.getDescription())
+                .build());
+
+        PaymentResultEvent result = PaymentResultEvent.builder()
+                .bookingId(response.getBookingId())
+                .paymentId(response.getPaymentId())
+                .amount(response.getAmount())
+                .status(response.getStatus())
+                .message(response.getMessage())
+                .processedAt(response.getProcessedAt())
+                .build();
+
+        kafkaTemplate.send(paymentResultsTopic, event.getBookingId(), result).join();
+        log.info("Published payment result for booking: {} with status: {}", event.getBookingId(), response.getStatus());
+    }
+
+    @KafkaListener(topics = "${kafka.topics.payment-refund-requested:payment-refund-requested}", groupId = "${spring.kafka.consumer.group-id}",
+            properties = "spring.json.value.default.type=com.moviebooking.common.events.booking.PaymentRefundRequestedEvent")
+    public void handleRefundRequested(PaymentRefundRequestedEvent event) {
+        if (event == null) {
+            log.warn("Received null refund request, ignoring");
+            return;
+        }
+
+        log.info("Received refund request for booking: {}: {}", event.getBookingId(), event.getReason());
+        paymentService.refundPayment(event.getBookingId(), event.getReason());
+    }
+}
@@ -1,22 +1,63 @@
 package com.moviebooking.payment.service;
 
+import com.moviebooking.payment.domain.Payment;
+import com.moviebooking.payment.domain.PaymentStatus;
 import com.moviebooking.payment.dto.PaymentRequest;
 import com.moviebooking.payment.dto.PaymentResponse;
+import com.moviebooking.payment.repository.PaymentRepository;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
+/**
+ * Charges and refunds bookings. Both are keyed on the booking id and serialised on its {@code payments} row,
+ * so a redelivered request returns the recorded outcome instead of charging again, and a refund that
+ * arrives before the charge makes the charge fail.
+ */
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class PaymentService {
 
+    private final PaymentRepository paymentRepository;
+
+    @Transactional
     public PaymentResponse processPayment(PaymentRequest request) {
         log.info("Processing payment for booking: {} with amount: {}", 
                 request.getBookingId(), request.getAmount());
-        
+
+        if (!StringUtils.hasText(request.getBookingId())) {
+            log.warn("Rejecting payment without booking id");
+            return PaymentResponse.builder()
+                    .bookingId(request.getBookingId())
+                    .amount(request.getAmount())
+                    .status(PaymentStatus.FAILED.name())
+                    .message("Payment requires a booking id")
+                    .processedAt(LocalDateTime.now())
+                    .build();
+        }
+
+        // Step 1: A booking is charged at most once; repeat requests get the recorded outcome
+        Payment existing = paymentRepository.findByBookingIdForUpdate(request.getBookingId()).orElse(null);
+        if (existing != null) {
+            log.info("Payment for booking: {} already recorded as {}", request.getBookingId(), existing.getStatus());
+            return mapToPaymentResponse(existing);
+        }
+
+        // Step 2: Claim the booking id before charging; a concurrent charge or refund waits for this transaction
+        Payment payment = paymentRepository.saveAndFlush(Payment.builder()
+                .bookingId(request.getBookingId())
+                .paymentId(generatePaymentId())
+                .userId(request.getUserId())
+                .amount(request.getAmount())
+                .status(PaymentStatus.PROCESSING)
+                .build());
+
         // Simulate payment processing time
         try {
             Thread.sleep(1000); // 1 second processing time
@@ -26,24 +67,48 @@ public class PaymentService {
         
         // Dummy implementation - 90% success rate
         boolean isSuccess = shouldPaymentSucceed();
-        
-        String paymentId = generatePaymentId();
-        String status = isSuccess ? "SUCCESS" : "FAILED";
-        String message = isSuccess ? "Payment processed successfully" : "Payment failed due to insufficient funds";
-        
-        PaymentResponse response = PaymentResponse.builder()
-                .paymentId(paymentId)
-                .bookingId(request.getBookingId())
-                .amount(request.getAmount())
-                .status(status)
-                .message(message)
-                .processedAt(LocalDateTime.now())
-                .build();
+
+        // Step 3: Record the outcome
+        payment.setStatus(isSuccess ? PaymentStatus.SUCCESS : PaymentStatus.FAILED);
+        payment.setMessage(isSuccess ? "Payment processed successfully" : "Payment failed due to insufficient funds");
+        payment.setProcessedAt(LocalDateTime.now());
+        payment = paymentRepository.save(payment);
         
         log.info("Payment processing completed for booking: {} with status: {}", 
-                request.getBookingId(), status);
+                request.getBookingId(), payment.getStatus());
         
-        return response;
+        return mapToPaymentResponse(payment);
+    }
+
+    /**
+     * Refunds the booking's payment. If the booking has not been charged yet, records it as cancelled
+     * so the charge is refused when it arrives.
+     */
+    @Transactional
+    public void refundPayment(String bookingId, String reason) {
+        Payment payment = paymentRepository.findByBookingIdForUpdate(bookingId).orElse(null);
+        if (payment == null) {
+            paymentRepository.save(Payment.builder()
+                    .bookingId(bookingId)
+                    .status(PaymentStatus.CANCELLED)
+                    .message("Booking cancelled before payment: " + reason)
+                    .processedAt(LocalDateTime.now())
+                    .build());
+            log.info("Booking: {} cancelled before it was charged", bookingId);
+            return;
+        }
+
+        if (payment.getStatus() != PaymentStatus.SUCCESS) {
+            log.info("Nothing to refund for booking: {} in status {}", bookingId, payment.getStatus());
+            return;
+        }
+
+        // Dummy implementation - refunds always succeed
+        payment.setStatus(PaymentStatus.REFUNDED);
+        payment.setMessage("Payment refunded: " + reason);
+        payment.setRefundedAt(LocalDateTime.now());
+        paymentRepository.save(payment);
+        log.info("Refunded payment: {} for booking: {}", payment.getPaymentId(), bookingId);
     }
     
     protected boolean shouldPaymentSucceed() {
@@ -53,4 +118,15 @@ public class PaymentService {
     private String generatePaymentId() {
         return "PAY-" + System.currentTimeMillis() + "-" + UUID.randomUUID().toString().substring(0, 8);
     }
-}
\ No newline at end of file
+
+    private PaymentResponse mapToPaymentResponse(Payment payment) {
+        return PaymentResponse.builder()
+                .paymentId(payment.getPaymentId())
+                .bookingId(payment.getBookingId())
+                .amount(payment.getAmount())
+                .status(payment.getStatus().name())
+                .message(payment.getMessage())
+                .processedAt(payment.getProcessedAt())
+                .build();
+    }
+}
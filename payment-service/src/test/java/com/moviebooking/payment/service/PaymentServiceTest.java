@@ -1,23 +1,32 @@
 package com.moviebooking.payment.service;
 
+import com.moviebooking.payment.domain.Payment;
+import com.moviebooking.payment.domain.PaymentStatus;
 import com.moviebooking.payment.dto.PaymentRequest;
 import com.moviebooking.payment.dto.PaymentResponse;
+import com.moviebooking.payment.repository.PaymentRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class PaymentServiceTest {
 
+    @Mock
+    private PaymentRepository paymentRepository;
+
     @Spy
     @InjectMocks
     private PaymentService paymentService;
@@ -34,9 +43,16 @@ class PaymentServiceTest {
                 .build();
     }
 
+    private void givenBookingNotCharged() {
+        when(paymentRepository.findByBookingIdForUpdate(anyString())).thenReturn(Optional.empty());
+        when(paymentRepository.saveAndFlush(any(Payment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(paymentRepository.save(any(Payment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
     @Test
     void processPayment_ShouldReturnSuccessResponse_WhenPaymentSucceeds() {
         // Given - Mock shouldPaymentSucceed to return true
+        givenBookingNotCharged();
         doReturn(true).when(paymentService).shouldPaymentSucceed();
 
         // When
@@ -55,6 +71,7 @@ class PaymentServiceTest {
     @Test
     void processPayment_ShouldReturnFailureResponse_WhenPaymentFails() {
         // Given - Mock shouldPaymentSucceed to return false
+        givenBookingNotCharged();
         doReturn(false).when(paymentService).shouldPaymentSucceed();
 
         // When
@@ -73,6 +90,7 @@ class PaymentServiceTest {
     @Test
     void processPayment_ShouldGenerateUniquePaymentId() {
         // Given - Mock shouldPaymentSucceed to return true
+        givenBookingNotCharged();
         doReturn(true).when(paymentService).shouldPaymentSucceed();
 
         // When
@@ -97,6 +115,7 @@ class PaymentServiceTest {
     void processPayment_ShouldSetProcessedAtTimestamp() {
         // Given
         LocalDateTime beforeProcessing = LocalDateTime.now();
+        givenBookingNotCharged();
         doReturn(true).when(paymentService).shouldPaymentSucceed();
 
         // When
@@ -118,6 +137,8 @@ class PaymentServiceTest {
                 .description("Premium movie booking for 5 seats")
                 .build();
 
+        givenBookingNotCharged();
+
         doReturn(true).when(paymentService).shouldPaymentSucceed();
 
         // When
@@ -132,6 +153,7 @@ class PaymentServiceTest {
     void processPayment_ShouldHandleZeroAmount() {
         // Given
         paymentRequest.setAmount(BigDecimal.ZERO);
+        givenBookingNotCharged();
         doReturn(true).when(paymentService).shouldPaymentSucceed();
 
         // When
@@ -147,6 +169,7 @@ class PaymentServiceTest {
     void processPayment_ShouldHandleLargeAmount() {
         // Given
         paymentRequest.setAmount(new BigDecimal("999999.99"));
+        givenBookingNotCharged();
         doReturn(true).when(paymentService).shouldPaymentSucceed();
 
         // When
@@ -159,25 +182,26 @@ class PaymentServiceTest {
     }
 
     @Test
-    void processPayment_ShouldHandleNullBookingId() {
+    void processPayment_ShouldRejectNullBookingId() {
         // Given
         paymentRequest.setBookingId(null);
-        doReturn(true).when(paymentService).shouldPaymentSucceed();
 
         // When
         PaymentResponse response = paymentService.processPayment(paymentRequest);
 
-        // Then
+        // Then - Payments are keyed on the booking id, so nothing is charged
         assertThat(response).isNotNull();
         assertThat(response.getBookingId()).isNull();
-        assertThat(response.getPaymentId()).isNotNull();
+        assertThat(response.getStatus()).isEqualTo("FAILED");
+        assertThat(response.getPaymentId()).isNull();
+        verify(paymentService, never()).shouldPaymentSucceed();
+        verifyNoInteractions(paymentRepository);
     }
 
     @Test
-    void processPayment_ShouldHandleEmptyBookingId() {
+    void processPayment_ShouldRejectEmptyBookingId() {
         // Given
         paymentRequest.setBookingId("");
-        doReturn(true).when(paymentService).shouldPaymentSucceed();
 
         // When
         PaymentResponse response = paymentService.processPayment(paymentRequest);
@@ -185,13 +209,103 @@ class PaymentServiceTest {
         // Then
         assertThat(response).isNotNull();
         assertThat(response.getBookingId()).isEmpty();
-        assertThat(response.getPaymentId()).isNotNull();
+        assertThat(response.getStatus()).isEqualTo("FAILED");
+        verify(paymentService, never()).shouldPaymentSucceed();
+        verifyNoInteractions(paymentRepository);
+    }
+
+    @Test
+    void processPayment_ShouldReturnRecordedOutcome_WhenRequestIsRedelivered() {
+        // Given
+        when(paymentRepository.findByBookingIdForUpdate("BK-123456789-efgh5678")).thenReturn(Optional.of(Payment.builder()
+                .bookingId("BK-123456789-efgh5678")
+                .paymentId("PAY-1")
+                .amount(BigDecimal.valueOf(500.00))
+                .status(PaymentStatus.SUCCESS)
+                .message("Payment processed successfully")
+                .build()));
+
+        // When
+        PaymentResponse response = paymentService.processPayment(paymentRequest);
+
+        // Then
+        assertThat(response.getPaymentId()).isEqualTo("PAY-1");
+        assertThat(response.getStatus()).isEqualTo("SUCCESS");
+        verify(paymentService, never()).shouldPaymentSucceed();
+        verify(paymentRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void processPayment_ShouldRefuseCharge_WhenBookingWasCancelled() {
+        // Given
+        when(paymentRepository.findByBookingIdForUpdate("BK-123456789-efgh5678")).thenReturn(Optional.of(Payment.builder()
+                .bookingId("BK-123456789-efgh5678")
+                .status(PaymentStatus.CANCELLED)
+                .message("Booking cancelled before payment: Booking was not completed in time")
+                .build()));
+
+        // When
+        PaymentResponse response = paymentService.processPayment(paymentRequest);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo("CANCELLED");
+        verify(paymentService, never()).shouldPaymentSucceed();
+    }
+
+    @Test
+    void refundPayment_ShouldRefundSuccessfulPayment() {
+        // Given
+        Payment payment = Payment.builder()
+                .bookingId("BK-123456789-efgh5678")
+                .paymentId("PAY-1")
+                .status(PaymentStatus.SUCCESS)
+                .build();
+        when(paymentRepository.findByBookingIdForUpdate("BK-123456789-efgh5678")).thenReturn(Optional.of(payment));
+
+        // When
+        paymentService.refundPayment("BK-123456789-efgh5678", "Seat hold expired before payment completed");
+
+        // Then
+        assertThat(payment.getStatus()).isEqualTo(PaymentStatus.REFUNDED);
+        assertThat(payment.getRefundedAt()).isNotNull();
+        verify(paymentRepository).save(payment);
+    }
+
+    @Test
+    void refundPayment_ShouldCancelBooking_WhenNotChargedYet() {
+        // Given
+        when(paymentRepository.findByBookingIdForUpdate("BK-123456789-efgh5678")).thenReturn(Optional.empty());
+
+        // When
+        paymentService.refundPayment("BK-123456789-efgh5678", "Booking was not completed in time");
+
+        // Then
+        ArgumentCaptor<Payment> captor = ArgumentCaptor.forClass(Payment.class);
+        verify(paymentRepository).save(captor.capture());
+        assertThat(captor.getValue().getBookingId()).isEqualTo("BK-123456789-efgh5678");
+        assertThat(captor.getValue().getStatus()).isEqualTo(PaymentStatus.CANCELLED);
+    }
+
+    @Test
+    void refundPayment_ShouldDoNothing_WhenPaymentFailedOrWasRefunded() {
+        // Given
+        when(paymentRepository.findByBookingIdForUpdate("BK-123456789-efgh5678")).thenReturn(Optional.of(Payment.builder()
+                .bookingId("BK-123456789-efgh5678")
+                .status(PaymentStatus.REFUNDED)
+                .build()));
+
+        // When
+        paymentService.refundPayment("BK-123456789-efgh5678", "Booking was not completed in time");
+
+        // Then
+        verify(paymentRepository, never()).save(any());
     }
 
     @Test
     void processPayment_ShouldSimulateProcessingDelay() {
         // Given
         long startTime = System.currentTimeMillis();
+        givenBookingNotCharged();
         doReturn(true).when(paymentService).shouldPaymentSucceed();
 
         // When
@@ -208,6 +322,7 @@ class PaymentServiceTest {
     void processPayment_ShouldHandleInterruptedException() {
         // Given
         Thread.currentThread().interrupt(); // Set interrupt flag
+        givenBookingNotCharged();
         doReturn(true).when(paymentService).shouldPaymentSucceed();
 
         // When
@@ -224,6 +339,7 @@ class PaymentServiceTest {
     void processPayment_ShouldHandleNegativeAmount() {
         // Given
         paymentRequest.setAmount(BigDecimal.valueOf(-100.00));
+        givenBookingNotCharged();
         doReturn(true).when(paymentService).shouldPaymentSucceed();
 
         // When
@@ -0,0 +1,19 @@
+package com.moviebooking.search.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
+
+/**
+ * A source of catalog rows to build the search indices from. Each method returns up to
+ * {@code limit} rows with an id greater than {@code afterId}, ordered by id, in the same shape as
+ * the theatre event payloads.
+ */
+public interface CatalogSource {
+
+    List<JsonNode> exportCities(Long afterId, int limit);
+
+    List<JsonNode> exportTheatres(Long afterId, int limit);
+
+    List<JsonNode> exportShows(Long afterId, int limit);
+}
@@ -0,0 +1,27 @@
+package com.moviebooking.search.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
+
+/**
+ * Reads the theatre-service index export.
+ */
+@FeignClient(name = "theatre-service", path = "/api/v1/internal/index-export")
+public interface TheatreServiceClient extends CatalogSource {
+
+    @Override
+    @GetMapping("/cities")
+    List<JsonNode> exportCities(@RequestParam("afterId") Long afterId, @RequestParam("limit") int limit);
+
+    @Override
+    @GetMapping("/theatres")
+    List<JsonNode> exportTheatres(@RequestParam("afterId") Long afterId, @RequestParam("limit") int limit);
+
+    @Override
+    @GetMapping("/shows")
+    List<JsonNode> exportShows(@RequestParam("afterId") Long afterId, @RequestParam("limit") int limit);
+}
@@ -6,8 +6,11 @@ import com.moviebooking.search.model.TheatreDocument;
 import com.moviebooking.search.repository.CitySearchRepository;
 import com.moviebooking.search.repository.ShowSearchRepository;
 import com.moviebooking.search.repository.TheatreSearchRepository;
+import com.moviebooking.search.service.SearchReindexService;
+import com.moviebooking.search.service.SyntheticCatalog;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.data.elasticsearch.core.geo.GeoPoint;
 import org.springframework.stereotype.Component;
@@ -25,6 +28,21 @@ public class SearchDataInitializer implements CommandLineRunner {
     private final CitySearchRepository citySearchRepository;
     private final TheatreSearchRepository theatreSearchRepository;
     private final ShowSearchRepository showSearchRepository;
+    private final SearchReindexService searchReindexService;
+
+    // Seeds a generated catalog of the configured size instead of the sample data below
+    @Value("${app.search.synthetic.enabled:false}")
+    private boolean synthetic;
+    @Value("${app.search.synthetic.cities:500}")
+    private long syntheticCities;
+    @Value("${app.search.synthetic.theatres:20000}")
+    private long syntheticTheatres;
+    @Value("${app.search.synthetic.shows:5000000}")
+    private long syntheticShows;
+    @Value("${app.search.synthetic.movies:300}")
+    private int syntheticMovies;
+    @Value("${app.search.synthetic.days:14}")
+    private int syntheticDays;
 
     @Override
     public void run(String... args) throws Exception {
@@ -36,6 +54,14 @@ public class SearchDataInitializer implements CommandLineRunner {
             return;
         }
 
+        if (synthetic) {
+            log.info("Seeding a synthetic catalog: {} cities, {} theatres, {} shows",
+                    syntheticCities, syntheticTheatres, syntheticShows);
+            searchReindexService.startSyntheticLoad(new SyntheticCatalog(
+                    syntheticCities, syntheticTheatres, syntheticShows, syntheticMovies, syntheticDays));
+            return;
+        }
+
         try {
             initializeCities();
             initializeTheatres();
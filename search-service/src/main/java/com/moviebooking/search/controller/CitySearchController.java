@@ -1,10 +1,14 @@
 package com.moviebooking.search.controller;
 
 import com.moviebooking.search.model.CityDocument;
+import com.moviebooking.search.service.SearchReindexService;
 import com.moviebooking.search.service.SearchService;
+import com.moviebooking.search.service.SyntheticCatalog;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -16,6 +20,11 @@ import java.util.List;
 @Tag(name = "City Search", description = "APIs for searching cities")
 public class CitySearchController {
     private final SearchService searchService;
+    private final SearchReindexService searchReindexService;
+
+    // The synthetic load replaces the real catalog, so it is only available on capacity test setups
+    @Value("${app.search.synthetic.enabled:false}")
+    private boolean syntheticEnabled;
     
     @GetMapping
     @Operation(summary = "Search cities with filters", description = "Search cities with optional filters")
@@ -38,14 +47,32 @@ public class CitySearchController {
         return ResponseEntity.ok(results);
     }
     
-    @PostMapping("/admin/recreate-indices")
-    @Operation(summary = "Recreate Elasticsearch indices", description = "Delete and recreate all search indices with correct mappings")
-    public ResponseEntity<String> recreateIndices() {
-        try {
-            searchService.recreateIndices();
-            return ResponseEntity.ok("Successfully recreated all Elasticsearch indices");
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().body("Failed to recreate indices: " + e.getMessage());
+    @PostMapping("/admin/reindex")
+    @Operation(summary = "Rebuild Elasticsearch indices", description = "Rebuild all search indices from theatre-service into new indices and swap the aliases when done. Searches keep using the current indices meanwhile")
+    public ResponseEntity<String> reindex() {
+        if (!searchReindexService.startReindex()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("A reindex is already running");
+        }
+        return ResponseEntity.accepted().body("Reindex started");
+    }
+
+    @PostMapping("/admin/synthetic-load")
+    @Operation(summary = "Load a generated catalog", description = "Replace all search indices with a generated catalog of the given size, for load and capacity tests. Only available when app.search.synthetic.enabled is set. The load runs like a reindex and logs its progress in docs/s")
+    public ResponseEntity<String> syntheticLoad(
+            @RequestParam(defaultValue = "${app.search.synthetic.cities:500}") long cities,
+            @RequestParam(defaultValue = "${app.search.synthetic.theatres:20000}") long theatres,
+            @RequestParam(defaultValue = "${app.search.synthetic.shows:5000000}") long shows,
+            @RequestParam(defaultValue = "${app.search.synthetic.movies:300}") int movies,
+            @RequestParam(defaultValue = "${app.search.synthetic.days:14}") int days) {
+        if (!syntheticEnabled) {
+            return ResponseEntity.notFound().build();
+        }
+        if (cities < 1 || theatres < 1 || movies < 1 || days < 1 || shows < 0) {
+            return ResponseEntity.badRequest().body("cities, theatres, movies and days must be positive");
+        }
+        if (!searchReindexService.startSyntheticLoad(new SyntheticCatalog(cities, theatres, shows, movies, days))) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("A reindex is already running");
         }
+        return ResponseEntity.accepted().body("Synthetic load started");
     }
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package com.moviebooking.search.controller;
 
 import com.moviebooking.search.model.ShowDocument;
+import com.moviebooking.search.model.ShowSearchRequest;
+import com.moviebooking.search.model.ShowSearchResponse;
 import com.moviebooking.search.service.SearchService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -31,7 +33,7 @@ public class ShowSearchController {
     @GetMapping
     @Operation(
         summary = "Advanced show search with comprehensive filters",
-        description = "Performs intelligent show searches using Elasticsearch with support for multiple filter combinations. Supports text search, location-based filtering, date ranges, and complex multi-criteria searches."
+        description = "Performs show searches using a single Elasticsearch bool query. All filters can be combined; results are returned in pages of at most 100 shows, and the nextCursor of a page is passed as cursor to fetch the next one."
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -39,16 +41,16 @@ public class ShowSearchController {
             description = "Shows found successfully",
             content = @Content(
                 mediaType = "application/json",
-                schema = @Schema(implementation = ShowDocument.class),
+                schema = @Schema(implementation = ShowSearchResponse.class),
                 examples = @ExampleObject(
                     name = "Show Search Results",
-                    value = "[{\"id\":1,\"movieId\":101,\"movieTitle\":\"Avengers: Endgame\",\"theatreId\":201,\"theatreName\":\"PVR Phoenix\",\"cityId\":1,\"cityName\":\"Mumbai\",\"showDateTime\":\"2024-01-15T19:30:00Z\",\"screenName\":\"Screen 1\",\"language\":\"English\",\"format\":\"IMAX\",\"price\":350.00,\"availableSeats\":45}]"
+                    value = "{\"shows\":[{\"id\":\"1\",\"movieId\":101,\"movieTitle\":\"Avengers: Endgame\",\"theatreId\":201,\"theatreName\":\"PVR Phoenix\",\"cityId\":1,\"cityName\":\"Mumbai\",\"showDateTime\":\"2024-01-15T19:30:00\",\"screenName\":\"Screen 1\",\"price\":350.00,\"availableSeats\":45}],\"nextCursor\":\"WzE3MDUzMzcwMDAwMDAsIjEiXQ\"}"
                 )
             )
         ),
-        @ApiResponse(responseCode = "400", description = "Bad Request - Invalid search parameters or date formats")
+        @ApiResponse(responseCode = "400", description = "Bad Request - Invalid search parameters, date formats or cursor")
     })
-    public ResponseEntity<List<ShowDocument>> searchShows(
+    public ResponseEntity<ShowSearchResponse> searchShows(
             @Parameter(
                 description = "Free text search query for movie titles, theatre names, or general search",
                 example = "avengers"
@@ -103,65 +105,61 @@ public class ShowSearchController {
                 description = "Alternative end date for date range search (ISO 8601 format)",
                 example = "2024-01-16T23:59:59"
             )
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
-
-        // Advanced filtering with multiple parameters
-        if (movieTitle != null || cityName != null || theatreName != null || fromDateTime != null || toDateTime != null) {
-            List<ShowDocument> results = searchService.searchShowsWithFilters(
-                    movieTitle, cityName, theatreName, fromDateTime, toDateTime);
-            return ResponseEntity.ok(results);
-        }
-
-        // Date range search
-        if (startDate != null && endDate != null) {
-            List<ShowDocument> results = searchService.searchShowsByDateRange(startDate, endDate);
-            return ResponseEntity.ok(results);
-        }
-
-        // Movie and city combination
-        if (movieId != null && cityId != null) {
-            List<ShowDocument> results;
-            if (fromDateTime != null) {
-                results = searchService.searchShowsByMovieAndCityAfterDateTime(movieId, cityId, fromDateTime);
-            } else {
-                results = searchService.searchShowsByMovieAndCity(movieId, cityId);
-            }
-            return ResponseEntity.ok(results);
-        }
-
-        // Theatre name search
-        if (theatreName != null) {
-            List<ShowDocument> results = searchService.searchShowsByTheatreName(theatreName);
-            return ResponseEntity.ok(results);
-        }
-
-        // City name search
-        if (cityName != null) {
-            List<ShowDocument> results = searchService.searchShowsByCityName(cityName);
-            return ResponseEntity.ok(results);
-        }
-
-        // Movie ID search
-        if (movieId != null) {
-            List<ShowDocument> results = searchService.searchShowsByMovie(movieId);
-            return ResponseEntity.ok(results);
-        }
-
-        // Theatre ID search
-        if (theatreId != null) {
-            List<ShowDocument> results = searchService.searchShowsByTheatre(theatreId);
-            return ResponseEntity.ok(results);
-        }
-
-        // City ID search
-        if (cityId != null) {
-            List<ShowDocument> results = searchService.searchShowsByCity(cityId);
-            return ResponseEntity.ok(results);
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @Parameter(
+                description = "Filter shows by status",
+                example = "ACTIVE"
+            )
+            @RequestParam(required = false) String status,
+            @Parameter(
+                description = "Only shows with at least this many available seats",
+                example = "2"
+            )
+            @RequestParam(required = false) Integer minAvailableSeats,
+            @Parameter(
+                description = "Page size, at most 100",
+                example = "20"
+            )
+            @RequestParam(defaultValue = "20") Integer size,
+            @Parameter(
+                description = "Cursor returned as nextCursor by the previous page"
+            )
+            @RequestParam(required = false) String cursor,
+            @Parameter(
+                description = "Fields to return for each show; all fields when omitted",
+                example = "movieTitle,showDateTime,availableSeats"
+            )
+            @RequestParam(required = false) List<String> fields,
+            @Parameter(
+                description = "Also return facet counts (movieId, theatreId, screenType, status, showDate, price) over all matching shows; first page only",
+                example = "true"
+            )
+            @RequestParam(defaultValue = "false") boolean facets) {
+
+        ShowSearchRequest request = ShowSearchRequest.builder()
+                .query(query)
+                .movieTitle(movieTitle)
+                .theatreName(theatreName)
+                .cityName(cityName)
+                .movieId(movieId)
+                .theatreId(theatreId)
+                .cityId(cityId)
+                .status(status)
+                // startDate/endDate are kept as aliases of fromDateTime/toDateTime
+                .fromDateTime(fromDateTime != null ? fromDateTime : startDate)
+                .toDateTime(toDateTime != null ? toDateTime : endDate)
+                .minAvailableSeats(minAvailableSeats)
+                .size(size)
+                .cursor(cursor)
+                .fields(fields)
+                .facets(facets)
+                .build();
+
+        try {
+            return ResponseEntity.ok(searchService.searchShows(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
-
-        // Default: search by query or all
-        List<ShowDocument> results = searchService.searchShows(query);
-        return ResponseEntity.ok(results);
     }
 
     @GetMapping("/admin/count")
@@ -205,15 +203,16 @@ public class ShowSearchController {
 
         if (theatreId != null) {
             debug.append("\n--- Theatre-Specific Debug (Theatre ID: ").append(theatreId).append(") ---\n");
-            List<ShowDocument> shows = searchService.searchShowsByTheatre(theatreId);
+            List<ShowDocument> shows = searchService.searchShows(
+                    ShowSearchRequest.builder().theatreId(theatreId).size(100).build()).getShows();
             debug.append("Shows found for Theatre ID ").append(theatreId).append(": ").append(shows.size()).append("\n");
 
             if (shows.isEmpty()) {
-                debug.append("No shows found. Checking all shows for comparison:\n");
-                List<ShowDocument> allShows = searchService.searchShows(null);
-                debug.append("Total shows in index: ").append(allShows.size()).append("\n");
+                debug.append("No shows found. Checking other shows for comparison:\n");
+                List<ShowDocument> otherShows = searchService.searchShows(
+                        ShowSearchRequest.builder().size(5).build()).getShows();
 
-                allShows.stream().limit(5).forEach(show ->
+                otherShows.forEach(show ->
                     debug.append("  - Show ID: ").append(show.getId())
                          .append(", Theatre ID: ").append(show.getTheatreId())
                          .append(", Theatre Name: ").append(show.getTheatreName())
@@ -230,9 +229,10 @@ public class ShowSearchController {
             }
         } else {
             debug.append("\n--- General Show Information ---\n");
-            List<ShowDocument> sampleShows = searchService.searchShows(null);
+            List<ShowDocument> sampleShows = searchService.searchShows(
+                    ShowSearchRequest.builder().size(3).build()).getShows();
             debug.append("Sample Shows (first 3):\n");
-            sampleShows.stream().limit(3).forEach(show ->
+            sampleShows.forEach(show ->
                 debug.append("  - ID: ").append(show.getId())
                      .append(", Movie: ").append(show.getMovieTitle())
                      .append(", Theatre: ").append(show.getTheatreName())
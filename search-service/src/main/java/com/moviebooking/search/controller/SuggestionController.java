@@ -0,0 +1,28 @@
+package com.moviebooking.search.controller;
+
+import com.moviebooking.search.model.Suggestion;
+import com.moviebooking.search.service.SearchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/search/suggest")
+@RequiredArgsConstructor
+@Tag(name = "Suggestions", description = "Typeahead suggestions for movie, theatre and city names")
+public class SuggestionController {
+    private final SearchService searchService;
+
+    @GetMapping
+    @Operation(summary = "Suggest names as the user types", description = "Returns the best matching movie titles, theatre names and city names for a prefix, best match first")
+    public ResponseEntity<List<Suggestion>> suggest(
+            @Parameter(description = "Text typed so far", example = "aven") @RequestParam String q,
+            @Parameter(description = "Maximum number of suggestions (max 20)") @RequestParam(defaultValue = "5") int size) {
+        return ResponseEntity.ok(searchService.suggest(q, size));
+    }
+}
@@ -1,5 +1,6 @@
 package com.moviebooking.search.controller;
 
+import com.moviebooking.search.model.NearbyTheatre;
 import com.moviebooking.search.model.TheatreDocument;
 import com.moviebooking.search.service.SearchService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -64,6 +65,21 @@ public class TheatreSearchController {
         return ResponseEntity.ok(results);
     }
 
+    @GetMapping("/nearby")
+    @Operation(summary = "Nearby theatres with showtimes",
+            description = "Theatres within the distance, closest first, each with its distance in km and its next shows, optionally for one movie")
+    public ResponseEntity<List<NearbyTheatre>> searchNearbyTheatres(
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam(defaultValue = "10km") String distance,
+            @RequestParam(required = false) Long movieId,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "3") int shows) {
+
+        List<NearbyTheatre> results = searchService.searchNearbyTheatres(latitude, longitude, distance, movieId, size, shows);
+        return ResponseEntity.ok(results);
+    }
+
     @GetMapping("/admin/count")
     @Operation(summary = "Count theatres", description = "Get total count of indexed theatres")
     public ResponseEntity<Long> countTheatres() {
@@ -1,12 +1,20 @@
 package com.moviebooking.search.kafka;
 
 import com.moviebooking.common.events.booking.BookingConfirmedEvent;
+import com.moviebooking.common.events.booking.SeatConfirmationFailedEvent;
 import com.moviebooking.search.service.SearchIndexService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
+/**
+ * Applies confirmed bookings to the available seats of indexed shows, and gives the seats back
+ * when theatre-service could not book them after all. An event is acknowledged only once its seat
+ * change is written, so changes still pending when the service stops are redelivered rather than
+ * lost.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
@@ -15,9 +23,10 @@ public class SearchEventListener {
     private final SearchIndexService searchIndexService;
 
     @KafkaListener(topics = "booking-confirmed", groupId = "search-service-group")
-    public void handleBookingConfirmed(BookingConfirmedEvent event) {
+    public void handleBookingConfirmed(BookingConfirmedEvent event, Acknowledgment acknowledgment) {
         if (event == null) {
             log.warn("Received null booking confirmed event, ignoring");
+            acknowledgment.acknowledge();
             return;
         }
 
@@ -25,10 +34,35 @@ public class SearchEventListener {
                 event.getShowId(), event.getSeatNumbers());
 
         try {
-            searchIndexService.updateShowSeatAvailability(event.getShowId(), event.getSeatNumbers(), false);
-            log.info("Successfully updated search index for booking: {}", event.getBookingId());
+            searchIndexService.updateShowSeatAvailability(event.getShowId(), event.getSeatNumbers(), false,
+                    acknowledgment::acknowledge);
+            log.info("Recorded seat change in search index for booking: {}", event.getBookingId());
         } catch (Exception e) {
             log.error("Error updating search index for booking: {}", event.getBookingId(), e);
+            acknowledgment.acknowledge();
         }
     }
-}
\ No newline at end of file
+
+    @KafkaListener(topics = "${app.kafka.topics.seat-confirmation-failed:seat-confirmation-failed}", groupId = "search-service-group",
+            properties = "spring.json.value.default.type=com.moviebooking.common.events.booking.SeatConfirmationFailedEvent")
+    public void handleSeatConfirmationFailed(SeatConfirmationFailedEvent event, Acknowledgment acknowledgment) {
+        if (event == null) {
+            log.warn("Received null seat confirmation failure, ignoring");
+            acknowledgment.acknowledge();
+            return;
+        }
+
+        log.info("Received seat confirmation failure for show: {} with seats: {}",
+                event.getShowId(), event.getSeatNumbers());
+
+        try {
+            // The seats were counted as booked when the booking was confirmed
+            searchIndexService.updateShowSeatAvailability(event.getShowId(), event.getSeatNumbers(), true,
+                    acknowledgment::acknowledge);
+            log.info("Recorded released seats in search index for booking: {}", event.getBookingId());
+        } catch (Exception e) {
+            log.error("Error updating search index for booking: {}", event.getBookingId(), e);
+            acknowledgment.acknowledge();
+        }
+    }
+}
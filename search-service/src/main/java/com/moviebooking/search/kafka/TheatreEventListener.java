@@ -2,15 +2,19 @@ package com.moviebooking.search.kafka;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moviebooking.search.service.IndexChange;
 import com.moviebooking.search.service.SearchIndexService;
+import com.moviebooking.search.service.ShowSearchCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -18,61 +22,151 @@ import org.springframework.transaction.annotation.Transactional;
 public class TheatreEventListener {
     private final ObjectMapper objectMapper;
     private final SearchIndexService searchIndexService;
+    private final ShowSearchCache showSearchCache;
     
+    /**
+     * Consumes a poll's worth of theatre events at once. Updates to the same aggregate within the
+     * batch are coalesced so only the latest state is written, and everything is written with
+     * one bulk request per document type. Offsets are committed only after the bulk succeeds;
+     * if it fails the exception propagates and the container redelivers the batch. Cached searches
+     * that depend on the changed aggregates are dropped once the changes are written.
+     */
     @KafkaListener(topics = "${app.kafka.topics.theatre-events:theatre-events}", 
                    groupId = "search-service-group",
                    containerFactory = "stringKafkaListenerContainerFactory")
-    public void handleTheatreEvent(@Payload String eventData, 
-                                  @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
-                                  @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
-                                  @Header(KafkaHeaders.OFFSET) long offset,
-                                  @Header(KafkaHeaders.RECEIVED_KEY) String key) {
+    public void handleTheatreEvents(List<ConsumerRecord<String, String>> records, Acknowledgment acknowledgment) {
+        Map<String, IndexChange> changes = new LinkedHashMap<>();
         
-        log.info("Received Kafka event: topic={}, partition={}, offset={}, key={}, dataLength={}", 
-                topic, partition, offset, key, eventData != null ? eventData.length() : 0);
+        for (ConsumerRecord<String, String> record : records) {
+            IndexChange change = toIndexChange(record);
+            if (change != null) {
+                // Re-insert so the map keeps the order of each aggregate's latest change
+                changes.remove(change.getKey());
+                changes.put(change.getKey(), change);
+            }
+        }
+        
+        if (!changes.isEmpty()) {
+            searchIndexService.applyChanges(changes.values());
+            showSearchCache.invalidate(changes.values());
+        }
+        acknowledgment.acknowledge();
+        
+        log.info("Processed theatre event batch: records={}, indexChanges={}", records.size(), changes.size());
+    }
+    
+    /**
+     * @return the index change carried by the record, or null if the record is ignored
+     */
+    private IndexChange toIndexChange(ConsumerRecord<String, String> record) {
+        String eventData = record.value();
+        String topic = record.topic();
+        int partition = record.partition();
+        long offset = record.offset();
+        String key = record.key();
         
         try {
             if (eventData == null || eventData.trim().isEmpty()) {
                 log.error("Received empty or null event data: topic={}, partition={}, offset={}, key={}", 
                     topic, partition, offset, key);
-                return;
+                return null;
             }
             
             JsonNode eventJson = objectMapper.readTree(eventData);
             String aggregateType = extractAggregateType(eventJson, key);
             String eventType = extractEventType(eventJson);
             
-            log.debug("Processing event: aggregateType={}, eventType={}, topic={}, key={}", 
-                aggregateType, eventType, topic, key);
+            log.debug("Processing event: aggregateType={}, eventType={}, topic={}, partition={}, offset={}, key={}", 
+                aggregateType, eventType, topic, partition, offset, key);
             
             // Extract the actual event data from the payload
             JsonNode actualEventData = eventJson.has("data") ? eventJson.get("data") : eventJson;
 
-            switch (aggregateType) {
-                case "City" -> handleCityEvent(eventType, actualEventData, topic, partition, offset, key);
-                case "Theatre" -> handleTheatreEvent(eventType, actualEventData, topic, partition, offset, key);
-                case "Screen" -> handleScreenEvent(eventType, actualEventData, topic, partition, offset, key);
-                case "Show" -> handleShowEvent(eventType, actualEventData, topic, partition, offset, key);
-                case "SeatAvailability" -> handleSeatEvent(eventType, actualEventData, topic, partition, offset, key);
+            return switch (aggregateType) {
+                case "City" -> toCityChange(eventType, actualEventData, key);
+                case "Theatre" -> toTheatreChange(eventType, actualEventData, key);
+                case "Show" -> toShowChange(eventType, actualEventData, key);
+                case "Screen" -> {
+                    // Screens are not indexed on their own
+                    log.debug("Screen event ignored: eventType={}, key={}", eventType, key);
+                    yield null;
+                }
+                case "SeatAvailability" -> {
+                    // Seat counts follow the booking events instead, see SearchEventListener
+                    log.debug("Seat availability event ignored: eventType={}, key={}", eventType, key);
+                    yield null;
+                }
                 default -> {
                     log.warn("Unknown aggregate type: {} for event: topic={}, partition={}, offset={}, key={}",
                         aggregateType, topic, partition, offset, key);
+                    yield null;
                 }
-            }
-            
-            log.debug("Successfully processed event: aggregateType={}, eventType={}, topic={}, key={}", 
-                aggregateType, eventType, topic, key);
+            };
             
         } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
             log.error("Failed to parse JSON event data: topic={}, partition={}, offset={}, key={}, error={}, eventData={}", 
                 topic, partition, offset, key, e.getMessage(), eventData, e);
-        } catch (Exception e) {
-            log.error("Failed to process Kafka event: topic={}, partition={}, offset={}, key={}, error={}, errorType={}, eventData={}", 
-                topic, partition, offset, key, e.getMessage(), e.getClass().getSimpleName(), eventData, e);
-            // TODO: In a production system, consider sending this to a dead letter queue
+            return null;
         }
     }
     
+    private IndexChange toCityChange(String eventType, JsonNode eventData, String key) {
+        String cityId = eventData.has("id") ? eventData.get("id").asText() : "unknown";
+
+        // Validate required fields for city events
+        if (!validateCityEventData(eventData, eventType)) {
+            log.error("Invalid city event data: eventType={}, cityId={}, key={}, missingFields=true", eventType, cityId, key);
+            return null;
+        }
+
+        return switch (eventType) {
+            case "UPSERT", "CREATED", "UPDATED", "CITY_CREATED", "CITY_UPDATED" -> IndexChange.upsert("City", cityId, eventData);
+            case "DELETED", "CITY_DELETED" -> IndexChange.delete("City", cityId);
+            default -> {
+                log.warn("Unknown city event type: {} for city: id={}, key={}", eventType, cityId, key);
+                yield null;
+            }
+        };
+    }
+    
+    private IndexChange toTheatreChange(String eventType, JsonNode eventData, String key) {
+        String theatreId = eventData.has("id") ? eventData.get("id").asText() : "unknown";
+
+        // Validate required fields for theatre events
+        if (!validateTheatreEventData(eventData, eventType)) {
+            log.error("Invalid theatre event data: eventType={}, theatreId={}, key={}, missingFields=true", eventType, theatreId, key);
+            return null;
+        }
+
+        return switch (eventType) {
+            case "UPSERT", "CREATED", "UPDATED", "THEATRE_CREATED", "THEATRE_UPDATED" -> IndexChange.upsert("Theatre", theatreId, eventData);
+            case "DELETED", "THEATRE_DELETED" -> IndexChange.delete("Theatre", theatreId);
+            default -> {
+                log.warn("Unknown theatre event type: {} for theatre: id={}, key={}", eventType, theatreId, key);
+                yield null;
+            }
+        };
+    }
+    
+    private IndexChange toShowChange(String eventType, JsonNode eventData, String key) {
+        String showId = eventData.has("id") ? eventData.get("id").asText() : "unknown";
+
+        // Validate required fields for show events
+        if (!validateShowEventData(eventData, eventType)) {
+            log.error("Invalid show event data: eventType={}, showId={}, key={}, missingFields=true", eventType, showId, key);
+            return null;
+        }
+
+        return switch (eventType) {
+            case "UPSERT", "CREATED", "UPDATED", "SHOW_CREATED", "SHOW_UPDATED" -> IndexChange.upsert("Show", showId, eventData);
+            case "DELETED", "SHOW_DELETED" -> IndexChange.delete("Show", showId);
+            default -> {
+                log.warn("Unknown show event type: {} for show: id={}, key={}", eventType, showId, key);
+                yield null;
+            }
+        };
+    }
+    
     private String extractAggregateType(JsonNode eventJson, String key) {
         // First try to get aggregate type from the event payload
         if (eventJson.has("aggregateType")) {
@@ -100,162 +194,6 @@ public class TheatreEventListener {
         return "UNKNOWN";
     }
     
-    private void handleCityEvent(String eventType, JsonNode eventData, String topic, int partition, long offset, String key) {
-        try {
-            String cityId = eventData.has("id") ? eventData.get("id").asText() : "unknown";
-            log.debug("Handling city event: eventType={}, cityId={}, topic={}, key={}",
-                eventType, cityId, topic, key);
-
-            // Validate required fields for city events
-            if (!validateCityEventData(eventData, eventType)) {
-                log.error("Invalid city event data: eventType={}, cityId={}, topic={}, key={}, missingFields=true",
-                    eventType, cityId, topic, key);
-                return;
-            }
-
-            switch (eventType) {
-                case "UPSERT":
-                case "CREATED":
-                case "UPDATED":
-                case "CITY_CREATED":
-                case "CITY_UPDATED":
-                    searchIndexService.indexCity(eventData);
-                    log.info("Successfully indexed city: id={}, eventType={}, topic={}, key={}",
-                        eventData.has("id") ? eventData.get("id").asText() : "unknown", eventType, topic, key);
-                    break;
-                case "DELETED":
-                case "CITY_DELETED":
-                    searchIndexService.deleteCity(cityId);
-                    log.info("Successfully deleted city from index: id={}, topic={}, key={}", cityId, topic, key);
-                    break;
-                default:
-                    log.warn("Unknown city event type: {} for city: id={}, topic={}, key={}",
-                        eventType, eventData.has("id") ? eventData.get("id").asText() : "unknown", topic, key);
-            }
-        } catch (Exception e) {
-            log.error("Failed to handle city event: eventType={}, cityId={}, topic={}, partition={}, offset={}, key={}, error={}, errorType={}", 
-                eventType, eventData.has("id") ? eventData.get("id").asText() : "unknown", 
-                topic, partition, offset, key, e.getMessage(), e.getClass().getSimpleName(), e);
-        }
-    }
-    
-    private void handleTheatreEvent(String eventType, JsonNode eventData, String topic, int partition, long offset, String key) {
-        try {
-            String theatreId = eventData.has("id") ? eventData.get("id").asText() : "unknown";
-            log.debug("Handling theatre event: eventType={}, theatreId={}, topic={}, key={}",
-                eventType, theatreId, topic, key);
-
-            // Validate required fields for theatre events
-            if (!validateTheatreEventData(eventData, eventType)) {
-                log.error("Invalid theatre event data: eventType={}, theatreId={}, topic={}, key={}, missingFields=true",
-                    eventType, theatreId, topic, key);
-                return;
-            }
-
-            switch (eventType) {
-                case "UPSERT":
-                case "CREATED":
-                case "UPDATED":
-                case "THEATRE_CREATED":
-                case "THEATRE_UPDATED":
-                    searchIndexService.indexTheatre(eventData);
-                    log.info("Successfully indexed theatre: id={}, eventType={}, topic={}, key={}",
-                        theatreId, eventType, topic, key);
-                    break;
-                case "DELETED":
-                case "THEATRE_DELETED":
-                    searchIndexService.deleteTheatre(theatreId);
-                    log.info("Successfully deleted theatre from index: id={}, topic={}, key={}", theatreId, topic, key);
-                    break;
-                default:
-                    log.warn("Unknown theatre event type: {} for theatre: id={}, topic={}, key={}",
-                        eventType, theatreId, topic, key);
-            }
-        } catch (Exception e) {
-            log.error("Failed to handle theatre event: eventType={}, theatreId={}, topic={}, partition={}, offset={}, key={}, error={}, errorType={}",
-                eventType, eventData.has("id") ? eventData.get("id").asText() : "unknown",
-                topic, partition, offset, key, e.getMessage(), e.getClass().getSimpleName(), e);
-        }
-    }
-    
-    private void handleScreenEvent(String eventType, JsonNode eventData, String topic, int partition, long offset, String key) {
-        // Screen events might affect theatre documents if we store screen count
-        try {
-            String screenId = eventData.has("id") ? eventData.get("id").asText() : "unknown";
-            log.info("Received screen event: eventType={}, screenId={}, topic={}, key={}", eventType, screenId, topic, key);
-            
-            // TODO: Implement screen event handling if needed for search indexing
-            log.debug("Screen event processed (no action taken): eventType={}, screenId={}, topic={}, key={}", 
-                eventType, screenId, topic, key);
-        } catch (Exception e) {
-            log.error("Failed to handle screen event: eventType={}, topic={}, partition={}, offset={}, key={}, error={}, errorType={}", 
-                eventType, topic, partition, offset, key, e.getMessage(), e.getClass().getSimpleName(), e);
-        }
-    }
-    
-    private void handleShowEvent(String eventType, JsonNode eventData, String topic, int partition, long offset, String key) {
-        try {
-            String showId = eventData.has("id") ? eventData.get("id").asText() : "unknown";
-            log.debug("Handling show event: eventType={}, showId={}, topic={}, key={}",
-                eventType, showId, topic, key);
-
-            // Validate required fields for show events
-            if (!validateShowEventData(eventData, eventType)) {
-                log.error("Invalid show event data: eventType={}, showId={}, topic={}, key={}, missingFields=true",
-                    eventType, showId, topic, key);
-                return;
-            }
-
-            switch (eventType) {
-                case "UPSERT":
-                case "CREATED":
-                case "UPDATED":
-                case "SHOW_CREATED":
-                case "SHOW_UPDATED":
-                    searchIndexService.indexShow(eventData);
-                    log.info("Successfully indexed show: id={}, eventType={}, topic={}, key={}",
-                        eventData.has("id") ? eventData.get("id").asText() : "unknown", eventType, topic, key);
-                    break;
-                case "DELETED":
-                case "SHOW_DELETED":
-                    searchIndexService.deleteShow(showId);
-                    log.info("Successfully deleted show from index: id={}, topic={}, key={}", showId, topic, key);
-                    break;
-                default:
-                    log.warn("Unknown show event type: {} for show: id={}, topic={}, key={}",
-                        eventType, eventData.has("id") ? eventData.get("id").asText() : "unknown", topic, key);
-            }
-        } catch (Exception e) {
-            log.error("Failed to handle show event: eventType={}, showId={}, topic={}, partition={}, offset={}, key={}, error={}, errorType={}", 
-                eventType, eventData.has("id") ? eventData.get("id").asText() : "unknown", 
-                topic, partition, offset, key, e.getMessage(), e.getClass().getSimpleName(), e);
-        }
-    }
-    
-    private void handleSeatEvent(String eventType, JsonNode eventData, String topic, int partition, long offset, String key) {
-        // Seat availability changes might affect show documents (available seats count)
-        try {
-            String seatId = eventData.has("id") ? eventData.get("id").asText() : "unknown";
-            Long showId = eventData.has("showId") ? eventData.get("showId").asLong() : null;
-            
-            log.debug("Handling seat event: eventType={}, seatId={}, showId={}, topic={}, key={}", 
-                eventType, seatId, showId, topic, key);
-            
-            if (showId != null) {
-                searchIndexService.updateShowAvailableSeats(showId);
-                log.info("Successfully updated show available seats: seatId={}, showId={}, eventType={}, topic={}, key={}", 
-                    seatId, showId, eventType, topic, key);
-            } else {
-                log.warn("Seat event missing showId: seatId={}, eventType={}, topic={}, key={}", 
-                    seatId, eventType, topic, key);
-            }
-        } catch (Exception e) {
-            log.error("Failed to handle seat event: eventType={}, seatId={}, topic={}, partition={}, offset={}, key={}, error={}, errorType={}", 
-                eventType, eventData.has("id") ? eventData.get("id").asText() : "unknown", 
-                topic, partition, offset, key, e.getMessage(), e.getClass().getSimpleName(), e);
-        }
-    }
-
     private boolean validateTheatreEventData(JsonNode eventData, String eventType) {
         // For delete events, we only need ID
         if ("DELETED".equals(eventType)) {
@@ -7,10 +7,13 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.InnerField;
+import org.springframework.data.elasticsearch.annotations.MultiField;
 
 import java.time.LocalDateTime;
 
-@Document(indexName = "cities")
+// The index name is an alias over versioned indices, created by SearchIndexAliases
+@Document(indexName = "cities", createIndex = false)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -18,7 +21,9 @@ public class CityDocument {
     @Id
     private String id;
     
-    @Field(type = FieldType.Text, analyzer = "standard")
+    @MultiField(
+            mainField = @Field(type = FieldType.Text, analyzer = "standard"),
+            otherFields = @InnerField(suffix = "suggest", type = FieldType.Search_As_You_Type, analyzer = "standard"))
     private String name;
     
     @Field(type = FieldType.Text)
@@ -0,0 +1,16 @@
+package com.moviebooking.search.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A facet value and the number of matching shows that have it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetBucket {
+    private String key;
+    private long count;
+}
@@ -0,0 +1,19 @@
+package com.moviebooking.search.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A theatre near the requested location, its distance in kilometres, and its next shows.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearbyTheatre {
+    private TheatreDocument theatre;
+    private double distanceKm;
+    private List<ShowDocument> nextShows;
+}
@@ -7,22 +7,28 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.InnerField;
+import org.springframework.data.elasticsearch.annotations.MultiField;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
-@Document(indexName = "shows")
+// The index name is an alias over versioned indices, created by SearchIndexAliases
+@Document(indexName = "shows", createIndex = false)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class ShowDocument {
     @Id
+    @Field(type = FieldType.Keyword)
     private String id;
     
     @Field(type = FieldType.Long)
     private Long movieId;
     
-    @Field(type = FieldType.Text, analyzer = "standard")
+    @MultiField(
+            mainField = @Field(type = FieldType.Text, analyzer = "standard"),
+            otherFields = @InnerField(suffix = "suggest", type = FieldType.Search_As_You_Type, analyzer = "standard"))
     private String movieTitle;
     
     @Field(type = FieldType.Date, format = {}, pattern = "uuuu-MM-dd'T'HH:mm:ss")
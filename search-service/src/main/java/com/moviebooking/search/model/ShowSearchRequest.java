@@ -0,0 +1,41 @@
+package com.moviebooking.search.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Criteria for a show search. Every field is optional; unset fields are not applied.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShowSearchRequest {
+    // Free text, scored
+    private String query;
+    private String movieTitle;
+    private String theatreName;
+    private String cityName;
+
+    // Exact filters, not scored
+    private Long movieId;
+    private Long theatreId;
+    private Long cityId;
+    private String status;
+    private LocalDateTime fromDateTime;
+    private LocalDateTime toDateTime;
+    private Integer minAvailableSeats;
+
+    // Paging and projection
+    private Integer size;
+    private String cursor;
+    private List<String> fields;
+
+    // Facet counts over all matches, computed for the first page only
+    private boolean facets;
+}
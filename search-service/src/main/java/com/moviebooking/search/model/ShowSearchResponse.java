@@ -0,0 +1,28 @@
+package com.moviebooking.search.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of show search results. {@code nextCursor} is passed back as {@code cursor} to fetch the
+ * next page and is null on the last page. {@code facets} maps each facet name to its buckets and is
+ * null unless facets were requested. {@code degraded} is true when Elasticsearch was unavailable and
+ * the shows come from the local snapshot of upcoming shows instead, without facets or further pages.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShowSearchResponse {
+    private List<ShowDocument> shows;
+    private String nextCursor;
+    private Map<String, List<FacetBucket>> facets;
+    private boolean degraded;
+
+    public ShowSearchResponse(List<ShowDocument> shows, String nextCursor, Map<String, List<FacetBucket>> facets) {
+        this(shows, nextCursor, facets, false);
+    }
+}
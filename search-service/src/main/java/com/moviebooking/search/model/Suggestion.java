@@ -0,0 +1,20 @@
+package com.moviebooking.search.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A typeahead suggestion: a movie, theatre or city whose name matches the typed prefix.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Suggestion {
+    public enum Type { MOVIE, THEATRE, CITY }
+
+    private Type type;
+    private String id;
+    private String text;
+    private double score;
+}
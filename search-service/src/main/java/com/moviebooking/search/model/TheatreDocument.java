@@ -7,12 +7,15 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.InnerField;
+import org.springframework.data.elasticsearch.annotations.MultiField;
 import org.springframework.data.elasticsearch.annotations.GeoPointField;
 import org.springframework.data.elasticsearch.core.geo.GeoPoint;
 
 import java.time.LocalDateTime;
 
-@Document(indexName = "theatres")
+// The index name is an alias over versioned indices, created by SearchIndexAliases
+@Document(indexName = "theatres", createIndex = false)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -23,7 +26,9 @@ public class TheatreDocument {
     @Field(type = FieldType.Long)
     private Long theatreId;
 
-    @Field(type = FieldType.Text, analyzer = "standard")
+    @MultiField(
+            mainField = @Field(type = FieldType.Text, analyzer = "standard"),
+            otherFields = @InnerField(suffix = "suggest", type = FieldType.Search_As_You_Type, analyzer = "standard"))
     private String name;
     
     @Field(type = FieldType.Text)
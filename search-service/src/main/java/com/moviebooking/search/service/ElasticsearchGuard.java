@@ -0,0 +1,79 @@
+package com.moviebooking.search.service;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Guards search requests to Elasticsearch with a bulkhead and a circuit breaker.
+ * <p>
+ * The bulkhead caps the requests in flight and rejects the rest at once, so a slow cluster cannot
+ * tie up every web thread. The circuit breaker opens when too many recent requests failed or were
+ * slower than {@code slowCallThreshold}, and then rejects requests without calling Elasticsearch
+ * until {@code openDuration} has passed and a few trial requests succeed. Single requests are
+ * bounded by the client socket timeout ({@code spring.elasticsearch.socket-timeout}).
+ */
+@Component
+@Slf4j
+public class ElasticsearchGuard {
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+
+    public ElasticsearchGuard(@Value("${app.search.resilience.max-concurrent-calls:50}") int maxConcurrentCalls,
+                              @Value("${app.search.resilience.failure-rate-threshold:50}") float failureRateThreshold,
+                              @Value("${app.search.resilience.slow-call-threshold:1s}") Duration slowCallThreshold,
+                              @Value("${app.search.resilience.sliding-window-size:50}") int slidingWindowSize,
+                              @Value("${app.search.resilience.open-duration:10s}") Duration openDuration) {
+        this.circuitBreaker = CircuitBreaker.of("elasticsearch", CircuitBreakerConfig.custom()
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(Math.min(10, slidingWindowSize))
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(slowCallThreshold)
+                .waitDurationInOpenState(openDuration)
+                .permittedNumberOfCallsInHalfOpenState(5)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .build());
+        this.bulkhead = Bulkhead.of("elasticsearch", BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        circuitBreaker.getEventPublisher().onStateTransition(event ->
+                log.warn("Elasticsearch circuit breaker {}", event.getStateTransition()));
+    }
+
+    /**
+     * Runs a request to Elasticsearch.
+     *
+     * @throws SearchUnavailableException if the request was rejected without calling Elasticsearch
+     */
+    public <T> T call(Supplier<T> request) {
+        try {
+            return bulkhead.executeSupplier(() -> circuitBreaker.executeSupplier(request));
+        } catch (CallNotPermittedException e) {
+            throw new SearchUnavailableException("Elasticsearch circuit breaker is open", e);
+        } catch (BulkheadFullException e) {
+            throw new SearchUnavailableException("Too many concurrent Elasticsearch requests", e);
+        }
+    }
+
+    /**
+     * @return whether requests are currently let through to Elasticsearch as usual
+     */
+    public boolean isAvailable() {
+        return circuitBreaker.getState() == CircuitBreaker.State.CLOSED;
+    }
+
+    CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+}
@@ -0,0 +1,36 @@
+package com.moviebooking.search.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Latest known state of one indexed aggregate: either its event data to upsert or a delete.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class IndexChange {
+    private final String aggregateType;
+    private final String id;
+    private final JsonNode data;
+
+    public static IndexChange upsert(String aggregateType, String id, JsonNode data) {
+        return new IndexChange(aggregateType, id, data);
+    }
+
+    public static IndexChange delete(String aggregateType, String id) {
+        return new IndexChange(aggregateType, id, null);
+    }
+
+    public boolean isDelete() {
+        return data == null;
+    }
+
+    /**
+     * Changes with the same key replace each other; only the last one needs to be applied.
+     */
+    public String getKey() {
+        return aggregateType + "-" + id;
+    }
+}
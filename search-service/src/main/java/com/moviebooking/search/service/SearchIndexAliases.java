@@ -0,0 +1,228 @@
+package com.moviebooking.search.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ErrorCause;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import com.moviebooking.search.model.CityDocument;
+import com.moviebooking.search.model.ShowDocument;
+import com.moviebooking.search.model.TheatreDocument;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.index.AliasAction;
+import org.springframework.data.elasticsearch.core.index.AliasActionParameters;
+import org.springframework.data.elasticsearch.core.index.AliasActions;
+import org.springframework.data.elasticsearch.core.index.Settings;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Manages the versioned indices behind the search aliases. Documents are read and written through
+ * the alias named by their {@code @Document} annotation ({@code cities}, {@code theatres},
+ * {@code shows}), while each alias points at one physical index such as {@code shows_20240115103000000}.
+ * A reindex builds a new physical index next to the live one and swaps the alias over atomically.
+ * <p>
+ * While a build is in progress its index is registered here so live index changes can be written
+ * to it as well as to the alias. The ids deleted during the build are kept until it finishes, so
+ * the bulk load does not bring back documents its export still contained.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SearchIndexAliases {
+    static final List<Class<?>> DOCUMENT_TYPES = List.of(CityDocument.class, TheatreDocument.class, ShowDocument.class);
+    private static final DateTimeFormatter VERSION_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSS");
+    private static final String REFRESH_INTERVAL = "index.refresh_interval";
+    private static final String NUMBER_OF_REPLICAS = "index.number_of_replicas";
+
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final ElasticsearchClient elasticsearchClient;
+    private final Map<Class<?>, IndexCoordinates> buildIndices = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Set<String>> buildTombstones = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a versioned index and its alias for every document type that has neither. An existing
+     * concrete index with the alias name (from before aliases were used) is left in place; the
+     * first reindex replaces it.
+     */
+    @PostConstruct
+    public void initializeIndices() {
+        try {
+            log.info("Checking Elasticsearch indices on startup...");
+
+            for (Class<?> type : DOCUMENT_TYPES) {
+                String alias = aliasOf(type);
+                if (!elasticsearchOperations.indexOps(IndexCoordinates.of(alias)).exists()) {
+                    IndexCoordinates index = createIndex(type, false);
+                    elasticsearchOperations.indexOps(index).alias(new AliasActions(addAlias(index.getIndexName(), alias)));
+                    log.info("Created index {} with alias {}", index.getIndexName(), alias);
+                }
+            }
+
+            log.info("Elasticsearch indices check completed");
+        } catch (Exception e) {
+            log.error("Failed to initialize Elasticsearch indices: {}", e.getMessage(), e);
+            // Don't throw here to allow application to start, but log the error
+        }
+    }
+
+    public String aliasOf(Class<?> type) {
+        return elasticsearchOperations.getIndexCoordinatesFor(type).getIndexName();
+    }
+
+    /**
+     * Creates a new versioned index with the settings and mapping of the document type.
+     *
+     * @param bulkLoad whether to create it for a bulk load, without refreshes or replicas;
+     *                 {@link #finishBulkLoad} restores them
+     */
+    public IndexCoordinates createIndex(Class<?> type, boolean bulkLoad) {
+        IndexCoordinates index = IndexCoordinates.of(aliasOf(type) + "_" + LocalDateTime.now().format(VERSION_FORMAT));
+        IndexOperations typeOps = elasticsearchOperations.indexOps(type);
+        Settings settings = typeOps.createSettings(type).flatten();
+        if (bulkLoad) {
+            settings.put(REFRESH_INTERVAL, "-1");
+            settings.put(NUMBER_OF_REPLICAS, "0");
+        }
+        elasticsearchOperations.indexOps(index).create(settings, typeOps.createMapping(type));
+        return index;
+    }
+
+    /**
+     * Restores the refresh interval and replicas of an index created for a bulk load, and refreshes
+     * it so everything loaded is searchable before the alias is swapped to it.
+     */
+    public void finishBulkLoad(Class<?> type, IndexCoordinates index) throws IOException {
+        Settings settings = elasticsearchOperations.indexOps(type).createSettings(type).flatten();
+        String refreshInterval = String.valueOf(settings.getOrDefault(REFRESH_INTERVAL, "1s"));
+        String replicas = String.valueOf(settings.getOrDefault(NUMBER_OF_REPLICAS, "1"));
+        elasticsearchClient.indices().putSettings(request -> request
+                .index(index.getIndexName())
+                .settings(s -> s.refreshInterval(t -> t.time(refreshInterval)).numberOfReplicas(replicas)));
+        elasticsearchOperations.indexOps(index).refresh();
+    }
+
+    /**
+     * Points the alias of the document type at {@code newIndex} in one atomic request and deletes
+     * the indices it pointed at before. A concrete index with the alias name is removed within the
+     * same request, since an alias cannot be added while it exists.
+     */
+    public void swapAlias(Class<?> type, IndexCoordinates newIndex) {
+        String alias = aliasOf(type);
+        IndexOperations aliasOps = elasticsearchOperations.indexOps(IndexCoordinates.of(alias));
+        Set<String> oldIndices = aliasOps.exists() ? aliasOps.getAliasesForIndex(alias).keySet() : Set.of();
+
+        List<AliasAction> actions = new ArrayList<>();
+        List<String> retired = new ArrayList<>();
+        for (String oldIndex : oldIndices) {
+            if (oldIndex.equals(alias)) {
+                actions.add(new AliasAction.RemoveIndex(AliasActionParameters.builder().withIndices(oldIndex).build()));
+            } else if (!oldIndex.equals(newIndex.getIndexName())) {
+                actions.add(new AliasAction.Remove(AliasActionParameters.builder().withIndices(oldIndex).withAliases(alias).build()));
+                retired.add(oldIndex);
+            }
+        }
+        actions.add(addAlias(newIndex.getIndexName(), alias));
+        elasticsearchOperations.indexOps(newIndex).alias(new AliasActions(actions.toArray(new AliasAction[0])));
+        log.info("Swapped alias {} to {} (previously {})", alias, newIndex.getIndexName(), oldIndices);
+
+        for (String oldIndex : retired) {
+            deleteIndex(IndexCoordinates.of(oldIndex));
+        }
+    }
+
+    public void deleteIndex(IndexCoordinates index) {
+        try {
+            elasticsearchOperations.indexOps(index).delete();
+            log.info("Deleted index {}", index.getIndexName());
+        } catch (Exception e) {
+            log.warn("Failed to delete index {}: {}", index.getIndexName(), e.getMessage());
+        }
+    }
+
+    public void startBuild(Class<?> type, IndexCoordinates index) {
+        buildTombstones.put(type, ConcurrentHashMap.newKeySet());
+        buildIndices.put(type, index);
+    }
+
+    public void finishBuild(Class<?> type) {
+        buildIndices.remove(type);
+        buildTombstones.remove(type);
+    }
+
+    /**
+     * Deletes documents from the index being built for the document type, if a reindex is in
+     * progress, and remembers their ids until it finishes. The ids are recorded before the delete
+     * is sent, so a snapshot copy written concurrently is either skipped or removed again by the
+     * bulk load. Ids are never reused, so a deleted id stays deleted.
+     */
+    public void deleteFromBuild(Class<?> type, Collection<String> ids) {
+        IndexCoordinates index = buildIndices.get(type);
+        Set<String> tombstones = buildTombstones.get(type);
+        if (ids.isEmpty() || index == null || tombstones == null) {
+            return;
+        }
+        tombstones.addAll(ids);
+        try {
+            deleteDocuments(index, ids);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return whether the document was deleted since the build for its type started
+     */
+    public boolean isDeletedDuringBuild(Class<?> type, String id) {
+        Set<String> tombstones = buildTombstones.get(type);
+        return tombstones != null && tombstones.contains(id);
+    }
+
+    /**
+     * Deletes documents by id with one {@code _bulk} request. Unlike a delete-by-query, this also
+     * removes documents not refreshed yet, which matters for an index being bulk loaded. Ids that
+     * are not in the index are ignored.
+     */
+    public void deleteDocuments(IndexCoordinates index, Collection<String> ids) throws IOException {
+        BulkResponse response = elasticsearchClient.bulk(request -> {
+            ids.forEach(id -> request.operations(op -> op.delete(delete -> delete.index(index.getIndexName()).id(id))));
+            return request;
+        });
+        if (response.errors()) {
+            String reason = response.items().stream()
+                    .map(BulkResponseItem::error)
+                    .filter(Objects::nonNull)
+                    .map(ErrorCause::reason)
+                    .findFirst()
+                    .orElse("unknown");
+            throw new IllegalStateException("Bulk delete from " + index.getIndexName() + " failed: " + reason);
+        }
+    }
+
+    /**
+     * @return the index being built for the document type, if a reindex is in progress
+     */
+    public Optional<IndexCoordinates> buildIndex(Class<?> type) {
+        return Optional.ofNullable(buildIndices.get(type));
+    }
+
+    private static AliasAction addAlias(String index, String alias) {
+        return new AliasAction.Add(AliasActionParameters.builder().withIndices(index).withAliases(alias).build());
+    }
+}
@@ -9,12 +9,20 @@ import com.moviebooking.search.repository.ShowSearchRepository;
 import com.moviebooking.search.repository.TheatreSearchRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
 import org.springframework.data.elasticsearch.core.geo.GeoPoint;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import org.springframework.data.elasticsearch.core.query.IndexQueryBuilder;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 
 @Service
@@ -24,163 +32,201 @@ public class SearchIndexService {
     private final CitySearchRepository citySearchRepository;
     private final TheatreSearchRepository theatreSearchRepository;
     private final ShowSearchRepository showSearchRepository;
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final SearchIndexAliases searchIndexAliases;
+    private final ShowSeatCounter showSeatCounter;
     
-    public void indexCity(JsonNode cityData) {
-        try {
-            CityDocument cityDoc = new CityDocument();
-            cityDoc.setId(cityData.get("id").asText());
-            cityDoc.setName(cityData.get("name").asText());
-            cityDoc.setState(cityData.get("state").asText());
-            cityDoc.setCountry(cityData.get("country").asText());
-            
-            if (cityData.has("zipCode") && !cityData.get("zipCode").isNull()) {
-                cityDoc.setZipCode(cityData.get("zipCode").asText());
-            }
-            
-            cityDoc.setCreatedAt(safeParseDateTime(cityData, "createdAt"));
-            cityDoc.setUpdatedAt(safeParseDateTime(cityData, "updatedAt"));
-            
-            citySearchRepository.save(cityDoc);
-            log.info("Indexed city: {} with ID: {}", cityDoc.getName(), cityDoc.getId());
-            
-        } catch (Exception e) {
-            log.error("Failed to index city: {}", e.getMessage(), e);
+    CityDocument toCityDocument(JsonNode cityData) {
+        CityDocument cityDoc = new CityDocument();
+        cityDoc.setId(cityData.get("id").asText());
+        cityDoc.setName(cityData.get("name").asText());
+        cityDoc.setState(cityData.get("state").asText());
+        cityDoc.setCountry(cityData.get("country").asText());
+        
+        if (cityData.has("zipCode") && !cityData.get("zipCode").isNull()) {
+            cityDoc.setZipCode(cityData.get("zipCode").asText());
         }
+        
+        cityDoc.setCreatedAt(safeParseDateTime(cityData, "createdAt"));
+        cityDoc.setUpdatedAt(safeParseDateTime(cityData, "updatedAt"));
+        return cityDoc;
     }
     
-    public void indexTheatre(JsonNode theatreData) {
-        try {
-            TheatreDocument theatreDoc = new TheatreDocument();
-            theatreDoc.setId(theatreData.get("id").asText());
-            theatreDoc.setTheatreId(theatreData.get("id").asLong());
-            theatreDoc.setName(theatreData.get("name").asText());
-            theatreDoc.setAddress(theatreData.get("address").asText());
-
-            if (theatreData.has("phoneNumber") && !theatreData.get("phoneNumber").isNull()) {
-                theatreDoc.setPhoneNumber(theatreData.get("phoneNumber").asText());
-            }
-
-            if (theatreData.has("email") && !theatreData.get("email").isNull()) {
-                theatreDoc.setEmail(theatreData.get("email").asText());
-            }
+    TheatreDocument toTheatreDocument(JsonNode theatreData) {
+        TheatreDocument theatreDoc = new TheatreDocument();
+        theatreDoc.setId(theatreData.get("id").asText());
+        theatreDoc.setTheatreId(theatreData.get("id").asLong());
+        theatreDoc.setName(theatreData.get("name").asText());
+        theatreDoc.setAddress(theatreData.get("address").asText());
 
-            if (theatreData.has("latitude") && !theatreData.get("latitude").isNull() &&
-                theatreData.has("longitude") && !theatreData.get("longitude").isNull()) {
-                double lat = theatreData.get("latitude").asDouble();
-                double lon = theatreData.get("longitude").asDouble();
-                theatreDoc.setLocation(new GeoPoint(lat, lon));
-            }
+        if (theatreData.has("phoneNumber") && !theatreData.get("phoneNumber").isNull()) {
+            theatreDoc.setPhoneNumber(theatreData.get("phoneNumber").asText());
+        }
 
-            theatreDoc.setCityId(theatreData.get("cityId").asLong());
-            theatreDoc.setCityName(theatreData.get("cityName").asText());
+        if (theatreData.has("email") && !theatreData.get("email").isNull()) {
+            theatreDoc.setEmail(theatreData.get("email").asText());
+        }
 
-            // Handle datetime fields more robustly
-            theatreDoc.setCreatedAt(safeParseDateTime(theatreData, "createdAt"));
-            theatreDoc.setUpdatedAt(safeParseDateTime(theatreData, "updatedAt"));
+        if (theatreData.has("latitude") && !theatreData.get("latitude").isNull() &&
+            theatreData.has("longitude") && !theatreData.get("longitude").isNull()) {
+            double lat = theatreData.get("latitude").asDouble();
+            double lon = theatreData.get("longitude").asDouble();
+            theatreDoc.setLocation(new GeoPoint(lat, lon));
+        }
 
-            theatreSearchRepository.save(theatreDoc);
-            log.info("Indexed theatre: {} with ID: {}", theatreDoc.getName(), theatreDoc.getId());
+        theatreDoc.setCityId(theatreData.get("cityId").asLong());
+        theatreDoc.setCityName(theatreData.get("cityName").asText());
 
-        } catch (Exception e) {
-            log.error("Failed to index theatre: {}", e.getMessage(), e);
-        }
+        // Handle datetime fields more robustly
+        theatreDoc.setCreatedAt(safeParseDateTime(theatreData, "createdAt"));
+        theatreDoc.setUpdatedAt(safeParseDateTime(theatreData, "updatedAt"));
+        return theatreDoc;
     }
     
-    public void indexShow(JsonNode showData) {
-        try {
-            ShowDocument showDoc = new ShowDocument();
-            showDoc.setId(showData.get("id").asText());
-            showDoc.setMovieId(showData.get("movieId").asLong());
-            showDoc.setMovieTitle(showData.get("movieTitle").asText());
-            showDoc.setShowDateTime(safeParseDateTime(showData, "showDateTime"));
-            showDoc.setEndDateTime(safeParseDateTime(showData, "endDateTime"));
-            showDoc.setPrice(new BigDecimal(showData.get("price").asText()));
-            showDoc.setAvailableSeats(showData.get("availableSeats").asInt());
-            showDoc.setStatus(showData.get("status").asText());
-            
-            showDoc.setScreenId(showData.get("screenId").asLong());
-            showDoc.setScreenName(showData.get("screenName").asText());
-            
-            showDoc.setTheatreId(showData.get("theatreId").asLong());
-            showDoc.setTheatreName(showData.get("theatreName").asText());
-            
-            showDoc.setCityId(showData.get("cityId").asLong());
-            showDoc.setCityName(showData.get("cityName").asText());
-            
-            showDoc.setCreatedAt(safeParseDateTime(showData, "createdAt"));
-            showDoc.setUpdatedAt(safeParseDateTime(showData, "updatedAt"));
-            
-            showSearchRepository.save(showDoc);
-            log.info("Indexed show: {} with ID: {}", showDoc.getMovieTitle(), showDoc.getId());
-            
-        } catch (Exception e) {
-            log.error("Failed to index show: {}", e.getMessage(), e);
+    ShowDocument toShowDocument(JsonNode showData) {
+        ShowDocument showDoc = new ShowDocument();
+        showDoc.setId(showData.get("id").asText());
+        showDoc.setMovieId(showData.get("movieId").asLong());
+        showDoc.setMovieTitle(showData.get("movieTitle").asText());
+        showDoc.setShowDateTime(safeParseDateTime(showData, "showDateTime"));
+        showDoc.setEndDateTime(safeParseDateTime(showData, "endDateTime"));
+        showDoc.setPrice(new BigDecimal(showData.get("price").asText()));
+        showDoc.setAvailableSeats(showData.get("availableSeats").asInt());
+        showDoc.setStatus(showData.get("status").asText());
+        
+        showDoc.setScreenId(showData.get("screenId").asLong());
+        showDoc.setScreenName(showData.get("screenName").asText());
+        if (showData.hasNonNull("screenType")) {
+            showDoc.setScreenType(showData.get("screenType").asText());
         }
+        
+        showDoc.setTheatreId(showData.get("theatreId").asLong());
+        showDoc.setTheatreName(showData.get("theatreName").asText());
+        
+        showDoc.setCityId(showData.get("cityId").asLong());
+        showDoc.setCityName(showData.get("cityName").asText());
+        
+        showDoc.setCreatedAt(safeParseDateTime(showData, "createdAt"));
+        showDoc.setUpdatedAt(safeParseDateTime(showData, "updatedAt"));
+        return showDoc;
     }
     
-    public void deleteCity(String cityId) {
-        try {
-            citySearchRepository.deleteById(cityId);
-            log.info("Deleted city with ID: {}", cityId);
-        } catch (Exception e) {
-            log.error("Failed to delete city: {}", e.getMessage(), e);
+    /**
+     * Applies a batch of coalesced changes with one {@code _bulk} request per document type for
+     * upserts and one delete-by-ids per type for deletes. Unlike {@code repository.save}, this does
+     * not force an index refresh per document. Changes whose data cannot be mapped are skipped.
+     * While a reindex is building a new index, the changes are written to it as well.
+     *
+     * @throws RuntimeException if Elasticsearch rejects the request, so the caller can retry the batch
+     */
+    public void applyChanges(Collection<IndexChange> changes) {
+        List<IndexQuery> cityQueries = new ArrayList<>();
+        List<IndexQuery> theatreQueries = new ArrayList<>();
+        List<UpdateQuery> showUpserts = new ArrayList<>();
+        List<String> cityDeletes = new ArrayList<>();
+        List<String> theatreDeletes = new ArrayList<>();
+        List<String> showDeletes = new ArrayList<>();
+        
+        for (IndexChange change : changes) {
+            try {
+                switch (change.getAggregateType()) {
+                    case "City" -> {
+                        if (change.isDelete()) {
+                            cityDeletes.add(change.getId());
+                        } else {
+                            cityQueries.add(indexQuery(change.getId(), toCityDocument(change.getData())));
+                        }
+                    }
+                    case "Theatre" -> {
+                        if (change.isDelete()) {
+                            theatreDeletes.add(change.getId());
+                        } else {
+                            theatreQueries.add(indexQuery(change.getId(), toTheatreDocument(change.getData())));
+                        }
+                    }
+                    case "Show" -> {
+                        if (change.isDelete()) {
+                            showDeletes.add(change.getId());
+                        } else {
+                            showUpserts.add(showUpsert(change.getId(), toShowDocument(change.getData())));
+                        }
+                    }
+                    default -> log.warn("Ignoring index change for unsupported aggregate type: {}", change.getAggregateType());
+                }
+            } catch (Exception e) {
+                log.error("Skipping index change {}: {}", change.getKey(), e.getMessage(), e);
+            }
+        }
+        
+        bulkIndex(cityQueries, CityDocument.class);
+        bulkIndex(theatreQueries, TheatreDocument.class);
+        if (!showUpserts.isEmpty()) {
+            elasticsearchOperations.bulkUpdate(showUpserts, ShowDocument.class);
         }
+        
+        if (!cityDeletes.isEmpty()) {
+            citySearchRepository.deleteAllById(cityDeletes);
+        }
+        if (!theatreDeletes.isEmpty()) {
+            theatreSearchRepository.deleteAllById(theatreDeletes);
+        }
+        if (!showDeletes.isEmpty()) {
+            showSearchRepository.deleteAllById(showDeletes);
+        }
+        
+        writeToBuildIndex(CityDocument.class, cityQueries, List.of(), cityDeletes);
+        writeToBuildIndex(TheatreDocument.class, theatreQueries, List.of(), theatreDeletes);
+        writeToBuildIndex(ShowDocument.class, List.of(), showUpserts, showDeletes);
+        
+        log.info("Applied index changes: cities={}/{}, theatres={}/{}, shows={}/{} (indexed/deleted)",
+                cityQueries.size(), cityDeletes.size(), theatreQueries.size(), theatreDeletes.size(),
+                showUpserts.size(), showDeletes.size());
     }
     
-    public void deleteTheatre(String theatreId) {
-        try {
-            theatreSearchRepository.deleteById(theatreId);
-            log.info("Deleted theatre with ID: {}", theatreId);
-        } catch (Exception e) {
-            log.error("Failed to delete theatre: {}", e.getMessage(), e);
+    private void bulkIndex(List<IndexQuery> queries, Class<?> documentClass) {
+        if (!queries.isEmpty()) {
+            elasticsearchOperations.bulkIndex(queries, documentClass);
         }
     }
     
-    public void deleteShow(String showId) {
-        try {
-            showSearchRepository.deleteById(showId);
-            log.info("Deleted show with ID: {}", showId);
-        } catch (Exception e) {
-            log.error("Failed to delete show: {}", e.getMessage(), e);
-        }
+    private void writeToBuildIndex(Class<?> documentClass, List<IndexQuery> queries, List<UpdateQuery> updates,
+                                   List<String> deletes) {
+        searchIndexAliases.buildIndex(documentClass).ifPresent(index -> {
+            if (!queries.isEmpty()) {
+                elasticsearchOperations.bulkIndex(queries, index);
+            }
+            if (!updates.isEmpty()) {
+                elasticsearchOperations.bulkUpdate(updates, index);
+            }
+        });
+        searchIndexAliases.deleteFromBuild(documentClass, deletes);
     }
     
-    public void updateShowAvailableSeats(Long showId) {
-        // This would typically query the theatre service or calculate from seat events
-        // For now, we'll just log it as this requires additional integration
-        log.info("Request to update available seats for show ID: {}", showId);
+    /**
+     * Show events carry theatre-service's seat count, which does not follow bookings, so an existing
+     * show keeps the live count maintained by {@link ShowSeatCounter}. The event's count is only
+     * used when the show is first indexed.
+     */
+    private UpdateQuery showUpsert(String id, ShowDocument show) {
+        Document document = elasticsearchOperations.getElasticsearchConverter().mapObject(show);
+        Document withoutSeats = Document.from(new LinkedHashMap<>(document));
+        withoutSeats.remove("availableSeats");
+        return UpdateQuery.builder(id).withDocument(withoutSeats).withUpsert(document).build();
     }
     
-    public void updateShowSeatAvailability(Long showId, List<String> seatNumbers, boolean available) {
-        try {
-            showSearchRepository.findById(showId.toString()).ifPresent(showDoc -> {
-                if (!available) {
-                    // Seats are being booked, decrease available seats
-                    int currentAvailable = showDoc.getAvailableSeats();
-                    int newAvailable = Math.max(0, currentAvailable - seatNumbers.size());
-                    showDoc.setAvailableSeats(newAvailable);
-                } else {
-                    // Seats are being released, increase available seats
-                    int currentAvailable = showDoc.getAvailableSeats();
-                    int newAvailable = currentAvailable + seatNumbers.size();
-                    showDoc.setAvailableSeats(newAvailable);
-                }
-                
-                showDoc.setUpdatedAt(LocalDateTime.now());
-                showSearchRepository.save(showDoc);
-                
-                log.info("Updated show {} seat availability. Seats {} set to available={}", 
-                        showId, seatNumbers, available);
-            });
-        } catch (Exception e) {
-            log.error("Failed to update seat availability for show: {}", showId, e);
-        }
+    private static IndexQuery indexQuery(String id, Object document) {
+        return new IndexQueryBuilder().withId(id).withObject(document).build();
     }
     
-    public void reindexAllData() {
-        log.info("Starting full reindex of all data...");
-        // This would typically call the Theatre Service APIs to get all data and reindex
-        // Implementation would depend on how you want to handle full reindexing
+    /**
+     * Records a change in a show's available seats. Changes are coalesced per show and written
+     * shortly after as atomic scripted updates, see {@link ShowSeatCounter}; {@code onWritten} runs
+     * once this change is written.
+     */
+    public void updateShowSeatAvailability(Long showId, List<String> seatNumbers, boolean available, Runnable onWritten) {
+        int delta = available ? seatNumbers.size() : -seatNumbers.size();
+        showSeatCounter.record(showId, delta, onWritten);
+        log.debug("Recorded seat change for show {}: seats={}, available={}", showId, seatNumbers, available);
     }
     
     private LocalDateTime safeParseDateTime(JsonNode data, String fieldName) {
@@ -0,0 +1,285 @@
+package com.moviebooking.search.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.moviebooking.search.client.CatalogSource;
+import com.moviebooking.search.client.TheatreServiceClient;
+import com.moviebooking.search.model.CityDocument;
+import com.moviebooking.search.model.ShowDocument;
+import com.moviebooking.search.model.TheatreDocument;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import org.springframework.data.elasticsearch.core.query.IndexQueryBuilder;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Rebuilds the search indices without downtime. Each document type gets a new versioned index
+ * that is bulk loaded from the theatre-service export while searches keep using the live index,
+ * and the alias is swapped once the load is complete. The same path loads a {@link SyntheticCatalog}
+ * for capacity tests.
+ * <p>
+ * Export pages are read sequentially by id while the previous pages are bulk written on a small
+ * pool, with at most {@code parallelism} bulks in flight; reading blocks while all of them are busy,
+ * so memory stays bounded however large the export is. Snapshot documents are written with
+ * {@code op_type=create}, so they never overwrite a newer version written by a live index change
+ * during the build (see {@link SearchIndexService#applyChanges}). Documents deleted during the build
+ * are skipped, and removed again if the delete raced with their bulk.
+ */
+@Service
+@Slf4j
+public class SearchReindexService {
+    private static final int HTTP_CONFLICT = 409;
+    private static final long PROGRESS_INTERVAL_MS = 10_000;
+
+    private final TheatreServiceClient theatreServiceClient;
+    private final SearchIndexAliases searchIndexAliases;
+    private final SearchIndexService searchIndexService;
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final int pageSize;
+    private final Semaphore bulkPermits;
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor(r -> new Thread(r, "search-reindex"));
+    private final ExecutorService bulkExecutor;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public SearchReindexService(TheatreServiceClient theatreServiceClient,
+                                SearchIndexAliases searchIndexAliases,
+                                SearchIndexService searchIndexService,
+                                ElasticsearchOperations elasticsearchOperations,
+                                @Value("${app.search.reindex.page-size:1000}") int pageSize,
+                                @Value("${app.search.reindex.parallelism:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int parallelism) {
+        this.theatreServiceClient = theatreServiceClient;
+        this.searchIndexAliases = searchIndexAliases;
+        this.searchIndexService = searchIndexService;
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.pageSize = pageSize;
+        this.bulkPermits = new Semaphore(parallelism);
+        this.bulkExecutor = Executors.newFixedThreadPool(parallelism);
+    }
+
+    /**
+     * Starts a reindex from theatre-service in the background.
+     *
+     * @return false if a reindex is already running
+     */
+    public boolean startReindex() {
+        return start(theatreServiceClient);
+    }
+
+    /**
+     * Starts replacing the indices with a generated catalog in the background.
+     *
+     * @return false if a reindex is already running
+     */
+    public boolean startSyntheticLoad(SyntheticCatalog catalog) {
+        return start(catalog);
+    }
+
+    private boolean start(CatalogSource source) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        jobExecutor.execute(() -> {
+            try {
+                reindex(source);
+            } catch (Exception e) {
+                log.error("Search reindex failed, aliases left unchanged: {}", e.getMessage(), e);
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    void reindex() throws Exception {
+        reindex(theatreServiceClient);
+    }
+
+    void reindex(CatalogSource source) throws Exception {
+        log.info("Starting search reindex from {}", source.getClass().getSimpleName());
+        long start = System.currentTimeMillis();
+        Map<Class<?>, IndexCoordinates> builds = new LinkedHashMap<>();
+        boolean swapped = false;
+
+        try {
+            // Step 1: Create the new indices and send live changes to them from now on
+            for (Class<?> type : SearchIndexAliases.DOCUMENT_TYPES) {
+                IndexCoordinates index = searchIndexAliases.createIndex(type, true);
+                builds.put(type, index);
+                searchIndexAliases.startBuild(type, index);
+            }
+
+            // Step 2: Bulk load the export
+            long cities = load(CityDocument.class, builds.get(CityDocument.class), source::exportCities, searchIndexService::toCityDocument);
+            long theatres = load(TheatreDocument.class, builds.get(TheatreDocument.class), source::exportTheatres, searchIndexService::toTheatreDocument);
+            long shows = load(ShowDocument.class, builds.get(ShowDocument.class), source::exportShows, searchIndexService::toShowDocument);
+
+            // Step 3: Make the new indices searchable and swap the aliases
+            for (Map.Entry<Class<?>, IndexCoordinates> build : builds.entrySet()) {
+                searchIndexAliases.finishBulkLoad(build.getKey(), build.getValue());
+            }
+            for (Map.Entry<Class<?>, IndexCoordinates> build : builds.entrySet()) {
+                searchIndexAliases.swapAlias(build.getKey(), build.getValue());
+            }
+            swapped = true;
+
+            log.info("Search reindex completed in {} ms: cities={}, theatres={}, shows={}",
+                    System.currentTimeMillis() - start, cities, theatres, shows);
+        } finally {
+            builds.keySet().forEach(searchIndexAliases::finishBuild);
+            if (!swapped) {
+                builds.values().forEach(searchIndexAliases::deleteIndex);
+            }
+        }
+    }
+
+    /**
+     * Copies one export into the index, reading the next page while earlier pages are written.
+     *
+     * @return the number of documents read from the export
+     */
+    private long load(Class<?> type, IndexCoordinates index, ExportPage export, Function<JsonNode, ?> toDocument) throws Exception {
+        List<Future<?>> bulks = new ArrayList<>();
+        long afterId = 0;
+        long count = 0;
+        long start = System.currentTimeMillis();
+        long lastProgress = start;
+
+        while (true) {
+            List<JsonNode> page = export.fetch(afterId, pageSize);
+            if (page.isEmpty()) {
+                break;
+            }
+
+            List<IndexQuery> queries = new ArrayList<>(page.size());
+            for (JsonNode row : page) {
+                String id = row.get("id").asText();
+                if (searchIndexAliases.isDeletedDuringBuild(type, id)) {
+                    continue;
+                }
+                queries.add(new IndexQueryBuilder()
+                        .withId(id)
+                        .withObject(toDocument.apply(row))
+                        .withOpType(IndexQuery.OpType.CREATE)
+                        .build());
+            }
+
+            bulkPermits.acquire();
+            try {
+                bulks.add(bulkExecutor.submit(() -> {
+                    try {
+                        bulkCreate(type, queries, index);
+                        return null;
+                    } finally {
+                        bulkPermits.release();
+                    }
+                }));
+            } catch (RuntimeException e) {
+                bulkPermits.release();
+                throw e;
+            }
+
+            count += page.size();
+            afterId = page.get(page.size() - 1).get("id").asLong();
+            if (page.size() < pageSize) {
+                break;
+            }
+
+            // Stop early on a failed bulk, and keep only the bulks still in flight
+            awaitBulks(bulks, index, false);
+            long now = System.currentTimeMillis();
+            if (now - lastProgress >= PROGRESS_INTERVAL_MS) {
+                log.info("Loading {}: {} documents, {} docs/s", index.getIndexName(), count, rate(count, now - start));
+                lastProgress = now;
+            }
+        }
+
+        awaitBulks(bulks, index, true);
+        long elapsed = System.currentTimeMillis() - start;
+        log.info("Loaded {} documents into {} in {} ms, {} docs/s", count, index.getIndexName(), elapsed, rate(count, elapsed));
+        return count;
+    }
+
+    /**
+     * Removes the finished bulks from {@code bulks}, waiting for all of them if {@code all} is set.
+     *
+     * @throws IllegalStateException if a bulk failed; the bulks not yet started are cancelled
+     */
+    private void awaitBulks(List<Future<?>> bulks, IndexCoordinates index, boolean all) throws InterruptedException {
+        try {
+            for (Iterator<Future<?>> it = bulks.iterator(); it.hasNext(); ) {
+                Future<?> bulk = it.next();
+                if (all || bulk.isDone()) {
+                    bulk.get();
+                    it.remove();
+                }
+            }
+        } catch (ExecutionException e) {
+            bulks.forEach(bulk -> bulk.cancel(false));
+            throw new IllegalStateException("Bulk load into " + index.getIndexName() + " failed", e.getCause());
+        }
+    }
+
+    private static long rate(long count, long elapsedMs) {
+        return count * 1000 / Math.max(1, elapsedMs);
+    }
+
+    private void bulkCreate(Class<?> type, List<IndexQuery> queries, IndexCoordinates index) throws IOException {
+        if (queries.isEmpty()) {
+            return;
+        }
+        try {
+            elasticsearchOperations.bulkIndex(queries, index);
+        } catch (BulkFailureException e) {
+            // A conflict means a live change already wrote a newer version of the document
+            boolean onlyConflicts = e.getFailedDocuments().values().stream()
+                    .allMatch(failure -> failure.status() != null && failure.status() == HTTP_CONFLICT);
+            if (!onlyConflicts) {
+                throw e;
+            }
+            log.debug("Skipped {} snapshot documents already written by live changes", e.getFailedDocuments().size());
+        }
+
+        // A document deleted while the bulk was in flight may have been created after its delete
+        List<String> deleted = queries.stream()
+                .map(IndexQuery::getId)
+                .filter(id -> searchIndexAliases.isDeletedDuringBuild(type, id))
+                .toList();
+        if (!deleted.isEmpty()) {
+            searchIndexAliases.deleteDocuments(index, deleted);
+            log.debug("Removed {} snapshot documents deleted during the build from {}", deleted.size(), index.getIndexName());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+        bulkExecutor.shutdownNow();
+    }
+
+    @FunctionalInterface
+    private interface ExportPage {
+        List<JsonNode> fetch(Long afterId, int limit);
+    }
+}
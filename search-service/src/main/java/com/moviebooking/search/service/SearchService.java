@@ -1,7 +1,26 @@
 package com.moviebooking.search.service;
 
+import co.elastic.clients.elasticsearch._types.DistanceUnit;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.SortOptions;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.aggregations.AggregationRange;
+import co.elastic.clients.elasticsearch._types.aggregations.CalendarInterval;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Operator;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType;
+import co.elastic.clients.elasticsearch.core.search.FieldCollapse;
+import co.elastic.clients.json.JsonData;
 import com.moviebooking.search.model.CityDocument;
+import com.moviebooking.search.model.FacetBucket;
+import com.moviebooking.search.model.NearbyTheatre;
 import com.moviebooking.search.model.ShowDocument;
+import com.moviebooking.search.model.ShowSearchRequest;
+import com.moviebooking.search.model.ShowSearchResponse;
+import com.moviebooking.search.model.Suggestion;
 import com.moviebooking.search.model.TheatreDocument;
 import com.moviebooking.search.repository.CitySearchRepository;
 import com.moviebooking.search.repository.ShowSearchRepository;
@@ -10,73 +29,69 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregations;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
 import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
 import org.springframework.data.elasticsearch.core.SearchHit;
 import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.document.SearchDocument;
 import org.springframework.data.elasticsearch.core.geo.GeoPoint;
 import org.springframework.data.elasticsearch.core.query.Criteria;
 import org.springframework.data.elasticsearch.core.query.CriteriaQuery;
-import org.springframework.data.elasticsearch.core.query.Query;
+import org.springframework.data.elasticsearch.core.query.FetchSourceFilter;
 import org.springframework.stereotype.Service;
 
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import jakarta.annotation.PostConstruct;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class SearchService {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss");
+    private static final int FACET_SIZE = 20;
+    private static final int MAX_NEARBY_THEATRES = 50;
+    private static final int MAX_SHOWS_PER_THEATRE = 10;
+    private static final String NEXT_SHOWS = "next_shows";
+    private static final int MAX_SUGGESTIONS = 20;
+    private static final List<String> ENDED_SHOW_STATUSES = List.of("CANCELLED", "COMPLETED");
+    private static final List<AggregationRange> PRICE_RANGES = List.of(
+            AggregationRange.of(r -> r.key("under-200").to("200")),
+            AggregationRange.of(r -> r.key("200-400").from("200").to("400")),
+            AggregationRange.of(r -> r.key("400-600").from("400").to("600")),
+            AggregationRange.of(r -> r.key("600-and-above").from("600")));
+
     private final CitySearchRepository citySearchRepository;
     private final TheatreSearchRepository theatreSearchRepository;
     private final ShowSearchRepository showSearchRepository;
     private final ElasticsearchOperations elasticsearchOperations;
-    
-    @PostConstruct
-    public void initializeIndices() {
-        try {
-            log.info("Checking Elasticsearch indices on startup...");
-            
-            // Only create indices if they don't exist, don't delete existing data
-            if (!elasticsearchOperations.indexOps(CityDocument.class).exists()) {
-                elasticsearchOperations.indexOps(CityDocument.class).create();
-                elasticsearchOperations.indexOps(CityDocument.class).putMapping();
-                log.info("Created cities index with mappings");
-            }
-            
-            if (!elasticsearchOperations.indexOps(TheatreDocument.class).exists()) {
-                elasticsearchOperations.indexOps(TheatreDocument.class).create();
-                elasticsearchOperations.indexOps(TheatreDocument.class).putMapping();
-                log.info("Created theatres index with mappings");
-            }
-            
-            if (!elasticsearchOperations.indexOps(ShowDocument.class).exists()) {
-                elasticsearchOperations.indexOps(ShowDocument.class).create();
-                elasticsearchOperations.indexOps(ShowDocument.class).putMapping();
-                log.info("Created shows index with mappings");
-            }
-            
-            log.info("Elasticsearch indices check completed");
-        } catch (Exception e) {
-            log.error("Failed to initialize Elasticsearch indices: {}", e.getMessage(), e);
-            // Don't throw here to allow application to start, but log the error
-        }
-    }
+    private final ShowSearchCache showSearchCache;
+    private final ElasticsearchGuard elasticsearchGuard;
+    private final ShowSnapshot showSnapshot;
     
     // City Search Methods
     public List<CityDocument> searchCities(String query) {
         try {
             if (query == null || query.trim().isEmpty()) {
-                return StreamSupport.stream(citySearchRepository.findAll().spliterator(), false)
+                return StreamSupport.stream(elasticsearchGuard.call(citySearchRepository::findAll).spliterator(), false)
                         .collect(Collectors.toList());
             }
-            return citySearchRepository.findByNameContainingIgnoreCase(query);
+            return elasticsearchGuard.call(() -> citySearchRepository.findByNameContainingIgnoreCase(query));
         } catch (org.springframework.data.elasticsearch.core.convert.ConversionException e) {
             log.error("Elasticsearch conversion error for cities search, corrupted data detected: {}", e.getMessage());
-            log.warn("To fix this issue, call POST /api/v1/search/cities/admin/recreate-indices to recreate indices with correct mappings");
+            log.warn("To fix this issue, call POST /api/v1/search/cities/admin/reindex to rebuild the indices with correct mappings");
             return List.of();
         } catch (Exception e) {
             log.error("Failed to search cities: {}", e.getMessage(), e);
@@ -86,10 +101,10 @@ public class SearchService {
     
     public List<CityDocument> searchCitiesByState(String state) {
         try {
-            return citySearchRepository.findByStateIgnoreCase(state);
+            return elasticsearchGuard.call(() -> citySearchRepository.findByStateIgnoreCase(state));
         } catch (org.springframework.data.elasticsearch.core.convert.ConversionException e) {
             log.error("Elasticsearch conversion error for cities by state search, corrupted data detected: {}", e.getMessage());
-            log.warn("To fix this issue, call POST /api/v1/search/cities/admin/recreate-indices to recreate indices with correct mappings");
+            log.warn("To fix this issue, call POST /api/v1/search/cities/admin/reindex to rebuild the indices with correct mappings");
             return List.of();
         } catch (Exception e) {
             log.error("Failed to search cities by state: {}", e.getMessage(), e);
@@ -99,10 +114,10 @@ public class SearchService {
     
     public List<CityDocument> searchCitiesByCountry(String country) {
         try {
-            return citySearchRepository.findByCountryIgnoreCase(country);
+            return elasticsearchGuard.call(() -> citySearchRepository.findByCountryIgnoreCase(country));
         } catch (org.springframework.data.elasticsearch.core.convert.ConversionException e) {
             log.error("Elasticsearch conversion error for cities by country search, corrupted data detected: {}", e.getMessage());
-            log.warn("To fix this issue, call POST /api/v1/search/cities/admin/recreate-indices to recreate indices with correct mappings");
+            log.warn("To fix this issue, call POST /api/v1/search/cities/admin/reindex to rebuild the indices with correct mappings");
             return List.of();
         } catch (Exception e) {
             log.error("Failed to search cities by country: {}", e.getMessage(), e);
@@ -114,10 +129,10 @@ public class SearchService {
     public List<TheatreDocument> searchTheatres(String query) {
         try {
             if (query == null || query.trim().isEmpty()) {
-                return StreamSupport.stream(theatreSearchRepository.findAll().spliterator(), false)
+                return StreamSupport.stream(elasticsearchGuard.call(theatreSearchRepository::findAll).spliterator(), false)
                         .collect(Collectors.toList());
             }
-            return theatreSearchRepository.findByNameContainingIgnoreCase(query);
+            return elasticsearchGuard.call(() -> theatreSearchRepository.findByNameContainingIgnoreCase(query));
         } catch (Exception e) {
             log.error("Failed to search theatres: {}", e.getMessage(), e);
             return List.of();
@@ -126,7 +141,7 @@ public class SearchService {
     
     public List<TheatreDocument> searchTheatresByCity(Long cityId) {
         try {
-            return theatreSearchRepository.findByCityId(cityId);
+            return elasticsearchGuard.call(() -> theatreSearchRepository.findByCityId(cityId));
         } catch (Exception e) {
             log.error("Failed to search theatres by city {}: {}", cityId, e.getMessage(), e);
             return List.of();
@@ -135,7 +150,7 @@ public class SearchService {
 
     public List<TheatreDocument> searchTheatreById(Long theatreId) {
         try {
-            return theatreSearchRepository.findByTheatreId(theatreId);
+            return elasticsearchGuard.call(() -> theatreSearchRepository.findByTheatreId(theatreId));
         } catch (Exception e) {
             log.error("Failed to search theatre by ID {}: {}", theatreId, e.getMessage(), e);
             return List.of();
@@ -144,7 +159,7 @@ public class SearchService {
 
     public List<TheatreDocument> searchTheatresByCityName(String cityName) {
         try {
-            return theatreSearchRepository.findByCityNameContainingIgnoreCase(cityName);
+            return elasticsearchGuard.call(() -> theatreSearchRepository.findByCityNameContainingIgnoreCase(cityName));
         } catch (Exception e) {
             log.error("Failed to search theatres by city name '{}': {}", cityName, e.getMessage(), e);
             return List.of();
@@ -153,7 +168,7 @@ public class SearchService {
 
     public List<TheatreDocument> searchTheatresByAddress(String address) {
         try {
-            return theatreSearchRepository.findByAddressContainingIgnoreCase(address);
+            return elasticsearchGuard.call(() -> theatreSearchRepository.findByAddressContainingIgnoreCase(address));
         } catch (Exception e) {
             log.error("Failed to search theatres by address '{}': {}", address, e.getMessage(), e);
             return List.of();
@@ -164,9 +179,9 @@ public class SearchService {
         try {
             Criteria criteria = new Criteria("location")
                     .within(new GeoPoint(latitude, longitude), distance);
-            Query searchQuery = new CriteriaQuery(criteria);
+            CriteriaQuery searchQuery = new CriteriaQuery(criteria);
             
-            SearchHits<TheatreDocument> searchHits = elasticsearchOperations.search(searchQuery, TheatreDocument.class);
+            SearchHits<TheatreDocument> searchHits = elasticsearchGuard.call(() -> elasticsearchOperations.search(searchQuery, TheatreDocument.class));
             return searchHits.stream()
                     .map(SearchHit::getContent)
                     .collect(Collectors.toList());
@@ -176,142 +191,361 @@ public class SearchService {
         }
     }
     
-    // Show Search Methods
-    public List<ShowDocument> searchShows(String query) {
+    /**
+     * Finds the theatres nearest to a location, closest first, each with its next shows. Theatres
+     * come from one geo-distance sorted query, and their shows from one query on the shows index
+     * collapsed on {@code theatreId}, whose inner hits hold each theatre's earliest upcoming shows.
+     * Theatres without upcoming shows (for the movie, if given) have an empty show list.
+     */
+    public List<NearbyTheatre> searchNearbyTheatres(double latitude, double longitude, String distance,
+                                                    Long movieId, int size, int showsPerTheatre) {
+        int theatreCount = Math.max(1, Math.min(size, MAX_NEARBY_THEATRES));
+        int showCount = Math.max(0, Math.min(showsPerTheatre, MAX_SHOWS_PER_THEATRE));
         try {
-            if (query == null || query.trim().isEmpty()) {
-                return StreamSupport.stream(showSearchRepository.findAll().spliterator(), false)
-                        .collect(Collectors.toList());
+            // Step 1: Nearest theatres, with the distance as the sort value
+            NativeQuery theatreQuery = NativeQuery.builder()
+                    .withQuery(q -> q.bool(b -> b.filter(f -> f.geoDistance(g -> g
+                            .field("location")
+                            .distance(distance)
+                            .location(l -> l.latlon(ll -> ll.lat(latitude).lon(longitude)))))))
+                    .withSort(SortOptions.of(s -> s.geoDistance(g -> g
+                            .field("location")
+                            .location(l -> l.latlon(ll -> ll.lat(latitude).lon(longitude)))
+                            .order(SortOrder.Asc)
+                            .unit(DistanceUnit.Kilometers))))
+                    .withMaxResults(theatreCount)
+                    .withTrackTotalHits(false)
+                    .build();
+            List<SearchHit<TheatreDocument>> theatreHits =
+                    elasticsearchGuard.call(() -> elasticsearchOperations.search(theatreQuery, TheatreDocument.class)).getSearchHits();
+            if (theatreHits.isEmpty()) {
+                return List.of();
             }
-            return showSearchRepository.findByMovieTitleContainingIgnoreCase(query);
+
+            // Step 2: Next shows of those theatres
+            List<Long> theatreIds = theatreHits.stream()
+                    .map(hit -> hit.getContent().getTheatreId())
+                    .collect(Collectors.toList());
+            Map<Long, List<ShowDocument>> showsByTheatre = showCount == 0 ? Map.of()
+                    : findNextShowsByTheatre(theatreIds, movieId, showCount);
+
+            return theatreHits.stream()
+                    .map(hit -> new NearbyTheatre(
+                            hit.getContent(),
+                            ((Number) hit.getSortValues().get(0)).doubleValue(),
+                            showsByTheatre.getOrDefault(hit.getContent().getTheatreId(), List.of())))
+                    .collect(Collectors.toList());
         } catch (Exception e) {
-            log.error("Failed to search shows: {}", e.getMessage(), e);
+            log.error("Failed to search theatres near location: {}", e.getMessage(), e);
             return List.of();
         }
     }
 
-    public List<ShowDocument> searchShowsByMovie(Long movieId) {
-        try {
-            log.debug("Searching shows for movie ID: {}", movieId);
-            List<ShowDocument> results = showSearchRepository.findByMovieId(movieId);
-            log.debug("Found {} shows for movie ID: {}", results.size(), movieId);
-            return results;
-        } catch (Exception e) {
-            log.error("Failed to search shows by movie {}: {}", movieId, e.getMessage(), e);
-            return List.of();
+    private Map<Long, List<ShowDocument>> findNextShowsByTheatre(List<Long> theatreIds, Long movieId, int showsPerTheatre) {
+        String now = DATE_TIME_FORMAT.format(LocalDateTime.now());
+        BoolQuery.Builder bool = new BoolQuery.Builder()
+                .filter(f -> f.terms(t -> t.field("theatreId").terms(v -> v.value(
+                        theatreIds.stream().map(FieldValue::of).collect(Collectors.toList())))))
+                .filter(f -> f.range(r -> r.field("showDateTime").gte(JsonData.of(now))))
+                .mustNot(m -> m.terms(t -> t.field("status").terms(v -> v.value(
+                        ENDED_SHOW_STATUSES.stream().map(FieldValue::of).collect(Collectors.toList())))));
+        if (movieId != null) {
+            bool.filter(f -> f.term(t -> t.field("movieId").value(movieId)));
         }
-    }
 
-    public List<ShowDocument> searchShowsByTheatre(Long theatreId) {
-        try {
-            log.debug("Searching shows for theatre ID: {}", theatreId);
-            List<ShowDocument> results = showSearchRepository.findByTheatreId(theatreId);
-            log.debug("Found {} shows for theatre ID: {}", results.size(), theatreId);
-            return results;
-        } catch (Exception e) {
-            log.error("Failed to search shows by theatre {}: {}", theatreId, e.getMessage(), e);
-            return List.of();
+        // One hit per theatre; its inner hits are that theatre's next shows
+        NativeQuery showQuery = NativeQuery.builder()
+                .withQuery(q -> q.bool(bool.build()))
+                .withFieldCollapse(FieldCollapse.of(c -> c
+                        .field("theatreId")
+                        .innerHits(ih -> ih
+                                .name(NEXT_SHOWS)
+                                .size(showsPerTheatre)
+                                .sort(s -> s.field(f -> f.field("showDateTime").order(SortOrder.Asc))))))
+                .withSort(SortOptions.of(s -> s.field(f -> f.field("showDateTime").order(SortOrder.Asc))))
+                .withMaxResults(theatreIds.size())
+                .withTrackTotalHits(false)
+                .build();
+
+        Map<Long, List<ShowDocument>> showsByTheatre = new HashMap<>();
+        SearchHits<ShowDocument> showHits = elasticsearchGuard.call(() -> elasticsearchOperations.search(showQuery, ShowDocument.class));
+        for (SearchHit<ShowDocument> hit : showHits.getSearchHits()) {
+            SearchHits<?> innerHits = hit.getInnerHits(NEXT_SHOWS);
+            List<ShowDocument> shows = innerHits == null ? List.of(hit.getContent()) : innerHits.getSearchHits().stream()
+                    .map(innerHit -> toShowDocument(innerHit.getContent()))
+                    .collect(Collectors.toList());
+            showsByTheatre.put(hit.getContent().getTheatreId(), shows);
         }
+        return showsByTheatre;
     }
 
-    public List<ShowDocument> searchShowsByCity(Long cityId) {
-        try {
-            log.debug("Searching shows for city ID: {}", cityId);
-            List<ShowDocument> results = showSearchRepository.findByCityId(cityId);
-            log.debug("Found {} shows for city ID: {}", results.size(), cityId);
-            return results;
-        } catch (Exception e) {
-            log.error("Failed to search shows by city {}: {}", cityId, e.getMessage(), e);
-            return List.of();
+    // Inner hits outside nested fields are returned as raw documents
+    private ShowDocument toShowDocument(Object content) {
+        if (content instanceof ShowDocument show) {
+            return show;
         }
+        return elasticsearchOperations.getElasticsearchConverter().read(ShowDocument.class, (SearchDocument) content);
     }
+    
+    // Show Search Methods
+
+    /**
+     * Searches shows with any combination of criteria in a single bool query. Ids, dates, status and
+     * seat counts go into filter context, which is not scored and is cached by Elasticsearch; only the
+     * free-text criteria are scored. Pages are bounded by {@code size} and continued with
+     * {@code search_after}, so deep pages cost the same as the first. When facets are requested the
+     * first page also carries facet counts over all matches, from the same request. Pages are served
+     * from {@link ShowSearchCache} when possible. While Elasticsearch fails or is shut off by
+     * {@link ElasticsearchGuard}, searches within a city are answered from {@link ShowSnapshot} and
+     * flagged as degraded.
+     *
+     * @throws IllegalArgumentException if the request carries an invalid cursor
+     */
+    public ShowSearchResponse searchShows(ShowSearchRequest request) {
+        ShowSearchRequest normalized = ShowSearchCache.normalize(request);
+        List<Object> searchAfter = ShowSearchCursor.decode(normalized.getCursor());
 
-    public List<ShowDocument> searchShowsByMovieAndCity(Long movieId, Long cityId) {
         try {
-            return showSearchRepository.findByMovieIdAndCityId(movieId, cityId);
+            return showSearchCache.get(normalized, cacheKey -> executeShowSearch(cacheKey, searchAfter));
+        } catch (SearchUnavailableException e) {
+            log.debug("Serving show search from snapshot: {}", e.getMessage());
+            return showSnapshot.search(normalized, pageSize(normalized));
         } catch (Exception e) {
-            log.error("Failed to search shows by movie {} and city {}: {}", movieId, cityId, e.getMessage(), e);
-            return List.of();
+            log.error("Failed to search shows, serving from snapshot: {}", e.getMessage(), e);
+            return showSnapshot.search(normalized, pageSize(normalized));
         }
     }
 
-    public List<ShowDocument> searchShowsByMovieAndCityAfterDateTime(Long movieId, Long cityId, LocalDateTime dateTime) {
-        try {
-            return showSearchRepository.findByMovieIdAndCityIdAndShowDateTimeAfter(movieId, cityId, dateTime);
-        } catch (Exception e) {
-            log.error("Failed to search shows by movie {}, city {} after {}: {}", movieId, cityId, dateTime, e.getMessage(), e);
-            return List.of();
+    private static int pageSize(ShowSearchRequest request) {
+        return request.getSize() == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(request.getSize(), MAX_PAGE_SIZE));
+    }
+
+    private ShowSearchResponse executeShowSearch(ShowSearchRequest request, List<Object> searchAfter) {
+        int size = pageSize(request);
+        boolean scored = hasText(request.getQuery()) || hasText(request.getMovieTitle())
+                || hasText(request.getTheatreName()) || hasText(request.getCityName());
+
+        // Fetch one extra hit to know whether there is a next page
+        NativeQueryBuilder queryBuilder = NativeQuery.builder()
+                .withQuery(buildShowQuery(request))
+                .withSort(buildShowSort(scored))
+                .withMaxResults(size + 1)
+                .withTrackTotalHits(false);
+        if (searchAfter != null) {
+            queryBuilder.withSearchAfter(searchAfter);
+        }
+        if (request.getFields() != null && !request.getFields().isEmpty()) {
+            queryBuilder.withSourceFilter(new FetchSourceFilter(request.getFields().toArray(String[]::new), null));
+        }
+        // Facets describe the whole result set, so later pages do not need them again
+        boolean withFacets = request.isFacets() && searchAfter == null;
+        if (withFacets) {
+            addShowFacets(queryBuilder);
+        }
+
+        NativeQuery query = queryBuilder.build();
+        SearchHits<ShowDocument> searchHits = elasticsearchGuard.call(() -> elasticsearchOperations.search(query, ShowDocument.class));
+        List<SearchHit<ShowDocument>> hits = searchHits.getSearchHits();
+        String nextCursor = null;
+        if (hits.size() > size) {
+            hits = hits.subList(0, size);
+            nextCursor = ShowSearchCursor.encode(hits.get(size - 1).getSortValues());
         }
+
+        List<ShowDocument> shows = hits.stream()
+                .map(SearchHit::getContent)
+                .collect(Collectors.toList());
+        log.debug("Show search returned {} shows, hasMore={}", shows.size(), nextCursor != null);
+        return new ShowSearchResponse(shows, nextCursor, withFacets ? extractShowFacets(searchHits) : null);
     }
-    
-    public List<ShowDocument> searchShowsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        try {
-            return showSearchRepository.findByShowDateTimeBetween(startDate, endDate);
-        } catch (Exception e) {
-            log.error("Failed to search shows by date range {} to {}: {}", startDate, endDate, e.getMessage(), e);
-            return List.of();
+
+    private Query buildShowQuery(ShowSearchRequest request) {
+        BoolQuery.Builder bool = new BoolQuery.Builder();
+
+        // Step 1: Scoring clauses, free text only
+        if (hasText(request.getQuery())) {
+            bool.must(m -> m.multiMatch(mm -> mm
+                    .query(request.getQuery())
+                    .fields("movieTitle^3", "theatreName", "cityName")));
+        }
+        if (hasText(request.getMovieTitle())) {
+            bool.must(m -> m.match(mt -> mt.field("movieTitle").query(request.getMovieTitle())));
+        }
+        if (hasText(request.getTheatreName())) {
+            bool.must(m -> m.match(mt -> mt.field("theatreName").query(request.getTheatreName())));
+        }
+        if (hasText(request.getCityName())) {
+            bool.must(m -> m.match(mt -> mt.field("cityName").query(request.getCityName())));
+        }
+
+        // Step 2: Filter clauses, cacheable and not scored
+        if (request.getMovieId() != null) {
+            bool.filter(f -> f.term(t -> t.field("movieId").value(request.getMovieId())));
+        }
+        if (request.getTheatreId() != null) {
+            bool.filter(f -> f.term(t -> t.field("theatreId").value(request.getTheatreId())));
+        }
+        if (request.getCityId() != null) {
+            bool.filter(f -> f.term(t -> t.field("cityId").value(request.getCityId())));
+        }
+        if (hasText(request.getStatus())) {
+            bool.filter(f -> f.term(t -> t.field("status").value(request.getStatus())));
         }
+        if (request.getFromDateTime() != null || request.getToDateTime() != null) {
+            bool.filter(f -> f.range(r -> {
+                r.field("showDateTime");
+                if (request.getFromDateTime() != null) {
+                    r.gte(JsonData.of(DATE_TIME_FORMAT.format(request.getFromDateTime())));
+                }
+                if (request.getToDateTime() != null) {
+                    r.lte(JsonData.of(DATE_TIME_FORMAT.format(request.getToDateTime())));
+                }
+                return r;
+            }));
+        }
+        if (request.getMinAvailableSeats() != null) {
+            bool.filter(f -> f.range(r -> r.field("availableSeats").gte(JsonData.of(request.getMinAvailableSeats()))));
+        }
+
+        return Query.of(q -> q.bool(bool.build()));
     }
 
-    public List<ShowDocument> searchShowsByTheatreName(String theatreName) {
-        try {
-            return showSearchRepository.findByTheatreNameContainingIgnoreCase(theatreName);
-        } catch (Exception e) {
-            log.error("Failed to search shows by theatre name '{}': {}", theatreName, e.getMessage(), e);
-            return List.of();
+    private List<SortOptions> buildShowSort(boolean scored) {
+        List<SortOptions> sort = new ArrayList<>();
+        if (scored) {
+            sort.add(SortOptions.of(s -> s.score(sc -> sc.order(SortOrder.Desc))));
         }
+        sort.add(SortOptions.of(s -> s.field(f -> f.field("showDateTime").order(SortOrder.Asc))));
+        // Unique tie-breaker so search_after never skips or repeats a show
+        sort.add(SortOptions.of(s -> s.field(f -> f.field("id").order(SortOrder.Asc))));
+        return sort;
     }
 
-    public List<ShowDocument> searchShowsByCityName(String cityName) {
-        try {
-            return showSearchRepository.findByCityNameContainingIgnoreCase(cityName);
-        } catch (Exception e) {
-            log.error("Failed to search shows by city name '{}': {}", cityName, e.getMessage(), e);
-            return List.of();
+    /**
+     * Adds the discovery page facets as aggregations of the search itself, so hits and facet counts
+     * come back in one round trip.
+     */
+    private void addShowFacets(NativeQueryBuilder queryBuilder) {
+        queryBuilder
+                .withAggregation("movieId", Aggregation.of(a -> a.terms(t -> t.field("movieId").size(FACET_SIZE))))
+                .withAggregation("theatreId", Aggregation.of(a -> a.terms(t -> t.field("theatreId").size(FACET_SIZE))))
+                .withAggregation("screenType", Aggregation.of(a -> a.terms(t -> t.field("screenType").size(FACET_SIZE))))
+                .withAggregation("status", Aggregation.of(a -> a.terms(t -> t.field("status").size(FACET_SIZE))))
+                .withAggregation("showDate", Aggregation.of(a -> a.dateHistogram(d -> d
+                        .field("showDateTime")
+                        .calendarInterval(CalendarInterval.Day)
+                        .format("yyyy-MM-dd")
+                        .minDocCount(1))))
+                .withAggregation("price", Aggregation.of(a -> a.range(r -> r
+                        .field("price")
+                        .ranges(PRICE_RANGES))));
+    }
+
+    private Map<String, List<FacetBucket>> extractShowFacets(SearchHits<ShowDocument> searchHits) {
+        Map<String, List<FacetBucket>> facets = new LinkedHashMap<>();
+        if (!(searchHits.getAggregations() instanceof ElasticsearchAggregations aggregations)) {
+            return facets;
         }
+
+        aggregations.aggregationsAsMap().forEach((name, aggregation) -> {
+            Aggregate aggregate = aggregation.aggregation().getAggregate();
+            List<FacetBucket> buckets;
+            if (aggregate.isLterms()) {
+                buckets = aggregate.lterms().buckets().array().stream()
+                        .map(bucket -> new FacetBucket(String.valueOf(bucket.key()), bucket.docCount()))
+                        .collect(Collectors.toList());
+            } else if (aggregate.isSterms()) {
+                buckets = aggregate.sterms().buckets().array().stream()
+                        .map(bucket -> new FacetBucket(bucket.key().stringValue(), bucket.docCount()))
+                        .collect(Collectors.toList());
+            } else if (aggregate.isDateHistogram()) {
+                buckets = aggregate.dateHistogram().buckets().array().stream()
+                        .map(bucket -> new FacetBucket(bucket.keyAsString(), bucket.docCount()))
+                        .collect(Collectors.toList());
+            } else if (aggregate.isRange()) {
+                buckets = aggregate.range().buckets().array().stream()
+                        .map(bucket -> new FacetBucket(bucket.key(), bucket.docCount()))
+                        .collect(Collectors.toList());
+            } else {
+                // Terms on a field with no values in the index come back unmapped
+                buckets = List.of();
+            }
+            facets.put(name, buckets);
+        });
+        return facets;
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.trim().isEmpty();
     }
     
-    // Advanced Search Methods
-    public List<ShowDocument> searchShowsWithFilters(String movieTitle, String cityName, 
-                                                    String theatreName, LocalDateTime fromDateTime, 
-                                                    LocalDateTime toDateTime) {
+    // Health check method
+    /**
+     * Typeahead over movie titles, theatre names and city names. Each name has a
+     * {@code search_as_you_type} subfield ({@code .suggest}) whose prefixes and shingles are built
+     * at index time, so a {@code bool_prefix} query only looks up terms instead of scanning like the
+     * {@code ContainingIgnoreCase} finders. The three indices are queried in one multi-search, and
+     * shows are collapsed on {@code movieId} so each movie is suggested once. An index created
+     * before the subfield existed returns no suggestions until it is rebuilt by a reindex.
+     */
+    public List<Suggestion> suggest(String prefix, int size) {
+        if (!hasText(prefix)) {
+            return List.of();
+        }
+        String text = prefix.trim();
+        int limit = Math.max(1, Math.min(size, MAX_SUGGESTIONS));
         try {
-            Criteria criteria = new Criteria();
-            
-            if (movieTitle != null && !movieTitle.trim().isEmpty()) {
-                criteria = criteria.and(new Criteria("movieTitle").contains(movieTitle));
-            }
-            
-            if (cityName != null && !cityName.trim().isEmpty()) {
-                criteria = criteria.and(new Criteria("cityName").contains(cityName));
-            }
-            
-            if (theatreName != null && !theatreName.trim().isEmpty()) {
-                criteria = criteria.and(new Criteria("theatreName").contains(theatreName));
-            }
-            
-            if (fromDateTime != null) {
-                criteria = criteria.and(new Criteria("showDateTime").greaterThanEqual(fromDateTime));
-            }
-            
-            if (toDateTime != null) {
-                criteria = criteria.and(new Criteria("showDateTime").lessThanEqual(toDateTime));
+            List<NativeQuery> queries = List.of(
+                    buildSuggestQuery("movieTitle", text, limit, "movieId", "movieTitle"),
+                    buildSuggestQuery("name", text, limit, "theatreId", "name"),
+                    buildSuggestQuery("name", text, limit, null, "id", "name"));
+            List<SearchHits<?>> results = elasticsearchGuard.call(() -> elasticsearchOperations.multiSearch(queries,
+                    List.of(ShowDocument.class, TheatreDocument.class, CityDocument.class)));
+
+            List<Suggestion> suggestions = new ArrayList<>();
+            for (SearchHits<?> hits : results) {
+                for (SearchHit<?> hit : hits.getSearchHits()) {
+                    suggestions.add(toSuggestion(hit.getContent(), hit.getScore()));
+                }
             }
-            
-            Query searchQuery = new CriteriaQuery(criteria);
-            SearchHits<ShowDocument> searchHits = elasticsearchOperations.search(searchQuery, ShowDocument.class);
-            
-            return searchHits.stream()
-                    .map(SearchHit::getContent)
+            return suggestions.stream()
+                    .sorted(Comparator.comparingDouble(Suggestion::getScore).reversed())
+                    .limit(limit)
                     .collect(Collectors.toList());
-                    
         } catch (Exception e) {
-            log.error("Failed to search shows with filters: {}", e.getMessage(), e);
+            log.error("Failed to suggest names for '{}': {}", text, e.getMessage(), e);
             return List.of();
         }
     }
-    
-    // Health check method
+
+    private NativeQuery buildSuggestQuery(String field, String text, int limit, String collapseField, String... sourceFields) {
+        String suggestField = field + ".suggest";
+        NativeQueryBuilder queryBuilder = NativeQuery.builder()
+                .withQuery(q -> q.multiMatch(m -> m
+                        .query(text)
+                        .type(TextQueryType.BoolPrefix)
+                        .operator(Operator.And)
+                        .fields(suggestField, suggestField + "._2gram", suggestField + "._3gram")))
+                .withSourceFilter(new FetchSourceFilter(sourceFields, null))
+                .withMaxResults(limit)
+                .withTrackTotalHits(false);
+        if (collapseField != null) {
+            queryBuilder.withFieldCollapse(FieldCollapse.of(c -> c.field(collapseField)));
+        }
+        return queryBuilder.build();
+    }
+
+    private static Suggestion toSuggestion(Object content, float score) {
+        if (content instanceof ShowDocument show) {
+            return new Suggestion(Suggestion.Type.MOVIE, String.valueOf(show.getMovieId()), show.getMovieTitle(), score);
+        }
+        if (content instanceof TheatreDocument theatre) {
+            return new Suggestion(Suggestion.Type.THEATRE, String.valueOf(theatre.getTheatreId()), theatre.getName(), score);
+        }
+        CityDocument city = (CityDocument) content;
+        return new Suggestion(Suggestion.Type.CITY, city.getId(), city.getName(), score);
+    }
+
     public boolean isElasticsearchHealthy() {
         try {
             return elasticsearchOperations.indexOps(CityDocument.class).exists() ||
@@ -350,46 +584,4 @@ public class SearchService {
             return 0;
         }
     }
-    
-    // Method to recreate all indices with correct mappings
-    public void recreateIndices() {
-        try {
-            log.info("Starting to recreate Elasticsearch indices...");
-            
-            // Delete existing indices
-            if (elasticsearchOperations.indexOps(CityDocument.class).exists()) {
-                elasticsearchOperations.indexOps(CityDocument.class).delete();
-                log.info("Deleted cities index");
-            }
-            
-            if (elasticsearchOperations.indexOps(TheatreDocument.class).exists()) {
-                elasticsearchOperations.indexOps(TheatreDocument.class).delete();
-                log.info("Deleted theatres index");
-            }
-            
-            if (elasticsearchOperations.indexOps(ShowDocument.class).exists()) {
-                elasticsearchOperations.indexOps(ShowDocument.class).delete();
-                log.info("Deleted shows index");
-            }
-            
-            // Create new indices with correct mappings
-            elasticsearchOperations.indexOps(CityDocument.class).create();
-            elasticsearchOperations.indexOps(CityDocument.class).putMapping();
-            log.info("Created cities index with new mappings");
-            
-            elasticsearchOperations.indexOps(TheatreDocument.class).create();
-            elasticsearchOperations.indexOps(TheatreDocument.class).putMapping();
-            log.info("Created theatres index with new mappings");
-            
-            elasticsearchOperations.indexOps(ShowDocument.class).create();
-            elasticsearchOperations.indexOps(ShowDocument.class).putMapping();
-            log.info("Created shows index with new mappings");
-            
-            log.info("Successfully recreated all Elasticsearch indices");
-            
-        } catch (Exception e) {
-            log.error("Failed to recreate Elasticsearch indices: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to recreate indices", e);
-        }
-    }
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.moviebooking.search.service;
+
+/**
+ * Thrown when a search request is rejected by {@link ElasticsearchGuard} without calling Elasticsearch.
+ */
+public class SearchUnavailableException extends RuntimeException {
+    public SearchUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
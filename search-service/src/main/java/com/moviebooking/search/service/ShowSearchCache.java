@@ -0,0 +1,309 @@
+package com.moviebooking.search.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.moviebooking.search.model.ShowDocument;
+import com.moviebooking.search.model.ShowSearchRequest;
+import com.moviebooking.search.model.ShowSearchResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Caches show search pages keyed on the normalized request. Entries are dropped precisely when an
+ * indexed aggregate they could depend on changes (see {@link #invalidate}), and expire after a short
+ * TTL as a backstop.
+ * <p>
+ * With {@code app.search.cache.redis.enabled} pages are also shared through Redis. Redis keys carry
+ * a generation counter that every invalidation bumps, which also retires the local entries of the
+ * other replicas, since only the replica that consumed an event can invalidate precisely.
+ */
+@Component
+@Slf4j
+public class ShowSearchCache {
+    static final String GENERATION_KEY = "search:shows:generation";
+    private static final String PAGE_KEY_PREFIX = "search:shows:page:";
+
+    private final ObjectMapper objectMapper;
+    private final StringRedisTemplate redisTemplate;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final Cache<CacheKey, CachedPage> cache;
+
+    private final Counter redisHits;
+    private final Counter redisMisses;
+    private final Counter invalidations;
+
+    public ShowSearchCache(ObjectMapper objectMapper,
+                           ObjectProvider<StringRedisTemplate> redisTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.search.cache.enabled:true}") boolean enabled,
+                           @Value("${app.search.cache.max-size:10000}") long maxSize,
+                           @Value("${app.search.cache.ttl:30s}") Duration ttl,
+                           @Value("${app.search.cache.redis.enabled:false}") boolean redisEnabled) {
+        this.objectMapper = objectMapper;
+        this.redisTemplate = redisEnabled ? redisTemplate.getIfAvailable() : null;
+        this.enabled = enabled;
+        this.ttl = ttl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        // Exposes cache.gets{result=hit|miss}, cache.evictions, cache.size, ... tagged cache=show-search
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "show-search");
+        this.redisHits = Counter.builder("search.cache.redis.gets").tag("result", "hit")
+                .description("Show search pages served from Redis")
+                .register(meterRegistry);
+        this.redisMisses = Counter.builder("search.cache.redis.gets").tag("result", "miss")
+                .description("Show search pages not found in Redis")
+                .register(meterRegistry);
+        this.invalidations = Counter.builder("search.cache.invalidations")
+                .description("Show search pages dropped because an indexed aggregate changed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Normalizes the request so equivalent searches share an entry. Text is lower-cased and trimmed
+     * (the analyzers ignore case anyway) and {@code fromDateTime} is truncated to the minute, so
+     * "from now" searches issued within the same minute hit the same entry.
+     */
+    public static ShowSearchRequest normalize(ShowSearchRequest request) {
+        return request.toBuilder()
+                .query(normalizeText(request.getQuery()))
+                .movieTitle(normalizeText(request.getMovieTitle()))
+                .theatreName(normalizeText(request.getTheatreName()))
+                .cityName(normalizeText(request.getCityName()))
+                .status(request.getStatus() == null || request.getStatus().isBlank() ? null : request.getStatus().trim())
+                .fromDateTime(request.getFromDateTime() == null ? null : request.getFromDateTime().truncatedTo(ChronoUnit.MINUTES))
+                .cursor(request.getCursor() == null || request.getCursor().isBlank() ? null : request.getCursor())
+                .fields(request.getFields() == null || request.getFields().isEmpty() ? null
+                        : request.getFields().stream().sorted().distinct().collect(Collectors.toList()))
+                .build();
+    }
+
+    /**
+     * Returns the cached page for a normalized request, or loads and caches it. Concurrent misses
+     * for the same request share one load. Exceptions thrown by the loader are not cached.
+     */
+    public ShowSearchResponse get(ShowSearchRequest request, Function<ShowSearchRequest, ShowSearchResponse> loader) {
+        if (!enabled) {
+            return loader.apply(request);
+        }
+        long generation = currentGeneration();
+        return cache.get(new CacheKey(generation, request), key -> load(key, loader)).getResponse();
+    }
+
+    /**
+     * Drops the pages that the given index changes can affect. Called once the changes are written.
+     */
+    public void invalidate(Collection<IndexChange> changes) {
+        if (!enabled || changes.isEmpty()) {
+            return;
+        }
+        for (IndexChange change : changes) {
+            switch (change.getAggregateType()) {
+                case "Show" -> invalidateShow(change);
+                case "Theatre" -> invalidateWhere(request -> Objects.equals(request.getTheatreId(), parseId(change.getId())));
+                case "City" -> invalidateWhere(request -> Objects.equals(request.getCityId(), parseId(change.getId())));
+                default -> log.debug("No cached searches depend on {} changes", change.getAggregateType());
+            }
+        }
+        bumpGeneration();
+    }
+
+    /**
+     * Drops the pages that a change to a show's available seats can affect.
+     */
+    public void invalidateShowSeats(Long showId) {
+        if (showId != null) {
+            invalidateShowSeats(Set.of(showId));
+        }
+    }
+
+    /**
+     * Drops the pages that changes to the available seats of the given shows can affect.
+     */
+    public void invalidateShowSeats(Collection<Long> showIds) {
+        if (!enabled || showIds.isEmpty()) {
+            return;
+        }
+        Set<String> ids = showIds.stream().map(String::valueOf).collect(Collectors.toSet());
+        invalidateWhere((request, page) -> request.getMinAvailableSeats() != null
+                || page.getShowIds().stream().anyMatch(ids::contains));
+        bumpGeneration();
+    }
+
+    private void invalidateShow(IndexChange change) {
+        if (change.isDelete()) {
+            // Only the id is known; facet counts cover shows outside the page as well
+            invalidateWhere((request, page) -> page.getShowIds().contains(change.getId()) || request.isFacets());
+            return;
+        }
+        JsonNode data = change.getData();
+        Long movieId = longOrNull(data, "movieId");
+        Long theatreId = longOrNull(data, "theatreId");
+        Long cityId = longOrNull(data, "cityId");
+        // A page depends on the show if it lists it, or if the show could match its filters
+        invalidateWhere((request, page) -> page.getShowIds().contains(change.getId())
+                || (matches(request.getMovieId(), movieId)
+                    && matches(request.getTheatreId(), theatreId)
+                    && matches(request.getCityId(), cityId)));
+    }
+
+    private void invalidateWhere(Predicate<ShowSearchRequest> predicate) {
+        invalidateWhere((request, page) -> predicate.test(request));
+    }
+
+    private void invalidateWhere(BiPredicate<ShowSearchRequest, CachedPage> predicate) {
+        cache.asMap().entrySet().removeIf(entry -> {
+            boolean stale = predicate.test(entry.getKey().getRequest(), entry.getValue());
+            if (stale) {
+                invalidations.increment();
+            }
+            return stale;
+        });
+    }
+
+    private CachedPage load(CacheKey key, Function<ShowSearchRequest, ShowSearchResponse> loader) {
+        String redisKey = redisTemplate == null ? null : redisKey(key);
+        if (redisKey != null) {
+            ShowSearchResponse shared = readFromRedis(redisKey);
+            if (shared != null) {
+                redisHits.increment();
+                return new CachedPage(shared);
+            }
+            redisMisses.increment();
+        }
+
+        ShowSearchResponse response = loader.apply(key.getRequest());
+        if (redisKey != null) {
+            writeToRedis(redisKey, response);
+        }
+        return new CachedPage(response);
+    }
+
+    private long currentGeneration() {
+        if (redisTemplate == null) {
+            return 0;
+        }
+        try {
+            String generation = redisTemplate.opsForValue().get(GENERATION_KEY);
+            return generation == null ? 0 : Long.parseLong(generation);
+        } catch (RuntimeException e) {
+            // Without the generation we cannot tell whether local entries are current
+            log.warn("Failed to read search cache generation from Redis: {}", e.getMessage());
+            cache.invalidateAll();
+            return -1;
+        }
+    }
+
+    private void bumpGeneration() {
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().increment(GENERATION_KEY);
+        } catch (RuntimeException e) {
+            log.warn("Failed to bump search cache generation in Redis, other replicas rely on the TTL: {}", e.getMessage());
+        }
+    }
+
+    private String redisKey(CacheKey key) {
+        if (key.getGeneration() < 0) {
+            return null;
+        }
+        try {
+            byte[] request = objectMapper.writeValueAsBytes(key.getRequest());
+            return PAGE_KEY_PREFIX + key.getGeneration() + ":" + DigestUtils.md5DigestAsHex(request);
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to build search cache key: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private ShowSearchResponse readFromRedis(String redisKey) {
+        try {
+            String json = redisTemplate.opsForValue().get(redisKey);
+            return json == null ? null : objectMapper.readValue(json, ShowSearchResponse.class);
+        } catch (RuntimeException | JsonProcessingException e) {
+            log.warn("Failed to read search page from Redis: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeToRedis(String redisKey, ShowSearchResponse response) {
+        try {
+            redisTemplate.opsForValue().set(redisKey, new String(objectMapper.writeValueAsBytes(response), StandardCharsets.UTF_8), ttl);
+        } catch (RuntimeException | JsonProcessingException e) {
+            log.warn("Failed to write search page to Redis: {}", e.getMessage());
+        }
+    }
+
+    private static boolean matches(Long filter, Long value) {
+        return filter == null || value == null || filter.equals(value);
+    }
+
+    private static Long longOrNull(JsonNode data, String field) {
+        return data != null && data.hasNonNull(field) ? data.get(field).asLong() : null;
+    }
+
+    private static Long parseId(String id) {
+        try {
+            return Long.valueOf(id);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String normalizeText(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    @EqualsAndHashCode
+    private static class CacheKey {
+        private final long generation;
+        private final ShowSearchRequest request;
+    }
+
+    @Getter
+    private static class CachedPage {
+        private final ShowSearchResponse response;
+        private final Set<String> showIds;
+
+        CachedPage(ShowSearchResponse response) {
+            this.response = response;
+            this.showIds = response.getShows().stream()
+                    .map(ShowDocument::getId)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toUnmodifiableSet());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.moviebooking.search.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Opaque {@code search_after} cursor: the sort values of the last hit of a page as URL-safe Base64 JSON.
+ */
+final class ShowSearchCursor {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private ShowSearchCursor() {
+    }
+
+    static String encode(List<Object> sortValues) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(sortValues));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to encode search cursor", e);
+        }
+    }
+
+    /**
+     * @return the sort values to search after, or null for the first page
+     * @throws IllegalArgumentException if the cursor was not produced by {@link #encode}
+     */
+    static List<Object> decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String json = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            return MAPPER.readValue(json, new TypeReference<List<Object>>() {});
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid search cursor: " + cursor, e);
+        }
+    }
+}
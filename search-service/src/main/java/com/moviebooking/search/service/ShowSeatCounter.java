@@ -0,0 +1,185 @@
+package com.moviebooking.search.service;
+
+import com.moviebooking.search.model.ShowDocument;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.query.ScriptType;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps {@code availableSeats} of show documents in step with bookings. Seat changes are summed
+ * per show and flushed on a short interval as one bulk of scripted updates, so a hot show is
+ * written at most once per interval however many bookings it takes. The script adjusts the stored
+ * count in place on the Elasticsearch side, so concurrent writers cannot lose each other's changes,
+ * and version conflicts with concurrent show upserts are retried by Elasticsearch. While a reindex
+ * is building a new shows index, the written changes are applied to it as well.
+ * <p>
+ * A change can carry a callback that runs once it is written, or dropped because the show is not
+ * indexed, so the event it came from is only acknowledged when its effect can no longer be lost.
+ */
+@Component
+@Slf4j
+public class ShowSeatCounter {
+    static final String SCRIPT = "if (ctx._source.availableSeats == null) { ctx.op = 'noop' } "
+            + "else { ctx._source.availableSeats = Math.max(0, ctx._source.availableSeats + params.delta) }";
+    private static final int HTTP_NOT_FOUND = 404;
+
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final ShowSearchCache showSearchCache;
+    private final SearchIndexAliases searchIndexAliases;
+    private final int retryOnConflict;
+    private final Map<Long, PendingChange> pending = new ConcurrentHashMap<>();
+
+    public ShowSeatCounter(ElasticsearchOperations elasticsearchOperations,
+                           ShowSearchCache showSearchCache,
+                           SearchIndexAliases searchIndexAliases,
+                           @Value("${app.search.seats.retry-on-conflict:5}") int retryOnConflict) {
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.showSearchCache = showSearchCache;
+        this.searchIndexAliases = searchIndexAliases;
+        this.retryOnConflict = retryOnConflict;
+    }
+
+    /**
+     * Records a change in a show's available seats, negative when seats are booked.
+     */
+    public void record(Long showId, int delta) {
+        record(showId, delta, null);
+    }
+
+    /**
+     * Records a change in a show's available seats and runs {@code onWritten} once it is written.
+     * A change that has nothing to write runs it right away.
+     */
+    public void record(Long showId, int delta, Runnable onWritten) {
+        if (showId == null || delta == 0) {
+            if (onWritten != null) {
+                onWritten.run();
+            }
+            return;
+        }
+        pending.merge(showId, new PendingChange(delta, onWritten == null ? List.of() : List.of(onWritten)), PendingChange::plus);
+    }
+
+    /**
+     * Writes the pending changes. Changes that fail for any reason other than the show not being
+     * indexed are put back and retried on the next flush. Cached searches are invalidated only once
+     * the new counts are written.
+     */
+    @Scheduled(fixedDelayString = "${app.search.seats.flush-interval-ms:500}")
+    public void flush() {
+        Map<Long, PendingChange> changes = new HashMap<>();
+        for (Long showId : pending.keySet()) {
+            PendingChange change = pending.remove(showId);
+            if (change == null) {
+                continue;
+            }
+            if (change.delta() != 0) {
+                changes.put(showId, change);
+            } else {
+                change.written();
+            }
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        List<UpdateQuery> updates = new ArrayList<>(changes.size());
+        changes.forEach((showId, change) -> updates.add(update(showId, change.delta())));
+
+        Set<Long> written = new HashSet<>(changes.keySet());
+        try {
+            elasticsearchOperations.bulkUpdate(updates, ShowDocument.class);
+        } catch (BulkFailureException e) {
+            e.getFailedDocuments().forEach((id, failure) -> {
+                Long showId = Long.valueOf(id);
+                written.remove(showId);
+                PendingChange change = changes.get(showId);
+                if (failure.status() == null || failure.status() != HTTP_NOT_FOUND) {
+                    pending.merge(showId, change, PendingChange::plus);
+                } else {
+                    log.debug("Dropped seat change for show {} that is not indexed", showId);
+                    change.written();
+                }
+            });
+            log.warn("Failed to update available seats for {} of {} shows", e.getFailedDocuments().size(), changes.size());
+        } catch (RuntimeException e) {
+            changes.forEach((showId, change) -> pending.merge(showId, change, PendingChange::plus));
+            log.warn("Failed to update available seats for {} shows, retrying on next flush: {}", changes.size(), e.getMessage());
+            return;
+        }
+
+        writeToBuildIndex(written, changes);
+        written.forEach(showId -> changes.get(showId).written());
+        showSearchCache.invalidateShowSeats(written);
+        log.debug("Updated available seats for {} shows", written.size());
+    }
+
+    /**
+     * Applies the written changes to the shows index being built, if any. A show the build has not
+     * loaded yet is skipped, and other failures are only logged: retrying would apply the change to
+     * the live index twice.
+     */
+    private void writeToBuildIndex(Set<Long> written, Map<Long, PendingChange> changes) {
+        if (written.isEmpty()) {
+            return;
+        }
+        searchIndexAliases.buildIndex(ShowDocument.class).ifPresent(index -> {
+            List<UpdateQuery> updates = written.stream()
+                    .map(showId -> update(showId, changes.get(showId).delta()))
+                    .toList();
+            try {
+                elasticsearchOperations.bulkUpdate(updates, index);
+            } catch (BulkFailureException e) {
+                long failed = e.getFailedDocuments().values().stream()
+                        .filter(failure -> failure.status() == null || failure.status() != HTTP_NOT_FOUND)
+                        .count();
+                if (failed > 0) {
+                    log.warn("Failed to update available seats for {} shows in {}", failed, index.getIndexName());
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to update available seats in {}: {}", index.getIndexName(), e.getMessage());
+            }
+        });
+    }
+
+    private UpdateQuery update(Long showId, int delta) {
+        return UpdateQuery.builder(showId.toString())
+                .withScriptType(ScriptType.INLINE)
+                .withScript(SCRIPT)
+                .withLang("painless")
+                .withParams(Map.of("delta", delta))
+                .withRetryOnConflict(retryOnConflict)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private record PendingChange(int delta, List<Runnable> callbacks) {
+        PendingChange plus(PendingChange other) {
+            List<Runnable> merged = new ArrayList<>(callbacks);
+            merged.addAll(other.callbacks);
+            return new PendingChange(delta + other.delta, merged);
+        }
+
+        void written() {
+            callbacks.forEach(Runnable::run);
+        }
+    }
+}
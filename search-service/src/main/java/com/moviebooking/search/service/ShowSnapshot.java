@@ -0,0 +1,169 @@
+package com.moviebooking.search.service;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.SortOptions;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.json.JsonData;
+import com.moviebooking.search.model.ShowDocument;
+import com.moviebooking.search.model.ShowSearchRequest;
+import com.moviebooking.search.model.ShowSearchResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHitsIterator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * An in-memory copy of the upcoming shows, grouped by city, that show searches fall back to while
+ * Elasticsearch is unavailable. It is reloaded periodically, and only while the circuit breaker of
+ * {@link ElasticsearchGuard} is closed, so an outage keeps the last good copy.
+ * <p>
+ * City ids are kept in a sorted {@code long[]} searched by binary search, with each city's shows in
+ * a parallel array sorted by show time, so lookups neither box keys nor walk a hash map of lists.
+ */
+@Component
+@Slf4j
+public class ShowSnapshot {
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss");
+    private static final List<String> ENDED_SHOW_STATUSES = List.of("CANCELLED", "COMPLETED");
+
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final ElasticsearchGuard elasticsearchGuard;
+    private final Duration horizon;
+    private final int maxShows;
+    private volatile Shows shows = new Shows(new long[0], new ShowDocument[0][], null);
+
+    public ShowSnapshot(ElasticsearchOperations elasticsearchOperations,
+                        ElasticsearchGuard elasticsearchGuard,
+                        @Value("${app.search.snapshot.horizon:7d}") Duration horizon,
+                        @Value("${app.search.snapshot.max-shows:100000}") int maxShows) {
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.elasticsearchGuard = elasticsearchGuard;
+        this.horizon = horizon;
+        this.maxShows = maxShows;
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.snapshot.refresh-interval-ms:60000}")
+    public void refresh() {
+        if (!elasticsearchGuard.isAvailable()) {
+            log.debug("Elasticsearch unavailable, keeping show snapshot from {}", shows.loadedAt());
+            return;
+        }
+
+        try {
+            // Step 1: Stream the upcoming shows in show time order
+            LocalDateTime now = LocalDateTime.now();
+            NativeQuery query = NativeQuery.builder()
+                    .withQuery(q -> q.bool(b -> b
+                            .filter(f -> f.range(r -> r.field("showDateTime")
+                                    .gte(JsonData.of(DATE_TIME_FORMAT.format(now)))
+                                    .lte(JsonData.of(DATE_TIME_FORMAT.format(now.plus(horizon))))))
+                            .mustNot(m -> m.terms(t -> t.field("status").terms(v -> v.value(
+                                    ENDED_SHOW_STATUSES.stream().map(FieldValue::of).collect(Collectors.toList())))))))
+                    .withSort(SortOptions.of(s -> s.field(f -> f.field("showDateTime").order(SortOrder.Asc))))
+                    .build();
+
+            Map<Long, List<ShowDocument>> byCity = new HashMap<>();
+            int count = 0;
+            try (SearchHitsIterator<ShowDocument> hits = elasticsearchOperations.searchForStream(query, ShowDocument.class)) {
+                while (hits.hasNext() && count < maxShows) {
+                    ShowDocument show = hits.next().getContent();
+                    if (show.getCityId() != null) {
+                        byCity.computeIfAbsent(show.getCityId(), id -> new ArrayList<>()).add(show);
+                        count++;
+                    }
+                }
+            }
+
+            // Step 2: Pack them into the sorted arrays and publish
+            long[] cityIds = byCity.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+            ShowDocument[][] showsByCity = new ShowDocument[cityIds.length][];
+            for (int i = 0; i < cityIds.length; i++) {
+                showsByCity[i] = byCity.get(cityIds[i]).toArray(new ShowDocument[0]);
+            }
+            shows = new Shows(cityIds, showsByCity, now);
+            log.debug("Loaded show snapshot with {} shows in {} cities", count, cityIds.length);
+        } catch (Exception e) {
+            log.warn("Failed to refresh show snapshot, keeping the one from {}: {}", shows.loadedAt(), e.getMessage());
+        }
+    }
+
+    /**
+     * Answers a show search from the snapshot. Only searches within one city can be answered, and
+     * only their first page; free text is matched as a case-insensitive substring rather than scored.
+     *
+     * @return a response flagged as degraded, empty if the snapshot cannot answer the request
+     */
+    public ShowSearchResponse search(ShowSearchRequest request, int size) {
+        Shows current = shows;
+        int index = request.getCityId() == null ? -1 : Arrays.binarySearch(current.cityIds(), request.getCityId());
+        if (index < 0 || request.getCursor() != null) {
+            return new ShowSearchResponse(List.of(), null, null, true);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<ShowDocument> matches = new ArrayList<>();
+        for (ShowDocument show : current.showsByCity()[index]) {
+            if (matches.size() == size) {
+                break;
+            }
+            if (!show.getShowDateTime().isBefore(now) && matches(show, request)) {
+                matches.add(show);
+            }
+        }
+        return new ShowSearchResponse(matches, null, null, true);
+    }
+
+    private static boolean matches(ShowDocument show, ShowSearchRequest request) {
+        if (request.getMovieId() != null && !request.getMovieId().equals(show.getMovieId())) {
+            return false;
+        }
+        if (request.getTheatreId() != null && !request.getTheatreId().equals(show.getTheatreId())) {
+            return false;
+        }
+        if (request.getStatus() != null && !request.getStatus().equals(show.getStatus())) {
+            return false;
+        }
+        if (request.getFromDateTime() != null && show.getShowDateTime().isBefore(request.getFromDateTime())) {
+            return false;
+        }
+        if (request.getToDateTime() != null && show.getShowDateTime().isAfter(request.getToDateTime())) {
+            return false;
+        }
+        if (request.getMinAvailableSeats() != null
+                && (show.getAvailableSeats() == null || show.getAvailableSeats() < request.getMinAvailableSeats())) {
+            return false;
+        }
+        if (request.getQuery() != null && !contains(show.getMovieTitle(), request.getQuery())
+                && !contains(show.getTheatreName(), request.getQuery()) && !contains(show.getCityName(), request.getQuery())) {
+            return false;
+        }
+        return (request.getMovieTitle() == null || contains(show.getMovieTitle(), request.getMovieTitle()))
+                && (request.getTheatreName() == null || contains(show.getTheatreName(), request.getTheatreName()))
+                && (request.getCityName() == null || contains(show.getCityName(), request.getCityName()));
+    }
+
+    private static boolean contains(String value, String text) {
+        return value != null && value.toLowerCase(Locale.ROOT).contains(text.toLowerCase(Locale.ROOT));
+    }
+
+    public boolean isLoaded() {
+        return shows.loadedAt() != null;
+    }
+
+    private record Shows(long[] cityIds, ShowDocument[][] showsByCity, LocalDateTime loadedAt) {
+    }
+}
@@ -0,0 +1,161 @@
+package com.moviebooking.search.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.moviebooking.search.client.CatalogSource;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.LongFunction;
+
+/**
+ * Generates a catalog of any size for load and capacity tests, in the shape of the theatre-service
+ * export. Every row is derived from its id alone, so pages can be generated on demand, in any
+ * order, and the same counts always produce the same catalog. Theatres are spread evenly over the
+ * cities and shows over the theatres, and shows fall on the {@code days} days starting today.
+ */
+public class SyntheticCatalog implements CatalogSource {
+    private static final JsonNodeFactory JSON = JsonNodeFactory.instance;
+    private static final String[] CITY_NAMES = {"Mumbai", "Delhi", "Bangalore", "Chennai", "Kolkata",
+            "Hyderabad", "Pune", "Ahmedabad", "Surat", "Jaipur", "Lucknow", "Kanpur", "Nagpur", "Indore",
+            "Bhopal", "Patna", "Vadodara", "Ludhiana", "Agra", "Nashik", "Kochi", "Coimbatore", "Madurai", "Mysore"};
+    private static final String[] STATES = {"Maharashtra", "Delhi", "Karnataka", "Tamil Nadu", "West Bengal",
+            "Telangana", "Gujarat", "Rajasthan", "Uttar Pradesh", "Madhya Pradesh", "Bihar", "Punjab", "Kerala"};
+    private static final String[] CHAINS = {"PVR", "INOX", "Cinepolis", "Carnival", "Miraj", "DT Cinemas"};
+    private static final String[] SITES = {"City Centre", "Phoenix Mall", "Central", "Metro", "Plaza", "Galleria",
+            "Forum", "Junction", "Square", "Riverside"};
+    private static final String[] TITLE_WORDS = {"Avengers", "Midnight", "Storm", "Legacy", "Kingdom", "Shadow",
+            "Galaxy", "Rising", "Dragon", "Horizon", "Empire", "Return", "Secret", "Last", "Wild", "Silent"};
+    private static final String[] SCREEN_TYPES = {"STANDARD", "IMAX", "DOLBY_ATMOS", "FOUR_DX"};
+    private static final int[] SHOW_HOURS = {10, 13, 16, 19, 22};
+    private static final int SCREENS_PER_THEATRE = 6;
+
+    private final long cities;
+    private final long theatres;
+    private final long shows;
+    private final int movies;
+    private final int days;
+    private final LocalDate firstDay;
+    private final String now;
+
+    public SyntheticCatalog(long cities, long theatres, long shows, int movies, int days) {
+        this.cities = cities;
+        this.theatres = theatres;
+        this.shows = shows;
+        this.movies = movies;
+        this.days = days;
+        this.firstDay = LocalDate.now();
+        this.now = LocalDateTime.now().withNano(0).toString();
+    }
+
+    @Override
+    public List<JsonNode> exportCities(Long afterId, int limit) {
+        return page(afterId, limit, cities, this::city);
+    }
+
+    @Override
+    public List<JsonNode> exportTheatres(Long afterId, int limit) {
+        return page(afterId, limit, theatres, this::theatre);
+    }
+
+    @Override
+    public List<JsonNode> exportShows(Long afterId, int limit) {
+        return page(afterId, limit, shows, this::show);
+    }
+
+    private static List<JsonNode> page(long afterId, int limit, long count, LongFunction<JsonNode> row) {
+        long last = Math.min(count, afterId + limit);
+        List<JsonNode> rows = new ArrayList<>((int) Math.max(0, last - afterId));
+        for (long id = afterId + 1; id <= last; id++) {
+            rows.add(row.apply(id));
+        }
+        return rows;
+    }
+
+    private JsonNode city(long id) {
+        SplittableRandom random = new SplittableRandom(id);
+        ObjectNode city = JSON.objectNode()
+                .put("id", id)
+                .put("name", cityName(id))
+                .put("state", STATES[random.nextInt(STATES.length)])
+                .put("country", "India")
+                .put("zipCode", String.valueOf(100000 + random.nextInt(800000)));
+        return timestamps(city);
+    }
+
+    private JsonNode theatre(long id) {
+        long cityId = cityOf(id);
+        SplittableRandom random = new SplittableRandom(cityId);
+        // Theatres lie within about 15 km of their city centre
+        double latitude = 8 + random.nextDouble() * 24;
+        double longitude = 69 + random.nextDouble() * 20;
+        random = new SplittableRandom(id * 31);
+        ObjectNode theatre = JSON.objectNode()
+                .put("id", id)
+                .put("name", theatreName(id))
+                .put("address", (1 + random.nextInt(500)) + " " + SITES[random.nextInt(SITES.length)] + " Road, " + cityName(cityId))
+                .put("phoneNumber", "+91-" + (7000000000L + random.nextLong(2999999999L)))
+                .put("email", "theatre" + id + "@example.com")
+                .put("latitude", latitude + (random.nextDouble() - 0.5) * 0.27)
+                .put("longitude", longitude + (random.nextDouble() - 0.5) * 0.27)
+                .put("cityId", cityId)
+                .put("cityName", cityName(cityId));
+        return timestamps(theatre);
+    }
+
+    private JsonNode show(long id) {
+        long theatreId = (id - 1) % theatres + 1;
+        long cityId = cityOf(theatreId);
+        SplittableRandom random = new SplittableRandom(id * 17);
+        long movieId = 1 + random.nextInt(movies);
+        int screen = 1 + random.nextInt(SCREENS_PER_THEATRE);
+        LocalDateTime start = firstDay.plusDays(random.nextInt(days))
+                .atTime(SHOW_HOURS[random.nextInt(SHOW_HOURS.length)], 15 * random.nextInt(4));
+        ObjectNode show = JSON.objectNode()
+                .put("id", id)
+                .put("movieId", movieId)
+                .put("movieTitle", movieTitle(movieId))
+                .put("showDateTime", start.toString())
+                .put("endDateTime", start.plusMinutes(120 + 15L * random.nextInt(5)).toString())
+                .put("price", String.valueOf(150 + 50 * random.nextInt(10)))
+                .put("availableSeats", random.nextInt(250))
+                .put("status", "SCHEDULED")
+                .put("screenId", (theatreId - 1) * SCREENS_PER_THEATRE + screen)
+                .put("screenName", "Screen " + screen)
+                .put("screenType", SCREEN_TYPES[random.nextInt(SCREEN_TYPES.length)])
+                .put("theatreId", theatreId)
+                .put("theatreName", theatreName(theatreId))
+                .put("cityId", cityId)
+                .put("cityName", cityName(cityId));
+        return timestamps(show);
+    }
+
+    private ObjectNode timestamps(ObjectNode row) {
+        return row.put("createdAt", now).put("updatedAt", now);
+    }
+
+    private long cityOf(long theatreId) {
+        return (theatreId - 1) % cities + 1;
+    }
+
+    private static String cityName(long cityId) {
+        String name = CITY_NAMES[(int) ((cityId - 1) % CITY_NAMES.length)];
+        long round = (cityId - 1) / CITY_NAMES.length;
+        return round == 0 ? name : name + " " + (round + 1);
+    }
+
+    private static String theatreName(long theatreId) {
+        SplittableRandom random = new SplittableRandom(theatreId * 7);
+        return CHAINS[random.nextInt(CHAINS.length)] + " " + SITES[random.nextInt(SITES.length)] + " " + theatreId;
+    }
+
+    private static String movieTitle(long movieId) {
+        SplittableRandom random = new SplittableRandom(movieId * 13);
+        return TITLE_WORDS[random.nextInt(TITLE_WORDS.length)] + " " + TITLE_WORDS[random.nextInt(TITLE_WORDS.length)]
+                + (movieId > TITLE_WORDS.length ? " " + movieId : "");
+    }
+}
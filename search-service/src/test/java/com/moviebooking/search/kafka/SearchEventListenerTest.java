@@ -0,0 +1,87 @@
+package com.moviebooking.search.kafka;
+
+import com.moviebooking.common.events.booking.BookingConfirmedEvent;
+import com.moviebooking.common.events.booking.SeatConfirmationFailedEvent;
+import com.moviebooking.search.model.ShowDocument;
+import com.moviebooking.search.service.SearchIndexAliases;
+import com.moviebooking.search.service.SearchIndexService;
+import com.moviebooking.search.service.ShowSearchCache;
+import com.moviebooking.search.service.ShowSeatCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SearchEventListenerTest {
+
+    @Mock
+    private ElasticsearchOperations elasticsearchOperations;
+
+    @Mock
+    private ShowSearchCache showSearchCache;
+
+    @Mock
+    private SearchIndexAliases searchIndexAliases;
+
+    @Mock
+    private Acknowledgment confirmedAck;
+
+    @Mock
+    private Acknowledgment failedAck;
+
+    private ShowSeatCounter showSeatCounter;
+    private SearchEventListener listener;
+
+    @BeforeEach
+    void setUp() {
+        showSeatCounter = new ShowSeatCounter(elasticsearchOperations, showSearchCache, searchIndexAliases, 5);
+        SearchIndexService searchIndexService = new SearchIndexService(null, null, null,
+                elasticsearchOperations, searchIndexAliases, showSeatCounter);
+        listener = new SearchEventListener(searchIndexService);
+    }
+
+    @Test
+    void handleSeatConfirmationFailed_ShouldGiveBackTheSeatsOfTheConfirmedBooking() {
+        // Given
+        listener.handleBookingConfirmed(BookingConfirmedEvent.builder()
+                .bookingId("booking-1").showId(1L).seatNumbers(List.of("A1", "A2")).build(), confirmedAck);
+
+        // When
+        listener.handleSeatConfirmationFailed(SeatConfirmationFailedEvent.builder()
+                .bookingId("booking-1").showId(1L).seatNumbers(List.of("A1", "A2")).reason("Hold expired").build(), failedAck);
+        showSeatCounter.flush();
+
+        // Then - the changes cancel out, so the show keeps its seats
+        verify(elasticsearchOperations, never()).bulkUpdate(anyList(), eq(ShowDocument.class));
+        verify(confirmedAck).acknowledge();
+        verify(failedAck).acknowledge();
+    }
+
+    @Test
+    void handleSeatConfirmationFailed_ShouldAcknowledgeOnlyAfterTheSeatsAreWritten() {
+        // When
+        listener.handleSeatConfirmationFailed(SeatConfirmationFailedEvent.builder()
+                .bookingId("booking-1").showId(1L).seatNumbers(List.of("A1", "A2")).reason("Hold expired").build(), failedAck);
+
+        // Then
+        verifyNoInteractions(failedAck);
+
+        // When
+        showSeatCounter.flush();
+
+        // Then
+        verify(elasticsearchOperations).bulkUpdate(argThat(updates -> updates.size() == 1
+                && updates.get(0).getParams().get("delta").equals(2)), eq(ShowDocument.class));
+        verify(failedAck).acknowledge();
+    }
+}
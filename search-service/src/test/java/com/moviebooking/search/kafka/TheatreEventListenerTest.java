@@ -0,0 +1,120 @@
+package com.moviebooking.search.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moviebooking.search.service.IndexChange;
+import com.moviebooking.search.service.SearchIndexService;
+import com.moviebooking.search.service.ShowSearchCache;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TheatreEventListenerTest {
+
+    @Mock
+    private SearchIndexService searchIndexService;
+
+    @Mock
+    private ShowSearchCache showSearchCache;
+
+    @Mock
+    private Acknowledgment acknowledgment;
+
+    private TheatreEventListener listener;
+    private long offset;
+
+    @BeforeEach
+    void setUp() {
+        listener = new TheatreEventListener(new ObjectMapper(), searchIndexService, showSearchCache);
+    }
+
+    private ConsumerRecord<String, String> showEvent(String eventType, long showId, int availableSeats) {
+        String payload = """
+                {"eventType": "%s", "aggregateType": "Show", "aggregateId": "%d",
+                 "data": {"id": %d, "movieId": 10, "movieTitle": "Inception", "theatreId": 1,
+                          "theatreName": "PVR Cinemas", "availableSeats": %d}}
+                """.formatted(eventType, showId, showId, availableSeats);
+        return new ConsumerRecord<>("theatre-events", 0, offset++, "Show-" + showId, payload);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void handleTheatreEvents_ShouldCoalesceUpdatesPerAggregateAndAcknowledgeAfterBulk() {
+        // Given
+        List<ConsumerRecord<String, String>> records = List.of(
+                showEvent("SHOW_CREATED", 1, 100),
+                showEvent("SHOW_CREATED", 2, 100),
+                showEvent("SHOW_UPDATED", 1, 90),
+                showEvent("SHOW_UPDATED", 1, 80),
+                new ConsumerRecord<>("theatre-events", 0, offset++, "Show-3", "not json"));
+
+        // When
+        listener.handleTheatreEvents(records, acknowledgment);
+
+        // Then
+        ArgumentCaptor<Collection<IndexChange>> changesCaptor = ArgumentCaptor.forClass(Collection.class);
+        var inOrder = inOrder(searchIndexService, showSearchCache, acknowledgment);
+        inOrder.verify(searchIndexService).applyChanges(changesCaptor.capture());
+        inOrder.verify(showSearchCache).invalidate(changesCaptor.getValue());
+        inOrder.verify(acknowledgment).acknowledge();
+
+        List<IndexChange> changes = new ArrayList<>(changesCaptor.getValue());
+        assertThat(changes).extracting(IndexChange::getKey).containsExactly("Show-2", "Show-1");
+        assertThat(changes.get(1).getData().get("availableSeats").asInt()).isEqualTo(80);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void handleTheatreEvents_ShouldKeepDelete_WhenItIsTheLastChange() {
+        // When
+        listener.handleTheatreEvents(List.of(showEvent("SHOW_UPDATED", 1, 90), showEvent("SHOW_DELETED", 1, 90)), acknowledgment);
+
+        // Then
+        ArgumentCaptor<Collection<IndexChange>> changesCaptor = ArgumentCaptor.forClass(Collection.class);
+        verify(searchIndexService).applyChanges(changesCaptor.capture());
+        assertThat(changesCaptor.getValue()).singleElement().satisfies(change -> assertThat(change.isDelete()).isTrue());
+    }
+
+    @Test
+    void handleTheatreEvents_ShouldNotAcknowledge_WhenBulkFails() {
+        // Given
+        doThrow(new RuntimeException("Elasticsearch unavailable")).when(searchIndexService).applyChanges(anyCollection());
+
+        // When & Then
+        assertThatThrownBy(() -> listener.handleTheatreEvents(List.of(showEvent("SHOW_CREATED", 1, 100)), acknowledgment))
+                .isInstanceOf(RuntimeException.class);
+        verify(showSearchCache, never()).invalidate(anyCollection());
+        verify(acknowledgment, never()).acknowledge();
+    }
+
+    @Test
+    void handleTheatreEvents_ShouldIgnoreSeatAvailabilityEvents() {
+        // Given
+        String payload = """
+                {"eventType": "SEAT_BOOKED", "aggregateType": "SeatAvailability", "aggregateId": "7",
+                 "data": {"id": 7, "showId": 1, "seatNumber": "A1", "status": "BOOKED"}}
+                """;
+
+        // When
+        listener.handleTheatreEvents(List.of(new ConsumerRecord<>("theatre-events", 0, offset++, "SeatAvailability-7", payload)),
+                acknowledgment);
+
+        // Then
+        verifyNoInteractions(searchIndexService, showSearchCache);
+        verify(acknowledgment).acknowledge();
+    }
+}
@@ -0,0 +1,69 @@
+package com.moviebooking.search.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ElasticsearchGuardTest {
+
+    private final ElasticsearchGuard guard = new ElasticsearchGuard(1, 50, Duration.ofSeconds(1), 4, Duration.ofMinutes(1));
+
+    @Test
+    void call_ShouldReturnResultOfRequest() {
+        // When
+        String result = guard.call(() -> "hits");
+
+        // Then
+        assertThat(result).isEqualTo("hits");
+        assertThat(guard.isAvailable()).isTrue();
+    }
+
+    @Test
+    void call_ShouldRejectWithoutCallingElasticsearch_WhenCircuitIsOpen() {
+        // Given
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> guard.call(() -> {
+                throw new IllegalStateException("Elasticsearch timed out");
+            })).isInstanceOf(IllegalStateException.class);
+        }
+        AtomicInteger calls = new AtomicInteger();
+
+        // When & Then
+        assertThatThrownBy(() -> guard.call(calls::incrementAndGet))
+                .isInstanceOf(SearchUnavailableException.class)
+                .hasMessageContaining("circuit breaker is open");
+        assertThat(calls).hasValue(0);
+        assertThat(guard.isAvailable()).isFalse();
+    }
+
+    @Test
+    void call_ShouldRejectAtOnce_WhenTooManyRequestsAreInFlight() throws Exception {
+        // Given
+        CountDownLatch inFlight = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> slowCall = CompletableFuture.supplyAsync(() -> guard.call(() -> {
+            inFlight.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }));
+        assertThat(inFlight.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When & Then
+        assertThatThrownBy(() -> guard.call(() -> "hits"))
+                .isInstanceOf(SearchUnavailableException.class)
+                .hasMessageContaining("concurrent");
+        release.countDown();
+        assertThat(slowCall.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+}
@@ -0,0 +1,215 @@
+package com.moviebooking.search.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.util.ObjectBuilder;
+import com.moviebooking.search.model.CityDocument;
+import com.moviebooking.search.model.ShowDocument;
+import com.moviebooking.search.model.TheatreDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.index.AliasAction;
+import org.springframework.data.elasticsearch.core.index.AliasActions;
+import org.springframework.data.elasticsearch.core.index.Settings;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SearchIndexAliasesTest {
+
+    @Mock
+    private ElasticsearchOperations elasticsearchOperations;
+
+    @Mock
+    private ElasticsearchClient elasticsearchClient;
+
+    @Mock
+    private IndexOperations indexOperations;
+
+    @InjectMocks
+    private SearchIndexAliases searchIndexAliases;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(elasticsearchOperations.getIndexCoordinatesFor(CityDocument.class)).thenReturn(IndexCoordinates.of("cities"));
+        lenient().when(elasticsearchOperations.getIndexCoordinatesFor(TheatreDocument.class)).thenReturn(IndexCoordinates.of("theatres"));
+        lenient().when(elasticsearchOperations.getIndexCoordinatesFor(ShowDocument.class)).thenReturn(IndexCoordinates.of("shows"));
+        lenient().when(elasticsearchOperations.indexOps(any(IndexCoordinates.class))).thenReturn(indexOperations);
+        lenient().when(elasticsearchOperations.indexOps(any(Class.class))).thenReturn(indexOperations);
+        lenient().when(indexOperations.createSettings(any(Class.class))).thenAnswer(invocation -> new Settings());
+        lenient().when(indexOperations.createMapping(any(Class.class))).thenReturn(Document.create());
+    }
+
+    @Test
+    void initializeIndices_ShouldCreateVersionedIndicesBehindAliasesWhenNotExist() {
+        // Given
+        when(indexOperations.exists()).thenReturn(false);
+
+        // When
+        searchIndexAliases.initializeIndices();
+
+        // Then
+        ArgumentCaptor<IndexCoordinates> created = ArgumentCaptor.forClass(IndexCoordinates.class);
+        verify(elasticsearchOperations, atLeast(3)).indexOps(created.capture());
+        assertThat(created.getAllValues()).extracting(IndexCoordinates::getIndexName)
+                .anyMatch(name -> name.matches("cities_\\d{17}"))
+                .anyMatch(name -> name.matches("theatres_\\d{17}"))
+                .anyMatch(name -> name.matches("shows_\\d{17}"));
+        verify(indexOperations, times(3)).create(anyMap(), any(Document.class));
+
+        ArgumentCaptor<AliasActions> aliases = ArgumentCaptor.forClass(AliasActions.class);
+        verify(indexOperations, times(3)).alias(aliases.capture());
+        assertThat(aliases.getAllValues()).flatExtracting(AliasActions::getActions)
+                .allMatch(action -> action instanceof AliasAction.Add)
+                .extracting(action -> action.getParameters().getAliases()[0])
+                .containsExactly("cities", "theatres", "shows");
+    }
+
+    @Test
+    void initializeIndices_ShouldNotCreateIndicesWhenTheyExist() {
+        // Given
+        when(indexOperations.exists()).thenReturn(true);
+
+        // When
+        searchIndexAliases.initializeIndices();
+
+        // Then
+        verify(indexOperations, never()).create(anyMap(), any(Document.class));
+        verify(indexOperations, never()).alias(any());
+    }
+
+    @Test
+    void initializeIndices_ShouldHandleExceptionsGracefully() {
+        // Given
+        when(elasticsearchOperations.indexOps(any(IndexCoordinates.class))).thenThrow(new RuntimeException("Connection failed"));
+
+        // When & Then - Should not throw exception
+        searchIndexAliases.initializeIndices();
+    }
+
+    @Test
+    void createIndex_ShouldDisableRefreshAndReplicasForBulkLoad() {
+        // When
+        searchIndexAliases.createIndex(ShowDocument.class, true);
+
+        // Then
+        ArgumentCaptor<Map<String, Object>> settings = ArgumentCaptor.forClass(Map.class);
+        verify(indexOperations).create(settings.capture(), any(Document.class));
+        assertThat(settings.getValue())
+                .containsEntry("index.refresh_interval", "-1")
+                .containsEntry("index.number_of_replicas", "0");
+    }
+
+    @Test
+    void swapAlias_ShouldMoveAliasAtomicallyAndDeleteOldIndex() {
+        // Given
+        IndexCoordinates newIndex = IndexCoordinates.of("shows_20240115103000000");
+        when(indexOperations.exists()).thenReturn(true);
+        when(indexOperations.getAliasesForIndex("shows")).thenReturn(Map.of("shows_20240101000000000", Set.of()));
+
+        // When
+        searchIndexAliases.swapAlias(ShowDocument.class, newIndex);
+
+        // Then
+        ArgumentCaptor<AliasActions> actions = ArgumentCaptor.forClass(AliasActions.class);
+        verify(indexOperations).alias(actions.capture());
+        assertThat(actions.getValue().getActions()).hasSize(2);
+        assertThat(actions.getValue().getActions().get(0)).isInstanceOf(AliasAction.Remove.class);
+        assertThat(actions.getValue().getActions().get(0).getParameters().getIndices()).containsExactly("shows_20240101000000000");
+        assertThat(actions.getValue().getActions().get(1)).isInstanceOf(AliasAction.Add.class);
+        assertThat(actions.getValue().getActions().get(1).getParameters().getIndices()).containsExactly("shows_20240115103000000");
+
+        verify(elasticsearchOperations).indexOps(IndexCoordinates.of("shows_20240101000000000"));
+        verify(indexOperations).delete();
+    }
+
+    @Test
+    void swapAlias_ShouldReplaceConcreteIndexWithAliasOfTheSameName() {
+        // Given
+        IndexCoordinates newIndex = IndexCoordinates.of("cities_20240115103000000");
+        when(indexOperations.exists()).thenReturn(true);
+        when(indexOperations.getAliasesForIndex("cities")).thenReturn(Map.of("cities", Set.of()));
+
+        // When
+        searchIndexAliases.swapAlias(CityDocument.class, newIndex);
+
+        // Then
+        ArgumentCaptor<AliasActions> actions = ArgumentCaptor.forClass(AliasActions.class);
+        verify(indexOperations).alias(actions.capture());
+        assertThat(actions.getValue().getActions()).hasSize(2);
+        assertThat(actions.getValue().getActions().get(0)).isInstanceOf(AliasAction.RemoveIndex.class);
+        assertThat(actions.getValue().getActions().get(1)).isInstanceOf(AliasAction.Add.class);
+        verify(indexOperations, never()).delete();
+    }
+
+    @Test
+    void buildIndex_ShouldBeRegisteredOnlyWhileBuilding() {
+        // Given
+        IndexCoordinates buildIndex = IndexCoordinates.of("shows_20240115103000000");
+
+        // When
+        searchIndexAliases.startBuild(ShowDocument.class, buildIndex);
+
+        // Then
+        assertThat(searchIndexAliases.buildIndex(ShowDocument.class)).contains(buildIndex);
+        assertThat(searchIndexAliases.buildIndex(CityDocument.class)).isEmpty();
+
+        searchIndexAliases.finishBuild(ShowDocument.class);
+        assertThat(searchIndexAliases.buildIndex(ShowDocument.class)).isEmpty();
+        verify(elasticsearchOperations, never()).indexOps(eq(buildIndex));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deleteFromBuild_ShouldBulkDeleteAndRememberIdsUntilBuildFinishes() throws Exception {
+        // Given
+        IndexCoordinates buildIndex = IndexCoordinates.of("shows_20240115103000000");
+        when(elasticsearchClient.bulk(any(Function.class)))
+                .thenReturn(BulkResponse.of(response -> response.errors(false).items(List.of()).took(1)));
+        searchIndexAliases.startBuild(ShowDocument.class, buildIndex);
+
+        // When
+        searchIndexAliases.deleteFromBuild(ShowDocument.class, List.of("2", "3"));
+
+        // Then
+        ArgumentCaptor<Function<BulkRequest.Builder, ObjectBuilder<BulkRequest>>> request = ArgumentCaptor.forClass(Function.class);
+        verify(elasticsearchClient).bulk(request.capture());
+        BulkRequest bulk = request.getValue().apply(new BulkRequest.Builder()).build();
+        assertThat(bulk.operations()).extracting(op -> op.delete().index() + "/" + op.delete().id())
+                .containsExactly("shows_20240115103000000/2", "shows_20240115103000000/3");
+        assertThat(searchIndexAliases.isDeletedDuringBuild(ShowDocument.class, "2")).isTrue();
+        assertThat(searchIndexAliases.isDeletedDuringBuild(ShowDocument.class, "4")).isFalse();
+
+        searchIndexAliases.finishBuild(ShowDocument.class);
+        assertThat(searchIndexAliases.isDeletedDuringBuild(ShowDocument.class, "2")).isFalse();
+    }
+
+    @Test
+    void deleteFromBuild_ShouldDoNothing_WhenNoBuildIsInProgress() throws Exception {
+        // When
+        searchIndexAliases.deleteFromBuild(ShowDocument.class, List.of("2"));
+
+        // Then
+        verifyNoInteractions(elasticsearchClient);
+        assertThat(searchIndexAliases.isDeletedDuringBuild(ShowDocument.class, "2")).isFalse();
+    }
+}
@@ -15,7 +15,14 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.convert.ElasticsearchCustomConversions;
+import org.springframework.data.elasticsearch.core.convert.MappingElasticsearchConverter;
 import org.springframework.data.elasticsearch.core.geo.GeoPoint;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.mapping.SimpleElasticsearchMappingContext;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -23,8 +30,12 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,6 +50,15 @@ class SearchIndexServiceTest {
     @Mock
     private ShowSearchRepository showSearchRepository;
 
+    @Mock
+    private ElasticsearchOperations elasticsearchOperations;
+
+    @Mock
+    private SearchIndexAliases searchIndexAliases;
+
+    @Mock
+    private ShowSeatCounter showSeatCounter;
+
     @InjectMocks
     private SearchIndexService searchIndexService;
 
@@ -46,6 +66,7 @@ class SearchIndexServiceTest {
     private JsonNode cityJsonNode;
     private JsonNode theatreJsonNode;
     private JsonNode showJsonNode;
+    private MappingElasticsearchConverter converter;
 
     @BeforeEach
     void setUp() throws Exception {
@@ -105,21 +126,23 @@ class SearchIndexServiceTest {
                 }
                 """;
         showJsonNode = objectMapper.readTree(showJson);
+
+        ElasticsearchCustomConversions conversions = new ElasticsearchCustomConversions(List.of());
+        SimpleElasticsearchMappingContext mappingContext = new SimpleElasticsearchMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        converter = new MappingElasticsearchConverter(mappingContext);
+        converter.setConversions(conversions);
+        converter.afterPropertiesSet();
+        lenient().when(elasticsearchOperations.getElasticsearchConverter()).thenReturn(converter);
     }
 
     @Test
-    void indexCity_ShouldCreateAndSaveCityDocument() {
-        // Given
-        when(citySearchRepository.save(any(CityDocument.class))).thenReturn(new CityDocument());
-
+    void applyChanges_ShouldIndexCityDocument() {
         // When
-        searchIndexService.indexCity(cityJsonNode);
+        searchIndexService.applyChanges(List.of(IndexChange.upsert("City", "1", cityJsonNode)));
 
         // Then
-        ArgumentCaptor<CityDocument> cityCaptor = ArgumentCaptor.forClass(CityDocument.class);
-        verify(citySearchRepository).save(cityCaptor.capture());
-
-        CityDocument savedCity = cityCaptor.getValue();
+        CityDocument savedCity = indexedDocument(CityDocument.class);
         assertThat(savedCity.getId()).isEqualTo("1");
         assertThat(savedCity.getName()).isEqualTo("Mumbai");
         assertThat(savedCity.getState()).isEqualTo("Maharashtra");
@@ -130,7 +153,7 @@ class SearchIndexServiceTest {
     }
 
     @Test
-    void indexCity_ShouldHandleNullZipCode() throws Exception {
+    void applyChanges_ShouldIndexCityWithoutZipCode() throws Exception {
         // Given
         String cityJsonWithoutZip = """
                 {
@@ -144,43 +167,34 @@ class SearchIndexServiceTest {
                 }
                 """;
         JsonNode cityNode = objectMapper.readTree(cityJsonWithoutZip);
-        when(citySearchRepository.save(any(CityDocument.class))).thenReturn(new CityDocument());
 
         // When
-        searchIndexService.indexCity(cityNode);
+        searchIndexService.applyChanges(List.of(IndexChange.upsert("City", "1", cityNode)));
 
         // Then
-        ArgumentCaptor<CityDocument> cityCaptor = ArgumentCaptor.forClass(CityDocument.class);
-        verify(citySearchRepository).save(cityCaptor.capture());
-
-        CityDocument savedCity = cityCaptor.getValue();
+        CityDocument savedCity = indexedDocument(CityDocument.class);
         assertThat(savedCity.getZipCode()).isNull();
     }
 
     @Test
-    void indexCity_ShouldHandleException() {
+    void applyChanges_ShouldPropagateBulkFailure_SoTheBatchIsRetried() {
         // Given
-        when(citySearchRepository.save(any(CityDocument.class))).thenThrow(new RuntimeException("Database error"));
-
-        // When & Then - Should not throw exception
-        searchIndexService.indexCity(cityJsonNode);
+        when(elasticsearchOperations.bulkIndex(anyList(), eq(CityDocument.class)))
+                .thenThrow(new RuntimeException("Cluster unavailable"));
 
-        verify(citySearchRepository).save(any(CityDocument.class));
+        // When & Then
+        assertThatThrownBy(() -> searchIndexService.applyChanges(List.of(IndexChange.upsert("City", "1", cityJsonNode))))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Cluster unavailable");
     }
 
     @Test
-    void indexTheatre_ShouldCreateAndSaveTheatreDocument() {
-        // Given
-        when(theatreSearchRepository.save(any(TheatreDocument.class))).thenReturn(new TheatreDocument());
-
+    void applyChanges_ShouldIndexTheatreDocument() {
         // When
-        searchIndexService.indexTheatre(theatreJsonNode);
+        searchIndexService.applyChanges(List.of(IndexChange.upsert("Theatre", "1", theatreJsonNode)));
 
         // Then
-        ArgumentCaptor<TheatreDocument> theatreCaptor = ArgumentCaptor.forClass(TheatreDocument.class);
-        verify(theatreSearchRepository).save(theatreCaptor.capture());
-
-        TheatreDocument savedTheatre = theatreCaptor.getValue();
+        TheatreDocument savedTheatre = indexedDocument(TheatreDocument.class);
         assertThat(savedTheatre.getId()).isEqualTo("1");
         assertThat(savedTheatre.getName()).isEqualTo("PVR Cinemas");
         assertThat(savedTheatre.getAddress()).isEqualTo("123 Main Street");
@@ -194,7 +208,7 @@ class SearchIndexServiceTest {
     }
 
     @Test
-    void indexTheatre_ShouldHandleNullOptionalFields() throws Exception {
+    void applyChanges_ShouldIndexTheatreWithoutOptionalFields() throws Exception {
         // Given
         String theatreJsonWithNulls = """
                 {
@@ -212,34 +226,28 @@ class SearchIndexServiceTest {
                 }
                 """;
         JsonNode theatreNode = objectMapper.readTree(theatreJsonWithNulls);
-        when(theatreSearchRepository.save(any(TheatreDocument.class))).thenReturn(new TheatreDocument());
 
         // When
-        searchIndexService.indexTheatre(theatreNode);
+        searchIndexService.applyChanges(List.of(IndexChange.upsert("Theatre", "1", theatreNode)));
 
         // Then
-        ArgumentCaptor<TheatreDocument> theatreCaptor = ArgumentCaptor.forClass(TheatreDocument.class);
-        verify(theatreSearchRepository).save(theatreCaptor.capture());
-
-        TheatreDocument savedTheatre = theatreCaptor.getValue();
+        TheatreDocument savedTheatre = indexedDocument(TheatreDocument.class);
         assertThat(savedTheatre.getPhoneNumber()).isNull();
         assertThat(savedTheatre.getEmail()).isNull();
         assertThat(savedTheatre.getLocation()).isNull();
     }
 
     @Test
-    void indexShow_ShouldCreateAndSaveShowDocument() {
-        // Given
-        when(showSearchRepository.save(any(ShowDocument.class))).thenReturn(new ShowDocument());
-
+    @SuppressWarnings("unchecked")
+    void applyChanges_ShouldUpsertShowDocument() {
         // When
-        searchIndexService.indexShow(showJsonNode);
+        searchIndexService.applyChanges(List.of(IndexChange.upsert("Show", "1", showJsonNode)));
 
         // Then
-        ArgumentCaptor<ShowDocument> showCaptor = ArgumentCaptor.forClass(ShowDocument.class);
-        verify(showSearchRepository).save(showCaptor.capture());
+        ArgumentCaptor<List<UpdateQuery>> showUpserts = ArgumentCaptor.forClass(List.class);
+        verify(elasticsearchOperations).bulkUpdate(showUpserts.capture(), eq(ShowDocument.class));
 
-        ShowDocument savedShow = showCaptor.getValue();
+        ShowDocument savedShow = converter.read(ShowDocument.class, showUpserts.getValue().get(0).getUpsert());
         assertThat(savedShow.getId()).isEqualTo("1");
         assertThat(savedShow.getMovieId()).isEqualTo(1L);
         assertThat(savedShow.getMovieTitle()).isEqualTo("Avengers");
@@ -254,143 +262,108 @@ class SearchIndexServiceTest {
     }
 
     @Test
-    void deleteCity_ShouldCallRepositoryDelete() {
-        // Given
-        String cityId = "1";
-
-        // When
-        searchIndexService.deleteCity(cityId);
-
-        // Then
-        verify(citySearchRepository).deleteById(cityId);
-    }
-
-    @Test
-    void deleteCity_ShouldHandleException() {
+    @SuppressWarnings("unchecked")
+    void applyChanges_ShouldBulkIndexUpsertsPerTypeAndDeleteByIds() {
         // Given
-        String cityId = "1";
-        doThrow(new RuntimeException("Delete failed")).when(citySearchRepository).deleteById(cityId);
-
-        // When & Then - Should not throw exception
-        searchIndexService.deleteCity(cityId);
-
-        verify(citySearchRepository).deleteById(cityId);
-    }
-
-    @Test
-    void deleteTheatre_ShouldCallRepositoryDelete() {
-        // Given
-        String theatreId = "1";
+        List<IndexChange> changes = List.of(
+                IndexChange.upsert("City", "1", cityJsonNode),
+                IndexChange.upsert("Show", "1", showJsonNode),
+                IndexChange.delete("Theatre", "7"));
 
         // When
-        searchIndexService.deleteTheatre(theatreId);
+        searchIndexService.applyChanges(changes);
 
         // Then
-        verify(theatreSearchRepository).deleteById(theatreId);
+        ArgumentCaptor<List<IndexQuery>> cityQueries = ArgumentCaptor.forClass(List.class);
+        verify(elasticsearchOperations).bulkIndex(cityQueries.capture(), eq(CityDocument.class));
+        assertThat(cityQueries.getValue()).hasSize(1);
+        assertThat(cityQueries.getValue().get(0).getId()).isEqualTo("1");
+        assertThat(((CityDocument) cityQueries.getValue().get(0).getObject()).getName()).isEqualTo("Mumbai");
+
+        ArgumentCaptor<List<UpdateQuery>> showUpserts = ArgumentCaptor.forClass(List.class);
+        verify(elasticsearchOperations).bulkUpdate(showUpserts.capture(), eq(ShowDocument.class));
+        UpdateQuery showUpsert = showUpserts.getValue().get(0);
+        assertThat(showUpsert.getId()).isEqualTo("1");
+        assertThat(showUpsert.getDocument()).containsKey("movieTitle").doesNotContainKey("availableSeats");
+        assertThat(showUpsert.getUpsert()).containsEntry("availableSeats", 95);
+        verify(elasticsearchOperations, never()).bulkIndex(anyList(), eq(TheatreDocument.class));
+        verify(theatreSearchRepository).deleteAllById(List.of("7"));
+        verify(citySearchRepository, never()).save(any());
+        verify(showSearchRepository, never()).save(any());
     }
 
     @Test
-    void deleteShow_ShouldCallRepositoryDelete() {
+    void applyChanges_ShouldSkipChangesThatCannotBeMapped() throws Exception {
         // Given
-        String showId = "1";
+        JsonNode incompleteCity = objectMapper.readTree("{\"id\": \"2\"}");
 
         // When
-        searchIndexService.deleteShow(showId);
+        searchIndexService.applyChanges(List.of(
+                IndexChange.upsert("City", "2", incompleteCity),
+                IndexChange.upsert("City", "1", cityJsonNode)));
 
         // Then
-        verify(showSearchRepository).deleteById(showId);
+        verify(elasticsearchOperations).bulkIndex(argThat(queries -> queries.size() == 1), eq(CityDocument.class));
     }
 
     @Test
-    void updateShowSeatAvailability_ShouldDecreaseAvailableSeats_WhenSeatsBooked() {
+    void applyChanges_ShouldAlsoWriteToIndexBeingBuilt() {
         // Given
-        Long showId = 1L;
-        List<String> seatNumbers = List.of("A1", "A2");
-        ShowDocument existingShow = new ShowDocument();
-        existingShow.setId("1");
-        existingShow.setAvailableSeats(100);
-
-        when(showSearchRepository.findById("1")).thenReturn(Optional.of(existingShow));
-        when(showSearchRepository.save(any(ShowDocument.class))).thenReturn(existingShow);
+        IndexCoordinates buildIndex = IndexCoordinates.of("shows_20240115103000000");
+        when(searchIndexAliases.buildIndex(any())).thenReturn(Optional.empty());
+        when(searchIndexAliases.buildIndex(ShowDocument.class)).thenReturn(Optional.of(buildIndex));
 
         // When
-        searchIndexService.updateShowSeatAvailability(showId, seatNumbers, false);
+        searchIndexService.applyChanges(List.of(
+                IndexChange.upsert("Show", "1", showJsonNode),
+                IndexChange.delete("Show", "2")));
 
         // Then
-        verify(showSearchRepository).findById("1");
-        verify(showSearchRepository).save(existingShow);
-        assertThat(existingShow.getAvailableSeats()).isEqualTo(98); // 100 - 2
-        assertThat(existingShow.getUpdatedAt()).isNotNull();
+        verify(elasticsearchOperations).bulkUpdate(anyList(), eq(ShowDocument.class));
+        verify(elasticsearchOperations).bulkUpdate(argThat(queries -> queries.size() == 1), eq(buildIndex));
+        verify(showSearchRepository).deleteAllById(List.of("2"));
+        verify(searchIndexAliases).deleteFromBuild(ShowDocument.class, List.of("2"));
     }
 
     @Test
-    void updateShowSeatAvailability_ShouldIncreaseAvailableSeats_WhenSeatsReleased() {
-        // Given
-        Long showId = 1L;
-        List<String> seatNumbers = List.of("A1", "A2", "A3");
-        ShowDocument existingShow = new ShowDocument();
-        existingShow.setId("1");
-        existingShow.setAvailableSeats(95);
-
-        when(showSearchRepository.findById("1")).thenReturn(Optional.of(existingShow));
-        when(showSearchRepository.save(any(ShowDocument.class))).thenReturn(existingShow);
-
+    void applyChanges_ShouldDeleteEachTypeWithOneRequest() {
         // When
-        searchIndexService.updateShowSeatAvailability(showId, seatNumbers, true);
+        searchIndexService.applyChanges(List.of(
+                IndexChange.delete("City", "1"),
+                IndexChange.delete("City", "2"),
+                IndexChange.delete("Theatre", "3"),
+                IndexChange.delete("Show", "4")));
 
         // Then
-        verify(showSearchRepository).findById("1");
-        verify(showSearchRepository).save(existingShow);
-        assertThat(existingShow.getAvailableSeats()).isEqualTo(98); // 95 + 3
+        verify(citySearchRepository).deleteAllById(List.of("1", "2"));
+        verify(theatreSearchRepository).deleteAllById(List.of("3"));
+        verify(showSearchRepository).deleteAllById(List.of("4"));
+        verify(elasticsearchOperations, never()).bulkIndex(anyList(), any(Class.class));
     }
 
     @Test
-    void updateShowSeatAvailability_ShouldNotGoBelowZero_WhenBookingMoreSeatsThanAvailable() {
+    void updateShowSeatAvailability_ShouldRecordNegativeDelta_WhenSeatsBooked() {
         // Given
-        Long showId = 1L;
-        List<String> seatNumbers = List.of("A1", "A2", "A3");
-        ShowDocument existingShow = new ShowDocument();
-        existingShow.setId("1");
-        existingShow.setAvailableSeats(2); // Less than seats being booked
-
-        when(showSearchRepository.findById("1")).thenReturn(Optional.of(existingShow));
-        when(showSearchRepository.save(any(ShowDocument.class))).thenReturn(existingShow);
+        Runnable onWritten = mock(Runnable.class);
 
         // When
-        searchIndexService.updateShowSeatAvailability(showId, seatNumbers, false);
+        searchIndexService.updateShowSeatAvailability(1L, List.of("A1", "A2"), false, onWritten);
 
         // Then
-        assertThat(existingShow.getAvailableSeats()).isEqualTo(0); // Should not go below 0
+        verify(showSeatCounter).record(1L, -2, onWritten);
+        verifyNoInteractions(showSearchRepository);
     }
 
     @Test
-    void updateShowSeatAvailability_ShouldDoNothing_WhenShowNotFound() {
+    void updateShowSeatAvailability_ShouldRecordPositiveDelta_WhenSeatsReleased() {
         // Given
-        Long showId = 1L;
-        List<String> seatNumbers = List.of("A1", "A2");
-
-        when(showSearchRepository.findById("1")).thenReturn(Optional.empty());
+        Runnable onWritten = mock(Runnable.class);
 
         // When
-        searchIndexService.updateShowSeatAvailability(showId, seatNumbers, false);
+        searchIndexService.updateShowSeatAvailability(1L, List.of("A1", "A2", "A3"), true, onWritten);
 
         // Then
-        verify(showSearchRepository).findById("1");
-        verify(showSearchRepository, never()).save(any(ShowDocument.class));
-    }
-
-    @Test
-    void updateShowSeatAvailability_ShouldHandleException() {
-        // Given
-        Long showId = 1L;
-        List<String> seatNumbers = List.of("A1");
-
-        when(showSearchRepository.findById("1")).thenThrow(new RuntimeException("Database error"));
-
-        // When & Then - Should not throw exception
-        searchIndexService.updateShowSeatAvailability(showId, seatNumbers, false);
-
-        verify(showSearchRepository).findById("1");
+        verify(showSeatCounter).record(1L, 3, onWritten);
     }
 
     @Test
@@ -407,16 +380,12 @@ class SearchIndexServiceTest {
                 }
                 """;
         JsonNode node = objectMapper.readTree(dateTimeJson);
-        when(citySearchRepository.save(any(CityDocument.class))).thenReturn(new CityDocument());
 
         // When
-        searchIndexService.indexCity(node);
+        searchIndexService.applyChanges(List.of(IndexChange.upsert("City", "1", node)));
 
         // Then
-        ArgumentCaptor<CityDocument> cityCaptor = ArgumentCaptor.forClass(CityDocument.class);
-        verify(citySearchRepository).save(cityCaptor.capture());
-
-        CityDocument savedCity = cityCaptor.getValue();
+        CityDocument savedCity = indexedDocument(CityDocument.class);
         assertThat(savedCity.getCreatedAt().getHour()).isEqualTo(14);
         assertThat(savedCity.getCreatedAt().getMinute()).isEqualTo(30);
     }
@@ -435,16 +404,12 @@ class SearchIndexServiceTest {
                 }
                 """;
         JsonNode node = objectMapper.readTree(dateOnlyJson);
-        when(citySearchRepository.save(any(CityDocument.class))).thenReturn(new CityDocument());
 
         // When
-        searchIndexService.indexCity(node);
+        searchIndexService.applyChanges(List.of(IndexChange.upsert("City", "1", node)));
 
         // Then
-        ArgumentCaptor<CityDocument> cityCaptor = ArgumentCaptor.forClass(CityDocument.class);
-        verify(citySearchRepository).save(cityCaptor.capture());
-
-        CityDocument savedCity = cityCaptor.getValue();
+        CityDocument savedCity = indexedDocument(CityDocument.class);
         assertThat(savedCity.getCreatedAt().toLocalDate().toString()).isEqualTo("2023-09-11");
         assertThat(savedCity.getCreatedAt().getHour()).isEqualTo(0);
         assertThat(savedCity.getCreatedAt().getMinute()).isEqualTo(0);
@@ -464,16 +429,12 @@ class SearchIndexServiceTest {
                 }
                 """;
         JsonNode node = objectMapper.readTree(alternativeFormatJson);
-        when(citySearchRepository.save(any(CityDocument.class))).thenReturn(new CityDocument());
 
         // When
-        searchIndexService.indexCity(node);
+        searchIndexService.applyChanges(List.of(IndexChange.upsert("City", "1", node)));
 
         // Then
-        ArgumentCaptor<CityDocument> cityCaptor = ArgumentCaptor.forClass(CityDocument.class);
-        verify(citySearchRepository).save(cityCaptor.capture());
-
-        CityDocument savedCity = cityCaptor.getValue();
+        CityDocument savedCity = indexedDocument(CityDocument.class);
         assertThat(savedCity.getCreatedAt().getHour()).isEqualTo(14);
         assertThat(savedCity.getCreatedAt().getMinute()).isEqualTo(30);
     }
@@ -493,16 +454,12 @@ class SearchIndexServiceTest {
                 }
                 """;
         JsonNode node = objectMapper.readTree(invalidDateJson);
-        when(citySearchRepository.save(any(CityDocument.class))).thenReturn(new CityDocument());
 
         // When
-        searchIndexService.indexCity(node);
+        searchIndexService.applyChanges(List.of(IndexChange.upsert("City", "1", node)));
 
         // Then
-        ArgumentCaptor<CityDocument> cityCaptor = ArgumentCaptor.forClass(CityDocument.class);
-        verify(citySearchRepository).save(cityCaptor.capture());
-
-        CityDocument savedCity = cityCaptor.getValue();
+        CityDocument savedCity = indexedDocument(CityDocument.class);
         assertThat(savedCity.getCreatedAt()).isAfter(beforeTest);
         assertThat(savedCity.getCreatedAt()).isBefore(LocalDateTime.now().plusMinutes(1));
     }
@@ -522,17 +479,20 @@ class SearchIndexServiceTest {
                 }
                 """;
         JsonNode node = objectMapper.readTree(nullDateJson);
-        when(citySearchRepository.save(any(CityDocument.class))).thenReturn(new CityDocument());
 
         // When
-        searchIndexService.indexCity(node);
+        searchIndexService.applyChanges(List.of(IndexChange.upsert("City", "1", node)));
 
         // Then
-        ArgumentCaptor<CityDocument> cityCaptor = ArgumentCaptor.forClass(CityDocument.class);
-        verify(citySearchRepository).save(cityCaptor.capture());
-
-        CityDocument savedCity = cityCaptor.getValue();
+        CityDocument savedCity = indexedDocument(CityDocument.class);
         assertThat(savedCity.getCreatedAt()).isAfter(beforeTest);
         assertThat(savedCity.getUpdatedAt()).isAfter(beforeTest);
     }
-}
\ No newline at end of file
+
+    @SuppressWarnings("unchecked")
+    private <T> T indexedDocument(Class<T> documentClass) {
+        ArgumentCaptor<List<IndexQuery>> queries = ArgumentCaptor.forClass(List.class);
+        verify(elasticsearchOperations).bulkIndex(queries.capture(), eq(documentClass));
+        return documentClass.cast(queries.getValue().get(0).getObject());
+    }
+}
@@ -0,0 +1,211 @@
+package com.moviebooking.search.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moviebooking.search.client.TheatreServiceClient;
+import com.moviebooking.search.model.CityDocument;
+import com.moviebooking.search.model.ShowDocument;
+import com.moviebooking.search.model.TheatreDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SearchReindexServiceTest {
+
+    private static final IndexCoordinates CITIES = IndexCoordinates.of("cities_20240115103000000");
+    private static final IndexCoordinates THEATRES = IndexCoordinates.of("theatres_20240115103000000");
+    private static final IndexCoordinates SHOWS = IndexCoordinates.of("shows_20240115103000000");
+
+    @Mock
+    private TheatreServiceClient theatreServiceClient;
+
+    @Mock
+    private SearchIndexAliases searchIndexAliases;
+
+    @Mock
+    private SearchIndexService searchIndexService;
+
+    @Mock
+    private ElasticsearchOperations elasticsearchOperations;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SearchReindexService searchReindexService;
+
+    @BeforeEach
+    void setUp() {
+        searchReindexService = new SearchReindexService(theatreServiceClient, searchIndexAliases, searchIndexService,
+                elasticsearchOperations, 2, 2);
+        lenient().when(searchIndexAliases.createIndex(CityDocument.class, true)).thenReturn(CITIES);
+        lenient().when(searchIndexAliases.createIndex(TheatreDocument.class, true)).thenReturn(THEATRES);
+        lenient().when(searchIndexAliases.createIndex(ShowDocument.class, true)).thenReturn(SHOWS);
+        lenient().when(searchIndexService.toCityDocument(any())).thenAnswer(invocation -> new CityDocument());
+        lenient().when(searchIndexService.toTheatreDocument(any())).thenAnswer(invocation -> new TheatreDocument());
+        lenient().when(searchIndexService.toShowDocument(any())).thenAnswer(invocation -> new ShowDocument());
+        lenient().when(theatreServiceClient.exportTheatres(anyLong(), anyInt())).thenReturn(List.of());
+        lenient().when(theatreServiceClient.exportShows(anyLong(), anyInt())).thenReturn(List.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        searchReindexService.shutdown();
+    }
+
+    private List<JsonNode> rows(long... ids) {
+        return Arrays.stream(ids)
+                .mapToObj(id -> (JsonNode) objectMapper.createObjectNode().put("id", id))
+                .toList();
+    }
+
+    @Test
+    void reindex_ShouldPageThroughExportAndSwapAliases() throws Exception {
+        // Given
+        when(theatreServiceClient.exportCities(0L, 2)).thenReturn(rows(1, 2));
+        when(theatreServiceClient.exportCities(2L, 2)).thenReturn(rows(3));
+        when(theatreServiceClient.exportShows(0L, 2)).thenReturn(rows(10, 11));
+        when(theatreServiceClient.exportShows(11L, 2)).thenReturn(List.of());
+
+        // When
+        searchReindexService.reindex();
+
+        // Then
+        ArgumentCaptor<List<IndexQuery>> cityBulks = ArgumentCaptor.forClass(List.class);
+        verify(elasticsearchOperations, times(2)).bulkIndex(cityBulks.capture(), eq(CITIES));
+        assertThat(cityBulks.getAllValues()).flatExtracting(queries -> queries)
+                .extracting(IndexQuery::getId)
+                .containsExactlyInAnyOrder("1", "2", "3");
+        assertThat(cityBulks.getAllValues()).flatExtracting(queries -> queries)
+                .extracting(IndexQuery::getOpType)
+                .containsOnly(IndexQuery.OpType.CREATE);
+        verify(elasticsearchOperations).bulkIndex(anyList(), eq(SHOWS));
+        verify(elasticsearchOperations, never()).bulkIndex(anyList(), eq(THEATRES));
+
+        verify(searchIndexAliases).startBuild(ShowDocument.class, SHOWS);
+        verify(searchIndexAliases).finishBulkLoad(ShowDocument.class, SHOWS);
+        verify(searchIndexAliases).swapAlias(CityDocument.class, CITIES);
+        verify(searchIndexAliases).swapAlias(TheatreDocument.class, THEATRES);
+        verify(searchIndexAliases).swapAlias(ShowDocument.class, SHOWS);
+        verify(searchIndexAliases).finishBuild(ShowDocument.class);
+        verify(searchIndexAliases, never()).deleteIndex(any());
+    }
+
+    @Test
+    void reindex_ShouldIgnoreConflictsWithLiveChanges() throws Exception {
+        // Given
+        when(theatreServiceClient.exportCities(0L, 2)).thenReturn(rows(1));
+        when(elasticsearchOperations.bulkIndex(anyList(), eq(CITIES))).thenThrow(new BulkFailureException("Bulk failed",
+                Map.of("1", new BulkFailureException.FailureDetails(409, "version conflict, document already exists"))));
+
+        // When
+        searchReindexService.reindex();
+
+        // Then
+        verify(searchIndexAliases).swapAlias(CityDocument.class, CITIES);
+        verify(searchIndexAliases, never()).deleteIndex(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reindex_ShouldNotBringBackDocumentsDeletedDuringBuild() throws Exception {
+        // Given
+        when(theatreServiceClient.exportCities(0L, 2)).thenReturn(rows(1, 2));
+        when(theatreServiceClient.exportCities(2L, 2)).thenReturn(List.of());
+        // City 1 was deleted before its page was read, city 2 while its bulk was in flight
+        when(searchIndexAliases.isDeletedDuringBuild(eq(CityDocument.class), anyString()))
+                .thenAnswer(invocation -> invocation.getArgument(1).equals("1"))
+                .thenAnswer(invocation -> invocation.getArgument(1).equals("1"))
+                .thenReturn(true);
+
+        // When
+        searchReindexService.reindex();
+
+        // Then
+        ArgumentCaptor<List<IndexQuery>> cityBulk = ArgumentCaptor.forClass(List.class);
+        verify(elasticsearchOperations).bulkIndex(cityBulk.capture(), eq(CITIES));
+        assertThat(cityBulk.getValue()).extracting(IndexQuery::getId).containsExactly("2");
+        verify(searchIndexAliases).deleteDocuments(CITIES, List.of("2"));
+        verify(searchIndexAliases).swapAlias(CityDocument.class, CITIES);
+    }
+
+    @Test
+    void reindex_ShouldDeleteNewIndicesAndKeepAliases_WhenBulkFails() {
+        // Given
+        when(theatreServiceClient.exportCities(0L, 2)).thenReturn(rows(1));
+        when(elasticsearchOperations.bulkIndex(anyList(), eq(CITIES))).thenThrow(new BulkFailureException("Bulk failed",
+                Map.of("1", new BulkFailureException.FailureDetails(429, "es_rejected_execution_exception"))));
+
+        // When & Then
+        assertThatThrownBy(() -> searchReindexService.reindex())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(CITIES.getIndexName());
+        verify(searchIndexAliases, never()).swapAlias(any(), any());
+        verify(searchIndexAliases).finishBuild(CityDocument.class);
+        verify(searchIndexAliases).deleteIndex(CITIES);
+        verify(searchIndexAliases).deleteIndex(THEATRES);
+        verify(searchIndexAliases).deleteIndex(SHOWS);
+    }
+
+    @Test
+    void reindex_ShouldLoadEveryRowOfSyntheticCatalog() throws Exception {
+        // When
+        searchReindexService.reindex(new SyntheticCatalog(2, 3, 5, 4, 7));
+
+        // Then
+        ArgumentCaptor<List<IndexQuery>> showBulks = ArgumentCaptor.forClass(List.class);
+        verify(elasticsearchOperations, times(3)).bulkIndex(showBulks.capture(), eq(SHOWS));
+        assertThat(showBulks.getAllValues()).flatExtracting(queries -> queries)
+                .extracting(IndexQuery::getId)
+                .containsExactlyInAnyOrder("1", "2", "3", "4", "5");
+        verify(elasticsearchOperations, times(1)).bulkIndex(anyList(), eq(CITIES));
+        verify(elasticsearchOperations, times(2)).bulkIndex(anyList(), eq(THEATRES));
+        verify(theatreServiceClient, never()).exportShows(anyLong(), anyInt());
+        verify(searchIndexAliases).swapAlias(ShowDocument.class, SHOWS);
+    }
+
+    @Test
+    void startReindex_ShouldRejectSecondRunWhileOneIsInProgress() throws Exception {
+        // Given
+        CountDownLatch exporting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(theatreServiceClient.exportCities(0L, 2)).thenAnswer(invocation -> {
+            exporting.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+
+        // When
+        boolean first = searchReindexService.startReindex();
+        assertThat(exporting.await(5, TimeUnit.SECONDS)).isTrue();
+        boolean second = searchReindexService.startReindex();
+        release.countDown();
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        verify(searchIndexAliases, timeout(5000)).swapAlias(ShowDocument.class, SHOWS);
+    }
+}
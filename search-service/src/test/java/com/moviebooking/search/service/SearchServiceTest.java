@@ -1,7 +1,18 @@
 package com.moviebooking.search.service;
 
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.DateHistogramBucket;
+import co.elastic.clients.elasticsearch._types.aggregations.LongTermsBucket;
+import co.elastic.clients.elasticsearch._types.aggregations.RangeBucket;
+import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
 import com.moviebooking.search.model.CityDocument;
+import com.moviebooking.search.model.FacetBucket;
+import com.moviebooking.search.model.NearbyTheatre;
+import com.moviebooking.search.model.Suggestion;
 import com.moviebooking.search.model.ShowDocument;
+import com.moviebooking.search.model.ShowSearchRequest;
+import com.moviebooking.search.model.ShowSearchResponse;
 import com.moviebooking.search.model.TheatreDocument;
 import com.moviebooking.search.repository.CitySearchRepository;
 import com.moviebooking.search.repository.ShowSearchRepository;
@@ -9,9 +20,12 @@ import com.moviebooking.search.repository.TheatreSearchRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregations;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
 import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
 import org.springframework.data.elasticsearch.core.IndexOperations;
 import org.springframework.data.elasticsearch.core.SearchHit;
@@ -22,12 +36,18 @@ import org.springframework.data.elasticsearch.core.query.Query;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.lenient;
@@ -62,6 +82,15 @@ class SearchServiceTest {
     @Mock
     private SearchHit<ShowDocument> showSearchHit;
 
+    @Mock
+    private ShowSearchCache showSearchCache;
+
+    @Mock
+    private ElasticsearchGuard elasticsearchGuard;
+
+    @Mock
+    private ShowSnapshot showSnapshot;
+
     @InjectMocks
     private SearchService searchService;
 
@@ -70,7 +99,13 @@ class SearchServiceTest {
     private ShowDocument testShow;
 
     @BeforeEach
+    @SuppressWarnings("unchecked")
     void setUp() {
+        lenient().when(elasticsearchGuard.call(any()))
+                .thenAnswer(invocation -> invocation.getArgument(0, Supplier.class).get());
+        lenient().when(showSearchCache.get(any(ShowSearchRequest.class), any()))
+                .thenAnswer(invocation -> invocation.getArgument(1, Function.class).apply(invocation.getArgument(0)));
+
         testCity = new CityDocument();
         testCity.setId("1");
         testCity.setName("Mumbai");
@@ -112,51 +147,6 @@ class SearchServiceTest {
         testShow.setUpdatedAt(LocalDateTime.now());
     }
 
-    @Test
-    void initializeIndices_ShouldCreateIndicesWhenNotExist() {
-        // Given
-        when(elasticsearchOperations.indexOps(CityDocument.class)).thenReturn(indexOperations);
-        when(elasticsearchOperations.indexOps(TheatreDocument.class)).thenReturn(indexOperations);
-        when(elasticsearchOperations.indexOps(ShowDocument.class)).thenReturn(indexOperations);
-        when(indexOperations.exists()).thenReturn(false);
-        when(indexOperations.create()).thenReturn(true);
-        when(indexOperations.putMapping()).thenReturn(true);
-
-        // When
-        searchService.initializeIndices();
-
-        // Then
-        verify(indexOperations, times(3)).create();
-        verify(indexOperations, times(3)).putMapping();
-    }
-
-    @Test
-    void initializeIndices_ShouldNotCreateIndicesWhenTheyExist() {
-        // Given
-        when(elasticsearchOperations.indexOps(CityDocument.class)).thenReturn(indexOperations);
-        when(elasticsearchOperations.indexOps(TheatreDocument.class)).thenReturn(indexOperations);
-        when(elasticsearchOperations.indexOps(ShowDocument.class)).thenReturn(indexOperations);
-        when(indexOperations.exists()).thenReturn(true);
-
-        // When
-        searchService.initializeIndices();
-
-        // Then
-        verify(indexOperations, never()).create();
-        verify(indexOperations, never()).putMapping();
-    }
-
-    @Test
-    void initializeIndices_ShouldHandleExceptionsGracefully() {
-        // Given
-        when(elasticsearchOperations.indexOps(CityDocument.class)).thenThrow(new RuntimeException("Connection failed"));
-
-        // When & Then - Should not throw exception
-        searchService.initializeIndices();
-
-        // Should handle gracefully and not crash application
-    }
-
     @Test
     void searchCities_ShouldReturnAllCities_WhenQueryIsNull() {
         // Given
@@ -359,88 +349,317 @@ class SearchServiceTest {
     }
 
     @Test
-    void searchShows_ShouldReturnAllShows_WhenQueryIsNull() {
+    @SuppressWarnings("unchecked")
+    void searchNearbyTheatres_ShouldSortByDistanceAndEmbedNextShows() {
         // Given
-        List<ShowDocument> shows = List.of(testShow);
-        when(showSearchRepository.findAll()).thenReturn(shows);
+        when(elasticsearchOperations.search(any(Query.class), eq(TheatreDocument.class))).thenReturn(theatreSearchHits);
+        when(theatreSearchHits.getSearchHits()).thenReturn(List.of(theatreSearchHit));
+        when(theatreSearchHit.getContent()).thenReturn(testTheatre);
+        when(theatreSearchHit.getSortValues()).thenReturn(List.of(1.25));
+
+        ShowDocument laterShow = new ShowDocument();
+        laterShow.setId("2");
+        laterShow.setTheatreId(1L);
+        SearchHit<ShowDocument> firstInnerHit = mock(SearchHit.class);
+        SearchHit<ShowDocument> secondInnerHit = mock(SearchHit.class);
+        when(firstInnerHit.getContent()).thenReturn(testShow);
+        when(secondInnerHit.getContent()).thenReturn(laterShow);
+        SearchHits<ShowDocument> innerHits = mock(SearchHits.class);
+        when(innerHits.getSearchHits()).thenReturn(List.of(firstInnerHit, secondInnerHit));
+
+        when(elasticsearchOperations.search(any(Query.class), eq(ShowDocument.class))).thenReturn(showSearchHits);
+        when(showSearchHits.getSearchHits()).thenReturn(List.of(showSearchHit));
+        when(showSearchHit.getContent()).thenReturn(testShow);
+        doReturn(innerHits).when(showSearchHit).getInnerHits("next_shows");
 
         // When
-        List<ShowDocument> result = searchService.searchShows(null);
+        List<NearbyTheatre> result = searchService.searchNearbyTheatres(19.0760, 72.8777, "5km", 1L, 10, 2);
 
         // Then
         assertThat(result).hasSize(1);
-        verify(showSearchRepository).findAll();
+        assertThat(result.get(0).getTheatre()).isEqualTo(testTheatre);
+        assertThat(result.get(0).getDistanceKm()).isEqualTo(1.25);
+        assertThat(result.get(0).getNextShows()).containsExactly(testShow, laterShow);
+
+        ArgumentCaptor<NativeQuery> theatreQuery = ArgumentCaptor.forClass(NativeQuery.class);
+        verify(elasticsearchOperations).search(theatreQuery.capture(), eq(TheatreDocument.class));
+        assertThat(theatreQuery.getValue().getSortOptions()).hasSize(1);
+        assertThat(theatreQuery.getValue().getSortOptions().get(0).isGeoDistance()).isTrue();
+        assertThat(theatreQuery.getValue().getMaxResults()).isEqualTo(10);
+
+        ArgumentCaptor<NativeQuery> showQuery = ArgumentCaptor.forClass(NativeQuery.class);
+        verify(elasticsearchOperations).search(showQuery.capture(), eq(ShowDocument.class));
+        assertThat(showQuery.getValue().getFieldCollapse().field()).isEqualTo("theatreId");
+        assertThat(showQuery.getValue().getFieldCollapse().innerHits().get(0).size()).isEqualTo(2);
+        assertThat(showQuery.getValue().getQuery().bool().filter())
+                .anyMatch(filter -> filter.isTerm() && filter.term().field().equals("movieId"));
     }
 
     @Test
-    void searchShows_ShouldReturnMatchingShows_WhenQueryProvided() {
+    void searchNearbyTheatres_ShouldNotQueryShows_WhenNoTheatresAreNearby() {
         // Given
-        String query = "Avengers";
-        List<ShowDocument> shows = List.of(testShow);
-        when(showSearchRepository.findByMovieTitleContainingIgnoreCase(query)).thenReturn(shows);
+        when(elasticsearchOperations.search(any(Query.class), eq(TheatreDocument.class))).thenReturn(theatreSearchHits);
+        when(theatreSearchHits.getSearchHits()).thenReturn(List.of());
 
         // When
-        List<ShowDocument> result = searchService.searchShows(query);
+        List<NearbyTheatre> result = searchService.searchNearbyTheatres(19.0760, 72.8777, "5km", null, 10, 3);
 
         // Then
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getMovieTitle()).isEqualTo("Avengers");
-        verify(showSearchRepository).findByMovieTitleContainingIgnoreCase(query);
+        assertThat(result).isEmpty();
+        verify(elasticsearchOperations, never()).search(any(Query.class), eq(ShowDocument.class));
     }
 
     @Test
-    void searchShowsByMovieAndCity_ShouldReturnMatchingShows() {
+    @SuppressWarnings("unchecked")
+    void suggest_ShouldQueryAllIndicesInOneRequestAndRankByScore() {
         // Given
-        Long movieId = 1L;
-        Long cityId = 1L;
-        List<ShowDocument> shows = List.of(testShow);
-        when(showSearchRepository.findByMovieIdAndCityId(movieId, cityId)).thenReturn(shows);
+        SearchHit<CityDocument> cityHit = mock(SearchHit.class);
+        when(cityHit.getContent()).thenReturn(testCity);
+        when(cityHit.getScore()).thenReturn(1.5f);
+        SearchHits<CityDocument> citySearchHits = mock(SearchHits.class);
+        when(citySearchHits.getSearchHits()).thenReturn(List.of(cityHit));
+        when(showSearchHits.getSearchHits()).thenReturn(List.of(showSearchHit));
+        when(showSearchHit.getContent()).thenReturn(testShow);
+        when(showSearchHit.getScore()).thenReturn(3.0f);
+        when(theatreSearchHits.getSearchHits()).thenReturn(List.of(theatreSearchHit));
+        when(theatreSearchHit.getContent()).thenReturn(testTheatre);
+        when(theatreSearchHit.getScore()).thenReturn(2.0f);
+        when(elasticsearchOperations.multiSearch(anyList(), anyList()))
+                .thenReturn(List.of(showSearchHits, theatreSearchHits, citySearchHits));
 
         // When
-        List<ShowDocument> result = searchService.searchShowsByMovieAndCity(movieId, cityId);
+        List<Suggestion> result = searchService.suggest(" Mu ", 2);
 
         // Then
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getMovieId()).isEqualTo(1L);
-        assertThat(result.get(0).getCityId()).isEqualTo(1L);
-        verify(showSearchRepository).findByMovieIdAndCityId(movieId, cityId);
+        assertThat(result).extracting(Suggestion::getType)
+                .containsExactly(Suggestion.Type.MOVIE, Suggestion.Type.THEATRE);
+        assertThat(result.get(0).getId()).isEqualTo(String.valueOf(testShow.getMovieId()));
+        assertThat(result.get(0).getText()).isEqualTo(testShow.getMovieTitle());
+
+        ArgumentCaptor<List<NativeQuery>> queries = ArgumentCaptor.forClass(List.class);
+        verify(elasticsearchOperations).multiSearch(queries.capture(), eq(List.of(ShowDocument.class, TheatreDocument.class, CityDocument.class)));
+        NativeQuery movieQuery = queries.getValue().get(0);
+        assertThat(movieQuery.getQuery().multiMatch().query()).isEqualTo("Mu");
+        assertThat(movieQuery.getQuery().multiMatch().fields())
+                .containsExactly("movieTitle.suggest", "movieTitle.suggest._2gram", "movieTitle.suggest._3gram");
+        assertThat(movieQuery.getFieldCollapse().field()).isEqualTo("movieId");
+        assertThat(movieQuery.getMaxResults()).isEqualTo(2);
+        assertThat(queries.getValue().get(2).getFieldCollapse()).isNull();
+    }
+
+    @Test
+    void suggest_ShouldNotQuery_WhenPrefixIsBlank() {
+        // When
+        List<Suggestion> result = searchService.suggest("  ", 5);
+
+        // Then
+        assertThat(result).isEmpty();
+        verifyNoInteractions(elasticsearchOperations);
     }
 
     @Test
-    void searchShowsWithFilters_ShouldReturnFilteredShows() {
+    void searchShows_ShouldFilterExactCriteriaAndScoreOnlyText() {
         // Given
-        String movieTitle = "Avengers";
-        String cityName = "Mumbai";
-        String theatreName = "PVR";
-        LocalDateTime fromDateTime = LocalDateTime.now();
-        LocalDateTime toDateTime = LocalDateTime.now().plusDays(7);
+        when(elasticsearchOperations.search(any(Query.class), eq(ShowDocument.class))).thenReturn(showSearchHits);
+        when(showSearchHits.getSearchHits()).thenReturn(List.of(showSearchHit));
+        when(showSearchHit.getContent()).thenReturn(testShow);
 
-        when(elasticsearchOperations.search(any(Query.class), eq(ShowDocument.class)))
-                .thenReturn(showSearchHits);
-        when(showSearchHits.stream()).thenReturn(Stream.of(showSearchHit));
+        ShowSearchRequest request = ShowSearchRequest.builder()
+                .query("Avengers")
+                .movieId(1L)
+                .cityId(1L)
+                .status("ACTIVE")
+                .fromDateTime(LocalDateTime.of(2024, 1, 15, 18, 0))
+                .size(10)
+                .build();
+
+        // When
+        ShowSearchResponse result = searchService.searchShows(request);
+
+        // Then
+        assertThat(result.getShows()).containsExactly(testShow);
+        assertThat(result.getNextCursor()).isNull();
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(elasticsearchOperations).search(queryCaptor.capture(), eq(ShowDocument.class));
+        NativeQuery query = (NativeQuery) queryCaptor.getValue();
+        BoolQuery bool = query.getQuery().bool();
+        assertThat(bool.must()).hasSize(1);
+        assertThat(bool.must().get(0).isMultiMatch()).isTrue();
+        assertThat(bool.filter()).hasSize(4);
+        assertThat(bool.filter().get(3).range().gte().to(String.class)).isEqualTo("2024-01-15T18:00:00");
+        assertThat(query.getSortOptions()).hasSize(3);
+        assertThat(query.getSortOptions().get(0).isScore()).isTrue();
+        assertThat(query.getMaxResults()).isEqualTo(11);
+    }
+
+    @Test
+    void searchShows_ShouldSortWithoutScore_WhenNoTextCriteria() {
+        // Given
+        when(elasticsearchOperations.search(any(Query.class), eq(ShowDocument.class))).thenReturn(showSearchHits);
+        when(showSearchHits.getSearchHits()).thenReturn(List.of());
+
+        // When
+        ShowSearchResponse result = searchService.searchShows(ShowSearchRequest.builder()
+                .theatreId(1L)
+                .fields(List.of("movieTitle", "showDateTime"))
+                .build());
+
+        // Then
+        assertThat(result.getShows()).isEmpty();
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(elasticsearchOperations).search(queryCaptor.capture(), eq(ShowDocument.class));
+        NativeQuery query = (NativeQuery) queryCaptor.getValue();
+        assertThat(query.getQuery().bool().must()).isEmpty();
+        assertThat(query.getSortOptions()).extracting(sort -> sort.field().field()).containsExactly("showDateTime", "id");
+        assertThat(query.getSourceFilter().getIncludes()).containsExactly("movieTitle", "showDateTime");
+        assertThat(query.getMaxResults()).isEqualTo(21);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void searchShows_ShouldReturnCursorOfLastHit_AndSearchAfterIt() {
+        // Given
+        SearchHit<ShowDocument> nextHit = mock(SearchHit.class);
+        when(elasticsearchOperations.search(any(Query.class), eq(ShowDocument.class))).thenReturn(showSearchHits);
+        when(showSearchHits.getSearchHits()).thenReturn(List.of(showSearchHit, nextHit));
         when(showSearchHit.getContent()).thenReturn(testShow);
+        when(showSearchHit.getSortValues()).thenReturn(List.of(1705337000000L, "1"));
 
         // When
-        List<ShowDocument> result = searchService.searchShowsWithFilters(
-                movieTitle, cityName, theatreName, fromDateTime, toDateTime);
+        ShowSearchResponse firstPage = searchService.searchShows(ShowSearchRequest.builder().cityId(1L).size(1).build());
+        searchService.searchShows(ShowSearchRequest.builder().cityId(1L).size(1).cursor(firstPage.getNextCursor()).build());
 
         // Then
-        assertThat(result).hasSize(1);
-        verify(elasticsearchOperations).search(any(Query.class), eq(ShowDocument.class));
+        assertThat(firstPage.getShows()).containsExactly(testShow);
+        assertThat(firstPage.getNextCursor()).isNotNull();
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(elasticsearchOperations, times(2)).search(queryCaptor.capture(), eq(ShowDocument.class));
+        assertThat(queryCaptor.getAllValues().get(0).getSearchAfter()).isNull();
+        assertThat(queryCaptor.getAllValues().get(1).getSearchAfter()).containsExactly(1705337000000L, "1");
+    }
+
+    @Test
+    void searchShows_ShouldLookUpNormalizedRequestInCache() {
+        // Given
+        ShowSearchResponse cached = new ShowSearchResponse(List.of(testShow), null, null);
+        when(showSearchCache.get(any(ShowSearchRequest.class), any())).thenReturn(cached);
+
+        // When
+        ShowSearchResponse result = searchService.searchShows(ShowSearchRequest.builder()
+                .query("  Avengers ")
+                .fromDateTime(LocalDateTime.of(2024, 1, 15, 18, 0, 42))
+                .build());
+
+        // Then
+        assertThat(result).isSameAs(cached);
+        verify(showSearchCache).get(eq(ShowSearchRequest.builder()
+                .query("avengers")
+                .fromDateTime(LocalDateTime.of(2024, 1, 15, 18, 0))
+                .build()), any());
+        verifyNoInteractions(elasticsearchOperations);
     }
 
     @Test
-    void searchShowsWithFilters_ShouldReturnEmptyList_WhenExceptionOccurs() {
+    void searchShows_ShouldRejectInvalidCursor() {
+        // When & Then
+        assertThatThrownBy(() -> searchService.searchShows(ShowSearchRequest.builder().cursor("not-a-cursor").build()))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(elasticsearchOperations);
+    }
+
+    @Test
+    void searchShows_ShouldServeSnapshot_WhenExceptionOccurs() {
         // Given
         when(elasticsearchOperations.search(any(Query.class), eq(ShowDocument.class)))
                 .thenThrow(new RuntimeException("Query failed"));
+        ShowSearchResponse snapshotPage = new ShowSearchResponse(List.of(testShow), null, null, true);
+        when(showSnapshot.search(any(ShowSearchRequest.class), eq(20))).thenReturn(snapshotPage);
 
         // When
-        List<ShowDocument> result = searchService.searchShowsWithFilters(
-                "Avengers", "Mumbai", "PVR", LocalDateTime.now(), LocalDateTime.now().plusDays(1));
+        ShowSearchResponse result = searchService.searchShows(ShowSearchRequest.builder()
+                .movieTitle("Avengers").cityId(1L).build());
 
         // Then
-        assertThat(result).isEmpty();
+        assertThat(result).isSameAs(snapshotPage);
+        assertThat(result.isDegraded()).isTrue();
+        assertThat(result.getNextCursor()).isNull();
+    }
+
+    @Test
+    void searchShows_ShouldServeSnapshotWithoutCallingElasticsearch_WhenGuardRejects() {
+        // Given
+        doThrow(new SearchUnavailableException("Elasticsearch circuit breaker is open", null)).when(elasticsearchGuard).call(any());
+        when(showSnapshot.search(any(ShowSearchRequest.class), eq(5)))
+                .thenReturn(new ShowSearchResponse(List.of(), null, null, true));
+
+        // When
+        ShowSearchResponse result = searchService.searchShows(ShowSearchRequest.builder().cityId(1L).size(5).build());
+
+        // Then
+        assertThat(result.isDegraded()).isTrue();
+        ArgumentCaptor<ShowSearchRequest> fallbackRequest = ArgumentCaptor.forClass(ShowSearchRequest.class);
+        verify(showSnapshot).search(fallbackRequest.capture(), eq(5));
+        assertThat(fallbackRequest.getValue().getCityId()).isEqualTo(1L);
+        verifyNoInteractions(elasticsearchOperations);
+    }
+
+    @Test
+    void searchShows_ShouldRequestFacetAggregations_OnFirstPageOnly() {
+        // Given
+        when(elasticsearchOperations.search(any(Query.class), eq(ShowDocument.class))).thenReturn(showSearchHits);
+        when(showSearchHits.getSearchHits()).thenReturn(List.of());
+        String cursor = Base64.getUrlEncoder().encodeToString("[1705337000000,\"1\"]".getBytes());
+
+        // When
+        ShowSearchResponse firstPage = searchService.searchShows(ShowSearchRequest.builder().cityId(1L).facets(true).build());
+        ShowSearchResponse nextPage = searchService.searchShows(ShowSearchRequest.builder().cityId(1L).facets(true).cursor(cursor).build());
+
+        // Then
+        assertThat(firstPage.getFacets()).isNotNull();
+        assertThat(nextPage.getFacets()).isNull();
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(elasticsearchOperations, times(2)).search(queryCaptor.capture(), eq(ShowDocument.class));
+        NativeQuery firstQuery = (NativeQuery) queryCaptor.getAllValues().get(0);
+        assertThat(firstQuery.getAggregations()).containsOnlyKeys("movieId", "theatreId", "screenType", "status", "showDate", "price");
+        assertThat(firstQuery.getAggregations().get("showDate").dateHistogram().field()).isEqualTo("showDateTime");
+        assertThat(firstQuery.getAggregations().get("price").range().ranges()).hasSize(4);
+        assertThat(((NativeQuery) queryCaptor.getAllValues().get(1)).getAggregations()).isEmpty();
+    }
+
+    @Test
+    void searchShows_ShouldMapAggregationBucketsToFacets() {
+        // Given
+        Map<String, Aggregate> aggregates = new LinkedHashMap<>();
+        aggregates.put("movieId", Aggregate.of(a -> a.lterms(t -> t
+                .sumOtherDocCount(0L)
+                .buckets(b -> b.array(List.of(LongTermsBucket.of(bucket -> bucket.key(101L).docCount(7))))))));
+        aggregates.put("status", Aggregate.of(a -> a.sterms(t -> t
+                .sumOtherDocCount(0L)
+                .buckets(b -> b.array(List.of(StringTermsBucket.of(bucket -> bucket.key("ACTIVE").docCount(7))))))));
+        aggregates.put("showDate", Aggregate.of(a -> a.dateHistogram(h -> h
+                .buckets(b -> b.array(List.of(DateHistogramBucket.of(bucket -> bucket.key(1705276800000L).keyAsString("2024-01-15").docCount(4))))))));
+        aggregates.put("price", Aggregate.of(a -> a.range(r -> r
+                .buckets(b -> b.array(List.of(RangeBucket.of(bucket -> bucket.key("200-400").from(200.0).to(400.0).docCount(3))))))));
+
+        when(elasticsearchOperations.search(any(Query.class), eq(ShowDocument.class))).thenReturn(showSearchHits);
+        when(showSearchHits.getSearchHits()).thenReturn(List.of(showSearchHit));
+        when(showSearchHit.getContent()).thenReturn(testShow);
+        doReturn(new ElasticsearchAggregations(aggregates)).when(showSearchHits).getAggregations();
+
+        // When
+        ShowSearchResponse result = searchService.searchShows(ShowSearchRequest.builder().cityId(1L).facets(true).build());
+
+        // Then
+        assertThat(result.getShows()).containsExactly(testShow);
+        assertThat(result.getFacets()).containsOnlyKeys("movieId", "status", "showDate", "price");
+        assertThat(result.getFacets().get("movieId")).containsExactly(new FacetBucket("101", 7));
+        assertThat(result.getFacets().get("status")).containsExactly(new FacetBucket("ACTIVE", 7));
+        assertThat(result.getFacets().get("showDate")).containsExactly(new FacetBucket("2024-01-15", 4));
+        assertThat(result.getFacets().get("price")).containsExactly(new FacetBucket("200-400", 3));
     }
 
     @Test
@@ -488,37 +707,4 @@ class SearchServiceTest {
         // Then
         assertThat(result).isFalse();
     }
-
-    @Test
-    void recreateIndices_ShouldDeleteAndCreateAllIndices() {
-        // Given
-        when(elasticsearchOperations.indexOps(CityDocument.class)).thenReturn(indexOperations);
-        when(elasticsearchOperations.indexOps(TheatreDocument.class)).thenReturn(indexOperations);
-        when(elasticsearchOperations.indexOps(ShowDocument.class)).thenReturn(indexOperations);
-        when(indexOperations.exists()).thenReturn(true);
-        when(indexOperations.delete()).thenReturn(true);
-        when(indexOperations.create()).thenReturn(true);
-        when(indexOperations.putMapping()).thenReturn(true);
-
-        // When
-        searchService.recreateIndices();
-
-        // Then
-        verify(indexOperations, times(3)).delete();
-        verify(indexOperations, times(3)).create();
-        verify(indexOperations, times(3)).putMapping();
-    }
-
-    @Test
-    void recreateIndices_ShouldThrowException_WhenOperationFails() {
-        // Given
-        when(elasticsearchOperations.indexOps(CityDocument.class)).thenReturn(indexOperations);
-        when(indexOperations.exists()).thenReturn(true);
-        when(indexOperations.delete()).thenThrow(new RuntimeException("Delete failed"));
-
-        // Then
-        assertThatThrownBy(() -> searchService.recreateIndices())
-                .isInstanceOf(RuntimeException.class)
-                .hasMessage("Failed to recreate indices");
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,200 @@
+package com.moviebooking.search.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moviebooking.search.model.ShowDocument;
+import com.moviebooking.search.model.ShowSearchRequest;
+import com.moviebooking.search.model.ShowSearchResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShowSearchCacheTest {
+
+    @Mock
+    private ObjectProvider<StringRedisTemplate> redisTemplateProvider;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private SimpleMeterRegistry meterRegistry;
+    private ShowSearchCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ShowSearchCache(objectMapper, redisTemplateProvider, meterRegistry, true, 100, Duration.ofSeconds(30), false);
+        loads = new AtomicInteger();
+    }
+
+    private Function<ShowSearchRequest, ShowSearchResponse> loaderReturning(String... showIds) {
+        return request -> {
+            loads.incrementAndGet();
+            List<ShowDocument> shows = Arrays.stream(showIds).map(id -> {
+                ShowDocument show = new ShowDocument();
+                show.setId(id);
+                return show;
+            }).toList();
+            return new ShowSearchResponse(shows, null, null);
+        };
+    }
+
+    @Test
+    void get_ShouldLoadOnceAndServeRepeatsFromCache() {
+        // Given
+        ShowSearchRequest request = ShowSearchRequest.builder().movieId(1L).cityId(1L).build();
+
+        // When
+        ShowSearchResponse first = cache.get(request, loaderReturning("1"));
+        ShowSearchResponse second = cache.get(ShowSearchRequest.builder().movieId(1L).cityId(1L).build(), loaderReturning("1"));
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "show-search").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "show-search").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void get_ShouldNotCacheFailedLoads() {
+        // Given
+        ShowSearchRequest request = ShowSearchRequest.builder().cityId(1L).build();
+
+        // When
+        assertThatThrownBy(() -> cache.get(request, r -> {
+            throw new IllegalStateException("Elasticsearch unavailable");
+        })).isInstanceOf(IllegalStateException.class);
+        cache.get(request, loaderReturning("1"));
+
+        // Then
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void normalize_ShouldIgnoreCaseWhitespaceSecondsAndFieldOrder() {
+        // Given
+        ShowSearchRequest request = ShowSearchRequest.builder()
+                .query("  Avengers ")
+                .status("ACTIVE")
+                .fromDateTime(LocalDateTime.of(2024, 1, 15, 18, 0, 42))
+                .fields(List.of("price", "movieTitle", "price"))
+                .cursor("")
+                .build();
+
+        // When
+        ShowSearchRequest normalized = ShowSearchCache.normalize(request);
+
+        // Then
+        assertThat(normalized).isEqualTo(ShowSearchRequest.builder()
+                .query("avengers")
+                .status("ACTIVE")
+                .fromDateTime(LocalDateTime.of(2024, 1, 15, 18, 0))
+                .fields(List.of("movieTitle", "price"))
+                .build());
+    }
+
+    @Test
+    void invalidate_ShouldDropOnlyPagesTheShowChangeCanAffect() throws Exception {
+        // Given
+        ShowSearchRequest mumbai = ShowSearchRequest.builder().cityId(1L).build();
+        ShowSearchRequest delhi = ShowSearchRequest.builder().cityId(2L).build();
+        ShowSearchRequest movie = ShowSearchRequest.builder().movieId(5L).build();
+        cache.get(mumbai, loaderReturning("1"));
+        cache.get(delhi, loaderReturning("2"));
+        cache.get(movie, loaderReturning("9"));
+
+        // When - a new show in Mumbai for another movie
+        cache.invalidate(List.of(IndexChange.upsert("Show", "10",
+                objectMapper.readTree("{\"id\": 10, \"movieId\": 7, \"theatreId\": 4, \"cityId\": 1}"))));
+
+        // Then
+        loads.set(0);
+        cache.get(mumbai, loaderReturning("1", "10"));
+        cache.get(delhi, loaderReturning("2"));
+        cache.get(movie, loaderReturning("9"));
+        assertThat(loads).hasValue(1);
+
+        // When - show 9 is deleted
+        cache.invalidate(List.of(IndexChange.delete("Show", "9")));
+
+        // Then
+        loads.set(0);
+        cache.get(delhi, loaderReturning("2"));
+        cache.get(movie, loaderReturning());
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.get("search.cache.invalidations").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void invalidateShowSeats_ShouldDropPagesListingTheShowOrFilteringOnSeats() {
+        // Given
+        ShowSearchRequest listing = ShowSearchRequest.builder().cityId(1L).build();
+        ShowSearchRequest withSeats = ShowSearchRequest.builder().cityId(2L).minAvailableSeats(2).build();
+        ShowSearchRequest other = ShowSearchRequest.builder().cityId(3L).build();
+        cache.get(listing, loaderReturning("1"));
+        cache.get(withSeats, loaderReturning("2"));
+        cache.get(other, loaderReturning("3"));
+
+        // When
+        cache.invalidateShowSeats(1L);
+
+        // Then
+        loads.set(0);
+        cache.get(listing, loaderReturning("1"));
+        cache.get(withSeats, loaderReturning("2"));
+        cache.get(other, loaderReturning("3"));
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void get_ShouldShareThroughRedis_AndBumpGenerationOnInvalidate() throws Exception {
+        // Given
+        when(redisTemplateProvider.getIfAvailable()).thenReturn(redisTemplate);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        cache = new ShowSearchCache(objectMapper, redisTemplateProvider, meterRegistry, true, 100, Duration.ofSeconds(30), true);
+        ShowSearchRequest request = ShowSearchRequest.builder().cityId(1L).build();
+
+        ShowDocument show = new ShowDocument();
+        show.setId("1");
+        String shared = objectMapper.writeValueAsString(new ShowSearchResponse(List.of(show), null, null));
+        when(valueOperations.get(ShowSearchCache.GENERATION_KEY)).thenReturn("3");
+        when(valueOperations.get(startsWith("search:shows:page:3:"))).thenReturn(shared);
+
+        // When
+        ShowSearchResponse result = cache.get(request, loaderReturning("2"));
+        cache.invalidateShowSeats(1L);
+
+        // Then
+        assertThat(loads).hasValue(0);
+        assertThat(result.getShows()).extracting(ShowDocument::getId).containsExactly("1");
+        assertThat(meterRegistry.get("search.cache.redis.gets").tag("result", "hit").counter().count()).isEqualTo(1);
+        verify(valueOperations, never()).set(anyString(), anyString(), any(Duration.class));
+        verify(valueOperations).increment(eq(ShowSearchCache.GENERATION_KEY));
+    }
+}
@@ -0,0 +1,173 @@
+package com.moviebooking.search.service;
+
+import com.moviebooking.search.model.ShowDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShowSeatCounterTest {
+
+    @Mock
+    private ElasticsearchOperations elasticsearchOperations;
+
+    @Mock
+    private ShowSearchCache showSearchCache;
+
+    @Mock
+    private SearchIndexAliases searchIndexAliases;
+
+    private ShowSeatCounter showSeatCounter;
+
+    @BeforeEach
+    void setUp() {
+        showSeatCounter = new ShowSeatCounter(elasticsearchOperations, showSearchCache, searchIndexAliases, 5);
+    }
+
+    @Test
+    void flush_ShouldWriteOneScriptedUpdatePerShow() {
+        // Given
+        showSeatCounter.record(1L, -2);
+        showSeatCounter.record(1L, -3);
+        showSeatCounter.record(2L, -1);
+
+        // When
+        showSeatCounter.flush();
+
+        // Then
+        ArgumentCaptor<List<UpdateQuery>> updates = ArgumentCaptor.forClass(List.class);
+        verify(elasticsearchOperations).bulkUpdate(updates.capture(), eq(ShowDocument.class));
+        assertThat(updates.getValue()).hasSize(2);
+        UpdateQuery show1 = updates.getValue().stream().filter(update -> update.getId().equals("1")).findFirst().orElseThrow();
+        assertThat(show1.getScript()).isEqualTo(ShowSeatCounter.SCRIPT);
+        assertThat(show1.getParams()).containsEntry("delta", -5);
+        assertThat(show1.getRetryOnConflict()).isEqualTo(5);
+        verify(showSearchCache).invalidateShowSeats(Set.of(1L, 2L));
+    }
+
+    @Test
+    void flush_ShouldDoNothing_WhenNoChangesArePending() {
+        // Given
+        showSeatCounter.record(1L, -2);
+        showSeatCounter.record(1L, 2);
+
+        // When
+        showSeatCounter.flush();
+
+        // Then
+        verifyNoInteractions(elasticsearchOperations, showSearchCache, searchIndexAliases);
+    }
+
+    @Test
+    void flush_ShouldRetryFailedChangesAndDropMissingShows() {
+        // Given
+        showSeatCounter.record(1L, -2);
+        showSeatCounter.record(2L, -1);
+        showSeatCounter.record(3L, -4);
+        doThrow(new BulkFailureException("Bulk failed", Map.of(
+                "1", new BulkFailureException.FailureDetails(429, "es_rejected_execution_exception"),
+                "2", new BulkFailureException.FailureDetails(404, "document_missing_exception"))))
+                .when(elasticsearchOperations).bulkUpdate(anyList(), eq(ShowDocument.class));
+
+        // When
+        showSeatCounter.flush();
+
+        // Then
+        verify(showSearchCache).invalidateShowSeats(Set.of(3L));
+
+        // When - the next flush succeeds
+        doNothing().when(elasticsearchOperations).bulkUpdate(anyList(), eq(ShowDocument.class));
+        showSeatCounter.flush();
+
+        // Then
+        ArgumentCaptor<List<UpdateQuery>> updates = ArgumentCaptor.forClass(List.class);
+        verify(elasticsearchOperations, times(2)).bulkUpdate(updates.capture(), eq(ShowDocument.class));
+        assertThat(updates.getValue()).extracting(UpdateQuery::getId).containsExactly("1");
+        assertThat(updates.getValue().get(0).getParams()).containsEntry("delta", -2);
+    }
+
+    @Test
+    void flush_ShouldKeepAllChanges_WhenElasticsearchIsUnavailable() {
+        // Given
+        showSeatCounter.record(1L, -2);
+        doThrow(new RuntimeException("Connection refused"))
+                .doNothing()
+                .when(elasticsearchOperations).bulkUpdate(anyList(), eq(ShowDocument.class));
+
+        // When
+        showSeatCounter.flush();
+        showSeatCounter.record(1L, -1);
+        showSeatCounter.flush();
+
+        // Then
+        ArgumentCaptor<List<UpdateQuery>> updates = ArgumentCaptor.forClass(List.class);
+        verify(elasticsearchOperations, times(2)).bulkUpdate(updates.capture(), eq(ShowDocument.class));
+        assertThat(updates.getValue().get(0).getParams()).containsEntry("delta", -3);
+        verify(showSearchCache, times(1)).invalidateShowSeats(any(Collection.class));
+    }
+
+    @Test
+    void flush_ShouldRunCallbacksOnlyOnceTheChangeIsWritten() {
+        // Given
+        Runnable first = mock(Runnable.class);
+        Runnable second = mock(Runnable.class);
+        showSeatCounter.record(1L, -2, first);
+        showSeatCounter.record(1L, -1, second);
+        doThrow(new RuntimeException("Connection refused"))
+                .doNothing()
+                .when(elasticsearchOperations).bulkUpdate(anyList(), eq(ShowDocument.class));
+
+        // When
+        showSeatCounter.flush();
+
+        // Then
+        verifyNoInteractions(first, second);
+
+        // When - the next flush succeeds
+        showSeatCounter.flush();
+
+        // Then
+        verify(first).run();
+        verify(second).run();
+    }
+
+    @Test
+    void flush_ShouldAlsoWriteToShowsIndexBeingBuilt() {
+        // Given
+        IndexCoordinates buildIndex = IndexCoordinates.of("shows_20240115103000000");
+        when(searchIndexAliases.buildIndex(ShowDocument.class)).thenReturn(Optional.of(buildIndex));
+        showSeatCounter.record(1L, -2);
+        showSeatCounter.record(2L, -1);
+        doThrow(new BulkFailureException("Bulk failed", Map.of(
+                "2", new BulkFailureException.FailureDetails(429, "es_rejected_execution_exception"))))
+                .when(elasticsearchOperations).bulkUpdate(anyList(), eq(ShowDocument.class));
+
+        // When
+        showSeatCounter.flush();
+
+        // Then - only the change written to the live index, so a retry does not apply it twice
+        ArgumentCaptor<List<UpdateQuery>> updates = ArgumentCaptor.forClass(List.class);
+        verify(elasticsearchOperations).bulkUpdate(updates.capture(), eq(buildIndex));
+        assertThat(updates.getValue()).extracting(UpdateQuery::getId).containsExactly("1");
+        assertThat(updates.getValue().get(0).getParams()).containsEntry("delta", -2);
+    }
+}
@@ -0,0 +1,124 @@
+package com.moviebooking.search.service;
+
+import com.moviebooking.search.model.ShowDocument;
+import com.moviebooking.search.model.ShowSearchRequest;
+import com.moviebooking.search.model.ShowSearchResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHitsIterator;
+import org.springframework.data.elasticsearch.core.query.Query;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShowSnapshotTest {
+
+    @Mock
+    private ElasticsearchOperations elasticsearchOperations;
+
+    @Mock
+    private ElasticsearchGuard elasticsearchGuard;
+
+    private ShowSnapshot showSnapshot;
+
+    @BeforeEach
+    void setUp() {
+        showSnapshot = new ShowSnapshot(elasticsearchOperations, elasticsearchGuard, Duration.ofDays(7), 100);
+    }
+
+    private ShowDocument show(String id, long cityId, long movieId, LocalDateTime showDateTime) {
+        ShowDocument show = new ShowDocument();
+        show.setId(id);
+        show.setCityId(cityId);
+        show.setMovieId(movieId);
+        show.setMovieTitle("Movie " + movieId);
+        show.setShowDateTime(showDateTime);
+        show.setAvailableSeats(50);
+        show.setStatus("ACTIVE");
+        return show;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenIndexedShows(ShowDocument... shows) {
+        Iterator<ShowDocument> source = List.of(shows).iterator();
+        SearchHitsIterator<ShowDocument> hits = mock(SearchHitsIterator.class);
+        when(hits.hasNext()).thenAnswer(invocation -> source.hasNext());
+        when(hits.next()).thenAnswer(invocation -> {
+            SearchHit<ShowDocument> hit = mock(SearchHit.class);
+            when(hit.getContent()).thenReturn(source.next());
+            return hit;
+        });
+        when(elasticsearchOperations.searchForStream(any(Query.class), eq(ShowDocument.class))).thenReturn(hits);
+    }
+
+    @Test
+    void search_ShouldAnswerFirstPageWithinCityFromSnapshot() {
+        // Given
+        LocalDateTime tomorrow = LocalDateTime.now().plusDays(1);
+        when(elasticsearchGuard.isAvailable()).thenReturn(true);
+        givenIndexedShows(
+                show("1", 1L, 7L, tomorrow),
+                show("2", 2L, 7L, tomorrow),
+                show("3", 1L, 8L, tomorrow.plusHours(3)),
+                show("4", 1L, 7L, tomorrow.plusHours(6)),
+                show("5", 1L, 7L, tomorrow.plusHours(9)));
+        showSnapshot.refresh();
+
+        // When
+        ShowSearchResponse result = showSnapshot.search(ShowSearchRequest.builder().cityId(1L).movieId(7L).build(), 2);
+
+        // Then
+        assertThat(showSnapshot.isLoaded()).isTrue();
+        assertThat(result.isDegraded()).isTrue();
+        assertThat(result.getShows()).extracting(ShowDocument::getId).containsExactly("1", "4");
+        assertThat(result.getNextCursor()).isNull();
+    }
+
+    @Test
+    void search_ShouldReturnEmptyDegradedPage_WhenSnapshotCannotAnswer() {
+        // Given
+        when(elasticsearchGuard.isAvailable()).thenReturn(true);
+        givenIndexedShows(show("1", 1L, 7L, LocalDateTime.now().plusDays(1)));
+        showSnapshot.refresh();
+
+        // When
+        ShowSearchResponse otherCity = showSnapshot.search(ShowSearchRequest.builder().cityId(2L).build(), 20);
+        ShowSearchResponse noCity = showSnapshot.search(ShowSearchRequest.builder().movieId(7L).build(), 20);
+        ShowSearchResponse nextPage = showSnapshot.search(ShowSearchRequest.builder().cityId(1L).cursor("abc").build(), 20);
+
+        // Then
+        assertThat(List.of(otherCity, noCity, nextPage)).allSatisfy(response -> {
+            assertThat(response.isDegraded()).isTrue();
+            assertThat(response.getShows()).isEmpty();
+        });
+    }
+
+    @Test
+    void refresh_ShouldKeepLastSnapshot_WhileElasticsearchIsUnavailable() {
+        // Given
+        when(elasticsearchGuard.isAvailable()).thenReturn(true, false);
+        givenIndexedShows(show("1", 1L, 7L, LocalDateTime.now().plusDays(1)));
+        showSnapshot.refresh();
+
+        // When
+        showSnapshot.refresh();
+
+        // Then
+        verify(elasticsearchOperations, times(1)).searchForStream(any(Query.class), eq(ShowDocument.class));
+        assertThat(showSnapshot.search(ShowSearchRequest.builder().cityId(1L).build(), 20).getShows())
+                .extracting(ShowDocument::getId).containsExactly("1");
+    }
+}
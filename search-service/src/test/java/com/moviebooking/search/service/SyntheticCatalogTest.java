@@ -0,0 +1,58 @@
+package com.moviebooking.search.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SyntheticCatalogTest {
+
+    private final SyntheticCatalog catalog = new SyntheticCatalog(3, 10, 25, 5, 7);
+
+    @Test
+    void export_ShouldPageThroughExactlyTheConfiguredCounts() {
+        // When
+        List<JsonNode> firstPage = catalog.exportShows(0L, 10);
+        List<JsonNode> lastPage = catalog.exportShows(20L, 10);
+
+        // Then
+        assertThat(firstPage).extracting(row -> row.get("id").asLong()).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L);
+        assertThat(lastPage).extracting(row -> row.get("id").asLong()).containsExactly(21L, 22L, 23L, 24L, 25L);
+        assertThat(catalog.exportShows(25L, 10)).isEmpty();
+        assertThat(catalog.exportCities(0L, 10)).hasSize(3);
+        assertThat(catalog.exportTheatres(0L, 100)).hasSize(10);
+    }
+
+    @Test
+    void export_ShouldGenerateTheSameRowForAnId() {
+        // When
+        JsonNode first = catalog.exportShows(11L, 1).get(0);
+        JsonNode again = new SyntheticCatalog(3, 10, 25, 5, 7).exportShows(11L, 1).get(0);
+
+        // Then
+        assertThat(again.get("movieTitle")).isEqualTo(first.get("movieTitle"));
+        assertThat(again.get("showDateTime")).isEqualTo(first.get("showDateTime"));
+        assertThat(again.get("price")).isEqualTo(first.get("price"));
+    }
+
+    @Test
+    void exportShows_ShouldMatchTheirTheatreAndCity() {
+        // When
+        JsonNode show = catalog.exportShows(11L, 1).get(0);
+        JsonNode theatre = catalog.exportTheatres(show.get("theatreId").asLong() - 1, 1).get(0);
+        JsonNode city = catalog.exportCities(show.get("cityId").asLong() - 1, 1).get(0);
+
+        // Then
+        assertThat(show.get("theatreId").asLong()).isEqualTo(2L);
+        assertThat(show.get("theatreName")).isEqualTo(theatre.get("name"));
+        assertThat(theatre.get("cityId").asLong()).isEqualTo(show.get("cityId").asLong());
+        assertThat(show.get("cityName")).isEqualTo(city.get("name"));
+        assertThat(show.get("movieId").asLong()).isBetween(1L, 5L);
+        LocalDateTime showDateTime = LocalDateTime.parse(show.get("showDateTime").asText());
+        assertThat(showDateTime.toLocalDate()).isBetween(LocalDate.now(), LocalDate.now().plusDays(6));
+    }
+}
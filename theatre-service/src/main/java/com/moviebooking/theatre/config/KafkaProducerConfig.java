@@ -17,6 +17,10 @@ public class KafkaProducerConfig {
     
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
+
+    // Must be unique per replica, otherwise replicas fence each other's transactional producers
+    @Value("${app.kafka.transaction-id-prefix:theatre-service-tx-}")
+    private String transactionIdPrefix;
     
     @Bean
     public ProducerFactory<String, String> producerFactory() {
@@ -32,7 +36,12 @@ public class KafkaProducerConfig {
         configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
 
         // Transaction configuration
-        configProps.put(ProducerConfig.TRANSACTIONAL_ID_CONFIG, "theatre-service-tx-");
+        configProps.put(ProducerConfig.TRANSACTIONAL_ID_CONFIG, transactionIdPrefix);
+
+        // Outbox batches are sent in one go; let the producer pack them into few requests
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, 64 * 1024);
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
 
         // Additional reliability settings
         configProps.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, 120000);
@@ -45,7 +54,7 @@ public class KafkaProducerConfig {
     @Bean
     public KafkaTemplate<String, String> kafkaTemplate() {
         KafkaTemplate<String, String> template = new KafkaTemplate<>(producerFactory());
-        template.setTransactionIdPrefix("theatre-service-tx-");
+        template.setTransactionIdPrefix(transactionIdPrefix);
         return template;
     }
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.moviebooking.theatre.controller;
+
+import com.moviebooking.theatre.service.IndexExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Internal endpoints used by search-service to rebuild its indices. Not routed by the gateway.
+ */
+@RestController
+@RequestMapping("/api/v1/internal/index-export")
+@RequiredArgsConstructor
+@Tag(name = "Index Export", description = "Internal APIs for rebuilding the search indices")
+public class IndexExportController {
+    private final IndexExportService indexExportService;
+
+    @GetMapping("/cities")
+    @Operation(summary = "Export cities", description = "Returns up to limit cities with an id greater than afterId, ordered by id")
+    public ResponseEntity<List<Map<String, Object>>> exportCities(@RequestParam(defaultValue = "0") Long afterId,
+                                                                  @RequestParam(defaultValue = "1000") int limit) {
+        return ResponseEntity.ok(indexExportService.exportCities(afterId, limit));
+    }
+
+    @GetMapping("/theatres")
+    @Operation(summary = "Export theatres", description = "Returns up to limit theatres with an id greater than afterId, ordered by id")
+    public ResponseEntity<List<Map<String, Object>>> exportTheatres(@RequestParam(defaultValue = "0") Long afterId,
+                                                                    @RequestParam(defaultValue = "1000") int limit) {
+        return ResponseEntity.ok(indexExportService.exportTheatres(afterId, limit));
+    }
+
+    @GetMapping("/shows")
+    @Operation(summary = "Export shows", description = "Returns up to limit shows with an id greater than afterId, ordered by id")
+    public ResponseEntity<List<Map<String, Object>>> exportShows(@RequestParam(defaultValue = "0") Long afterId,
+                                                                 @RequestParam(defaultValue = "1000") int limit) {
+        return ResponseEntity.ok(indexExportService.exportShows(afterId, limit));
+    }
+}
@@ -2,11 +2,16 @@ package com.moviebooking.theatre.controller;
 
 import com.moviebooking.theatre.dto.SeatAvailabilityRequest;
 import com.moviebooking.theatre.dto.SeatAvailabilityResponse;
+import com.moviebooking.theatre.dto.SeatHoldRequest;
+import com.moviebooking.theatre.dto.SeatHoldResponse;
+import com.moviebooking.theatre.dto.SeatMapResponse;
 import com.moviebooking.theatre.service.SeatAvailabilityService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -28,4 +33,31 @@ public class SeatController {
         SeatAvailabilityResponse response = seatAvailabilityService.checkSeatAvailability(request);
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/shows/{showId}/map")
+    @Operation(summary = "Get seat map", description = "Returns the status of every seat of a show, one character per seat and row")
+    public ResponseEntity<SeatMapResponse> getSeatMap(@PathVariable Long showId) {
+        return ResponseEntity.ok(seatAvailabilityService.getSeatMap(showId));
+    }
+
+    @PostMapping("/holds")
+    @Operation(summary = "Hold seats", description = "Locks all requested seats for a booking until the hold expires, or none of them")
+    public ResponseEntity<SeatHoldResponse> holdSeats(@Valid @RequestBody SeatHoldRequest request) {
+        SeatHoldResponse response = seatAvailabilityService.holdSeats(request);
+        // A rejected hold is a regular outcome carrying the conflicting seats, not an error
+        return ResponseEntity.status(response.isHeld() ? HttpStatus.CREATED : HttpStatus.OK).body(response);
+    }
+
+    @PostMapping("/holds/confirm")
+    @Operation(summary = "Confirm seat hold", description = "Books the seats of a hold that has not expired yet")
+    public ResponseEntity<SeatHoldResponse> confirmHold(@Valid @RequestBody SeatHoldRequest request) {
+        return ResponseEntity.ok(seatAvailabilityService.confirmHold(request));
+    }
+
+    @PostMapping("/holds/release")
+    @Operation(summary = "Release seat hold", description = "Releases the seats of a hold before it expires")
+    public ResponseEntity<Void> releaseHold(@Valid @RequestBody SeatHoldRequest request) {
+        seatAvailabilityService.releaseHold(request);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -2,6 +2,7 @@ package com.moviebooking.theatre.controller;
 
 import com.moviebooking.theatre.model.ShowRequest;
 import com.moviebooking.theatre.model.ShowResponse;
+import com.moviebooking.theatre.model.ShowScheduleRequest;
 import com.moviebooking.theatre.service.ShowService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -29,6 +30,13 @@ public class ShowController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
     
+    @PostMapping("/schedule")
+    @Operation(summary = "Create a show schedule", description = "Creates shows at the given times on consecutive days, with their seat inventory, in one transaction")
+    public ResponseEntity<List<ShowResponse>> createShowSchedule(@Valid @RequestBody ShowScheduleRequest request) {
+        List<ShowResponse> response = showService.createShowSchedule(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+    
     @GetMapping("/{id}")
     @Operation(summary = "Get show by ID", description = "Retrieves a show by its ID")
     public ResponseEntity<ShowResponse> getShowById(@PathVariable Long id) {
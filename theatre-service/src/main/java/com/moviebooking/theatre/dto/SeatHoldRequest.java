@@ -0,0 +1,26 @@
+package com.moviebooking.theatre.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatHoldRequest {
+    @NotNull(message = "Show ID is required")
+    private Long showId;
+
+    @NotBlank(message = "Booking ID is required")
+    private String bookingId;
+
+    @NotEmpty(message = "At least one seat must be selected")
+    private List<String> seatNumbers;
+}
@@ -1,4 +1,4 @@
-package com.moviebooking.booking.dto;
+package com.moviebooking.theatre.dto;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -13,14 +13,17 @@ import java.util.List;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class SeatAvailabilityResponse {
-    private boolean available;
-    private List<String> availableSeats;
+public class SeatHoldResponse {
+    private boolean held;
+    private String bookingId;
+    private Long showId;
+    private List<String> seatNumbers;
     private List<String> unavailableSeats;
+    private LocalDateTime lockedUntil;
     private BigDecimal pricePerSeat;
     private BigDecimal totalPrice;
     private Long theatreId;
     private Long movieId;
     private LocalDateTime showDateTime;
     private String message;
-}
\ No newline at end of file
+}
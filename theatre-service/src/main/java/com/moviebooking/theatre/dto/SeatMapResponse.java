@@ -0,0 +1,23 @@
+package com.moviebooking.theatre.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatMapResponse {
+    private Long showId;
+    private int seatsPerRow;
+    private int totalSeats;
+    private int availableSeats;
+    private BigDecimal pricePerSeat;
+    // Row label -> one status character per seat: A=available, B=booked, L=locked, X=blocked
+    private Map<String, String> rows;
+}
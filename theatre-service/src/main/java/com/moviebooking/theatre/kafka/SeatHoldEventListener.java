@@ -0,0 +1,117 @@
+package com.moviebooking.theatre.kafka;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moviebooking.common.events.booking.BookingFailedEvent;
+import com.moviebooking.common.events.booking.SeatHoldRequestedEvent;
+import com.moviebooking.common.events.booking.SeatHoldResultEvent;
+import com.moviebooking.theatre.dto.SeatHoldRequest;
+import com.moviebooking.theatre.dto.SeatHoldResponse;
+import com.moviebooking.theatre.exception.BusinessLogicException;
+import com.moviebooking.theatre.exception.ResourceNotFoundException;
+import com.moviebooking.theatre.service.SeatAvailabilityService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Seat steps of the booking saga: places holds requested by booking-service and answers on the
+ * hold result topic, and gives seats back when a booking fails after its hold was placed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SeatHoldEventListener {
+
+    private final SeatAvailabilityService seatAvailabilityService;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.kafka.topics.seat-hold-results:seat-hold-results}")
+    private String seatHoldResultsTopic;
+
+    @KafkaListener(topics = "${app.kafka.topics.seat-hold-requested:seat-hold-requested}", groupId = "theatre-service-group",
+            properties = "spring.json.value.default.type=com.moviebooking.common.events.booking.SeatHoldRequestedEvent")
+    public void handleSeatHoldRequested(SeatHoldRequestedEvent event, Acknowledgment acknowledgment) throws JsonProcessingException {
+        if (event == null) {
+            log.warn("Received null seat hold request, ignoring");
+            acknowledgment.acknowledge();
+            return;
+        }
+
+        log.info("Received seat hold request for booking: {} on show: {} with seats: {}",
+                event.getBookingId(), event.getShowId(), event.getSeatNumbers());
+
+        SeatHoldResultEvent result = placeHold(event);
+        String payload = objectMapper.writeValueAsString(result);
+
+        kafkaTemplate.executeInTransaction(operations -> {
+            operations.send(seatHoldResultsTopic, event.getBookingId(), payload);
+            return true;
+        });
+        acknowledgment.acknowledge();
+        log.info("Published seat hold result for booking: {}, held: {}", event.getBookingId(), result.isHeld());
+    }
+
+    @KafkaListener(topics = "${app.kafka.topics.booking-failed:booking-failed}", groupId = "theatre-service-group",
+            properties = "spring.json.value.default.type=com.moviebooking.common.events.booking.BookingFailedEvent")
+    public void handleBookingFailed(BookingFailedEvent event, Acknowledgment acknowledgment) {
+        if (event == null) {
+            log.warn("Received null booking failed event, ignoring");
+            acknowledgment.acknowledge();
+            return;
+        }
+
+        log.info("Received booking failed event for booking: {} ({}), releasing its seat hold",
+                event.getBookingId(), event.getStatus());
+
+        seatAvailabilityService.releaseHold(SeatHoldRequest.builder()
+                .showId(event.getShowId())
+                .bookingId(event.getBookingId())
+                .seatNumbers(event.getSeatNumbers())
+                .build());
+        acknowledgment.acknowledge();
+    }
+
+    private SeatHoldResultEvent placeHold(SeatHoldRequestedEvent event) {
+        try {
+            SeatHoldResponse hold = seatAvailabilityService.holdSeats(SeatHoldRequest.builder()
+                    .showId(event.getShowId())
+                    .bookingId(event.getBookingId())
+                    .seatNumbers(event.getSeatNumbers())
+                    .build());
+
+            return SeatHoldResultEvent.builder()
+                    .bookingId(event.getBookingId())
+                    .showId(event.getShowId())
+                    .held(hold.isHeld())
+                    .seatNumbers(hold.getSeatNumbers())
+                    .unavailableSeats(hold.getUnavailableSeats())
+                    .lockedUntil(hold.getLockedUntil())
+                    .totalPrice(hold.getTotalPrice())
+                    .theatreId(hold.getTheatreId())
+                    .movieId(hold.getMovieId())
+                    .showDateTime(hold.getShowDateTime())
+                    .message(hold.getMessage())
+                    .build();
+        } catch (ResourceNotFoundException | BusinessLogicException e) {
+            // A request that can never be held (e.g. unknown show) is answered as rejected; any other error
+            // (database timeout, deadlock) propagates so the request is redelivered
+            log.warn("Rejecting seat hold for booking: {}: {}", event.getBookingId(), e.getMessage());
+            return SeatHoldResultEvent.builder()
+                    .bookingId(event.getBookingId())
+                    .showId(event.getShowId())
+                    .held(false)
+                    .seatNumbers(event.getSeatNumbers())
+                    .unavailableSeats(List.of())
+                    .message(e.getMessage())
+                    .build();
+        }
+    }
+}
@@ -1,34 +1,80 @@
 package com.moviebooking.theatre.kafka;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.moviebooking.common.events.booking.BookingConfirmedEvent;
+import com.moviebooking.common.events.booking.SeatConfirmationFailedEvent;
+import com.moviebooking.theatre.dto.SeatHoldRequest;
+import com.moviebooking.theatre.exception.BusinessLogicException;
 import com.moviebooking.theatre.service.SeatAvailabilityService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
+
+/**
+ * Books the held seats of a confirmed booking. If the hold expired before the confirmation arrived,
+ * the seats may already belong to another booking, so nothing is booked and booking-service is told
+ * to undo the booking and refund it.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class TheatreEventListener {
 
     private final SeatAvailabilityService seatAvailabilityService;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.kafka.topics.seat-confirmation-failed:seat-confirmation-failed}")
+    private String seatConfirmationFailedTopic;
 
     @KafkaListener(topics = "booking-confirmed", groupId = "theatre-service-group")
-    public void handleBookingConfirmed(BookingConfirmedEvent event) {
+    public void handleBookingConfirmed(BookingConfirmedEvent event, Acknowledgment acknowledgment) throws JsonProcessingException {
         if (event == null) {
             log.warn("Received null booking confirmed event, ignoring");
+            acknowledgment.acknowledge();
             return;
         }
 
         log.info("Received booking confirmed event for show: {} with seats: {}",
                 event.getShowId(), event.getSeatNumbers());
 
+        SeatHoldRequest hold = SeatHoldRequest.builder()
+                .showId(event.getShowId())
+                .bookingId(event.getBookingId())
+                .seatNumbers(event.getSeatNumbers())
+                .build();
         try {
-            seatAvailabilityService.markSeatsAsBooked(event.getShowId(), event.getSeatNumbers());
-            log.info("Successfully marked seats as booked for booking: {}", event.getBookingId());
-        } catch (Exception e) {
-            log.error("Error marking seats as booked for booking: {}", event.getBookingId(), e);
+            seatAvailabilityService.confirmHold(hold);
+            log.info("Successfully booked held seats for booking: {}", event.getBookingId());
+        } catch (BusinessLogicException e) {
+            // Gives back whatever is still held, then compensates; other errors are redelivered
+            seatAvailabilityService.releaseHold(hold);
+            publishConfirmationFailed(event, e.getMessage());
         }
+        acknowledgment.acknowledge();
+    }
+
+    private void publishConfirmationFailed(BookingConfirmedEvent event, String reason) throws JsonProcessingException {
+        String payload = objectMapper.writeValueAsString(SeatConfirmationFailedEvent.builder()
+                .bookingId(event.getBookingId())
+                .showId(event.getShowId())
+                .seatNumbers(event.getSeatNumbers())
+                .reason(reason)
+                .failedAt(LocalDateTime.now())
+                .build());
+
+        kafkaTemplate.executeInTransaction(operations -> {
+            operations.send(seatConfirmationFailedTopic, event.getBookingId(), payload);
+            return true;
+        });
+        log.warn("Seats of confirmed booking: {} could not be booked ({}), requested compensation",
+                event.getBookingId(), reason);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,66 @@
+package com.moviebooking.theatre.model;
+
+/**
+ * Seat grid of a screen: {@value #ROWS} lettered rows (A, B, ...) of {@code totalSeats / ROWS} numbered seats.
+ * Maps seat numbers such as "C7" to a dense ordinal and back without allocating.
+ */
+public final class SeatLayout {
+    public static final int ROWS = 10;
+
+    private final int seatsPerRow;
+
+    public SeatLayout(int seatsPerRow) {
+        this.seatsPerRow = seatsPerRow;
+    }
+
+    public static SeatLayout of(Screen screen) {
+        return new SeatLayout(screen.getTotalSeats() / ROWS);
+    }
+
+    public int getSeatsPerRow() {
+        return seatsPerRow;
+    }
+
+    public int capacity() {
+        return ROWS * seatsPerRow;
+    }
+
+    /**
+     * @return ordinal of the seat in row-major order, or -1 if the seat number is not part of this layout
+     */
+    public int ordinalOf(String seatNumber) {
+        if (seatNumber == null || seatNumber.length() < 2) {
+            return -1;
+        }
+
+        int row = seatNumber.charAt(0) - 'A';
+        if (row < 0 || row >= ROWS) {
+            return -1;
+        }
+
+        int seat = 0;
+        for (int i = 1; i < seatNumber.length(); i++) {
+            char c = seatNumber.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            seat = seat * 10 + (c - '0');
+            if (seat > seatsPerRow) {
+                return -1;
+            }
+        }
+
+        if (seat < 1) {
+            return -1;
+        }
+        return row * seatsPerRow + seat - 1;
+    }
+
+    public String seatNumberAt(int ordinal) {
+        return rowLabel(ordinal / seatsPerRow) + (ordinal % seatsPerRow + 1);
+    }
+
+    public String rowLabel(int row) {
+        return String.valueOf((char) ('A' + row));
+    }
+}
@@ -0,0 +1,55 @@
+package com.moviebooking.theatre.model;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Schedules one movie on a screen at the same show times on consecutive days, e.g. a week of shows.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShowScheduleRequest {
+    @NotNull(message = "Movie ID is required")
+    private Long movieId;
+    
+    @NotBlank(message = "Movie title is required")
+    private String movieTitle;
+    
+    @NotNull(message = "Price is required")
+    @DecimalMin(value = "0.0", inclusive = false, message = "Price must be greater than 0")
+    private BigDecimal price;
+    
+    @NotNull(message = "Screen ID is required")
+    private Long screenId;
+    
+    @NotNull(message = "Theatre ID is required")
+    private Long theatreId;
+    
+    @NotNull(message = "Start date is required")
+    private LocalDate startDate;
+    
+    @NotNull(message = "Number of days is required")
+    @Min(value = 1, message = "Number of days must be at least 1")
+    @Max(value = 31, message = "Number of days must be at most 31")
+    private Integer days;
+    
+    @NotEmpty(message = "At least one show time is required")
+    private List<LocalTime> showTimes;
+    
+    @NotNull(message = "Duration is required")
+    @Min(value = 1, message = "Duration must be at least 1 minute")
+    private Integer durationMinutes;
+}
@@ -0,0 +1,172 @@
+package com.moviebooking.theatre.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory seat state of one show, kept as one bitset per non-available status over the
+ * {@link SeatLayout} ordinals. A seat with no bit set is AVAILABLE. Updates are lock-free and
+ * idempotent, so applying the same status change twice is harmless.
+ * <p>
+ * Seats that exist in {@code seat_availability} but fall outside the layout are tracked in a small
+ * side map so the answer always matches the database.
+ */
+public final class ShowSeatMap {
+    private static final char AVAILABLE_CODE = 'A';
+    private static final char BOOKED_CODE = 'B';
+    private static final char LOCKED_CODE = 'L';
+    private static final char BLOCKED_CODE = 'X';
+
+    private final Long showId;
+    private final Long theatreId;
+    private final Long movieId;
+    private final BigDecimal price;
+    private final LocalDateTime showDateTime;
+    private final LocalDateTime endDateTime;
+    private final SeatLayout layout;
+
+    private final AtomicLongArray booked;
+    private final AtomicLongArray locked;
+    private final AtomicLongArray blocked;
+    private final Map<String, SeatAvailability.SeatStatus> offLayoutSeats = new ConcurrentHashMap<>();
+
+    public ShowSeatMap(Long showId, Long theatreId, Long movieId, BigDecimal price,
+                       LocalDateTime showDateTime, LocalDateTime endDateTime, SeatLayout layout) {
+        this.showId = showId;
+        this.theatreId = theatreId;
+        this.movieId = movieId;
+        this.price = price;
+        this.showDateTime = showDateTime;
+        this.endDateTime = endDateTime;
+        this.layout = layout;
+
+        int words = (layout.capacity() + 63) >>> 6;
+        this.booked = new AtomicLongArray(words);
+        this.locked = new AtomicLongArray(words);
+        this.blocked = new AtomicLongArray(words);
+    }
+
+    public Long getShowId() {
+        return showId;
+    }
+
+    public Long getTheatreId() {
+        return theatreId;
+    }
+
+    public Long getMovieId() {
+        return movieId;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public LocalDateTime getShowDateTime() {
+        return showDateTime;
+    }
+
+    public LocalDateTime getEndDateTime() {
+        return endDateTime;
+    }
+
+    public SeatLayout getLayout() {
+        return layout;
+    }
+
+    public boolean isAvailable(String seatNumber) {
+        return statusOf(seatNumber) == SeatAvailability.SeatStatus.AVAILABLE;
+    }
+
+    public SeatAvailability.SeatStatus statusOf(String seatNumber) {
+        int ordinal = layout.ordinalOf(seatNumber);
+        if (ordinal < 0) {
+            return offLayoutSeats.getOrDefault(seatNumber, SeatAvailability.SeatStatus.AVAILABLE);
+        }
+        return statusAt(ordinal);
+    }
+
+    public void setStatus(String seatNumber, SeatAvailability.SeatStatus status) {
+        int ordinal = layout.ordinalOf(seatNumber);
+        if (ordinal < 0) {
+            if (status == SeatAvailability.SeatStatus.AVAILABLE) {
+                offLayoutSeats.remove(seatNumber);
+            } else {
+                offLayoutSeats.put(seatNumber, status);
+            }
+            return;
+        }
+
+        set(booked, ordinal, status == SeatAvailability.SeatStatus.BOOKED);
+        set(locked, ordinal, status == SeatAvailability.SeatStatus.LOCKED);
+        set(blocked, ordinal, status == SeatAvailability.SeatStatus.BLOCKED);
+    }
+
+    /**
+     * @return number of seats in the layout that are currently AVAILABLE
+     */
+    public int availableCount() {
+        int taken = 0;
+        for (int i = 0; i < booked.length(); i++) {
+            taken += Long.bitCount(booked.get(i) | locked.get(i) | blocked.get(i));
+        }
+        return layout.capacity() - taken;
+    }
+
+    /**
+     * Renders each row as one status character per seat: A(vailable), B(ooked), L(ocked), X (blocked).
+     */
+    public Map<String, String> rowStatuses() {
+        Map<String, String> rows = new LinkedHashMap<>();
+        int seatsPerRow = layout.getSeatsPerRow();
+        char[] buffer = new char[seatsPerRow];
+        for (int row = 0; row < SeatLayout.ROWS; row++) {
+            for (int seat = 0; seat < seatsPerRow; seat++) {
+                buffer[seat] = codeOf(statusAt(row * seatsPerRow + seat));
+            }
+            rows.put(layout.rowLabel(row), new String(buffer));
+        }
+        return rows;
+    }
+
+    private SeatAvailability.SeatStatus statusAt(int ordinal) {
+        if (get(booked, ordinal)) {
+            return SeatAvailability.SeatStatus.BOOKED;
+        }
+        if (get(locked, ordinal)) {
+            return SeatAvailability.SeatStatus.LOCKED;
+        }
+        if (get(blocked, ordinal)) {
+            return SeatAvailability.SeatStatus.BLOCKED;
+        }
+        return SeatAvailability.SeatStatus.AVAILABLE;
+    }
+
+    private static char codeOf(SeatAvailability.SeatStatus status) {
+        return switch (status) {
+            case BOOKED -> BOOKED_CODE;
+            case LOCKED -> LOCKED_CODE;
+            case BLOCKED -> BLOCKED_CODE;
+            default -> AVAILABLE_CODE;
+        };
+    }
+
+    private static boolean get(AtomicLongArray bits, int ordinal) {
+        return (bits.get(ordinal >>> 6) & (1L << ordinal)) != 0;
+    }
+
+    private static void set(AtomicLongArray bits, int ordinal, boolean value) {
+        int word = ordinal >>> 6;
+        long mask = 1L << ordinal;
+        long current;
+        long updated;
+        do {
+            current = bits.get(word);
+            updated = value ? current | mask : current & ~mask;
+        } while (current != updated && !bits.compareAndSet(word, current, updated));
+    }
+}
@@ -1,6 +1,7 @@
 package com.moviebooking.theatre.repository;
 
 import com.moviebooking.theatre.model.City;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -21,4 +22,6 @@ public interface CityRepository extends JpaRepository<City, Long> {
     List<City> findByNameContainingIgnoreCase(@Param("name") String name);
     
     boolean existsByNameIgnoreCase(String name);
+    
+    List<City> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
 }
\ No newline at end of file
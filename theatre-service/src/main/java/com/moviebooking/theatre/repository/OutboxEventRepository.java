@@ -2,6 +2,7 @@ package com.moviebooking.theatre.repository;
 
 import com.moviebooking.theatre.model.OutboxEvent;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -11,11 +12,51 @@ import java.util.List;
 
 @Repository
 public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
-    List<OutboxEvent> findByStatusOrderByCreatedAtAsc(OutboxEvent.EventStatus status);
-    
-    @Query("SELECT e FROM OutboxEvent e WHERE e.status = 'FAILED' AND e.retryCount < :maxRetries AND e.createdAt > :cutoffTime ORDER BY e.createdAt ASC")
-    List<OutboxEvent> findFailedEventsForRetry(@Param("maxRetries") Integer maxRetries, 
-                                              @Param("cutoffTime") LocalDateTime cutoffTime);
-    
-    void deleteByStatusAndProcessedAtBefore(OutboxEvent.EventStatus status, LocalDateTime cutoffTime);
-}
\ No newline at end of file
+
+    /**
+     * Claims the oldest pending events. Rows locked by another relay are skipped, so several
+     * theatre-service replicas can publish concurrently without sending an event twice.
+     */
+    @Query(value = "SELECT * FROM outbox_events WHERE status = 'PENDING' ORDER BY id LIMIT :batchSize FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<OutboxEvent> claimPendingEvents(@Param("batchSize") int batchSize);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = 'PROCESSED', e.processedAt = :processedAt WHERE e.id IN :ids")
+    int markProcessed(@Param("ids") List<Long> ids, @Param("processedAt") LocalDateTime processedAt);
+
+    @Modifying
+    @Query(value = "UPDATE outbox_events SET retry_count = COALESCE(retry_count, 0) + 1, " +
+                   "status = CASE WHEN COALESCE(retry_count, 0) + 1 >= :maxRetries THEN 'FAILED' ELSE 'PENDING' END " +
+                   "WHERE id IN (:ids)",
+           nativeQuery = true)
+    int recordFailedAttempt(@Param("ids") List<Long> ids, @Param("maxRetries") int maxRetries);
+
+    /**
+     * Takes the partition maintenance lock for the current transaction, so only one replica
+     * creates, attaches or drops outbox partitions at a time.
+     *
+     * @return false if another replica holds the lock
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(hashtext('outbox_events_partition_maintenance'))", nativeQuery = true)
+    boolean tryLockPartitionMaintenance();
+
+    /**
+     * Creates the daily {@code outbox_events} partitions from today up to {@code daysAhead} days ahead, moving
+     * rows the default partition holds for those days into them.
+     *
+     * @return number of partitions created
+     */
+    @Query(value = "SELECT create_outbox_partitions(:daysAhead)", nativeQuery = true)
+    int createPartitions(@Param("daysAhead") int daysAhead);
+
+    /**
+     * Drops daily partitions older than {@code retentionDays}, keeping any that still hold pending events.
+     * Expired FAILED events are parked in {@code outbox_events_failed} and expired delivered ones are
+     * deleted from the default partition.
+     *
+     * @return number of partitions dropped
+     */
+    @Query(value = "SELECT drop_outbox_partitions(:retentionDays)", nativeQuery = true)
+    int dropExpiredPartitions(@Param("retentionDays") int retentionDays);
+}
@@ -8,10 +8,11 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface SeatAvailabilityRepository extends JpaRepository<SeatAvailability, Long> {
+public interface SeatAvailabilityRepository extends JpaRepository<SeatAvailability, Long>, SeatAvailabilityRepositoryCustom {
     List<SeatAvailability> findByShowId(Long showId);
     
     List<SeatAvailability> findByShowIdAndStatus(Long showId, SeatAvailability.SeatStatus status);
@@ -22,11 +23,50 @@ public interface SeatAvailabilityRepository extends JpaRepository<SeatAvailabili
     @Query("SELECT COUNT(s) FROM SeatAvailability s WHERE s.show.id = :showId AND s.status = :status")
     Long countByShowIdAndStatus(@Param("showId") Long showId, @Param("status") SeatAvailability.SeatStatus status);
     
+    @Query(value = "SELECT id, show_id, seat_number FROM seat_availability " +
+                   "WHERE status = 'LOCKED' AND locked_until < :currentTime " +
+                   "ORDER BY locked_until LIMIT :batchSize FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Object[]> findExpiredLocksForUpdate(@Param("currentTime") LocalDateTime currentTime, @Param("batchSize") int batchSize);
+    
     @Modifying
     @Query("UPDATE SeatAvailability s SET s.status = 'AVAILABLE', s.bookingId = null, s.lockedUntil = null " +
-           "WHERE s.status = 'LOCKED' AND s.lockedUntil < :currentTime")
-    int releaseExpiredLocks(@Param("currentTime") LocalDateTime currentTime);
+           "WHERE s.id IN :ids AND s.status = 'LOCKED' AND s.lockedUntil < :currentTime")
+    int releaseExpiredLocks(@Param("ids") List<Long> ids, @Param("currentTime") LocalDateTime currentTime);
     
     @Query("SELECT s FROM SeatAvailability s WHERE s.show.id = :showId AND s.seatNumber IN :seatNumbers")
     List<SeatAvailability> findByShowIdAndSeatNumberIn(@Param("showId") Long showId, @Param("seatNumbers") List<String> seatNumbers);
+    
+    // Held seats are still counted: search only takes seats off a show when the booking is confirmed
+    @Query("SELECT s.showId, COUNT(s) FROM SeatAvailability s WHERE s.showId IN :showIds " +
+           "AND s.status IN ('AVAILABLE', 'LOCKED') GROUP BY s.showId")
+    List<Object[]> countUnbookedSeatsByShowIds(@Param("showIds") Collection<Long> showIds);
+    
+    @Query("SELECT s.seatNumber, s.status FROM SeatAvailability s WHERE s.showId = :showId AND s.status <> 'AVAILABLE'")
+    List<Object[]> findUnavailableSeatStates(@Param("showId") Long showId);
+    
+    // Also extends seats already held for the same booking, so a retried hold keeps them as long as it reports
+    @Modifying
+    @Query("UPDATE SeatAvailability s SET s.status = 'LOCKED', s.bookingId = :bookingId, s.lockedUntil = :lockedUntil " +
+           "WHERE s.showId = :showId AND s.seatNumber IN :seatNumbers " +
+           "AND (s.status = 'AVAILABLE' OR (s.status = 'LOCKED' AND s.bookingId = :bookingId))")
+    int holdSeats(@Param("showId") Long showId, @Param("seatNumbers") List<String> seatNumbers,
+                           @Param("bookingId") String bookingId, @Param("lockedUntil") LocalDateTime lockedUntil);
+    
+    @Modifying
+    @Query("UPDATE SeatAvailability s SET s.status = 'BOOKED', s.lockedUntil = null " +
+           "WHERE s.showId = :showId AND s.seatNumber IN :seatNumbers AND s.bookingId = :bookingId " +
+           "AND s.status = 'LOCKED' AND s.lockedUntil >= :currentTime")
+    int confirmHeldSeats(@Param("showId") Long showId, @Param("seatNumbers") List<String> seatNumbers,
+                         @Param("bookingId") String bookingId, @Param("currentTime") LocalDateTime currentTime);
+    
+    @Modifying
+    @Query("UPDATE SeatAvailability s SET s.status = 'AVAILABLE', s.bookingId = null, s.lockedUntil = null " +
+           "WHERE s.showId = :showId AND s.seatNumber IN :seatNumbers AND s.bookingId = :bookingId AND s.status = 'LOCKED'")
+    int releaseHeldSeats(@Param("showId") Long showId, @Param("seatNumbers") List<String> seatNumbers,
+                         @Param("bookingId") String bookingId);
+    
+    @Modifying
+    @Query("UPDATE SeatAvailability s SET s.status = 'AVAILABLE', s.bookingId = null, s.lockedUntil = null " +
+           "WHERE s.showId = :showId AND s.seatNumber IN :seatNumbers AND s.status IN ('BOOKED', 'LOCKED')")
+    int releaseSeats(@Param("showId") Long showId, @Param("seatNumbers") List<String> seatNumbers);
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.moviebooking.theatre.repository;
+
+import com.moviebooking.theatre.model.SeatAvailability;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface SeatAvailabilityRepositoryCustom {
+
+    /**
+     * Creates the seat inventory of the given shows: every seat of {@code seats} is inserted as
+     * AVAILABLE for every show, using batched JDBC inserts instead of one entity save per seat.
+     *
+     * @param seats seat template; only seat number, row number and seat type are used
+     * @return number of seats inserted
+     */
+    int insertAvailableSeats(Collection<Long> showIds, List<SeatAvailability> seats);
+}
@@ -0,0 +1,41 @@
+package com.moviebooking.theatre.repository;
+
+import com.moviebooking.theatre.model.SeatAvailability;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Seat ids are IDENTITY-generated, which rules out Hibernate's insert batching. Plain JDBC batches
+ * do not need the ids back and, with {@code reWriteBatchedInserts=true} on the connection URL, the
+ * driver sends each batch as multi-row INSERTs.
+ */
+@RequiredArgsConstructor
+public class SeatAvailabilityRepositoryCustomImpl implements SeatAvailabilityRepositoryCustom {
+    private static final String INSERT_SEAT_SQL =
+            "INSERT INTO seat_availability (show_id, seat_number, row_number, seat_type, status) VALUES (?, ?, ?, ?, 'AVAILABLE')";
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int insertAvailableSeats(Collection<Long> showIds, List<SeatAvailability> seats) {
+        List<Object[]> rows = new ArrayList<>(showIds.size() * seats.size());
+        for (Long showId : showIds) {
+            for (SeatAvailability seat : seats) {
+                rows.add(new Object[]{showId, seat.getSeatNumber(), seat.getRowNumber(), seat.getSeatType().name()});
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SEAT_SQL, rows, BATCH_SIZE, (statement, row) -> {
+            statement.setLong(1, (Long) row[0]);
+            statement.setString(2, (String) row[1]);
+            statement.setString(3, (String) row[2]);
+            statement.setString(4, (String) row[3]);
+        });
+        return rows.size();
+    }
+}
@@ -1,6 +1,7 @@
 package com.moviebooking.theatre.repository;
 
 import com.moviebooking.theatre.model.Show;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -8,9 +9,13 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ShowRepository extends JpaRepository<Show, Long> {
+    @Query("SELECT s FROM Show s JOIN FETCH s.screen WHERE s.id = :id")
+    Optional<Show> findByIdWithScreen(@Param("id") Long id);
+    
     List<Show> findByTheatreId(Long theatreId);
     
     List<Show> findByScreenId(Long screenId);
@@ -32,4 +37,7 @@ public interface ShowRepository extends JpaRepository<Show, Long> {
     List<Show> findConflictingShows(@Param("screenId") Long screenId,
                                    @Param("startTime") LocalDateTime startTime,
                                    @Param("endTime") LocalDateTime endTime);
+    
+    @Query("SELECT s FROM Show s JOIN FETCH s.screen JOIN FETCH s.theatre t JOIN FETCH t.city WHERE s.id > :afterId ORDER BY s.id")
+    List<Show> findPageAfterId(@Param("afterId") Long afterId, Pageable pageable);
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.moviebooking.theatre.repository;
 
 import com.moviebooking.theatre.model.Theatre;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -24,4 +25,7 @@ public interface TheatreRepository extends JpaRepository<Theatre, Long> {
     List<Theatre> findTheatresWithinRadius(@Param("latitude") Double latitude, 
                                          @Param("longitude") Double longitude, 
                                          @Param("radiusSquared") Double radiusSquared);
+    
+    @Query("SELECT t FROM Theatre t JOIN FETCH t.city WHERE t.id > :afterId ORDER BY t.id")
+    List<Theatre> findPageAfterId(@Param("afterId") Long afterId, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.moviebooking.theatre.scheduler;
+
+import com.moviebooking.theatre.service.SeatAvailabilityService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SeatHoldExpiryScheduler {
+
+    private final SeatAvailabilityService seatAvailabilityService;
+
+    @Value("${app.seat-hold.sweep-batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${app.seat-hold.sweep-interval-ms:15000}")
+    public void releaseExpiredHolds() {
+        int total = 0;
+        try {
+            // Each batch runs in its own short transaction so row locks are never held for the whole sweep
+            int released;
+            do {
+                released = seatAvailabilityService.releaseExpiredHolds(batchSize);
+                total += released;
+            } while (released >= batchSize);
+        } catch (Exception e) {
+            log.error("Error releasing expired seat holds", e);
+        }
+
+        if (total > 0) {
+            log.info("Released {} seats from expired holds", total);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.moviebooking.theatre.service;
+
+import com.moviebooking.theatre.model.Show;
+import com.moviebooking.theatre.repository.CityRepository;
+import com.moviebooking.theatre.repository.SeatAvailabilityRepository;
+import com.moviebooking.theatre.repository.ShowRepository;
+import com.moviebooking.theatre.repository.TheatreRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Pages through cities, theatres and shows for rebuilding the search index. Pages are keyset-paged
+ * by id, so each page is an index range scan however far into the table it is, and rows are
+ * returned in the same shape as their outbox event payloads.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class IndexExportService {
+    static final int MAX_PAGE_SIZE = 5000;
+
+    private final CityRepository cityRepository;
+    private final TheatreRepository theatreRepository;
+    private final ShowRepository showRepository;
+    private final SeatAvailabilityRepository seatAvailabilityRepository;
+
+    public List<Map<String, Object>> exportCities(Long afterId, int limit) {
+        return cityRepository.findByIdGreaterThanOrderByIdAsc(afterId, page(limit)).stream()
+                .map(OutboxEventService::createCityEventData)
+                .collect(Collectors.toList());
+    }
+
+    public List<Map<String, Object>> exportTheatres(Long afterId, int limit) {
+        return theatreRepository.findPageAfterId(afterId, page(limit)).stream()
+                .map(OutboxEventService::createTheatreEventData)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Exports shows with {@code availableSeats} counted from their seats rather than taken from
+     * {@code Show.availableSeats}, which is not updated by bookings.
+     */
+    public List<Map<String, Object>> exportShows(Long afterId, int limit) {
+        List<Show> shows = showRepository.findPageAfterId(afterId, page(limit));
+        if (shows.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Long> unbookedSeats = new HashMap<>();
+        List<Long> showIds = shows.stream().map(Show::getId).collect(Collectors.toList());
+        for (Object[] row : seatAvailabilityRepository.countUnbookedSeatsByShowIds(showIds)) {
+            unbookedSeats.put((Long) row[0], (Long) row[1]);
+        }
+
+        return shows.stream()
+                .map(show -> {
+                    Map<String, Object> data = OutboxEventService.createShowEventData(show);
+                    Long seats = unbookedSeats.get(show.getId());
+                    if (seats != null) {
+                        data.put("availableSeats", seats.intValue());
+                    }
+                    return data;
+                })
+                .collect(Collectors.toList());
+    }
+
+    private static Pageable page(int limit) {
+        return PageRequest.of(0, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+    }
+}
@@ -1,98 +1,250 @@
 package com.moviebooking.theatre.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
 import com.moviebooking.theatre.model.OutboxEvent;
 import com.moviebooking.theatre.repository.OutboxEventRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.errors.InvalidProducerEpochException;
+import org.apache.kafka.common.errors.ProducerFencedException;
+import org.apache.kafka.common.errors.RetriableException;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.SendResult;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Relays the outbox to Kafka. Each batch is claimed with {@code FOR UPDATE SKIP LOCKED}, sent in one
+ * Kafka transaction and marked processed with one bulk update before the row locks are released, so
+ * replicas can publish in parallel without sending an event twice. Delivery is at-least-once: if the
+ * database commit fails after the Kafka commit, the batch is sent again.
+ * <p>
+ * If the batch transaction fails for a reason tied to its records rather than the broker, the events
+ * are sent one by one so only the events that fail use up their retries; later events of the same
+ * aggregate wait for the next run to keep their order. After a broker-wide failure the relay backs
+ * off exponentially without counting a retry against any event. Runs are normally triggered by
+ * {@link OutboxNotificationListener}.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class OutboxEventPublisher {
+    private static final long MAX_BACKOFF_MS = 30_000;
+
     private final OutboxEventRepository outboxEventRepository;
     private final KafkaTemplate<String, String> kafkaTemplate;
     private final OutboxEventService outboxEventService;
     private final ObjectMapper objectMapper;
-    
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    private final Timer batchTimer;
+    private final Timer lagTimer;
+    private final AtomicLong oldestPendingAgeMs = new AtomicLong();
+
+    private int consecutiveFailures;
+    private long nextAttemptAtMs;
+
     @Value("${app.kafka.topics.theatre-events:theatre-events}")
     private String theatreEventsTopic;
-    
-    @Scheduled(fixedDelay = 5000) // Run every 5 seconds
-    public void publishPendingEvents() {
-        List<OutboxEvent> pendingEvents = outboxEventService.getPendingEvents();
-        
-        if (!pendingEvents.isEmpty()) {
-            log.debug("Found {} pending outbox events to publish", pendingEvents.size());
+
+    @Value("${app.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.outbox.max-retries:3}")
+    private int maxRetries;
+
+    @Value("${app.outbox.retry-backoff-ms:500}")
+    private long retryBackoffMs;
+
+    public OutboxEventPublisher(OutboxEventRepository outboxEventRepository,
+                                KafkaTemplate<String, String> kafkaTemplate,
+                                OutboxEventService outboxEventService,
+                                ObjectMapper objectMapper,
+                                TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.outboxEventService = outboxEventService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+
+        this.publishedCounter = Counter.builder("outbox.events.published")
+                .description("Outbox events published to Kafka")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("outbox.events.failed")
+                .description("Outbox events whose publish attempt failed")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("outbox.batch.duration")
+                .description("Time to claim, publish and mark one outbox batch")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("outbox.event.lag")
+                .description("Time between an outbox event being written and published")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        meterRegistry.gauge("outbox.oldest.pending.age", oldestPendingAgeMs);
+    }
+
+    /**
+     * Drains the outbox. Triggered by {@link OutboxNotificationListener} on commit, and on a fixed
+     * delay as a safety net; runs are serialized within this instance.
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:5000}")
+    public synchronized void publishPendingEvents() {
+        if (System.currentTimeMillis() < nextAttemptAtMs) {
+            return;
         }
-        
-        for (OutboxEvent event : pendingEvents) {
-            try {
-                log.debug("Publishing outbox event: id={}, aggregateType={}, aggregateId={}, eventType={}", 
-                    event.getId(), event.getAggregateType(), event.getAggregateId(), event.getEventType());
-                publishEventToKafka(event);
-            } catch (Exception e) {
-                log.error("Failed to publish outbox event: id={}, aggregateType={}, aggregateId={}, eventType={}, error={}, stackTrace={}", 
-                    event.getId(), event.getAggregateType(), event.getAggregateId(), event.getEventType(), 
-                    e.getMessage(), e.getClass().getSimpleName(), e);
-                outboxEventService.markEventAsFailed(event.getId());
+
+        int published;
+        do {
+            published = publishBatch();
+        } while (published >= batchSize);
+    }
+
+    /**
+     * @return number of events published, 0 if there was nothing to publish or the broker failed
+     */
+    int publishBatch() {
+        Timer.Sample sample = Timer.start();
+        try {
+            Delivery delivery = transactionTemplate.execute(status -> {
+                List<OutboxEvent> events = outboxEventRepository.claimPendingEvents(batchSize);
+                if (events.isEmpty()) {
+                    oldestPendingAgeMs.set(0);
+                    return Delivery.NONE;
+                }
+                oldestPendingAgeMs.set(ageOf(events.get(0)).toMillis());
+
+                Delivery result = deliver(events);
+                if (!result.sent().isEmpty()) {
+                    outboxEventRepository.markProcessed(result.sent().stream().map(OutboxEvent::getId).toList(), LocalDateTime.now());
+                    result.sent().forEach(event -> lagTimer.record(ageOf(event)));
+                }
+                if (!result.failed().isEmpty()) {
+                    outboxEventRepository.recordFailedAttempt(result.failed(), maxRetries);
+                }
+                return result;
+            });
+            if (delivery == null) {
+                delivery = Delivery.NONE;
+            }
+
+            int count = delivery.sent().size();
+            if (count > 0) {
+                sample.stop(batchTimer);
+                publishedCounter.increment(count);
+                log.debug("Published {} outbox events to {}", count, theatreEventsTopic);
+            }
+            if (!delivery.failed().isEmpty()) {
+                failedCounter.increment(delivery.failed().size());
             }
+            if (delivery.brokerFailed()) {
+                backOff();
+            } else {
+                consecutiveFailures = 0;
+            }
+            return count;
+
+        } catch (Exception e) {
+            log.error("Failed to publish outbox batch to {}", theatreEventsTopic, e);
+            backOff();
+            return 0;
         }
     }
-    
-    private void publishEventToKafka(OutboxEvent event) throws JsonProcessingException {
-        String key = event.getAggregateType() + "-" + event.getAggregateId();
-
-        log.debug("Sending Kafka message: topic={}, key={}, eventId={}", theatreEventsTopic, key, event.getId());
 
+    /**
+     * Sends the claimed events, in one Kafka transaction if possible and otherwise one by one.
+     */
+    private Delivery deliver(List<OutboxEvent> events) {
         try {
-            // Create complete event payload with metadata
-            String eventPayload = createEventPayload(event);
+            // Serialize up front so a bad row fails the batch before anything is sent
+            List<String> payloads = new ArrayList<>(events.size());
+            for (OutboxEvent event : events) {
+                payloads.add(createEventPayload(event));
+            }
 
-            // Use Kafka transactions for exactly-once semantics
+            // Sends are pipelined; the Kafka commit fails if any of them failed
             kafkaTemplate.executeInTransaction(operations -> {
-                CompletableFuture<SendResult<String, String>> future =
-                    operations.send(theatreEventsTopic, key, eventPayload);
-
-                future.whenComplete((result, ex) -> {
-                    if (ex == null) {
-                        log.info("Successfully published outbox event {} to Kafka: topic={}, partition={}, offset={}, key={}",
-                            event.getId(), theatreEventsTopic, result.getRecordMetadata().partition(),
-                            result.getRecordMetadata().offset(), key);
-                        outboxEventService.markEventAsProcessed(event.getId());
-                    } else {
-                        log.error("Failed to publish outbox event {} to Kafka: topic={}, key={}, error={}, errorType={}, retryCount={}",
-                            event.getId(), theatreEventsTopic, key, ex.getMessage(),
-                            ex.getClass().getSimpleName(), event.getRetryCount(), ex);
-                        outboxEventService.markEventAsFailed(event.getId());
-                    }
-                });
+                for (int i = 0; i < events.size(); i++) {
+                    operations.send(theatreEventsTopic, keyOf(events.get(i)), payloads.get(i));
+                }
                 return true;
             });
+            return new Delivery(events, List.of(), false);
+        } catch (RuntimeException e) {
+            if (isBrokerFailure(e)) {
+                log.error("Failed to publish batch of {} outbox events to {}", events.size(), theatreEventsTopic, e);
+                return new Delivery(List.of(), List.of(), true);
+            }
+            log.warn("Batch of {} outbox events failed, sending them one by one: {}", events.size(), e.getMessage());
+        }
 
-        } catch (Exception e) {
-            log.error("Exception while sending Kafka message for outbox event {}: topic={}, key={}, error={}, errorType={}",
-                event.getId(), theatreEventsTopic, key, e.getMessage(), e.getClass().getSimpleName(), e);
-            outboxEventService.markEventAsFailed(event.getId());
-            throw e;
+        List<OutboxEvent> sent = new ArrayList<>();
+        List<Long> failed = new ArrayList<>();
+        Set<String> blockedKeys = new HashSet<>();
+        for (OutboxEvent event : events) {
+            String key = keyOf(event);
+            if (blockedKeys.contains(key)) {
+                continue;
+            }
+            try {
+                String payload = createEventPayload(event);
+                kafkaTemplate.executeInTransaction(operations -> {
+                    operations.send(theatreEventsTopic, key, payload);
+                    return true;
+                });
+                sent.add(event);
+            } catch (RuntimeException e) {
+                if (isBrokerFailure(e)) {
+                    log.error("Failed to publish outbox events to {}, {} of {} sent", theatreEventsTopic, sent.size(), events.size(), e);
+                    return new Delivery(sent, failed, true);
+                }
+                log.error("Failed to publish outbox event {} ({}) to {}", event.getId(), key, theatreEventsTopic, e);
+                failed.add(event.getId());
+                blockedKeys.add(key);
+            }
         }
+        return new Delivery(sent, failed, false);
+    }
+
+    // Errors that would fail any event, so no event is to blame for them
+    private static boolean isBrokerFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RetriableException || cause instanceof ProducerFencedException
+                    || cause instanceof InvalidProducerEpochException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String keyOf(OutboxEvent event) {
+        return event.getAggregateType() + "-" + event.getAggregateId();
+    }
+
+    private void backOff() {
+        consecutiveFailures++;
+        long delay = Math.min(MAX_BACKOFF_MS, retryBackoffMs << Math.min(consecutiveFailures - 1, 16));
+        nextAttemptAtMs = System.currentTimeMillis() + delay;
+        log.warn("Outbox relay backing off for {} ms after {} consecutive failures", delay, consecutiveFailures);
     }
 
-    private String createEventPayload(OutboxEvent event) throws JsonProcessingException {
+    private String createEventPayload(OutboxEvent event) {
         Map<String, Object> payload = new HashMap<>();
         payload.put("eventType", event.getEventType());
         payload.put("aggregateType", event.getAggregateType());
@@ -100,38 +252,30 @@ public class OutboxEventPublisher {
         payload.put("eventId", event.getId());
         payload.put("timestamp", event.getCreatedAt());
 
-        // Parse and include the actual event data
-        Map<String, Object> eventData = objectMapper.readValue(event.getEventData(), new TypeReference<Map<String, Object>>() {});
-        payload.put("data", eventData);
+        // event_data is already JSON; embed it verbatim instead of parsing it back into a Map
+        payload.put("data", new RawValue(event.getEventData()));
 
-        return objectMapper.writeValueAsString(payload);
-    }
-    
-    @Scheduled(fixedDelay = 300000) // Run every 5 minutes
-    public void retryFailedEvents() {
-        LocalDateTime cutoffTime = LocalDateTime.now().minusHours(1);
-        List<OutboxEvent> failedEvents = outboxEventRepository.findFailedEventsForRetry(3, cutoffTime);
-        
-        if (!failedEvents.isEmpty()) {
-            log.info("Found {} failed outbox events to retry (retry count < 3, older than 1 hour)", failedEvents.size());
-        }
-        
-        for (OutboxEvent event : failedEvents) {
-            try {
-                log.info("Retrying failed outbox event: id={}, aggregateType={}, aggregateId={}, eventType={}, retryCount={}", 
-                    event.getId(), event.getAggregateType(), event.getAggregateId(), event.getEventType(), event.getRetryCount());
-                publishEventToKafka(event);
-            } catch (Exception e) {
-                log.error("Failed to retry outbox event: id={}, aggregateType={}, aggregateId={}, eventType={}, retryCount={}, error={}, errorType={}", 
-                    event.getId(), event.getAggregateType(), event.getAggregateId(), event.getEventType(), 
-                    event.getRetryCount(), e.getMessage(), e.getClass().getSimpleName(), e);
-                outboxEventService.markEventAsFailed(event.getId());
-            }
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize outbox event " + event.getId(), e);
         }
     }
-    
-    @Scheduled(cron = "0 0 2 * * ?") // Run daily at 2 AM
-    public void cleanupOldEvents() {
-        outboxEventService.cleanupProcessedEvents();
+
+    private static Duration ageOf(OutboxEvent event) {
+        return event.getCreatedAt() == null ? Duration.ZERO : Duration.between(event.getCreatedAt(), LocalDateTime.now());
+    }
+
+    @Scheduled(cron = "0 5 * * * ?") // Run hourly
+    public void maintainPartitions() {
+        outboxEventService.maintainPartitions();
+    }
+
+    /**
+     * Outcome of one batch: the events sent, the ids of the events that failed on their own, and
+     * whether sending stopped on a broker failure.
+     */
+    private record Delivery(List<OutboxEvent> sent, List<Long> failed, boolean brokerFailed) {
+        static final Delivery NONE = new Delivery(List.of(), List.of(), false);
     }
-}
\ No newline at end of file
+}
@@ -6,13 +6,12 @@ import com.moviebooking.theatre.model.*;
 import com.moviebooking.theatre.repository.OutboxEventRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @Service
@@ -22,6 +21,12 @@ public class OutboxEventService {
     private final OutboxEventRepository outboxEventRepository;
     private final ObjectMapper objectMapper;
     
+    @Value("${app.outbox.retention-days:7}")
+    private int retentionDays;
+    
+    @Value("${app.outbox.partitions-ahead:7}")
+    private int partitionsAhead;
+    
     @Transactional
     public void publishCityEvent(String eventType, City city) {
         publishEvent(city.getId().toString(), "City", eventType, createCityEventData(city));
@@ -64,49 +69,27 @@ public class OutboxEventService {
         }
     }
     
-    public List<OutboxEvent> getPendingEvents() {
-        return outboxEventRepository.findByStatusOrderByCreatedAtAsc(OutboxEvent.EventStatus.PENDING);
-    }
-    
-    @Transactional
-    public void markEventAsProcessed(Long eventId) {
-        OutboxEvent event = outboxEventRepository.findById(eventId).orElse(null);
-        if (event != null) {
-            event.setStatus(OutboxEvent.EventStatus.PROCESSED);
-            event.setProcessedAt(LocalDateTime.now());
-            outboxEventRepository.save(event);
-        }
-    }
-    
-    @Transactional
-    public void markEventAsFailed(Long eventId) {
-        OutboxEvent event = outboxEventRepository.findById(eventId).orElse(null);
-        if (event != null) {
-            int newRetryCount = event.getRetryCount() + 1;
-            event.setStatus(OutboxEvent.EventStatus.FAILED);
-            event.setRetryCount(newRetryCount);
-            outboxEventRepository.save(event);
-            
-            log.warn("Marked outbox event as FAILED: id={}, aggregateType={}, aggregateId={}, eventType={}, retryCount={}", 
-                eventId, event.getAggregateType(), event.getAggregateId(), event.getEventType(), newRetryCount);
-            
-            if (newRetryCount >= 3) {
-                log.error("Outbox event {} has reached maximum retry count (3), will not be retried automatically. Manual intervention required.", eventId);
-            }
-        } else {
-            log.error("Failed to mark outbox event as failed - event not found: id={}", eventId);
-        }
-    }
-    
+    /**
+     * Keeps the daily outbox partitions ahead of time and drops expired ones. Retention is a
+     * partition drop, so its cost does not depend on how many events were published. Every replica
+     * runs the job; the one that gets the advisory lock does the work and the others skip this run.
+     */
     @Async
     @Transactional
-    public void cleanupProcessedEvents() {
-        LocalDateTime cutoffTime = LocalDateTime.now().minusDays(7);
-        outboxEventRepository.deleteByStatusAndProcessedAtBefore(OutboxEvent.EventStatus.PROCESSED, cutoffTime);
-        log.info("Cleaned up processed outbox events older than {}", cutoffTime);
+    public void maintainPartitions() {
+        if (!outboxEventRepository.tryLockPartitionMaintenance()) {
+            log.debug("Outbox partition maintenance is running on another replica, skipping");
+            return;
+        }
+        int created = outboxEventRepository.createPartitions(partitionsAhead);
+        int dropped = outboxEventRepository.dropExpiredPartitions(retentionDays);
+        log.info("Outbox partition maintenance: created {}, dropped {} (retention {} days)", created, dropped, retentionDays);
     }
     
-    private Map<String, Object> createCityEventData(City city) {
+    // City, theatre and show payloads are also served by IndexExportService, so a search index
+    // rebuilt from an export holds the same data as one built from events
+
+    static Map<String, Object> createCityEventData(City city) {
         Map<String, Object> data = new HashMap<>();
         data.put("id", city.getId());
         data.put("name", city.getName());
@@ -118,7 +101,7 @@ public class OutboxEventService {
         return data;
     }
     
-    private Map<String, Object> createTheatreEventData(Theatre theatre) {
+    static Map<String, Object> createTheatreEventData(Theatre theatre) {
         Map<String, Object> data = new HashMap<>();
         data.put("id", theatre.getId());
         data.put("name", theatre.getName());
@@ -147,7 +130,7 @@ public class OutboxEventService {
         return data;
     }
     
-    private Map<String, Object> createShowEventData(Show show) {
+    static Map<String, Object> createShowEventData(Show show) {
         Map<String, Object> data = new HashMap<>();
         data.put("id", show.getId());
         data.put("movieId", show.getMovieId());
@@ -159,6 +142,7 @@ public class OutboxEventService {
         data.put("status", show.getStatus());
         data.put("screenId", show.getScreen().getId());
         data.put("screenName", show.getScreen().getName());
+        data.put("screenType", show.getScreen().getScreenType());
         data.put("theatreId", show.getTheatre().getId());
         data.put("theatreName", show.getTheatre().getName());
         data.put("cityId", show.getTheatre().getCity().getId());
@@ -0,0 +1,143 @@
+package com.moviebooking.theatre.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Wakes the {@link OutboxEventPublisher} as soon as outbox events are committed. The
+ * {@code outbox_events_notify} trigger issues {@code pg_notify('outbox_events')} on insert; this
+ * listener holds a dedicated connection outside the pool, blocks on it while idle and drains the
+ * outbox on every notification. The publisher's fixed-delay poll remains as a safety net for
+ * notifications missed while the connection was down.
+ */
+@Component
+@Slf4j
+public class OutboxNotificationListener implements SmartLifecycle {
+    static final String CHANNEL = "outbox_events";
+    private static final long MAX_RECONNECT_DELAY_MS = 30_000;
+
+    private final OutboxEventPublisher outboxEventPublisher;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final boolean enabled;
+    private final int waitTimeoutMs;
+
+    private volatile boolean running;
+    private volatile Connection connection;
+    private Thread listenerThread;
+
+    public OutboxNotificationListener(OutboxEventPublisher outboxEventPublisher,
+                                      @Value("${spring.datasource.url}") String url,
+                                      @Value("${spring.datasource.username}") String username,
+                                      @Value("${spring.datasource.password}") String password,
+                                      @Value("${app.outbox.notify.enabled:true}") boolean enabled,
+                                      @Value("${app.outbox.notify.wait-timeout-ms:10000}") int waitTimeoutMs) {
+        this.outboxEventPublisher = outboxEventPublisher;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.enabled = enabled;
+        this.waitTimeoutMs = waitTimeoutMs;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            log.info("Outbox notifications disabled, relying on polling only");
+            return;
+        }
+        running = true;
+        listenerThread = new Thread(this::listen, "outbox-notification-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        closeConnection();
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        long reconnectDelayMs = 1000;
+        while (running) {
+            try {
+                connection = DriverManager.getConnection(url, username, password);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                log.info("Listening for outbox notifications on channel {}", CHANNEL);
+                reconnectDelayMs = 1000;
+
+                // Catch up on anything committed while we were not listening
+                relay();
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(waitTimeoutMs);
+                    if (notifications != null && notifications.length > 0) {
+                        relay();
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    break;
+                }
+                log.warn("Outbox notification connection failed, reconnecting in {} ms: {}", reconnectDelayMs, e.getMessage());
+                closeConnection();
+                if (!sleep(reconnectDelayMs)) {
+                    break;
+                }
+                reconnectDelayMs = Math.min(reconnectDelayMs * 2, MAX_RECONNECT_DELAY_MS);
+            }
+        }
+        closeConnection();
+    }
+
+    private void relay() {
+        try {
+            outboxEventPublisher.publishPendingEvents();
+        } catch (RuntimeException e) {
+            log.error("Outbox relay failed after notification", e);
+        }
+    }
+
+    private void closeConnection() {
+        Connection current = connection;
+        connection = null;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (SQLException e) {
+                log.debug("Failed to close outbox notification connection", e);
+            }
+        }
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -2,18 +2,25 @@ package com.moviebooking.theatre.service;
 
 import com.moviebooking.theatre.dto.SeatAvailabilityRequest;
 import com.moviebooking.theatre.dto.SeatAvailabilityResponse;
+import com.moviebooking.theatre.dto.SeatHoldRequest;
+import com.moviebooking.theatre.dto.SeatHoldResponse;
+import com.moviebooking.theatre.dto.SeatMapResponse;
+import com.moviebooking.theatre.exception.BusinessLogicException;
 import com.moviebooking.theatre.model.SeatAvailability;
-import com.moviebooking.theatre.model.Show;
+import com.moviebooking.theatre.model.ShowSeatMap;
 import com.moviebooking.theatre.repository.SeatAvailabilityRepository;
-import com.moviebooking.theatre.repository.ShowRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,25 +29,23 @@ import java.util.stream.Collectors;
 public class SeatAvailabilityService {
 
     private final SeatAvailabilityRepository seatAvailabilityRepository;
-    private final ShowRepository showRepository;
+    private final ShowSeatMapCache showSeatMapCache;
+
+    @Value("${app.seat-hold.ttl-seconds:600}")
+    private long holdTtlSeconds;
 
     public SeatAvailabilityResponse checkSeatAvailability(SeatAvailabilityRequest request) {
         log.info("Checking seat availability for show: {} with seats: {}", 
                 request.getShowId(), request.getSeatNumbers());
 
-        Show show = showRepository.findById(request.getShowId())
-                .orElseThrow(() -> new RuntimeException("Show not found with id: " + request.getShowId()));
+        // Answered from the in-memory seat map; the database is only read on first access
+        ShowSeatMap seatMap = showSeatMapCache.getSeatMap(request.getShowId());
 
         List<String> availableSeats = new ArrayList<>();
         List<String> unavailableSeats = new ArrayList<>();
 
-        // Check each requested seat
         for (String seatNumber : request.getSeatNumbers()) {
-            SeatAvailability seatAvailability = seatAvailabilityRepository
-                    .findByShowIdAndSeatNumber(request.getShowId(), seatNumber)
-                    .orElse(null);
-
-            if (seatAvailability == null || seatAvailability.isAvailable()) {
+            if (seatMap.isAvailable(seatNumber)) {
                 availableSeats.add(seatNumber);
             } else {
                 unavailableSeats.add(seatNumber);
@@ -48,7 +53,7 @@ public class SeatAvailabilityService {
         }
 
         boolean allAvailable = unavailableSeats.isEmpty();
-        BigDecimal pricePerSeat = show.getPrice();
+        BigDecimal pricePerSeat = seatMap.getPrice();
         BigDecimal totalPrice = pricePerSeat.multiply(BigDecimal.valueOf(availableSeats.size()));
 
         return SeatAvailabilityResponse.builder()
@@ -57,48 +62,218 @@ public class SeatAvailabilityService {
                 .unavailableSeats(unavailableSeats)
                 .pricePerSeat(pricePerSeat)
                 .totalPrice(totalPrice)
-                .theatreId(show.getTheatre().getId())
-                .movieId(show.getMovieId())
-                .showDateTime(show.getShowDateTime())
+                .theatreId(seatMap.getTheatreId())
+                .movieId(seatMap.getMovieId())
+                .showDateTime(seatMap.getShowDateTime())
                 .message(allAvailable ? "All seats are available" : 
                         "Some seats are not available: " + String.join(", ", unavailableSeats))
                 .build();
     }
 
+    /**
+     * Returns booked or locked seats to AVAILABLE with one bulk update.
+     *
+     * @return number of seats released
+     */
     @Transactional
-    public void markSeatsAsBooked(Long showId, List<String> seatNumbers) {
-        log.info("Marking seats as booked for show: {} with seats: {}", showId, seatNumbers);
-
-        for (String seatNumber : seatNumbers) {
-            SeatAvailability seatAvailability = seatAvailabilityRepository
-                    .findByShowIdAndSeatNumber(showId, seatNumber)
-                    .orElse(SeatAvailability.builder()
-                            .showId(showId)
-                            .seatNumber(seatNumber)
-                            .status(SeatAvailability.SeatStatus.AVAILABLE)
-                            .build());
-
-            seatAvailability.setAvailable(false);
-            seatAvailabilityRepository.save(seatAvailability);
+    public int releaseSeats(Long showId, List<String> seatNumbers) {
+        log.info("Releasing seats for show: {} with seats: {}", showId, seatNumbers);
+
+        if (seatNumbers.isEmpty()) {
+            return 0;
         }
 
-        log.info("Successfully marked {} seats as booked for show: {}", seatNumbers.size(), showId);
+        int released = seatAvailabilityRepository.releaseSeats(showId, seatNumbers);
+
+        showSeatMapCache.onSeatsChanged(showId, seatMap -> seatNumbers.forEach(seatNumber -> {
+            SeatAvailability.SeatStatus status = seatMap.statusOf(seatNumber);
+            if (status == SeatAvailability.SeatStatus.BOOKED || status == SeatAvailability.SeatStatus.LOCKED) {
+                seatMap.setStatus(seatNumber, SeatAvailability.SeatStatus.AVAILABLE);
+            }
+        }));
+
+        log.info("Successfully released {} seats for show: {}", released, showId);
+        return released;
     }
 
+    /**
+     * Atomically moves all requested seats from AVAILABLE to LOCKED for {@code holdTtlSeconds}. If any seat
+     * cannot be held the whole hold is rolled back and the conflicting seats are reported. A retried hold
+     * extends the seats already held for the same booking, so they stay locked as long as reported.
+     */
     @Transactional
-    public void releaseSeats(Long showId, List<String> seatNumbers) {
-        log.info("Releasing seats for show: {} with seats: {}", showId, seatNumbers);
+    public SeatHoldResponse holdSeats(SeatHoldRequest request) {
+        log.info("Placing hold {} for show: {} with seats: {}",
+                request.getBookingId(), request.getShowId(), request.getSeatNumbers());
+
+        ShowSeatMap seatMap = showSeatMapCache.getSeatMap(request.getShowId());
+        List<String> distinctSeats = request.getSeatNumbers().stream().distinct().collect(Collectors.toList());
+        LocalDateTime lockedUntil = LocalDateTime.now().plusSeconds(holdTtlSeconds);
+
+        int held = seatAvailabilityRepository.holdSeats(
+                request.getShowId(), distinctSeats, request.getBookingId(), lockedUntil);
+
+        if (held < distinctSeats.size()) {
+            Map<String, SeatAvailability> seats = findSeats(request.getShowId(), distinctSeats);
+            List<String> unavailableSeats = distinctSeats.stream()
+                    .filter(seatNumber -> {
+                        SeatAvailability seat = seats.get(seatNumber);
+                        return seat == null
+                                || seat.getStatus() != SeatAvailability.SeatStatus.LOCKED
+                                || !request.getBookingId().equals(seat.getBookingId());
+                    })
+                    .collect(Collectors.toList());
+
+            if (!unavailableSeats.isEmpty()) {
+                // All or nothing: give back the seats this call just locked
+                List<String> ownedSeats = distinctSeats.stream()
+                        .filter(seatNumber -> !unavailableSeats.contains(seatNumber))
+                        .collect(Collectors.toList());
+                if (!ownedSeats.isEmpty()) {
+                    seatAvailabilityRepository.releaseHeldSeats(request.getShowId(), ownedSeats, request.getBookingId());
+                    showSeatMapCache.onSeatsChanged(request.getShowId(), cached -> ownedSeats.forEach(seatNumber ->
+                            cached.setStatus(seatNumber, SeatAvailability.SeatStatus.AVAILABLE)));
+                }
+                log.info("Hold {} rejected for show: {}, unavailable seats: {}",
+                        request.getBookingId(), request.getShowId(), unavailableSeats);
+
+                return SeatHoldResponse.builder()
+                        .held(false)
+                        .bookingId(request.getBookingId())
+                        .showId(request.getShowId())
+                        .seatNumbers(distinctSeats)
+                        .unavailableSeats(unavailableSeats)
+                        .message("Some seats are not available: " + String.join(", ", unavailableSeats))
+                        .build();
+            }
+        }
+
+        showSeatMapCache.onSeatsChanged(request.getShowId(), cached ->
+                distinctSeats.forEach(seatNumber -> cached.setStatus(seatNumber, SeatAvailability.SeatStatus.LOCKED)));
+
+        BigDecimal pricePerSeat = seatMap.getPrice();
+        return SeatHoldResponse.builder()
+                .held(true)
+                .bookingId(request.getBookingId())
+                .showId(request.getShowId())
+                .seatNumbers(distinctSeats)
+                .unavailableSeats(List.of())
+                .lockedUntil(lockedUntil)
+                .pricePerSeat(pricePerSeat)
+                .totalPrice(pricePerSeat.multiply(BigDecimal.valueOf(distinctSeats.size())))
+                .theatreId(seatMap.getTheatreId())
+                .movieId(seatMap.getMovieId())
+                .showDateTime(seatMap.getShowDateTime())
+                .message("Seats held until " + lockedUntil)
+                .build();
+    }
+
+    /**
+     * Moves a still valid hold from LOCKED to BOOKED, all seats or none. Seats already booked for the same
+     * booking count as confirmed, so a redelivered confirmation is harmless. Fails if the hold expired or
+     * any seat is no longer held for this booking.
+     */
+    @Transactional
+    public SeatHoldResponse confirmHold(SeatHoldRequest request) {
+        log.info("Confirming hold {} for show: {}", request.getBookingId(), request.getShowId());
+
+        List<String> distinctSeats = request.getSeatNumbers().stream().distinct().collect(Collectors.toList());
+        int confirmed = seatAvailabilityRepository.confirmHeldSeats(
+                request.getShowId(), distinctSeats, request.getBookingId(), LocalDateTime.now());
 
-        List<SeatAvailability> seatAvailabilities = seatNumbers.stream()
-                .map(seatNumber -> seatAvailabilityRepository
-                        .findByShowIdAndSeatNumber(showId, seatNumber)
-                        .orElse(null))
-                .filter(seat -> seat != null)
+        if (confirmed < distinctSeats.size()) {
+            long booked = findSeats(request.getShowId(), distinctSeats).values().stream()
+                    .filter(seat -> seat.getStatus() == SeatAvailability.SeatStatus.BOOKED
+                            && request.getBookingId().equals(seat.getBookingId()))
+                    .count();
+            if (booked < distinctSeats.size()) {
+                // Rolls back the seats this call confirmed
+                throw new BusinessLogicException("Seat hold " + request.getBookingId() + " has expired or is no longer valid");
+            }
+        }
+
+        showSeatMapCache.onSeatsChanged(request.getShowId(), cached ->
+                distinctSeats.forEach(seatNumber -> cached.setStatus(seatNumber, SeatAvailability.SeatStatus.BOOKED)));
+
+        return SeatHoldResponse.builder()
+                .held(true)
+                .bookingId(request.getBookingId())
+                .showId(request.getShowId())
+                .seatNumbers(distinctSeats)
+                .unavailableSeats(List.of())
+                .message("Seats booked")
+                .build();
+    }
+
+    /**
+     * Releases whatever part of the hold is still LOCKED for this booking.
+     *
+     * @return number of seats released
+     */
+    @Transactional
+    public int releaseHold(SeatHoldRequest request) {
+        log.info("Releasing hold {} for show: {}", request.getBookingId(), request.getShowId());
+
+        List<String> distinctSeats = request.getSeatNumbers().stream().distinct().collect(Collectors.toList());
+        int released = seatAvailabilityRepository.releaseHeldSeats(
+                request.getShowId(), distinctSeats, request.getBookingId());
+
+        if (released > 0) {
+            showSeatMapCache.onSeatsChanged(request.getShowId(), cached -> distinctSeats.forEach(seatNumber -> {
+                if (cached.statusOf(seatNumber) == SeatAvailability.SeatStatus.LOCKED) {
+                    cached.setStatus(seatNumber, SeatAvailability.SeatStatus.AVAILABLE);
+                }
+            }));
+        }
+        return released;
+    }
+
+    /**
+     * Releases at most {@code batchSize} expired holds. Rows are claimed with {@code FOR UPDATE SKIP LOCKED}
+     * so concurrent sweepers on other instances never block on each other.
+     *
+     * @return number of seats released
+     */
+    @Transactional
+    public int releaseExpiredHolds(int batchSize) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> expired = seatAvailabilityRepository.findExpiredLocksForUpdate(now, batchSize);
+        if (expired.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> ids = expired.stream()
+                .map(row -> ((Number) row[0]).longValue())
                 .collect(Collectors.toList());
+        int released = seatAvailabilityRepository.releaseExpiredLocks(ids, now);
+
+        expired.stream()
+                .collect(Collectors.groupingBy(row -> ((Number) row[1]).longValue(),
+                        Collectors.mapping(row -> (String) row[2], Collectors.toList())))
+                .forEach((showId, seatNumbers) -> showSeatMapCache.onSeatsChanged(showId, cached ->
+                        seatNumbers.forEach(seatNumber -> cached.setStatus(seatNumber, SeatAvailability.SeatStatus.AVAILABLE))));
 
-        seatAvailabilities.forEach(seat -> seat.setAvailable(true));
-        seatAvailabilityRepository.saveAll(seatAvailabilities);
+        return released;
+    }
 
-        log.info("Successfully released {} seats for show: {}", seatNumbers.size(), showId);
+    public SeatMapResponse getSeatMap(Long showId) {
+        ShowSeatMap seatMap = showSeatMapCache.getSeatMap(showId);
+
+        return SeatMapResponse.builder()
+                .showId(showId)
+                .seatsPerRow(seatMap.getLayout().getSeatsPerRow())
+                .totalSeats(seatMap.getLayout().capacity())
+                .availableSeats(seatMap.availableCount())
+                .pricePerSeat(seatMap.getPrice())
+                .rows(seatMap.rowStatuses())
+                .build();
+    }
+
+    private Map<String, SeatAvailability> findSeats(Long showId, List<String> seatNumbers) {
+        if (seatNumbers.isEmpty()) {
+            return Map.of();
+        }
+        return seatAvailabilityRepository.findByShowIdAndSeatNumberIn(showId, seatNumbers).stream()
+                .collect(Collectors.toMap(SeatAvailability::getSeatNumber, Function.identity(), (a, b) -> a));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,173 @@
+package com.moviebooking.theatre.service;
+
+import com.moviebooking.theatre.exception.ResourceNotFoundException;
+import com.moviebooking.theatre.model.SeatAvailability;
+import com.moviebooking.theatre.model.SeatLayout;
+import com.moviebooking.theatre.model.Show;
+import com.moviebooking.theatre.model.ShowSeatMap;
+import com.moviebooking.theatre.repository.SeatAvailabilityRepository;
+import com.moviebooking.theatre.repository.ShowRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Lazily loaded, LRU-bounded cache of {@link ShowSeatMap}s.
+ * <p>
+ * Every code path that writes {@code seat_availability} reports its change through {@link #onSeatsChanged}
+ * or {@link #evict}; the change is applied after the surrounding transaction commits. A per-show write
+ * version guards against a concurrent load caching a snapshot taken before that commit.
+ * <p>
+ * Those changes only reach this instance's cache. Holds, bookings and hold expiry on other replicas
+ * are picked up by reloading a seat map once it is older than {@code max-staleness-ms}.
+ */
+@Service
+@Slf4j
+public class ShowSeatMapCache {
+    private static final int VERSION_STRIPES = 1024;
+
+    private final ShowRepository showRepository;
+    private final SeatAvailabilityRepository seatAvailabilityRepository;
+    private final Map<Long, CachedSeatMap> seatMaps;
+    private final AtomicLongArray writeVersions = new AtomicLongArray(VERSION_STRIPES);
+    private final long maxStalenessNanos;
+
+    public ShowSeatMapCache(ShowRepository showRepository,
+                            SeatAvailabilityRepository seatAvailabilityRepository,
+                            @Value("${app.seat-map.max-shows:10000}") int maxShows,
+                            @Value("${app.seat-map.max-staleness-ms:2000}") long maxStalenessMs) {
+        this.showRepository = showRepository;
+        this.seatAvailabilityRepository = seatAvailabilityRepository;
+        this.seatMaps = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedSeatMap> eldest) {
+                return size() > maxShows;
+            }
+        };
+        this.maxStalenessNanos = TimeUnit.MILLISECONDS.toNanos(maxStalenessMs);
+    }
+
+    public ShowSeatMap getSeatMap(Long showId) {
+        synchronized (seatMaps) {
+            CachedSeatMap cached = seatMaps.get(showId);
+            if (cached != null && fresh(cached)) {
+                return cached.seatMap();
+            }
+        }
+
+        long version = writeVersions.get(stripe(showId));
+        long loadedAt = System.nanoTime();
+        ShowSeatMap loaded = load(showId);
+
+        synchronized (seatMaps) {
+            CachedSeatMap cached = seatMaps.get(showId);
+            if (cached != null && fresh(cached)) {
+                return cached.seatMap();
+            }
+            // Only cache the snapshot if no seat write for this show committed while it was loading
+            if (writeVersions.get(stripe(showId)) == version) {
+                seatMaps.put(showId, new CachedSeatMap(loaded, loadedAt));
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Applies {@code update} to the cached seat map of the show once the current transaction commits.
+     * Updates must be idempotent because a concurrently loaded snapshot may already contain the change.
+     */
+    public void onSeatsChanged(Long showId, Consumer<ShowSeatMap> update) {
+        afterCommit(() -> {
+            synchronized (seatMaps) {
+                writeVersions.incrementAndGet(stripe(showId));
+                CachedSeatMap cached = seatMaps.get(showId);
+                if (cached != null) {
+                    update.accept(cached.seatMap());
+                }
+            }
+        });
+    }
+
+    public void evict(Long showId) {
+        afterCommit(() -> {
+            synchronized (seatMaps) {
+                writeVersions.incrementAndGet(stripe(showId));
+                seatMaps.remove(showId);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.seat-map.eviction-interval-ms:60000}")
+    public void evictEndedShows() {
+        LocalDateTime now = LocalDateTime.now();
+        int evicted = 0;
+        synchronized (seatMaps) {
+            var iterator = seatMaps.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().seatMap().getEndDateTime().isBefore(now)) {
+                    iterator.remove();
+                    evicted++;
+                }
+            }
+        }
+        if (evicted > 0) {
+            log.debug("Evicted {} seat maps of ended shows", evicted);
+        }
+    }
+
+    private ShowSeatMap load(Long showId) {
+        Show show = showRepository.findByIdWithScreen(showId)
+                .orElseThrow(() -> new ResourceNotFoundException("Show not found with id: " + showId));
+
+        ShowSeatMap seatMap = new ShowSeatMap(
+                show.getId(),
+                show.getTheatre().getId(),
+                show.getMovieId(),
+                show.getPrice(),
+                show.getShowDateTime(),
+                show.getEndDateTime(),
+                SeatLayout.of(show.getScreen()));
+
+        for (Object[] row : seatAvailabilityRepository.findUnavailableSeatStates(showId)) {
+            seatMap.setStatus((String) row[0], (SeatAvailability.SeatStatus) row[1]);
+        }
+
+        log.debug("Loaded seat map for show: {} with {} available seats", showId, seatMap.availableCount());
+        return seatMap;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private boolean fresh(CachedSeatMap cached) {
+        return System.nanoTime() - cached.loadedAtNanos() < maxStalenessNanos;
+    }
+
+    private static int stripe(Long showId) {
+        return (int) (showId & (VERSION_STRIPES - 1));
+    }
+
+    // loadedAtNanos is taken before the read, so writes by other replicas during the load count toward staleness
+    private record CachedSeatMap(ShowSeatMap seatMap, long loadedAtNanos) {
+    }
+}
@@ -9,7 +9,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -24,6 +28,7 @@ public class ShowService {
     private final OutboxEventService outboxEventService;
     private final ScreenService screenService;
     private final TheatreService theatreService;
+    private final ShowSeatMapCache showSeatMapCache;
     
     @Transactional
     public ShowResponse createShow(ShowRequest request) {
@@ -43,20 +48,95 @@ public class ShowService {
         show.setShowDateTime(request.getShowDateTime());
         show.setEndDateTime(request.getEndDateTime());
         show.setPrice(request.getPrice());
-        show.setAvailableSeats(screen.getTotalSeats());
+        show.setAvailableSeats(SeatLayout.of(screen).capacity());
         show.setStatus(Show.ShowStatus.SCHEDULED);
         show.setScreen(screen);
         show.setTheatre(theatre);
         
         Show savedShow = showRepository.save(show);
         
-        generateSeatAvailability(savedShow, screen);
+        seatAvailabilityRepository.insertAvailableSeats(List.of(savedShow.getId()), buildSeatTemplate(screen));
         
         outboxEventService.publishShowEvent("SHOW_CREATED", savedShow);
         
         return mapToResponse(savedShow);
     }
     
+    /**
+     * Creates every show of the schedule and its seat inventory in one transaction. Conflicts are
+     * checked with one query over the whole schedule window rather than one per show.
+     */
+    @Transactional
+    public List<ShowResponse> createShowSchedule(ShowScheduleRequest request) {
+        log.info("Creating {} day schedule for movie: {} on screen: {}", request.getDays(), request.getMovieTitle(), request.getScreenId());
+        
+        Screen screen = screenRepository.findById(request.getScreenId())
+                .orElseThrow(() -> new ResourceNotFoundException("Screen not found with ID: " + request.getScreenId()));
+        
+        Theatre theatre = theatreRepository.findById(request.getTheatreId())
+                .orElseThrow(() -> new ResourceNotFoundException("Theatre not found with ID: " + request.getTheatreId()));
+        
+        // Step 1: Expand the schedule into show slots, ordered by start time
+        List<LocalDateTime> startTimes = new ArrayList<>();
+        for (int day = 0; day < request.getDays(); day++) {
+            LocalDate date = request.getStartDate().plusDays(day);
+            for (LocalTime showTime : request.getShowTimes()) {
+                startTimes.add(date.atTime(showTime));
+            }
+        }
+        Collections.sort(startTimes);
+        
+        // Step 2: Validate slots against each other and against existing shows on the screen
+        List<Show> existingShows = showRepository.findConflictingShows(request.getScreenId(),
+                startTimes.get(0), endTimeOf(startTimes.get(startTimes.size() - 1), request));
+        LocalDateTime previousEnd = null;
+        for (LocalDateTime start : startTimes) {
+            LocalDateTime end = endTimeOf(start, request);
+            if (start.isBefore(LocalDateTime.now())) {
+                throw new BusinessLogicException("Show start time must be in the future");
+            }
+            if (previousEnd != null && !start.isAfter(previousEnd)) {
+                throw new BusinessLogicException("Scheduled shows overlap at " + start);
+            }
+            for (Show existing : existingShows) {
+                if (!existing.getShowDateTime().isAfter(end) && !existing.getEndDateTime().isBefore(start)) {
+                    throw new BusinessLogicException("Screen is already booked during the time slot starting at " + start);
+                }
+            }
+            previousEnd = end;
+        }
+        
+        // Step 3: Persist the shows and generate their seat inventory in bulk
+        int capacity = SeatLayout.of(screen).capacity();
+        List<Show> shows = new ArrayList<>(startTimes.size());
+        for (LocalDateTime start : startTimes) {
+            Show show = new Show();
+            show.setMovieId(request.getMovieId());
+            show.setMovieTitle(request.getMovieTitle());
+            show.setShowDateTime(start);
+            show.setEndDateTime(endTimeOf(start, request));
+            show.setPrice(request.getPrice());
+            show.setAvailableSeats(capacity);
+            show.setStatus(Show.ShowStatus.SCHEDULED);
+            show.setScreen(screen);
+            show.setTheatre(theatre);
+            shows.add(show);
+        }
+        List<Show> savedShows = showRepository.saveAll(shows);
+        
+        List<Long> showIds = savedShows.stream().map(Show::getId).collect(Collectors.toList());
+        int seats = seatAvailabilityRepository.insertAvailableSeats(showIds, buildSeatTemplate(screen));
+        
+        savedShows.forEach(show -> outboxEventService.publishShowEvent("SHOW_CREATED", show));
+        log.info("Created {} shows with {} seats for movie: {}", savedShows.size(), seats, request.getMovieTitle());
+        
+        ScreenResponse screenResponse = screenService.getScreenById(screen.getId());
+        TheatreResponse theatreResponse = theatreService.getTheatreById(theatre.getId());
+        return savedShows.stream()
+                .map(show -> mapToResponse(show, screenResponse, theatreResponse))
+                .collect(Collectors.toList());
+    }
+    
     @Transactional
     public ShowResponse updateShow(Long id, ShowRequest request) {
         log.info("Updating show with ID: {}", id);
@@ -85,6 +165,7 @@ public class ShowService {
         show.setTheatre(theatre);
         
         Show savedShow = showRepository.save(show);
+        showSeatMapCache.evict(savedShow.getId());
         
         outboxEventService.publishShowEvent("SHOW_UPDATED", savedShow);
         
@@ -135,6 +216,7 @@ public class ShowService {
                 .orElseThrow(() -> new ResourceNotFoundException("Show not found with ID: " + id));
         
         showRepository.delete(show);
+        showSeatMapCache.evict(id);
         
         outboxEventService.publishShowEvent("SHOW_DELETED", show);
     }
@@ -154,22 +236,30 @@ public class ShowService {
         }
     }
     
-    private void generateSeatAvailability(Show show, Screen screen) {
-        for (int row = 1; row <= 10; row++) {
-            char rowLetter = (char) ('A' + row - 1);
-            int seatsPerRow = screen.getTotalSeats() / 10;
+    private static LocalDateTime endTimeOf(LocalDateTime start, ShowScheduleRequest request) {
+        return start.plusMinutes(request.getDurationMinutes());
+    }
+    
+    /**
+     * Seats of one show on the screen; the same template is inserted for every show.
+     */
+    private List<SeatAvailability> buildSeatTemplate(Screen screen) {
+        SeatLayout layout = SeatLayout.of(screen);
+        int seatsPerRow = layout.getSeatsPerRow();
+        List<SeatAvailability> seats = new ArrayList<>(layout.capacity());
+        
+        for (int row = 1; row <= SeatLayout.ROWS; row++) {
+            String rowLabel = layout.rowLabel(row - 1);
             
             for (int seatNum = 1; seatNum <= seatsPerRow; seatNum++) {
                 SeatAvailability seat = new SeatAvailability();
-                seat.setSeatNumber(rowLetter + String.valueOf(seatNum));
-                seat.setRowNumber(String.valueOf(rowLetter));
+                seat.setSeatNumber(rowLabel + seatNum);
+                seat.setRowNumber(rowLabel);
                 seat.setSeatType(determineSeatType(row, seatNum, seatsPerRow));
-                seat.setStatus(SeatAvailability.SeatStatus.AVAILABLE);
-                seat.setShow(show);
-                
-                seatAvailabilityRepository.save(seat);
+                seats.add(seat);
             }
         }
+        return seats;
     }
     
     private SeatAvailability.SeatType determineSeatType(int row, int seatNum, int seatsPerRow) {
@@ -184,6 +274,12 @@ public class ShowService {
     }
     
     private ShowResponse mapToResponse(Show show) {
+        return mapToResponse(show,
+                screenService.getScreenById(show.getScreen().getId()),
+                theatreService.getTheatreById(show.getTheatre().getId()));
+    }
+    
+    private ShowResponse mapToResponse(Show show, ScreenResponse screenResponse, TheatreResponse theatreResponse) {
         return new ShowResponse(
                 show.getId(),
                 show.getMovieId(),
@@ -193,8 +289,8 @@ public class ShowService {
                 show.getPrice(),
                 show.getAvailableSeats(),
                 show.getStatus(),
-                screenService.getScreenById(show.getScreen().getId()),
-                theatreService.getTheatreById(show.getTheatre().getId()),
+                screenResponse,
+                theatreResponse,
                 show.getCreatedAt(),
                 show.getUpdatedAt()
         );
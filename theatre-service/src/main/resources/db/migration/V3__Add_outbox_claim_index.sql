@@ -0,0 +1,2 @@
+-- Serves the relay's claim query: WHERE status = 'PENDING' ORDER BY id LIMIT n FOR UPDATE SKIP LOCKED
+CREATE INDEX idx_outbox_events_status_id ON outbox_events(status, id);
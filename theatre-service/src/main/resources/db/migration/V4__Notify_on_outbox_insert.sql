@@ -0,0 +1,12 @@
+-- Wake the outbox relay as soon as a transaction that wrote outbox events commits.
+-- NOTIFY is delivered on commit and duplicates within a transaction are folded into one.
+CREATE OR REPLACE FUNCTION notify_outbox_events()
+RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM pg_notify('outbox_events', '');
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+CREATE TRIGGER outbox_events_notify AFTER INSERT ON outbox_events
+    FOR EACH STATEMENT EXECUTE PROCEDURE notify_outbox_events();
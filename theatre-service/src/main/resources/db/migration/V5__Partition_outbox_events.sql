@@ -0,0 +1,89 @@
+-- Range-partition outbox_events by day so retention drops whole partitions instead of deleting rows
+ALTER TABLE outbox_events RENAME TO outbox_events_legacy;
+ALTER TABLE outbox_events_legacy RENAME CONSTRAINT outbox_events_pkey TO outbox_events_legacy_pkey;
+DROP TRIGGER outbox_events_notify ON outbox_events_legacy;
+
+CREATE TABLE outbox_events (
+    id BIGINT NOT NULL DEFAULT nextval('outbox_events_id_seq'),
+    aggregate_id VARCHAR(255) NOT NULL,
+    aggregate_type VARCHAR(100) NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    event_data TEXT NOT NULL,
+    status VARCHAR(50) DEFAULT 'PENDING',
+    retry_count INTEGER DEFAULT 0,
+    processed_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE outbox_events_id_seq OWNED BY outbox_events.id;
+
+-- Catches rows outside the pre-created days, e.g. migrated history or a stalled maintenance job
+CREATE TABLE outbox_events_default PARTITION OF outbox_events DEFAULT;
+
+-- Serves the relay's claim query and only ever holds the backlog, not the history
+CREATE INDEX idx_outbox_events_pending ON outbox_events(id) WHERE status = 'PENDING';
+
+-- Creates the daily partitions from today up to days_ahead days ahead; returns how many were created
+CREATE OR REPLACE FUNCTION create_outbox_partitions(days_ahead INTEGER)
+RETURNS INTEGER AS $$
+DECLARE
+    partition_day DATE;
+    partition_name TEXT;
+    created INTEGER := 0;
+BEGIN
+    FOR i IN 0..days_ahead LOOP
+        partition_day := CURRENT_DATE + i;
+        partition_name := 'outbox_events_' || to_char(partition_day, 'YYYYMMDD');
+        IF to_regclass(partition_name) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF outbox_events FOR VALUES FROM (%L) TO (%L)',
+                           partition_name, partition_day, partition_day + 1);
+            created := created + 1;
+        END IF;
+    END LOOP;
+    RETURN created;
+END;
+$$ language 'plpgsql';
+
+-- Drops daily partitions older than retention_days; partitions still holding undelivered events are kept
+CREATE OR REPLACE FUNCTION drop_outbox_partitions(retention_days INTEGER)
+RETURNS INTEGER AS $$
+DECLARE
+    expired RECORD;
+    has_undelivered BOOLEAN;
+    dropped INTEGER := 0;
+BEGIN
+    FOR expired IN
+        SELECT child.relname
+        FROM pg_inherits
+        JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+        JOIN pg_class parent ON parent.oid = pg_inherits.inhparent
+        WHERE parent.relname = 'outbox_events'
+          AND child.relname ~ '^outbox_events_[0-9]{8}$'
+          AND to_date(right(child.relname, 8), 'YYYYMMDD') < CURRENT_DATE - retention_days
+    LOOP
+        EXECUTE format('SELECT EXISTS (SELECT 1 FROM %I WHERE status IS DISTINCT FROM ''PROCESSED'')', expired.relname)
+            INTO has_undelivered;
+        IF has_undelivered THEN
+            RAISE WARNING 'Keeping outbox partition % because it still holds undelivered events', expired.relname;
+        ELSE
+            EXECUTE format('DROP TABLE %I', expired.relname);
+            dropped := dropped + 1;
+        END IF;
+    END LOOP;
+    RETURN dropped;
+END;
+$$ language 'plpgsql';
+
+SELECT create_outbox_partitions(7);
+
+-- Carry over undelivered events only; delivered history has no further use
+INSERT INTO outbox_events (id, aggregate_id, aggregate_type, event_type, event_data, status, retry_count, processed_at, created_at)
+SELECT id, aggregate_id, aggregate_type, event_type, event_data, status, retry_count, processed_at, created_at
+FROM outbox_events_legacy
+WHERE status IS DISTINCT FROM 'PROCESSED';
+
+DROP TABLE outbox_events_legacy;
+
+CREATE TRIGGER outbox_events_notify AFTER INSERT ON outbox_events
+    FOR EACH STATEMENT EXECUTE PROCEDURE notify_outbox_events();
@@ -0,0 +1,106 @@
+-- Events that used up their retries. They are moved here once older than the retention, so the
+-- partition holding them can be dropped; re-insert a row into outbox_events as PENDING to replay it
+CREATE TABLE outbox_events_failed (
+    id BIGINT PRIMARY KEY,
+    aggregate_id VARCHAR(255) NOT NULL,
+    aggregate_type VARCHAR(100) NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    event_data TEXT NOT NULL,
+    status VARCHAR(50),
+    retry_count INTEGER,
+    processed_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL,
+    parked_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Creates the daily partitions from today up to days_ahead days ahead; returns how many were created.
+-- Rows the default partition already holds for a new day would make the CREATE fail, so the default
+-- partition is detached, drained into the new partition and attached again
+CREATE OR REPLACE FUNCTION create_outbox_partitions(days_ahead INTEGER)
+RETURNS INTEGER AS $$
+DECLARE
+    partition_day DATE;
+    partition_name TEXT;
+    default_has_rows BOOLEAN;
+    created INTEGER := 0;
+BEGIN
+    FOR i IN 0..days_ahead LOOP
+        partition_day := CURRENT_DATE + i;
+        partition_name := 'outbox_events_' || to_char(partition_day, 'YYYYMMDD');
+        IF to_regclass(partition_name) IS NULL THEN
+            SELECT EXISTS (SELECT 1 FROM outbox_events_default
+                           WHERE created_at >= partition_day AND created_at < partition_day + 1)
+                INTO default_has_rows;
+            IF default_has_rows THEN
+                -- Blocks inserts until the transaction ends, so no row lands in the default meanwhile
+                ALTER TABLE outbox_events DETACH PARTITION outbox_events_default;
+            END IF;
+
+            EXECUTE format('CREATE TABLE %I PARTITION OF outbox_events FOR VALUES FROM (%L) TO (%L)',
+                           partition_name, partition_day, partition_day + 1);
+
+            IF default_has_rows THEN
+                WITH moved AS (
+                    DELETE FROM outbox_events_default
+                    WHERE created_at >= partition_day AND created_at < partition_day + 1
+                    RETURNING *
+                )
+                INSERT INTO outbox_events SELECT * FROM moved;
+                ALTER TABLE outbox_events ATTACH PARTITION outbox_events_default DEFAULT;
+                RAISE NOTICE 'Moved rows for % from the default outbox partition into %', partition_day, partition_name;
+            END IF;
+            created := created + 1;
+        END IF;
+    END LOOP;
+    RETURN created;
+END;
+$$ language 'plpgsql';
+
+-- Drops daily partitions older than retention_days; returns how many were dropped. FAILED events past
+-- the retention are parked in outbox_events_failed first, and delivered events past the retention are
+-- deleted from the default partition. Partitions still holding PENDING events are kept
+CREATE OR REPLACE FUNCTION drop_outbox_partitions(retention_days INTEGER)
+RETURNS INTEGER AS $$
+DECLARE
+    expired RECORD;
+    has_undelivered BOOLEAN;
+    parked INTEGER;
+    dropped INTEGER := 0;
+BEGIN
+    WITH moved AS (
+        DELETE FROM outbox_events
+        WHERE status = 'FAILED' AND created_at < CURRENT_DATE - retention_days
+        RETURNING id, aggregate_id, aggregate_type, event_type, event_data, status, retry_count, processed_at, created_at
+    )
+    INSERT INTO outbox_events_failed (id, aggregate_id, aggregate_type, event_type, event_data, status, retry_count, processed_at, created_at)
+    SELECT * FROM moved
+    ON CONFLICT (id) DO NOTHING;
+    GET DIAGNOSTICS parked = ROW_COUNT;
+    IF parked > 0 THEN
+        RAISE WARNING 'Parked % failed outbox events in outbox_events_failed', parked;
+    END IF;
+
+    DELETE FROM outbox_events_default
+    WHERE status = 'PROCESSED' AND created_at < CURRENT_DATE - retention_days;
+
+    FOR expired IN
+        SELECT child.relname
+        FROM pg_inherits
+        JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+        JOIN pg_class parent ON parent.oid = pg_inherits.inhparent
+        WHERE parent.relname = 'outbox_events'
+          AND child.relname ~ '^outbox_events_[0-9]{8}$'
+          AND to_date(right(child.relname, 8), 'YYYYMMDD') < CURRENT_DATE - retention_days
+    LOOP
+        EXECUTE format('SELECT EXISTS (SELECT 1 FROM %I WHERE status IS DISTINCT FROM ''PROCESSED'')', expired.relname)
+            INTO has_undelivered;
+        IF has_undelivered THEN
+            RAISE WARNING 'Keeping outbox partition % because it still holds undelivered events', expired.relname;
+        ELSE
+            EXECUTE format('DROP TABLE %I', expired.relname);
+            dropped := dropped + 1;
+        END IF;
+    END LOOP;
+    RETURN dropped;
+END;
+$$ language 'plpgsql';
@@ -0,0 +1,69 @@
+package com.moviebooking.theatre.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.moviebooking.common.events.booking.SeatHoldRequestedEvent;
+import com.moviebooking.theatre.exception.ResourceNotFoundException;
+import com.moviebooking.theatre.service.SeatAvailabilityService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeatHoldEventListenerTest {
+
+    @Mock
+    private SeatAvailabilityService seatAvailabilityService;
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Mock
+    private Acknowledgment acknowledgment;
+
+    private SeatHoldEventListener listener;
+    private SeatHoldRequestedEvent event;
+
+    @BeforeEach
+    void setUp() {
+        listener = new SeatHoldEventListener(seatAvailabilityService, kafkaTemplate,
+                new ObjectMapper().registerModule(new JavaTimeModule()));
+        event = SeatHoldRequestedEvent.builder()
+                .bookingId("BK1").showId(1L).seatNumbers(List.of("A1")).build();
+    }
+
+    @Test
+    void handleSeatHoldRequested_ShouldRejectHold_WhenShowDoesNotExist() throws Exception {
+        // Given
+        when(seatAvailabilityService.holdSeats(any())).thenThrow(new ResourceNotFoundException("Show not found with id: 1"));
+
+        // When
+        listener.handleSeatHoldRequested(event, acknowledgment);
+
+        // Then
+        verify(kafkaTemplate).executeInTransaction(any());
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void handleSeatHoldRequested_ShouldRethrowTransientErrors_SoTheRequestIsRedelivered() {
+        // Given
+        when(seatAvailabilityService.holdSeats(any())).thenThrow(new QueryTimeoutException("Statement timed out"));
+
+        // When & Then
+        assertThatThrownBy(() -> listener.handleSeatHoldRequested(event, acknowledgment))
+                .isInstanceOf(QueryTimeoutException.class);
+        verifyNoInteractions(kafkaTemplate, acknowledgment);
+    }
+}
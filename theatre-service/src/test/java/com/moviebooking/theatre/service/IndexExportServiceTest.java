@@ -0,0 +1,93 @@
+package com.moviebooking.theatre.service;
+
+import com.moviebooking.theatre.model.City;
+import com.moviebooking.theatre.model.Screen;
+import com.moviebooking.theatre.model.Show;
+import com.moviebooking.theatre.model.Theatre;
+import com.moviebooking.theatre.repository.CityRepository;
+import com.moviebooking.theatre.repository.SeatAvailabilityRepository;
+import com.moviebooking.theatre.repository.ShowRepository;
+import com.moviebooking.theatre.repository.TheatreRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IndexExportServiceTest {
+
+    @Mock
+    private CityRepository cityRepository;
+
+    @Mock
+    private TheatreRepository theatreRepository;
+
+    @Mock
+    private ShowRepository showRepository;
+
+    @Mock
+    private SeatAvailabilityRepository seatAvailabilityRepository;
+
+    @InjectMocks
+    private IndexExportService indexExportService;
+
+    @Test
+    void exportShows_ShouldReturnShowEventPayloadsWithSeatsCountedFromSeatAvailability() {
+        // Given
+        City city = new City();
+        city.setId(1L);
+        city.setName("Mumbai");
+        Theatre theatre = new Theatre();
+        theatre.setId(2L);
+        theatre.setName("PVR Cinemas");
+        theatre.setCity(city);
+        Screen screen = new Screen();
+        screen.setId(3L);
+        screen.setName("Screen 1");
+        screen.setTheatre(theatre);
+        Show show = new Show();
+        show.setId(11L);
+        show.setMovieId(5L);
+        show.setMovieTitle("Inception");
+        show.setScreen(screen);
+        show.setTheatre(theatre);
+        show.setAvailableSeats(120);
+        when(showRepository.findPageAfterId(10L, PageRequest.of(0, 500))).thenReturn(List.of(show));
+        when(seatAvailabilityRepository.countUnbookedSeatsByShowIds(List.of(11L)))
+                .thenReturn(List.<Object[]>of(new Object[]{11L, 97L}));
+
+        // When
+        List<Map<String, Object>> result = indexExportService.exportShows(10L, 500);
+
+        // Then
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0))
+                .containsEntry("id", 11L)
+                .containsEntry("movieTitle", "Inception")
+                .containsEntry("theatreId", 2L)
+                .containsEntry("cityName", "Mumbai")
+                .containsEntry("availableSeats", 97);
+    }
+
+    @Test
+    void exportCities_ShouldCapThePageSize() {
+        // Given
+        when(cityRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, IndexExportService.MAX_PAGE_SIZE)))
+                .thenReturn(List.of());
+
+        // When
+        List<Map<String, Object>> result = indexExportService.exportCities(0L, 1_000_000);
+
+        // Then
+        assertThat(result).isEmpty();
+        verify(cityRepository).findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, IndexExportService.MAX_PAGE_SIZE));
+    }
+}
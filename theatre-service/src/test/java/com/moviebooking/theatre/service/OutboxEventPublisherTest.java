@@ -0,0 +1,201 @@
+package com.moviebooking.theatre.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moviebooking.theatre.model.OutboxEvent;
+import com.moviebooking.theatre.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxEventPublisherTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private OutboxEventService outboxEventService;
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Mock
+    private KafkaOperations<String, String> kafkaOperations;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxEventPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        publisher = new OutboxEventPublisher(outboxEventRepository, kafkaTemplate, outboxEventService,
+                objectMapper, transactionTemplate, meterRegistry);
+        ReflectionTestUtils.setField(publisher, "theatreEventsTopic", "theatre-events");
+        ReflectionTestUtils.setField(publisher, "batchSize", 2);
+        ReflectionTestUtils.setField(publisher, "maxRetries", 3);
+        ReflectionTestUtils.setField(publisher, "retryBackoffMs", 60_000L);
+
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<Object>>getArgument(0).doInTransaction(null));
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        lenient().when(kafkaTemplate.executeInTransaction(any())).thenAnswer(invocation ->
+                invocation.<KafkaOperations.OperationsCallback<String, String, Object>>getArgument(0)
+                        .doInOperations(kafkaOperations));
+    }
+
+    private OutboxEvent event(long id, String aggregateType) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setAggregateId(String.valueOf(id));
+        event.setAggregateType(aggregateType);
+        event.setEventType(aggregateType.toUpperCase() + "_CREATED");
+        event.setEventData("{\"id\":" + id + ",\"name\":\"Item " + id + "\"}");
+        event.setStatus(OutboxEvent.EventStatus.PENDING);
+        event.setRetryCount(0);
+        event.setCreatedAt(LocalDateTime.now().minusSeconds(2));
+        return event;
+    }
+
+    @Test
+    void publishBatch_ShouldSendBatchInOneTransactionAndMarkItProcessed() throws Exception {
+        // Given
+        when(outboxEventRepository.claimPendingEvents(2)).thenReturn(List.of(event(1L, "City"), event(2L, "Show")));
+
+        // When
+        int published = publisher.publishBatch();
+
+        // Then
+        assertThat(published).isEqualTo(2);
+        verify(kafkaTemplate, times(1)).executeInTransaction(any());
+        ArgumentCaptor<String> payloadCaptor = ArgumentCaptor.forClass(String.class);
+        verify(kafkaOperations).send(eq("theatre-events"), eq("City-1"), payloadCaptor.capture());
+        verify(kafkaOperations).send(eq("theatre-events"), eq("Show-2"), anyString());
+        verify(outboxEventRepository).markProcessed(eq(List.of(1L, 2L)), any());
+
+        JsonNode payload = objectMapper.readTree(payloadCaptor.getValue());
+        assertThat(payload.get("eventType").asText()).isEqualTo("CITY_CREATED");
+        assertThat(payload.get("eventId").asLong()).isEqualTo(1L);
+        assertThat(payload.get("data").get("name").asText()).isEqualTo("Item 1");
+
+        assertThat(meterRegistry.counter("outbox.events.published").count()).isEqualTo(2.0);
+        assertThat(meterRegistry.timer("outbox.event.lag").count()).isEqualTo(2);
+    }
+
+    @Test
+    void publishBatch_ShouldDoNothing_WhenOutboxIsEmpty() {
+        // Given
+        when(outboxEventRepository.claimPendingEvents(2)).thenReturn(List.of());
+
+        // When
+        int published = publisher.publishBatch();
+
+        // Then
+        assertThat(published).isZero();
+        verify(kafkaTemplate, never()).executeInTransaction(any());
+        verify(outboxEventRepository, never()).markProcessed(anyList(), any());
+    }
+
+    @Test
+    void publishBatch_ShouldBackOffWithoutCountingRetries_WhenBrokerIsUnavailable() {
+        // Given
+        when(outboxEventRepository.claimPendingEvents(2)).thenReturn(List.of(event(1L, "City")));
+        doThrow(new KafkaException("Send failed", new TimeoutException("Broker unavailable")))
+                .when(kafkaTemplate).executeInTransaction(any());
+
+        // When
+        int published = publisher.publishBatch();
+        publisher.publishPendingEvents();
+
+        // Then
+        assertThat(published).isZero();
+        verify(kafkaTemplate, times(1)).executeInTransaction(any());
+        verify(outboxEventRepository, never()).markProcessed(anyList(), any());
+        verify(outboxEventRepository, never()).recordFailedAttempt(anyList(), anyInt());
+        // The scheduled run inside the backoff window does not poll again
+        verify(outboxEventRepository, times(1)).claimPendingEvents(2);
+    }
+
+    @Test
+    void publishBatch_ShouldCountRetryOnlyAgainstFailingEvent_WhenBatchTransactionFails() {
+        // Given
+        when(outboxEventRepository.claimPendingEvents(2))
+                .thenReturn(List.of(event(1L, "City"), event(2L, "Show")))
+                .thenReturn(List.of());
+        when(kafkaOperations.send(eq("theatre-events"), eq("City-1"), anyString()))
+                .thenThrow(new RecordTooLargeException("Record too large"));
+
+        // When
+        int published = publisher.publishBatch();
+        publisher.publishPendingEvents();
+
+        // Then
+        assertThat(published).isEqualTo(1);
+        verify(outboxEventRepository).markProcessed(eq(List.of(2L)), any());
+        verify(outboxEventRepository).recordFailedAttempt(List.of(1L), 3);
+        assertThat(meterRegistry.counter("outbox.events.failed").count()).isEqualTo(1.0);
+        // No backoff, the next run polls again
+        verify(outboxEventRepository, times(2)).claimPendingEvents(2);
+    }
+
+    @Test
+    void publishBatch_ShouldHoldBackLaterEventsOfFailedAggregate() {
+        // Given
+        OutboxEvent created = event(1L, "City");
+        OutboxEvent updated = event(2L, "City");
+        updated.setAggregateId("1");
+        when(outboxEventRepository.claimPendingEvents(2)).thenReturn(List.of(created, updated));
+        when(kafkaOperations.send(eq("theatre-events"), eq("City-1"), anyString()))
+                .thenThrow(new RecordTooLargeException("Record too large"));
+
+        // When
+        int published = publisher.publishBatch();
+
+        // Then
+        assertThat(published).isZero();
+        verify(outboxEventRepository, never()).markProcessed(anyList(), any());
+        verify(outboxEventRepository).recordFailedAttempt(List.of(1L), 3);
+    }
+
+    @Test
+    void publishPendingEvents_ShouldDrainFullBatches() {
+        // Given
+        when(outboxEventRepository.claimPendingEvents(2))
+                .thenReturn(List.of(event(1L, "City"), event(2L, "City")))
+                .thenReturn(List.of(event(3L, "City")));
+
+        // When
+        publisher.publishPendingEvents();
+
+        // Then
+        verify(outboxEventRepository, times(2)).claimPendingEvents(2);
+        verify(outboxEventRepository).markProcessed(eq(List.of(3L)), any());
+    }
+}
@@ -11,12 +11,12 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -224,112 +224,34 @@ class OutboxEventServiceTest {
     }
 
     @Test
-    void getPendingEvents_ShouldReturnPendingEvents() {
+    void maintainPartitions_ShouldCreateUpcomingAndDropExpiredPartitions() {
         // Given
-        List<OutboxEvent> pendingEvents = List.of(testEvent);
-        when(outboxEventRepository.findByStatusOrderByCreatedAtAsc(OutboxEvent.EventStatus.PENDING))
-                .thenReturn(pendingEvents);
+        ReflectionTestUtils.setField(outboxEventService, "retentionDays", 7);
+        ReflectionTestUtils.setField(outboxEventService, "partitionsAhead", 3);
+        when(outboxEventRepository.tryLockPartitionMaintenance()).thenReturn(true);
+        when(outboxEventRepository.createPartitions(3)).thenReturn(1);
+        when(outboxEventRepository.dropExpiredPartitions(7)).thenReturn(1);
 
         // When
-        List<OutboxEvent> result = outboxEventService.getPendingEvents();
+        outboxEventService.maintainPartitions();
 
         // Then
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0)).isEqualTo(testEvent);
-        verify(outboxEventRepository).findByStatusOrderByCreatedAtAsc(OutboxEvent.EventStatus.PENDING);
+        verify(outboxEventRepository).createPartitions(3);
+        verify(outboxEventRepository).dropExpiredPartitions(7);
+        verify(outboxEventRepository, never()).delete(any(OutboxEvent.class));
     }
 
     @Test
-    void markEventAsProcessed_ShouldUpdateEventStatus() {
+    void maintainPartitions_ShouldSkip_WhenAnotherReplicaHoldsTheLock() {
         // Given
-        testEvent.setStatus(OutboxEvent.EventStatus.PENDING);
-        when(outboxEventRepository.findById(1L)).thenReturn(Optional.of(testEvent));
-        when(outboxEventRepository.save(any(OutboxEvent.class))).thenReturn(testEvent);
+        when(outboxEventRepository.tryLockPartitionMaintenance()).thenReturn(false);
 
         // When
-        outboxEventService.markEventAsProcessed(1L);
+        outboxEventService.maintainPartitions();
 
         // Then
-        assertThat(testEvent.getStatus()).isEqualTo(OutboxEvent.EventStatus.PROCESSED);
-        assertThat(testEvent.getProcessedAt()).isNotNull();
-        verify(outboxEventRepository).save(testEvent);
-    }
-
-    @Test
-    void markEventAsProcessed_ShouldDoNothing_WhenEventNotFound() {
-        // Given
-        when(outboxEventRepository.findById(1L)).thenReturn(Optional.empty());
-
-        // When
-        outboxEventService.markEventAsProcessed(1L);
-
-        // Then
-        verify(outboxEventRepository, never()).save(any(OutboxEvent.class));
-    }
-
-    @Test
-    void markEventAsFailed_ShouldUpdateEventStatusAndIncrementRetryCount() {
-        // Given
-        testEvent.setStatus(OutboxEvent.EventStatus.PENDING);
-        testEvent.setRetryCount(0);
-        when(outboxEventRepository.findById(1L)).thenReturn(Optional.of(testEvent));
-        when(outboxEventRepository.save(any(OutboxEvent.class))).thenReturn(testEvent);
-
-        // When
-        outboxEventService.markEventAsFailed(1L);
-
-        // Then
-        assertThat(testEvent.getStatus()).isEqualTo(OutboxEvent.EventStatus.FAILED);
-        assertThat(testEvent.getRetryCount()).isEqualTo(1);
-        verify(outboxEventRepository).save(testEvent);
-    }
-
-    @Test
-    void markEventAsFailed_ShouldLogError_WhenMaxRetryCountReached() {
-        // Given
-        testEvent.setRetryCount(2); // Will become 3 after increment
-        when(outboxEventRepository.findById(1L)).thenReturn(Optional.of(testEvent));
-        when(outboxEventRepository.save(any(OutboxEvent.class))).thenReturn(testEvent);
-
-        // When
-        outboxEventService.markEventAsFailed(1L);
-
-        // Then
-        assertThat(testEvent.getRetryCount()).isEqualTo(3);
-        verify(outboxEventRepository).save(testEvent);
-    }
-
-    @Test
-    void markEventAsFailed_ShouldDoNothing_WhenEventNotFound() {
-        // Given
-        when(outboxEventRepository.findById(1L)).thenReturn(Optional.empty());
-
-        // When
-        outboxEventService.markEventAsFailed(1L);
-
-        // Then
-        verify(outboxEventRepository, never()).save(any(OutboxEvent.class));
-    }
-
-    @Test
-    void cleanupProcessedEvents_ShouldDeleteOldProcessedEvents() {
-        // When
-        outboxEventService.cleanupProcessedEvents();
-
-        // Then
-        ArgumentCaptor<LocalDateTime> dateCaptor = ArgumentCaptor.forClass(LocalDateTime.class);
-        verify(outboxEventRepository).deleteByStatusAndProcessedAtBefore(
-                eq(OutboxEvent.EventStatus.PROCESSED),
-                dateCaptor.capture()
-        );
-
-        LocalDateTime capturedDate = dateCaptor.getValue();
-        LocalDateTime expectedDate = LocalDateTime.now().minusDays(7);
-        // Allow 1 minute tolerance for test execution
-        assertThat(capturedDate).isBetween(
-                expectedDate.minusMinutes(1),
-                expectedDate.plusMinutes(1)
-        );
+        verify(outboxEventRepository, never()).createPartitions(anyInt());
+        verify(outboxEventRepository, never()).dropExpiredPartitions(anyInt());
     }
 
     @Test
@@ -0,0 +1,100 @@
+package com.moviebooking.theatre.service;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the real migrations against Testcontainers Postgres and checks that committed outbox
+ * inserts wake the relay. Skipped when Docker is not available.
+ */
+class OutboxNotificationListenerTest {
+
+    private static PostgreSQLContainer<?> postgres;
+
+    private OutboxEventPublisher outboxEventPublisher;
+    private OutboxNotificationListener listener;
+
+    @BeforeAll
+    static void startDatabase() {
+        assumeTrue(DockerClientFactory.instance().isDockerAvailable(), "Docker is not available");
+        postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+        postgres.start();
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+    }
+
+    @AfterAll
+    static void stopDatabase() {
+        if (postgres != null) {
+            postgres.stop();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        outboxEventPublisher = mock(OutboxEventPublisher.class);
+        listener = new OutboxNotificationListener(outboxEventPublisher,
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword(), true, 10_000);
+        listener.start();
+
+        // The listener drains once on connect to catch up on missed events
+        verify(outboxEventPublisher, timeout(5000)).publishPendingEvents();
+        clearInvocations(outboxEventPublisher);
+    }
+
+    @AfterEach
+    void tearDown() {
+        listener.stop();
+    }
+
+    @Test
+    void committedOutboxInsert_ShouldWakeRelay() throws Exception {
+        // When
+        try (Connection connection = connect()) {
+            insertOutboxEvent(connection);
+        }
+
+        // Then - well below the 10s wait timeout, so the wake-up came from the notification
+        verify(outboxEventPublisher, timeout(2000)).publishPendingEvents();
+    }
+
+    @Test
+    void rolledBackOutboxInsert_ShouldNotWakeRelay() throws Exception {
+        // When
+        try (Connection connection = connect()) {
+            connection.setAutoCommit(false);
+            insertOutboxEvent(connection);
+            connection.rollback();
+        }
+
+        // Then
+        verify(outboxEventPublisher, after(1000).never()).publishPendingEvents();
+    }
+
+    private Connection connect() throws Exception {
+        return DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+    }
+
+    private void insertOutboxEvent(Connection connection) throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO outbox_events (aggregate_id, aggregate_type, event_type, event_data, status) " +
+                    "VALUES ('1', 'City', 'CITY_UPDATED', '{\"id\":1}', 'PENDING')");
+        }
+    }
+}
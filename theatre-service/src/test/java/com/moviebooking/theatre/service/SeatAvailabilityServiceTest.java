@@ -2,6 +2,11 @@ package com.moviebooking.theatre.service;
 
 import com.moviebooking.theatre.dto.SeatAvailabilityRequest;
 import com.moviebooking.theatre.dto.SeatAvailabilityResponse;
+import com.moviebooking.theatre.dto.SeatHoldRequest;
+import com.moviebooking.theatre.dto.SeatHoldResponse;
+import com.moviebooking.theatre.dto.SeatMapResponse;
+import com.moviebooking.theatre.exception.BusinessLogicException;
+import com.moviebooking.theatre.model.Screen;
 import com.moviebooking.theatre.model.SeatAvailability;
 import com.moviebooking.theatre.model.Show;
 import com.moviebooking.theatre.model.Theatre;
@@ -11,9 +16,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -23,6 +28,7 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,7 +40,6 @@ class SeatAvailabilityServiceTest {
     @Mock
     private ShowRepository showRepository;
 
-    @InjectMocks
     private SeatAvailabilityService seatAvailabilityService;
 
     private Show testShow;
@@ -45,6 +50,10 @@ class SeatAvailabilityServiceTest {
 
     @BeforeEach
     void setUp() {
+        seatAvailabilityService = new SeatAvailabilityService(seatAvailabilityRepository,
+                new ShowSeatMapCache(showRepository, seatAvailabilityRepository, 100, 60000));
+        ReflectionTestUtils.setField(seatAvailabilityService, "holdTtlSeconds", 600L);
+
         testTheatre = new Theatre();
         testTheatre.setId(1L);
         testTheatre.setName("PVR Cinemas");
@@ -55,8 +64,14 @@ class SeatAvailabilityServiceTest {
         testShow.setMovieTitle("Avengers");
         testShow.setPrice(BigDecimal.valueOf(250.00));
         testShow.setShowDateTime(LocalDateTime.now().plusHours(2));
+        testShow.setEndDateTime(LocalDateTime.now().plusHours(5));
         testShow.setTheatre(testTheatre);
 
+        Screen screen = new Screen();
+        screen.setId(1L);
+        screen.setTotalSeats(100);
+        testShow.setScreen(screen);
+
         availabilityRequest = SeatAvailabilityRequest.builder()
                 .showId(1L)
                 .seatNumbers(List.of("A1", "A2", "A3"))
@@ -82,13 +97,8 @@ class SeatAvailabilityServiceTest {
     @Test
     void checkSeatAvailability_ShouldReturnAllAvailable_WhenAllSeatsAreAvailable() {
         // Given
-        when(showRepository.findById(1L)).thenReturn(Optional.of(testShow));
-        when(seatAvailabilityRepository.findByShowIdAndSeatNumber(1L, "A1"))
-                .thenReturn(Optional.of(availableSeat));
-        when(seatAvailabilityRepository.findByShowIdAndSeatNumber(1L, "A2"))
-                .thenReturn(Optional.empty()); // No record = available
-        when(seatAvailabilityRepository.findByShowIdAndSeatNumber(1L, "A3"))
-                .thenReturn(Optional.of(availableSeat));
+        when(showRepository.findByIdWithScreen(1L)).thenReturn(Optional.of(testShow));
+        when(seatAvailabilityRepository.findUnavailableSeatStates(1L)).thenReturn(List.of());
 
         // When
         SeatAvailabilityResponse response = seatAvailabilityService.checkSeatAvailability(availabilityRequest);
@@ -103,20 +113,36 @@ class SeatAvailabilityServiceTest {
         assertThat(response.getMovieId()).isEqualTo(1L);
         assertThat(response.getMessage()).isEqualTo("All seats are available");
 
-        verify(showRepository).findById(1L);
-        verify(seatAvailabilityRepository, times(3)).findByShowIdAndSeatNumber(eq(1L), anyString());
+        verify(showRepository).findByIdWithScreen(1L);
+        verify(seatAvailabilityRepository, never()).findByShowIdAndSeatNumber(anyLong(), anyString());
+    }
+
+    @Test
+    void checkSeatAvailability_ShouldSeeSeatsBookedOnAnotherReplica_OnceSeatMapIsStale() {
+        // Given
+        SeatAvailabilityService service = new SeatAvailabilityService(seatAvailabilityRepository,
+                new ShowSeatMapCache(showRepository, seatAvailabilityRepository, 100, 0));
+        when(showRepository.findByIdWithScreen(1L)).thenReturn(Optional.of(testShow));
+        when(seatAvailabilityRepository.findUnavailableSeatStates(1L))
+                .thenReturn(List.of())
+                .thenReturn(List.<Object[]>of(new Object[]{"A2", SeatAvailability.SeatStatus.BOOKED}));
+        assertThat(service.checkSeatAvailability(availabilityRequest).isAvailable()).isTrue();
+
+        // When
+        SeatAvailabilityResponse response = service.checkSeatAvailability(availabilityRequest);
+
+        // Then
+        assertThat(response.isAvailable()).isFalse();
+        assertThat(response.getUnavailableSeats()).containsExactly("A2");
+        verify(seatAvailabilityRepository, times(2)).findUnavailableSeatStates(1L);
     }
 
     @Test
     void checkSeatAvailability_ShouldReturnMixedAvailability_WhenSomeSeatsUnavailable() {
         // Given
-        when(showRepository.findById(1L)).thenReturn(Optional.of(testShow));
-        when(seatAvailabilityRepository.findByShowIdAndSeatNumber(1L, "A1"))
-                .thenReturn(Optional.of(availableSeat));
-        when(seatAvailabilityRepository.findByShowIdAndSeatNumber(1L, "A2"))
-                .thenReturn(Optional.of(bookedSeat));
-        when(seatAvailabilityRepository.findByShowIdAndSeatNumber(1L, "A3"))
-                .thenReturn(Optional.empty()); // Available
+        when(showRepository.findByIdWithScreen(1L)).thenReturn(Optional.of(testShow));
+        when(seatAvailabilityRepository.findUnavailableSeatStates(1L))
+                .thenReturn(List.<Object[]>of(new Object[]{"A2", SeatAvailability.SeatStatus.BOOKED}));
 
         // When
         SeatAvailabilityResponse response = seatAvailabilityService.checkSeatAvailability(availabilityRequest);
@@ -129,24 +155,39 @@ class SeatAvailabilityServiceTest {
         assertThat(response.getMessage()).contains("Some seats are not available: A2");
     }
 
+    @Test
+    void checkSeatAvailability_ShouldAnswerFromMemory_OnRepeatedChecks() {
+        // Given
+        when(showRepository.findByIdWithScreen(1L)).thenReturn(Optional.of(testShow));
+        when(seatAvailabilityRepository.findUnavailableSeatStates(1L)).thenReturn(List.of());
+
+        // When
+        seatAvailabilityService.checkSeatAvailability(availabilityRequest);
+        seatAvailabilityService.checkSeatAvailability(availabilityRequest);
+
+        // Then
+        verify(showRepository, times(1)).findByIdWithScreen(1L);
+        verify(seatAvailabilityRepository, times(1)).findUnavailableSeatStates(1L);
+    }
+
     @Test
     void checkSeatAvailability_ShouldThrowException_WhenShowNotFound() {
         // Given
-        when(showRepository.findById(1L)).thenReturn(Optional.empty());
+        when(showRepository.findByIdWithScreen(1L)).thenReturn(Optional.empty());
 
         // Then
         assertThatThrownBy(() -> seatAvailabilityService.checkSeatAvailability(availabilityRequest))
                 .isInstanceOf(RuntimeException.class)
                 .hasMessage("Show not found with id: 1");
 
-        verify(seatAvailabilityRepository, never()).findByShowIdAndSeatNumber(anyLong(), anyString());
+        verify(seatAvailabilityRepository, never()).findUnavailableSeatStates(anyLong());
     }
 
     @Test
     void checkSeatAvailability_ShouldHandleEmptySeatList() {
         // Given
         availabilityRequest.setSeatNumbers(List.of());
-        when(showRepository.findById(1L)).thenReturn(Optional.of(testShow));
+        when(showRepository.findByIdWithScreen(1L)).thenReturn(Optional.of(testShow));
 
         // When
         SeatAvailabilityResponse response = seatAvailabilityService.checkSeatAvailability(availabilityRequest);
@@ -157,182 +198,259 @@ class SeatAvailabilityServiceTest {
         assertThat(response.getUnavailableSeats()).isEmpty();
         assertThat(response.getTotalPrice().compareTo(BigDecimal.ZERO)).isEqualTo(0);
         assertThat(response.getMessage()).isEqualTo("All seats are available");
+    }
 
-        verify(seatAvailabilityRepository, never()).findByShowIdAndSeatNumber(anyLong(), anyString());
+    @Test
+    void checkSeatAvailability_ShouldReflectSeatsBookedAfterLoad() {
+        // Given
+        when(showRepository.findByIdWithScreen(1L)).thenReturn(Optional.of(testShow));
+        when(seatAvailabilityRepository.findUnavailableSeatStates(1L)).thenReturn(List.of());
+        when(seatAvailabilityRepository.confirmHeldSeats(eq(1L), eq(List.of("A3")), eq("BK1"), any())).thenReturn(1);
+        seatAvailabilityService.checkSeatAvailability(availabilityRequest);
+
+        // When
+        seatAvailabilityService.confirmHold(holdRequest("A3"));
+        SeatAvailabilityResponse response = seatAvailabilityService.checkSeatAvailability(availabilityRequest);
+
+        // Then
+        assertThat(response.getUnavailableSeats()).containsExactly("A3");
+        verify(seatAvailabilityRepository, times(1)).findUnavailableSeatStates(1L);
     }
 
     @Test
-    void markSeatsAsBooked_ShouldBookAvailableSeats() {
+    void releaseSeats_ShouldReleaseBookedSeatsWithSingleUpdate() {
         // Given
         Long showId = 1L;
         List<String> seatNumbers = List.of("A1", "A2");
-
-        when(seatAvailabilityRepository.findByShowIdAndSeatNumber(showId, "A1"))
-                .thenReturn(Optional.of(availableSeat));
-        when(seatAvailabilityRepository.findByShowIdAndSeatNumber(showId, "A2"))
-                .thenReturn(Optional.empty()); // Create new seat availability
+        when(seatAvailabilityRepository.releaseSeats(showId, seatNumbers)).thenReturn(2);
 
         // When
-        seatAvailabilityService.markSeatsAsBooked(showId, seatNumbers);
+        int released = seatAvailabilityService.releaseSeats(showId, seatNumbers);
 
         // Then
-        ArgumentCaptor<SeatAvailability> seatCaptor = ArgumentCaptor.forClass(SeatAvailability.class);
-        verify(seatAvailabilityRepository, times(2)).save(seatCaptor.capture());
+        assertThat(released).isEqualTo(2);
+        verify(seatAvailabilityRepository).releaseSeats(showId, seatNumbers);
+        verify(seatAvailabilityRepository, never()).findByShowIdAndSeatNumber(anyLong(), anyString());
+    }
 
-        List<SeatAvailability> savedSeats = seatCaptor.getAllValues();
-        assertThat(savedSeats).hasSize(2);
-        savedSeats.forEach(seat -> assertThat(seat.isAvailable()).isFalse());
+    @Test
+    void releaseSeats_ShouldIgnoreNonExistentSeats() {
+        // Given
+        Long showId = 1L;
+        List<String> seatNumbers = List.of("A1", "A2", "A3");
+        when(seatAvailabilityRepository.releaseSeats(showId, seatNumbers)).thenReturn(1);
+
+        // When
+        int released = seatAvailabilityService.releaseSeats(showId, seatNumbers);
 
-        // Verify existing seat was updated
-        assertThat(availableSeat.isAvailable()).isFalse();
+        // Then
+        assertThat(released).isEqualTo(1);
+        verify(seatAvailabilityRepository, never()).saveAll(any());
     }
 
     @Test
-    void markSeatsAsBooked_ShouldCreateNewSeatAvailability_WhenNotExists() {
+    void releaseSeats_ShouldHandleEmptySeats() {
         // Given
         Long showId = 1L;
-        List<String> seatNumbers = List.of("B1", "B2");
-
-        when(seatAvailabilityRepository.findByShowIdAndSeatNumber(showId, "B1"))
-                .thenReturn(Optional.empty());
-        when(seatAvailabilityRepository.findByShowIdAndSeatNumber(showId, "B2"))
-                .thenReturn(Optional.empty());
+        List<String> seatNumbers = List.of();
 
         // When
-        seatAvailabilityService.markSeatsAsBooked(showId, seatNumbers);
+        int released = seatAvailabilityService.releaseSeats(showId, seatNumbers);
 
         // Then
-        ArgumentCaptor<SeatAvailability> seatCaptor = ArgumentCaptor.forClass(SeatAvailability.class);
-        verify(seatAvailabilityRepository, times(2)).save(seatCaptor.capture());
-
-        List<SeatAvailability> savedSeats = seatCaptor.getAllValues();
-        assertThat(savedSeats).hasSize(2);
-
-        SeatAvailability seat1 = savedSeats.get(0);
-        assertThat(seat1.getShowId()).isEqualTo(showId);
-        assertThat(seat1.getSeatNumber()).isEqualTo("B1");
-        assertThat(seat1.isAvailable()).isFalse();
-        assertThat(seat1.getStatus()).isEqualTo(SeatAvailability.SeatStatus.BOOKED);
-
-        SeatAvailability seat2 = savedSeats.get(1);
-        assertThat(seat2.getShowId()).isEqualTo(showId);
-        assertThat(seat2.getSeatNumber()).isEqualTo("B2");
-        assertThat(seat2.isAvailable()).isFalse();
+        assertThat(released).isZero();
+        verify(seatAvailabilityRepository, never()).releaseSeats(anyLong(), anyList());
     }
 
     @Test
-    void releaseSeats_ShouldReleaseBookedSeats() {
+    void checkSeatAvailability_ShouldCalculateCorrectPriceForZeroAvailableSeats() {
         // Given
-        Long showId = 1L;
-        List<String> seatNumbers = List.of("A1", "A2");
+        when(showRepository.findByIdWithScreen(1L)).thenReturn(Optional.of(testShow));
+        when(seatAvailabilityRepository.findUnavailableSeatStates(1L)).thenReturn(List.of(
+                new Object[]{"A1", SeatAvailability.SeatStatus.BOOKED},
+                new Object[]{"A2", SeatAvailability.SeatStatus.LOCKED},
+                new Object[]{"A3", SeatAvailability.SeatStatus.BLOCKED}));
 
-        SeatAvailability bookedSeat1 = SeatAvailability.builder()
-                .id(1L)
-                .showId(showId)
-                .seatNumber("A1")
-                .status(SeatAvailability.SeatStatus.BOOKED)
-                .build();
-        bookedSeat1.setAvailable(false);
+        // When
+        SeatAvailabilityResponse response = seatAvailabilityService.checkSeatAvailability(availabilityRequest);
 
-        SeatAvailability bookedSeat2 = SeatAvailability.builder()
-                .id(2L)
-                .showId(showId)
-                .seatNumber("A2")
-                .status(SeatAvailability.SeatStatus.BOOKED)
-                .build();
-        bookedSeat2.setAvailable(false);
+        // Then
+        assertThat(response.isAvailable()).isFalse();
+        assertThat(response.getAvailableSeats()).isEmpty();
+        assertThat(response.getUnavailableSeats()).hasSize(3);
+        assertThat(response.getTotalPrice().compareTo(BigDecimal.ZERO)).isEqualTo(0);
+        assertThat(response.getMessage()).contains("Some seats are not available");
+    }
 
-        when(seatAvailabilityRepository.findByShowIdAndSeatNumber(showId, "A1"))
-                .thenReturn(Optional.of(bookedSeat1));
-        when(seatAvailabilityRepository.findByShowIdAndSeatNumber(showId, "A2"))
-                .thenReturn(Optional.of(bookedSeat2));
+    @Test
+    void getSeatMap_ShouldRenderRowsFromSeatMap() {
+        // Given
+        when(showRepository.findByIdWithScreen(1L)).thenReturn(Optional.of(testShow));
+        when(seatAvailabilityRepository.findUnavailableSeatStates(1L)).thenReturn(List.of(
+                new Object[]{"A1", SeatAvailability.SeatStatus.BOOKED},
+                new Object[]{"A10", SeatAvailability.SeatStatus.LOCKED}));
 
         // When
-        seatAvailabilityService.releaseSeats(showId, seatNumbers);
+        SeatMapResponse response = seatAvailabilityService.getSeatMap(1L);
 
         // Then
-        verify(seatAvailabilityRepository).saveAll(List.of(bookedSeat1, bookedSeat2));
+        assertThat(response.getTotalSeats()).isEqualTo(100);
+        assertThat(response.getSeatsPerRow()).isEqualTo(10);
+        assertThat(response.getAvailableSeats()).isEqualTo(98);
+        assertThat(response.getRows()).hasSize(10);
+        assertThat(response.getRows().get("A")).isEqualTo("BAAAAAAAAL");
+        assertThat(response.getRows().get("J")).isEqualTo("AAAAAAAAAA");
+    }
+
+    @Test
+    void holdSeats_ShouldLockAllSeatsAndPriceTheHold() {
+        // Given
+        SeatHoldRequest request = holdRequest("A1", "A2");
+        when(showRepository.findByIdWithScreen(1L)).thenReturn(Optional.of(testShow));
+        when(seatAvailabilityRepository.findUnavailableSeatStates(1L)).thenReturn(List.of());
+        when(seatAvailabilityRepository.holdSeats(eq(1L), eq(List.of("A1", "A2")), eq("BK1"), any()))
+                .thenReturn(2);
+
+        // When
+        SeatHoldResponse response = seatAvailabilityService.holdSeats(request);
 
-        assertThat(bookedSeat1.isAvailable()).isTrue();
-        assertThat(bookedSeat2.isAvailable()).isTrue();
+        // Then
+        assertThat(response.isHeld()).isTrue();
+        assertThat(response.getTotalPrice()).isEqualByComparingTo(BigDecimal.valueOf(500.00));
+        assertThat(response.getLockedUntil()).isAfter(LocalDateTime.now().plusSeconds(590));
+        assertThat(seatAvailabilityService.getSeatMap(1L).getRows().get("A")).startsWith("LL");
+        verify(seatAvailabilityRepository, never()).releaseHeldSeats(anyLong(), anyList(), any());
     }
 
     @Test
-    void releaseSeats_ShouldIgnoreNonExistentSeats() {
+    void holdSeats_ShouldGiveBackLockedSeats_WhenAnySeatIsTaken() {
         // Given
-        Long showId = 1L;
-        List<String> seatNumbers = List.of("A1", "A2", "A3");
+        SeatHoldRequest request = holdRequest("A1", "A2");
+        SeatAvailability heldSeat = SeatAvailability.builder()
+                .showId(1L).seatNumber("A1").status(SeatAvailability.SeatStatus.LOCKED).bookingId("BK1").build();
+        when(showRepository.findByIdWithScreen(1L)).thenReturn(Optional.of(testShow));
+        when(seatAvailabilityRepository.findUnavailableSeatStates(1L)).thenReturn(List.of());
+        when(seatAvailabilityRepository.holdSeats(eq(1L), eq(List.of("A1", "A2")), eq("BK1"), any()))
+                .thenReturn(1);
+        when(seatAvailabilityRepository.findByShowIdAndSeatNumberIn(1L, List.of("A1", "A2")))
+                .thenReturn(List.of(heldSeat, bookedSeat));
 
-        SeatAvailability existingSeat = SeatAvailability.builder()
-                .id(1L)
-                .showId(showId)
-                .seatNumber("A1")
-                .status(SeatAvailability.SeatStatus.BOOKED)
-                .build();
-        existingSeat.setAvailable(false);
+        // When
+        SeatHoldResponse response = seatAvailabilityService.holdSeats(request);
 
-        when(seatAvailabilityRepository.findByShowIdAndSeatNumber(showId, "A1"))
-                .thenReturn(Optional.of(existingSeat));
-        when(seatAvailabilityRepository.findByShowIdAndSeatNumber(showId, "A2"))
-                .thenReturn(Optional.empty()); // Non-existent seat
-        when(seatAvailabilityRepository.findByShowIdAndSeatNumber(showId, "A3"))
-                .thenReturn(Optional.empty()); // Non-existent seat
+        // Then
+        assertThat(response.isHeld()).isFalse();
+        assertThat(response.getUnavailableSeats()).containsExactly("A2");
+        verify(seatAvailabilityRepository).releaseHeldSeats(1L, List.of("A1"), "BK1");
+    }
+
+    @Test
+    void holdSeats_ShouldExtendTheStoredHold_WhenHoldIsRetried() {
+        // Given - the seat is already locked for BK1, so the hold statement matches it again
+        SeatHoldRequest request = holdRequest("A1");
+        when(showRepository.findByIdWithScreen(1L)).thenReturn(Optional.of(testShow));
+        when(seatAvailabilityRepository.findUnavailableSeatStates(1L)).thenReturn(List.of());
+        when(seatAvailabilityRepository.holdSeats(eq(1L), eq(List.of("A1")), eq("BK1"), any())).thenReturn(1);
 
         // When
-        seatAvailabilityService.releaseSeats(showId, seatNumbers);
+        SeatHoldResponse response = seatAvailabilityService.holdSeats(request);
+
+        // Then - the reported expiry is the one written to the database
+        ArgumentCaptor<LocalDateTime> lockedUntil = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(seatAvailabilityRepository).holdSeats(eq(1L), eq(List.of("A1")), eq("BK1"), lockedUntil.capture());
+        assertThat(response.isHeld()).isTrue();
+        assertThat(response.getLockedUntil()).isEqualTo(lockedUntil.getValue());
+        verify(seatAvailabilityRepository, never()).findByShowIdAndSeatNumberIn(anyLong(), anyList());
+        verify(seatAvailabilityRepository, never()).releaseHeldSeats(anyLong(), anyList(), any());
+    }
+
+    @Test
+    void confirmHold_ShouldThrowException_WhenHoldExpired() {
+        // Given
+        SeatHoldRequest request = holdRequest("A1", "A2");
+        when(seatAvailabilityRepository.confirmHeldSeats(eq(1L), eq(List.of("A1", "A2")), eq("BK1"), any()))
+                .thenReturn(1);
+
+        // When & Then
+        assertThatThrownBy(() -> seatAvailabilityService.confirmHold(request))
+                .isInstanceOf(BusinessLogicException.class)
+                .hasMessageContaining("expired");
+    }
+
+    @Test
+    void confirmHold_ShouldSucceed_WhenRedeliveredAfterSeatsWereBooked() {
+        // Given
+        SeatHoldRequest request = holdRequest("A1", "A2");
+        SeatAvailability first = SeatAvailability.builder().showId(1L).seatNumber("A1")
+                .status(SeatAvailability.SeatStatus.BOOKED).bookingId("BK1").build();
+        SeatAvailability second = SeatAvailability.builder().showId(1L).seatNumber("A2")
+                .status(SeatAvailability.SeatStatus.BOOKED).bookingId("BK1").build();
+        when(seatAvailabilityRepository.confirmHeldSeats(eq(1L), eq(List.of("A1", "A2")), eq("BK1"), any()))
+                .thenReturn(0);
+        when(seatAvailabilityRepository.findByShowIdAndSeatNumberIn(1L, List.of("A1", "A2")))
+                .thenReturn(List.of(first, second));
+
+        // When
+        SeatHoldResponse response = seatAvailabilityService.confirmHold(request);
 
         // Then
-        verify(seatAvailabilityRepository).saveAll(List.of(existingSeat));
-        assertThat(existingSeat.isAvailable()).isTrue();
+        assertThat(response.isHeld()).isTrue();
     }
 
     @Test
-    void releaseSeats_ShouldHandleEmptySeats() {
+    void confirmHold_ShouldBookHeldSeats() {
         // Given
-        Long showId = 1L;
-        List<String> seatNumbers = List.of();
+        SeatHoldRequest request = holdRequest("A1", "A2");
+        when(seatAvailabilityRepository.confirmHeldSeats(eq(1L), eq(List.of("A1", "A2")), eq("BK1"), any()))
+                .thenReturn(2);
 
         // When
-        seatAvailabilityService.releaseSeats(showId, seatNumbers);
+        SeatHoldResponse response = seatAvailabilityService.confirmHold(request);
 
         // Then
-        verify(seatAvailabilityRepository).saveAll(List.of());
-        verify(seatAvailabilityRepository, never()).findByShowIdAndSeatNumber(anyLong(), anyString());
+        assertThat(response.isHeld()).isTrue();
+        assertThat(response.getSeatNumbers()).containsExactly("A1", "A2");
     }
 
     @Test
-    void markSeatsAsBooked_ShouldHandleEmptySeats() {
+    void releaseExpiredHolds_ShouldReleaseClaimedBatchAndUpdateSeatMap() {
         // Given
-        Long showId = 1L;
-        List<String> seatNumbers = List.of();
+        when(showRepository.findByIdWithScreen(1L)).thenReturn(Optional.of(testShow));
+        when(seatAvailabilityRepository.findUnavailableSeatStates(1L)).thenReturn(List.<Object[]>of(
+                new Object[]{"A1", SeatAvailability.SeatStatus.LOCKED},
+                new Object[]{"A2", SeatAvailability.SeatStatus.LOCKED}));
+        seatAvailabilityService.getSeatMap(1L);
+        when(seatAvailabilityRepository.findExpiredLocksForUpdate(any(), eq(500))).thenReturn(List.<Object[]>of(
+                new Object[]{10L, 1L, "A1"},
+                new Object[]{11L, 1L, "A2"}));
+        when(seatAvailabilityRepository.releaseExpiredLocks(eq(List.of(10L, 11L)), any())).thenReturn(2);
 
         // When
-        seatAvailabilityService.markSeatsAsBooked(showId, seatNumbers);
+        int released = seatAvailabilityService.releaseExpiredHolds(500);
 
         // Then
-        verify(seatAvailabilityRepository, never()).findByShowIdAndSeatNumber(anyLong(), anyString());
-        verify(seatAvailabilityRepository, never()).save(any());
+        assertThat(released).isEqualTo(2);
+        assertThat(seatAvailabilityService.getSeatMap(1L).getRows().get("A")).isEqualTo("AAAAAAAAAA");
     }
 
     @Test
-    void checkSeatAvailability_ShouldCalculateCorrectPriceForZeroAvailableSeats() {
+    void releaseExpiredHolds_ShouldDoNothing_WhenNoHoldExpired() {
         // Given
-        when(showRepository.findById(1L)).thenReturn(Optional.of(testShow));
-        when(seatAvailabilityRepository.findByShowIdAndSeatNumber(1L, "A1"))
-                .thenReturn(Optional.of(bookedSeat));
-        when(seatAvailabilityRepository.findByShowIdAndSeatNumber(1L, "A2"))
-                .thenReturn(Optional.of(bookedSeat));
-        when(seatAvailabilityRepository.findByShowIdAndSeatNumber(1L, "A3"))
-                .thenReturn(Optional.of(bookedSeat));
+        when(seatAvailabilityRepository.findExpiredLocksForUpdate(any(), eq(500))).thenReturn(List.of());
 
         // When
-        SeatAvailabilityResponse response = seatAvailabilityService.checkSeatAvailability(availabilityRequest);
+        int released = seatAvailabilityService.releaseExpiredHolds(500);
 
         // Then
-        assertThat(response.isAvailable()).isFalse();
-        assertThat(response.getAvailableSeats()).isEmpty();
-        assertThat(response.getUnavailableSeats()).hasSize(3);
-        assertThat(response.getTotalPrice().compareTo(BigDecimal.ZERO)).isEqualTo(0);
-        assertThat(response.getMessage()).contains("Some seats are not available");
+        assertThat(released).isZero();
+        verify(seatAvailabilityRepository, never()).releaseExpiredLocks(anyList(), any());
+    }
+
+    private SeatHoldRequest holdRequest(String... seatNumbers) {
+        return SeatHoldRequest.builder()
+                .showId(1L)
+                .bookingId("BK1")
+                .seatNumbers(List.of(seatNumbers))
+                .build();
     }
-}
\ No newline at end of file
+}
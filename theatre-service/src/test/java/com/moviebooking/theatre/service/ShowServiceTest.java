@@ -0,0 +1,180 @@
+package com.moviebooking.theatre.service;
+
+import com.moviebooking.theatre.exception.BusinessLogicException;
+import com.moviebooking.theatre.model.*;
+import com.moviebooking.theatre.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShowServiceTest {
+
+    @Mock
+    private ShowRepository showRepository;
+
+    @Mock
+    private ScreenRepository screenRepository;
+
+    @Mock
+    private TheatreRepository theatreRepository;
+
+    @Mock
+    private SeatAvailabilityRepository seatAvailabilityRepository;
+
+    @Mock
+    private OutboxEventService outboxEventService;
+
+    @Mock
+    private ScreenService screenService;
+
+    @Mock
+    private TheatreService theatreService;
+
+    @Mock
+    private ShowSeatMapCache showSeatMapCache;
+
+    @InjectMocks
+    private ShowService showService;
+
+    private Screen testScreen;
+    private Theatre testTheatre;
+    private ShowScheduleRequest scheduleRequest;
+    private final AtomicLong showIds = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        testTheatre = new Theatre();
+        testTheatre.setId(1L);
+        testTheatre.setName("PVR Cinemas");
+
+        testScreen = new Screen();
+        testScreen.setId(1L);
+        testScreen.setName("Screen 1");
+        testScreen.setTotalSeats(120);
+        testScreen.setTheatre(testTheatre);
+
+        scheduleRequest = new ShowScheduleRequest();
+        scheduleRequest.setMovieId(10L);
+        scheduleRequest.setMovieTitle("Inception");
+        scheduleRequest.setPrice(BigDecimal.valueOf(250));
+        scheduleRequest.setScreenId(1L);
+        scheduleRequest.setTheatreId(1L);
+        scheduleRequest.setStartDate(LocalDate.now().plusDays(1));
+        scheduleRequest.setDays(7);
+        scheduleRequest.setShowTimes(List.of(LocalTime.of(18, 0), LocalTime.of(10, 0), LocalTime.of(14, 0)));
+        scheduleRequest.setDurationMinutes(150);
+
+        lenient().when(screenRepository.findById(1L)).thenReturn(Optional.of(testScreen));
+        lenient().when(theatreRepository.findById(1L)).thenReturn(Optional.of(testTheatre));
+        lenient().when(showRepository.save(any(Show.class))).thenAnswer(invocation -> withId(invocation.getArgument(0)));
+        lenient().when(showRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Show> saved = new ArrayList<>();
+            for (Show show : invocation.<List<Show>>getArgument(0)) {
+                saved.add(withId(show));
+            }
+            return saved;
+        });
+        lenient().when(seatAvailabilityRepository.insertAvailableSeats(anyCollection(), anyList()))
+                .thenAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).size()
+                        * invocation.<List<SeatAvailability>>getArgument(1).size());
+    }
+
+    private Show withId(Show show) {
+        show.setId(showIds.incrementAndGet());
+        return show;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createShow_ShouldInsertSeatInventoryInBulk() {
+        // Given
+        ShowRequest request = new ShowRequest(10L, "Inception", LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(1).plusHours(3), BigDecimal.valueOf(250), 1L, 1L);
+
+        // When
+        showService.createShow(request);
+
+        // Then
+        ArgumentCaptor<List<SeatAvailability>> seatsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(seatAvailabilityRepository).insertAvailableSeats(eq(List.of(1L)), seatsCaptor.capture());
+        verify(seatAvailabilityRepository, never()).save(any(SeatAvailability.class));
+
+        List<SeatAvailability> seats = seatsCaptor.getValue();
+        assertThat(seats).hasSize(120);
+        assertThat(seats.get(0).getSeatNumber()).isEqualTo("A1");
+        assertThat(seats.get(0).getSeatType()).isEqualTo(SeatAvailability.SeatType.PREMIUM);
+        assertThat(seats.get(119).getSeatNumber()).isEqualTo("J12");
+        assertThat(seats.get(119).getSeatType()).isEqualTo(SeatAvailability.SeatType.WHEELCHAIR_ACCESSIBLE);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createShowSchedule_ShouldCreateAllShowsAndInventoryInOneInsert() {
+        // When
+        List<ShowResponse> responses = showService.createShowSchedule(scheduleRequest);
+
+        // Then
+        assertThat(responses).hasSize(21);
+        assertThat(responses.get(0).getShowDateTime()).isEqualTo(scheduleRequest.getStartDate().atTime(10, 0));
+        assertThat(responses.get(0).getEndDateTime()).isEqualTo(scheduleRequest.getStartDate().atTime(12, 30));
+
+        ArgumentCaptor<Collection<Long>> idsCaptor = ArgumentCaptor.forClass(Collection.class);
+        verify(seatAvailabilityRepository, times(1)).insertAvailableSeats(idsCaptor.capture(), argThat(seats -> seats.size() == 120));
+        assertThat(idsCaptor.getValue()).hasSize(21);
+
+        verify(showRepository, times(1)).findConflictingShows(eq(1L), any(), any());
+        verify(outboxEventService, times(21)).publishShowEvent(eq("SHOW_CREATED"), any(Show.class));
+        verify(screenService, times(1)).getScreenById(1L);
+        verify(theatreService, times(1)).getTheatreById(1L);
+    }
+
+    @Test
+    void createShowSchedule_ShouldReject_WhenScheduledShowsOverlap() {
+        // Given
+        scheduleRequest.setShowTimes(List.of(LocalTime.of(10, 0), LocalTime.of(12, 0)));
+
+        // When & Then
+        assertThatThrownBy(() -> showService.createShowSchedule(scheduleRequest))
+                .isInstanceOf(BusinessLogicException.class)
+                .hasMessageContaining("overlap");
+
+        verify(showRepository, never()).saveAll(anyList());
+        verify(seatAvailabilityRepository, never()).insertAvailableSeats(anyCollection(), anyList());
+    }
+
+    @Test
+    void createShowSchedule_ShouldReject_WhenScreenIsAlreadyBooked() {
+        // Given
+        Show existing = new Show();
+        existing.setShowDateTime(scheduleRequest.getStartDate().plusDays(3).atTime(13, 0));
+        existing.setEndDateTime(scheduleRequest.getStartDate().plusDays(3).atTime(15, 0));
+        when(showRepository.findConflictingShows(eq(1L), any(), any())).thenReturn(List.of(existing));
+
+        // When & Then
+        assertThatThrownBy(() -> showService.createShowSchedule(scheduleRequest))
+                .isInstanceOf(BusinessLogicException.class)
+                .hasMessageContaining("already booked");
+
+        verify(showRepository, never()).saveAll(anyList());
+    }
+}